@@ -6,8 +6,11 @@ package com.codeup.novabook.repository;
  */
 import com.codeup.novabook.domain.Book;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.DuplicateKeyException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Book entity operations.
@@ -22,11 +25,22 @@ public interface IBookRepository {
      * Saves a new book to the database.
      * 
      * @param book Book entity to save
-     * @return The saved book with generated ID
+     * @return The saved book with generated ID and timestamps
+     * @throws DuplicateKeyException if the ISBN already exists
      * @throws DatabaseException if a database error occurs
      */
     Book save(Book book) throws DatabaseException;
     
+    /**
+     * Inserts several new books using JDBC batching in a single transaction.
+     * Generated IDs are not populated.
+     * 
+     * @param books Book entities to insert
+     * @return Number of rows inserted
+     * @throws DatabaseException if a database error occurs (no book is inserted)
+     */
+    int saveAll(List<Book> books) throws DatabaseException;
+    
     /**
      * Updates an existing book in the database.
      * 
@@ -36,6 +50,15 @@ public interface IBookRepository {
      */
     Book update(Book book) throws DatabaseException;
     
+    /**
+     * Updates several existing books (matched by ID) using JDBC batching.
+     * 
+     * @param books Book entities with updated data
+     * @return Number of rows updated
+     * @throws DatabaseException if a database error occurs (no book is updated)
+     */
+    int updateAll(List<Book> books) throws DatabaseException;
+    
     /**
      * Deletes a book by its ID.
      * 
@@ -63,6 +86,16 @@ public interface IBookRepository {
      */
     Optional<Book> findByIsbn(String isbn) throws DatabaseException;
     
+    /**
+     * Finds the books with any of the given ISBNs, querying in bounded
+     * {@code IN} lists so large sets need only a few round trips.
+     * 
+     * @param isbns ISBNs to look up
+     * @return Books found, in no particular order
+     * @throws DatabaseException if a database error occurs
+     */
+    List<Book> findByIsbns(Collection<String> isbns) throws DatabaseException;
+    
     /**
      * Retrieves all books from the database.
      * 
@@ -71,6 +104,34 @@ public interface IBookRepository {
      */
     List<Book> findAll() throws DatabaseException;
     
+    /**
+     * Streams all books ordered by title, reading them from a database cursor
+     * instead of loading the whole table. The stream must be closed.
+     * 
+     * @return Lazily populated stream of all books
+     * @throws DatabaseException if a database error occurs
+     */
+    Stream<Book> streamAll() throws DatabaseException;
+    
+    /**
+     * Retrieves one page of books in the requested order, by keyset from a
+     * page token or by position. Sortable properties: {@code title}, {@code author}, {@code isbn}, {@code stock} and {@code id}; default {@code title}.
+     * 
+     * @param request order, page token or offset, and page size
+     * @return the page and the token for the next one in the same order
+     * @throws IllegalArgumentException if the sort property is not supported or the token is malformed
+     * @throws DatabaseException if a database error occurs
+     */
+    Page<Book> findPage(PageRequest request) throws DatabaseException;
+    
+    /**
+     * Counts all books.
+     * 
+     * @return the number of rows
+     * @throws DatabaseException if a database error occurs
+     */
+    long count() throws DatabaseException;
+    
     /**
      * Searches books by title (partial match, case-insensitive).
      * 
@@ -108,6 +169,18 @@ public interface IBookRepository {
      */
     boolean updateStock(Integer bookId, Integer newStock) throws DatabaseException;
     
+    /**
+     * Atomically adds {@code delta} to the stock of a book, refusing to let it go negative.
+     * <p>The check and the write happen in one conditional UPDATE, so concurrent
+     * borrowers cannot both take the last copy.</p>
+     * 
+     * @param bookId Book ID to update
+     * @param delta Stock change (negative to take copies, positive to give them back)
+     * @return true if the stock was changed, false if the book does not exist or has too few copies
+     * @throws DatabaseException if a database error occurs
+     */
+    boolean adjustStock(Integer bookId, int delta) throws DatabaseException;
+    
     /**
      * Checks if a book with the given ISBN exists.
      * 
@@ -0,0 +1,190 @@
+package com.codeup.novabook;
+
+import com.codeup.novabook.infra.ServiceRegistry;
+import com.codeup.novabook.service.BulkTransferService;
+import com.codeup.novabook.service.ExportService;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ILoanService;
+import com.codeup.novabook.service.IMemberService;
+import com.codeup.novabook.service.ImportReport;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Command-line entry point for batch work (cron jobs, scripts): CSV imports,
+ * exports and the overdue report, without JavaFX or a login.
+ * <pre>
+ *   import  books|members|loans  &lt;file.csv&gt;
+ *   export  books|members|loans  &lt;file.csv&gt;
+ *   export  overdue              &lt;file.csv&gt;
+ *   load    books|loans          &lt;file.csv&gt;
+ *   unload  books|loans          &lt;file.csv&gt;
+ * </pre>
+ * {@code load}/{@code unload} move whole tables through the database's native bulk
+ * path when configured (see {@link BulkTransferService}), else like import/export.
+ * Files are read and written as buffered UTF-8 streams; exports stream rows
+ * from the database as they are written. Exit codes: {@value #OK} on success,
+ * {@value #FAILED} when the job fails, {@value #USAGE} for bad arguments
+ * (checked before connecting to the database), {@value #PARTIAL} when a book
+ * import or a load skipped invalid rows (book imports list them on stderr).
+ */
+public final class NovabookCli {
+
+    public static final int OK = 0;
+    public static final int FAILED = 1;
+    public static final int USAGE = 2;
+    public static final int PARTIAL = 3;
+
+    private static final Logger logger = Logger.getLogger(NovabookCli.class.getName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = 10_000_000_000L;
+    private static final List<String> TABLES = List.of("books", "members", "loans");
+    private static final List<String> BULK_TABLES = List.of("books", "loans");
+
+    private final IBookService books;
+    private final IMemberService members;
+    private final ILoanService loans;
+    private final ExportService exports;
+    private final BulkTransferService bulk;
+    private final PrintStream out;
+    private final PrintStream err;
+    private long lastProgress;
+
+    public NovabookCli(IBookService books, IMemberService members, ILoanService loans, ExportService exports,
+                       BulkTransferService bulk, PrintStream out, PrintStream err) {
+        this.books = books;
+        this.members = members;
+        this.loans = loans;
+        this.exports = exports;
+        this.bulk = bulk;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        // reject bad arguments before paying for the database connection
+        if (parse(args, System.err) == null) System.exit(USAGE);
+        ServiceRegistry registry = ServiceRegistry.getBatchInstance();
+        // exiting mid-migration would leave a script half applied and unrecorded
+        registry.startup().join();
+        NovabookCli cli = new NovabookCli(registry.bookService(), registry.memberService(), registry.loanService(),
+                registry.exportService(), registry.bulkTransferService(), System.out, System.err);
+        System.exit(cli.run(args));
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @return the process exit code
+     */
+    public int run(String... args) {
+        Command cmd = parse(args, err);
+        if (cmd == null) return USAGE;
+        try {
+            if ("load".equals(cmd.action)) {
+                ImportReport report;
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(cmd.file), BUFFER_SIZE)) {
+                    report = "books".equals(cmd.target) ? bulk.loadBooks(in) : bulk.loadLoans(in);
+                }
+                out.println("Loaded " + report.getImported() + " " + cmd.target + " from " + cmd.file
+                        + (bulk.isNative() ? " (native bulk load): " : ": ") + report);
+                return report.getRejected() > 0 ? PARTIAL : OK;
+            } else if ("unload".equals(cmd.action)) {
+                try (Writer w = Files.newBufferedWriter(cmd.file, StandardCharsets.UTF_8)) {
+                    if ("books".equals(cmd.target)) bulk.unloadBooks(w);
+                    else bulk.unloadLoans(w);
+                }
+                out.println("Unloaded " + cmd.target + " to " + cmd.file);
+            } else if (cmd.isImport && "books".equals(cmd.target)) {
+                ImportReport report;
+                lastProgress = System.nanoTime();
+                try (Reader r = Files.newBufferedReader(cmd.file, StandardCharsets.UTF_8)) {
+                    report = books.importFromCsv(r, this::progress);
+                }
+                out.println("Imported " + report.getImported() + " books from " + cmd.file + ": " + report);
+                for (ImportReport.RowError e : report.getErrors()) err.println("Rejected " + e);
+                if (report.getErrors().size() < report.getRejected()) {
+                    err.println("... " + (report.getRejected() - report.getErrors().size()) + " more rejected rows");
+                }
+                return report.getRejected() > 0 ? PARTIAL : OK;
+            } else if (cmd.isImport) {
+                int n;
+                try (Reader r = Files.newBufferedReader(cmd.file, StandardCharsets.UTF_8)) {
+                    n = "members".equals(cmd.target) ? members.importFromCsv(r) : loans.importFromCsv(r);
+                }
+                out.println("Imported " + n + " " + cmd.target + " from " + cmd.file);
+            } else if ("overdue".equals(cmd.target)) {
+                out.println("Exported overdue loans to " + exports.exportOverdueLoansCsv(cmd.file));
+            } else {
+                try (Writer w = Files.newBufferedWriter(cmd.file, StandardCharsets.UTF_8)) {
+                    switch (cmd.target) {
+                        case "books": books.exportToCsv(w); break;
+                        case "members": members.exportToCsv(w); break;
+                        default: loans.exportToCsv(w);
+                    }
+                }
+                out.println("Exported " + cmd.target + " to " + cmd.file);
+            }
+            return OK;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Batch command failed: " + String.join(" ", args), e);
+            err.println("Error: " + e.getMessage());
+            return FAILED;
+        }
+    }
+
+    // Roughly every ten seconds, so long catalog loads show they are alive
+    private void progress(ImportReport report) {
+        long now = System.nanoTime();
+        if (now - lastProgress < PROGRESS_INTERVAL_NANOS) return;
+        lastProgress = now;
+        err.println("... " + report);
+    }
+
+    private static final class Command {
+        final String action;
+        final boolean isImport;
+        final String target;
+        final Path file;
+
+        Command(String action, String target, Path file) {
+            this.action = action;
+            this.isImport = "import".equals(action);
+            this.target = target;
+            this.file = file;
+        }
+    }
+
+    /**
+     * @return the command, or null after printing the usage to {@code err}
+     */
+    private static Command parse(String[] args, PrintStream err) {
+        if (args != null && args.length == 3 && !args[2].isBlank()) {
+            String action = args[0];
+            String target = args[1];
+            boolean valid;
+            switch (action) {
+                case "import": valid = TABLES.contains(target); break;
+                case "export": valid = TABLES.contains(target) || "overdue".equals(target); break;
+                case "load":
+                case "unload": valid = BULK_TABLES.contains(target); break;
+                default: valid = false;
+            }
+            if (valid) return new Command(action, target, Path.of(args[2]));
+        }
+        err.println("Usage: NovabookCli import books|members|loans <file.csv>");
+        err.println("       NovabookCli export books|members|loans|overdue <file.csv>");
+        err.println("       NovabookCli load|unload books|loans <file.csv>");
+        return null;
+    }
+}
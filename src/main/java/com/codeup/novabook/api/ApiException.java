@@ -0,0 +1,18 @@
+package com.codeup.novabook.api;
+
+/**
+ * Ends a request with the given HTTP status and message.
+ */
+final class ApiException extends RuntimeException {
+
+    private final int status;
+
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int status() {
+        return status;
+    }
+}
@@ -0,0 +1,210 @@
+package com.codeup.novabook.api;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One API request: path segments, query parameters and JSON body in, JSON
+ * response out.
+ * <p>
+ * {@link #send} renders the body first, tags it with a strong {@code ETag}
+ * (a hash of the bytes), and answers 304 when a GET carries a matching
+ * {@code If-None-Match}. {@link #stream} writes chunk by chunk for lists of
+ * unknown length and carries no {@code ETag}.
+ * </p>
+ */
+final class ApiExchange {
+
+    /** Request bodies larger than this are refused with 413. */
+    static final int MAX_BODY_BYTES = 1 << 20;
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    @FunctionalInterface
+    interface Body {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private final HttpExchange http;
+    private final List<String> path;
+    private Map<String, String> query;
+    private boolean responded;
+
+    ApiExchange(HttpExchange http) {
+        this.http = http;
+        String rest = http.getRequestURI().getRawPath().substring(http.getHttpContext().getPath().length());
+        List<String> segments = new ArrayList<>();
+        for (String s : rest.split("/")) {
+            if (!s.isEmpty()) segments.add(URLDecoder.decode(s, StandardCharsets.UTF_8));
+        }
+        this.path = Collections.unmodifiableList(segments);
+    }
+
+    String method() {
+        return http.getRequestMethod();
+    }
+
+    /** Path segments after the resource, e.g. {@code ["12", "return"]} for {@code /loans/12/return}. */
+    List<String> path() {
+        return path;
+    }
+
+    /**
+     * Reads path segment {@code index} as an ID.
+     *
+     * @throws ApiException 404 when it is not a number
+     */
+    int id(int index) {
+        try {
+            return Integer.parseInt(path.get(index));
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Not found");
+        }
+    }
+
+    String query(String name) {
+        if (query == null) {
+            query = new HashMap<>();
+            String raw = http.getRequestURI().getRawQuery();
+            if (raw != null) {
+                for (String pair : raw.split("&")) {
+                    int eq = pair.indexOf('=');
+                    String k = eq < 0 ? pair : pair.substring(0, eq);
+                    String v = eq < 0 ? "" : pair.substring(eq + 1);
+                    query.putIfAbsent(URLDecoder.decode(k, StandardCharsets.UTF_8), URLDecoder.decode(v, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query.get(name);
+    }
+
+    int queryInt(String name, int def) {
+        String v = query(name);
+        try {
+            return v == null || v.isBlank() ? def : Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Query parameter '" + name + "' must be a number");
+        }
+    }
+
+    String header(String name) {
+        return http.getRequestHeaders().getFirst(name);
+    }
+
+    Map<String, Object> body() throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (InputStream in = http.getRequestBody()) {
+            byte[] chunk = new byte[8192];
+            for (int n; (n = in.read(chunk)) > 0; ) {
+                if (buf.size() + n > MAX_BODY_BYTES) throw new ApiException(413, "Request body too large");
+                buf.write(chunk, 0, n);
+            }
+        }
+        if (buf.size() == 0) throw new IllegalArgumentException("Request body is required");
+        return Json.parseObject(buf.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a JSON body with its {@code ETag}; a GET whose {@code If-None-Match}
+     * matches gets 304 and no body.
+     */
+    void send(int status, Body body) throws IOException {
+        byte[] bytes = render(body);
+        String etag = etag(bytes);
+        http.getResponseHeaders().set("ETag", etag);
+        if ("GET".equals(method()) && matches(header("If-None-Match"), etag)) {
+            respond(304, -1);
+            return;
+        }
+        http.getResponseHeaders().set("Content-Type", JSON);
+        respond(status, bytes.length);
+        try (OutputStream out = http.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Streams a JSON body with chunked encoding while {@code body} writes it.
+     */
+    void stream(Body body) throws IOException {
+        http.getResponseHeaders().set("Content-Type", JSON);
+        respond(200, 0);
+        try (Writer w = new OutputStreamWriter(http.getResponseBody(), StandardCharsets.UTF_8)) {
+            JsonWriter json = new JsonWriter(w);
+            body.write(json);
+            json.flush();
+        }
+    }
+
+    void sendStatus(int status) throws IOException {
+        respond(status, -1);
+    }
+
+    void setHeader(String name, String value) {
+        http.getResponseHeaders().set(name, value);
+    }
+
+    void sendError(int status, String message) throws IOException {
+        send(status, json -> json.beginObject().field("status", status).field("error", message).endObject());
+    }
+
+    /** True once the status line went out; an error after that can only abort the connection. */
+    boolean responded() {
+        return responded;
+    }
+
+    /**
+     * @return the {@code ETag} {@link #send} would give this body
+     */
+    static String etag(Body body) throws IOException {
+        return etag(render(body));
+    }
+
+    /** Whether an {@code If-None-Match}/{@code If-Match} header value names {@code etag}. */
+    static boolean matches(String header, String etag) {
+        if (header == null) return false;
+        for (String candidate : header.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals("W/" + etag)) return true;
+        }
+        return false;
+    }
+
+    private void respond(int status, long length) throws IOException {
+        responded = true;
+        http.sendResponseHeaders(status, length);
+    }
+
+    private static byte[] render(Body body) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (Writer w = new OutputStreamWriter(buf, StandardCharsets.UTF_8)) {
+            body.write(new JsonWriter(w));
+        }
+        return buf.toByteArray();
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
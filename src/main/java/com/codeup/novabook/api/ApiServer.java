@@ -0,0 +1,154 @@
+package com.codeup.novabook.api;
+
+import com.codeup.novabook.infra.LogConfig;
+import com.codeup.novabook.infra.ServiceRegistry;
+import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ILoanService;
+import com.codeup.novabook.service.IMemberService;
+import com.codeup.novabook.service.IUserService;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Headless HTTP/JSON server over the book, member, loan and user services,
+ * so kiosks and scanners can share one backend instead of each running the
+ * desktop client against the database.
+ * <p>
+ * Built on the JDK's {@code com.sun.net.httpserver}. Each request is handled
+ * on a fixed pool of worker threads; handlers block on JDBC and the
+ * connection pool caps how many can make progress anyway, so the pool is
+ * sized like it by default. See {@link BookResource}, {@link MemberResource},
+ * {@link LoanResource} and {@link UserResource} for the routes.
+ * </p>
+ * Configuration (application.properties):
+ * <ul>
+ * <li>{@code api.host} (127.0.0.1) - address to bind; set 0.0.0.0 to serve other machines</li>
+ * <li>{@code api.port} (8080)</li>
+ * <li>{@code api.threads} ({@code db.pool.maxSize}, or 10) - request worker threads</li>
+ * <li>{@code api.token} (unset) - when set, every request needs {@code Authorization: Bearer <token>}</li>
+ * </ul>
+ */
+public final class ApiServer {
+
+    private static final Logger logger = Logger.getLogger(ApiServer.class.getName());
+
+    private static final int BACKLOG = 128;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+
+    /**
+     * @param token bearer token required on every request, or null for none
+     */
+    public ApiServer(InetSocketAddress address, int threads, String token, IBookService books,
+                     IMemberService members, ILoanService loans, IUserService users) throws IOException {
+        this(address, threads, token, books, members, loans, users, null);
+    }
+
+    /**
+     * @param token bearer token required on every request, or null for none
+     * @param jdbc the services' database handle; each {@code PUT} then locks its row
+     *             for the {@code If-Match} check and the write, or null to skip the lock
+     */
+    public ApiServer(InetSocketAddress address, int threads, String token, IBookService books,
+                     IMemberService members, ILoanService loans, IUserService users,
+                     JdbcTemplateLight jdbc) throws IOException {
+        this.server = HttpServer.create(address, BACKLOG);
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads),
+                r -> new Thread(r, "api-worker-" + seq.incrementAndGet()));
+        server.setExecutor(workers);
+
+        Filter auth = token == null || token.isBlank() ? null : bearer(token);
+        RowLock rows = jdbc == null ? RowLock.NONE : new RowLock(jdbc);
+        route("/books", new BookResource(books, rows), auth);
+        route("/members", new MemberResource(members, rows), auth);
+        route("/loans", new LoanResource(loans, rows), auth);
+        route("/users", new UserResource(users, rows), auth);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("API server listening on " + address());
+    }
+
+    /**
+     * Stops accepting requests, waits up to {@code delaySeconds} for running
+     * ones, then stops the workers.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(delaySeconds, TimeUnit.SECONDS)) workers.shutdownNow();
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** The bound address, with the actual port when port 0 was asked for. */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    private void route(String path, Resource resource, Filter auth) {
+        HttpContext context = server.createContext(path, resource);
+        if (auth != null) context.getFilters().add(auth);
+    }
+
+    private static Filter bearer(String token) {
+        byte[] expected = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        return new Filter() {
+            @Override
+            public void doFilter(HttpExchange http, Chain chain) throws IOException {
+                String header = http.getRequestHeaders().getFirst("Authorization");
+                // constant-time comparison, so response timing does not leak the token
+                if (header != null && MessageDigest.isEqual(expected, header.getBytes(StandardCharsets.UTF_8))) {
+                    chain.doFilter(http);
+                    return;
+                }
+                http.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                http.sendResponseHeaders(401, -1);
+                http.close();
+            }
+
+            @Override
+            public String description() {
+                return "Bearer token check";
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        LogConfig.configure();
+        AppConfig config = new AppConfig();
+        ServiceRegistry registry = ServiceRegistry.getInstance();
+        // serve only once the schema is migrated and the admin seeded
+        registry.startup().join();
+
+        InetSocketAddress address = new InetSocketAddress(
+                config.get("api.host") == null ? "127.0.0.1" : config.get("api.host").trim(),
+                config.getInt("api.port", 8080));
+        int threads = config.getInt("api.threads", config.getInt("db.pool.maxSize", 10));
+        ApiServer server = new ApiServer(address, threads, config.get("api.token"),
+                registry.bookService(), registry.memberService(), registry.loanService(), registry.userService(),
+                registry.jdbc());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(5), "api-shutdown"));
+        server.start();
+    }
+}
@@ -0,0 +1,103 @@
+package com.codeup.novabook.api;
+
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.service.IBookService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /books}:
+ * <ul>
+ * <li>{@code GET /books} - all books, or a page ({@code limit}, {@code pageToken}, {@code sort}); {@code ?q=} searches title and author</li>
+ * <li>{@code GET /books/{id}}, {@code GET /books/isbn/{isbn}}</li>
+ * <li>{@code POST /books}, {@code PUT /books/{id}} (fields left out keep their value), {@code DELETE /books/{id}}</li>
+ * </ul>
+ */
+final class BookResource extends Resource {
+
+    private static final int SEARCH_LIMIT = 200;
+
+    private final IBookService books;
+    private final RowLock rows;
+
+    BookResource(IBookService books, RowLock rows) {
+        this.books = books;
+        this.rows = rows;
+    }
+
+    @Override
+    protected void serve(ApiExchange ex) throws Exception {
+        List<String> path = ex.path();
+        String method = ex.method();
+        if (path.isEmpty()) {
+            if ("GET".equals(method)) {
+                String q = ex.query("q");
+                if (q != null && !q.isBlank()) {
+                    streamList(ex, books.search(q, ex.queryInt("limit", SEARCH_LIMIT)).iterator(), BookResource::write);
+                } else {
+                    list(ex, books::findPage, BookResource::write);
+                }
+            } else if ("POST".equals(method)) {
+                Book created = books.create(read(ex.body(), new Book()));
+                ex.setHeader("Location", "/books/" + created.getId());
+                sendEntity(ex, 201, created, BookResource::write);
+            } else {
+                throw notAllowed();
+            }
+            return;
+        }
+        if (path.size() == 2 && "isbn".equals(path.get(0))) {
+            if (!"GET".equals(method)) throw notAllowed();
+            sendEntity(ex, 200, found(books.findByIsbn(path.get(1))), BookResource::write);
+            return;
+        }
+        if (path.size() != 1) throw notFound();
+
+        int id = ex.id(0);
+        switch (method) {
+            case "GET":
+                sendEntity(ex, 200, found(books.findById(id)), BookResource::write);
+                break;
+            case "PUT": {
+                Map<String, Object> body = ex.body();
+                Book updated = rows.locked("book", id, () -> {
+                    Book current = found(books.findById(id));
+                    checkIfMatch(ex, current, BookResource::write);
+                    Book changed = read(body, new Book(current));
+                    changed.setId(id);
+                    return books.update(changed);
+                });
+                sendEntity(ex, 200, updated, BookResource::write);
+                break;
+            }
+            case "DELETE":
+                if (!books.delete(id)) throw notFound();
+                ex.sendStatus(204);
+                break;
+            default:
+                throw notAllowed();
+        }
+    }
+
+    static void write(JsonWriter json, Book b) throws IOException {
+        json.beginObject()
+                .field("id", b.getId())
+                .field("isbn", b.getIsbn())
+                .field("title", b.getTitle())
+                .field("author", b.getAuthor())
+                .field("stock", b.getStock())
+                .field("createdAt", b.getCreatedAt())
+                .field("updatedAt", b.getUpdatedAt())
+                .endObject();
+    }
+
+    private static Book read(Map<String, Object> body, Book b) {
+        if (body.get("isbn") != null) b.setIsbn(Json.string(body, "isbn"));
+        if (body.get("title") != null) b.setTitle(Json.string(body, "title"));
+        if (body.get("author") != null) b.setAuthor(Json.string(body, "author"));
+        if (body.get("stock") != null) b.setStock(Json.integer(body, "stock"));
+        return b;
+    }
+}
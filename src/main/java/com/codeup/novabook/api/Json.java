@@ -0,0 +1,228 @@
+package com.codeup.novabook.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader for request bodies, plus typed accessors for the
+ * fields of a parsed object.
+ * <p>
+ * Objects parse to {@code Map<String, Object>} (keys in document order),
+ * arrays to {@code List<Object>}, numbers to {@link BigDecimal}, and
+ * {@code true}/{@code false}/{@code null} to {@code Boolean}/{@code null}.
+ * Malformed input raises {@link IllegalArgumentException}, which the API
+ * answers with 400.
+ * </p>
+ */
+final class Json {
+
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    static Object parse(String text) {
+        Json p = new Json(text);
+        p.skipWhitespace();
+        Object value = p.value();
+        p.skipWhitespace();
+        if (p.pos != text.length()) throw p.error("Unexpected content");
+        return value;
+    }
+
+    /**
+     * @throws IllegalArgumentException unless the document is a JSON object
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) throw new IllegalArgumentException("Request body must be a JSON object");
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the first field that is missing or null
+     */
+    static void require(Map<String, Object> obj, String... names) {
+        for (String name : names) {
+            if (obj.get(name) == null) throw new IllegalArgumentException("Field '" + name + "' is required");
+        }
+    }
+
+    // Typed field accessors; a missing field or JSON null reads as null
+
+    static String string(Map<String, Object> obj, String name) {
+        Object v = obj.get(name);
+        if (v == null || v instanceof String) return (String) v;
+        throw badField(name, "a string");
+    }
+
+    static Integer integer(Map<String, Object> obj, String name) {
+        Object v = obj.get(name);
+        if (v == null) return null;
+        try {
+            if (v instanceof BigDecimal) return ((BigDecimal) v).intValueExact();
+        } catch (ArithmeticException e) {
+            // falls through to the error below
+        }
+        throw badField(name, "an integer");
+    }
+
+    static Boolean bool(Map<String, Object> obj, String name) {
+        Object v = obj.get(name);
+        if (v == null || v instanceof Boolean) return (Boolean) v;
+        throw badField(name, "true or false");
+    }
+
+    static LocalDate date(Map<String, Object> obj, String name) {
+        String v = string(obj, name);
+        try {
+            return v == null ? null : LocalDate.parse(v);
+        } catch (DateTimeParseException e) {
+            throw badField(name, "a date (YYYY-MM-DD)");
+        }
+    }
+
+    static <E extends Enum<E>> E enumValue(Map<String, Object> obj, String name, Class<E> type) {
+        String v = string(obj, name);
+        try {
+            return v == null ? null : Enum.valueOf(type, v.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw badField(name, "one of " + java.util.Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static IllegalArgumentException badField(String name, String expected) {
+        return new IllegalArgumentException("Field '" + name + "' must be " + expected);
+    }
+
+    // Recursive descent parser
+
+    private Object value() {
+        if (pos >= text.length()) throw error("Unexpected end of input");
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return number();
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> obj = new LinkedHashMap<>();
+        pos++; // {
+        skipWhitespace();
+        if (peek('}')) return obj;
+        while (true) {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != '"') throw error("Expected a field name");
+            String name = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            obj.put(name, value());
+            skipWhitespace();
+            if (peek('}')) return obj;
+            expect(',');
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> list = new ArrayList<>();
+        pos++; // [
+        skipWhitespace();
+        if (peek(']')) return list;
+        while (true) {
+            skipWhitespace();
+            list.add(value());
+            skipWhitespace();
+            if (peek(']')) return list;
+            expect(',');
+        }
+    }
+
+    private String string() {
+        pos++; // opening quote
+        StringBuilder sb = new StringBuilder();
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                if (c < 0x20) throw error("Control character in string");
+                sb.append(c);
+                continue;
+            }
+            if (pos >= text.length()) break;
+            char e = text.charAt(pos++);
+            switch (e) {
+                case '"': case '\\': case '/': sb.append(e); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) throw error("Bad unicode escape");
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("Bad unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default: throw error("Bad escape '\\" + e + "'");
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private BigDecimal number() {
+        int start = pos;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+        try {
+            return new BigDecimal(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Bad number");
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) throw error("Unexpected token");
+        pos += word.length();
+        return value;
+    }
+
+    private boolean peek(char c) {
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!peek(c)) throw error("Expected '" + c + "'");
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at position " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,106 @@
+package com.codeup.novabook.api;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON straight to a {@link Writer}, so list responses stream row by
+ * row instead of being built in memory first.
+ * <p>
+ * Commas are placed automatically; the caller only has to balance
+ * {@code begin*}/{@code end*} calls and put a {@link #name} before each value
+ * inside an object.
+ * </p>
+ */
+final class JsonWriter {
+
+    private final Writer out;
+    // a value was written at the current level, so the next one needs a comma
+    private boolean comma;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        separate();
+        out.write('{');
+        comma = false;
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        out.write('}');
+        comma = true;
+        return this;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        separate();
+        out.write('[');
+        comma = false;
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        out.write(']');
+        comma = true;
+        return this;
+    }
+
+    JsonWriter name(String name) throws IOException {
+        separate();
+        quote(name);
+        out.write(':');
+        comma = false;
+        return this;
+    }
+
+    /**
+     * Writes a string, number, boolean or null; anything else (dates, enums)
+     * is written as its string form.
+     */
+    JsonWriter value(Object value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.write(value.toString());
+        } else {
+            quote(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+        }
+        comma = true;
+        return this;
+    }
+
+    /** Shorthand for {@code name(name).value(value)}. */
+    JsonWriter field(String name, Object value) throws IOException {
+        return name(name).value(value);
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private void separate() throws IOException {
+        if (comma) out.write(',');
+    }
+
+    private void quote(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) out.write(String.format("\\u%04x", (int) c));
+                    else out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
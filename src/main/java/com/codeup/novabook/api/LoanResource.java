@@ -0,0 +1,118 @@
+package com.codeup.novabook.api;
+
+import com.codeup.novabook.domain.Loan;
+import com.codeup.novabook.service.ILoanService;
+import com.codeup.novabook.service.LoanChange;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /loans}:
+ * <ul>
+ * <li>{@code GET /loans} - all loans, or a page ({@code limit}, {@code pageToken}, {@code sort}); {@code ?memberId=} or {@code ?bookId=} filter</li>
+ * <li>{@code GET /loans/overdue}, {@code GET /loans/{id}}</li>
+ * <li>{@code POST /loans} {@code {"memberId", "bookId", "dateDue"}} borrows a copy;
+ *     {@code POST /loans/{id}/return} gives it back. Both answer {@code {"loan", "book"}} with the new stock.</li>
+ * <li>{@code PUT /loans/{id}} changes {@code dateDue}; {@code DELETE /loans/{id}}</li>
+ * </ul>
+ */
+final class LoanResource extends Resource {
+
+    private final ILoanService loans;
+    private final RowLock rows;
+
+    LoanResource(ILoanService loans, RowLock rows) {
+        this.loans = loans;
+        this.rows = rows;
+    }
+
+    @Override
+    protected void serve(ApiExchange ex) throws Exception {
+        List<String> path = ex.path();
+        String method = ex.method();
+        if (path.isEmpty()) {
+            if ("GET".equals(method)) {
+                String memberId = ex.query("memberId");
+                String bookId = ex.query("bookId");
+                if (memberId != null) {
+                    streamList(ex, loans.findByMemberId(ex.queryInt("memberId", 0)).iterator(), LoanResource::write);
+                } else if (bookId != null) {
+                    streamList(ex, loans.findByBookId(ex.queryInt("bookId", 0)).iterator(), LoanResource::write);
+                } else {
+                    list(ex, loans::findPage, LoanResource::write);
+                }
+            } else if ("POST".equals(method)) {
+                Map<String, Object> body = ex.body();
+                Json.require(body, "memberId", "bookId", "dateDue");
+                LoanChange change = loans.checkOut(Json.integer(body, "memberId"), Json.integer(body, "bookId"), Json.date(body, "dateDue"));
+                ex.setHeader("Location", "/loans/" + change.getLoan().getId());
+                sendEntity(ex, 201, change, LoanResource::writeChange);
+            } else {
+                throw notAllowed();
+            }
+            return;
+        }
+        if (path.size() == 1 && "overdue".equals(path.get(0))) {
+            if (!"GET".equals(method)) throw notAllowed();
+            streamList(ex, loans.findOverdueLoans().iterator(), LoanResource::write);
+            return;
+        }
+        if (path.size() == 2 && "return".equals(path.get(1))) {
+            if (!"POST".equals(method)) throw notAllowed();
+            sendEntity(ex, 200, loans.checkIn(ex.id(0)), LoanResource::writeChange);
+            return;
+        }
+        if (path.size() != 1) throw notFound();
+
+        int id = ex.id(0);
+        switch (method) {
+            case "GET":
+                sendEntity(ex, 200, found(loans.findById(id)), LoanResource::write);
+                break;
+            case "PUT": {
+                // member, book and returned only change through borrow/return, which keep the stock right
+                Map<String, Object> body = ex.body();
+                Json.require(body, "dateDue");
+                Loan updated = rows.locked("loan", id, () -> {
+                    Loan current = found(loans.findById(id));
+                    checkIfMatch(ex, current, LoanResource::write);
+                    Loan changed = new Loan(current);
+                    changed.setDateDue(Json.date(body, "dateDue"));
+                    return loans.update(changed);
+                });
+                sendEntity(ex, 200, updated, LoanResource::write);
+                break;
+            }
+            case "DELETE":
+                if (!loans.delete(id)) throw notFound();
+                ex.sendStatus(204);
+                break;
+            default:
+                throw notAllowed();
+        }
+    }
+
+    static void write(JsonWriter json, Loan l) throws IOException {
+        json.beginObject()
+                .field("id", l.getId())
+                .field("memberId", l.getMemberId())
+                .field("bookId", l.getBookId())
+                .field("dateLoaned", l.getDateLoaned())
+                .field("dateDue", l.getDateDue())
+                .field("returned", l.getReturned())
+                .field("createdAt", l.getCreatedAt())
+                .field("updatedAt", l.getUpdatedAt())
+                .endObject();
+    }
+
+    private static void writeChange(JsonWriter json, LoanChange change) throws IOException {
+        json.beginObject().name("loan");
+        write(json, change.getLoan());
+        json.name("book");
+        if (change.getBook() == null) json.value(null);
+        else BookResource.write(json, change.getBook());
+        json.endObject();
+    }
+}
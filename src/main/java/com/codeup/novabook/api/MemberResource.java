@@ -0,0 +1,101 @@
+package com.codeup.novabook.api;
+
+import com.codeup.novabook.domain.AccessLevel;
+import com.codeup.novabook.domain.Member;
+import com.codeup.novabook.domain.MemberRole;
+import com.codeup.novabook.service.IMemberService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /members}:
+ * <ul>
+ * <li>{@code GET /members} - all members, or a page ({@code limit}, {@code pageToken}, {@code sort}); {@code ?name=} searches by name</li>
+ * <li>{@code GET /members/{id}}</li>
+ * <li>{@code POST /members}, {@code PUT /members/{id}} (fields left out keep their value), {@code DELETE /members/{id}} (soft delete)</li>
+ * </ul>
+ */
+final class MemberResource extends Resource {
+
+    private final IMemberService members;
+    private final RowLock rows;
+
+    MemberResource(IMemberService members, RowLock rows) {
+        this.members = members;
+        this.rows = rows;
+    }
+
+    @Override
+    protected void serve(ApiExchange ex) throws Exception {
+        List<String> path = ex.path();
+        String method = ex.method();
+        if (path.isEmpty()) {
+            if ("GET".equals(method)) {
+                String name = ex.query("name");
+                if (name != null && !name.isBlank()) {
+                    streamList(ex, members.findByName(name).iterator(), MemberResource::write);
+                } else {
+                    list(ex, members::findPage, MemberResource::write);
+                }
+            } else if ("POST".equals(method)) {
+                Map<String, Object> body = ex.body();
+                Json.require(body, "name", "role", "accessLevel");
+                Member created = members.create(read(body, new Member()));
+                ex.setHeader("Location", "/members/" + created.getId());
+                sendEntity(ex, 201, created, MemberResource::write);
+            } else {
+                throw notAllowed();
+            }
+            return;
+        }
+        if (path.size() != 1) throw notFound();
+
+        int id = ex.id(0);
+        switch (method) {
+            case "GET":
+                sendEntity(ex, 200, found(members.findById(id)), MemberResource::write);
+                break;
+            case "PUT": {
+                Map<String, Object> body = ex.body();
+                Member updated = rows.locked("member", id, () -> {
+                    Member current = found(members.findById(id));
+                    checkIfMatch(ex, current, MemberResource::write);
+                    Member changed = read(body, new Member(current));
+                    changed.setId(id);
+                    return members.update(changed);
+                });
+                sendEntity(ex, 200, updated, MemberResource::write);
+                break;
+            }
+            case "DELETE":
+                if (!members.softDelete(id)) throw notFound();
+                ex.sendStatus(204);
+                break;
+            default:
+                throw notAllowed();
+        }
+    }
+
+    static void write(JsonWriter json, Member m) throws IOException {
+        json.beginObject()
+                .field("id", m.getId())
+                .field("name", m.getName())
+                .field("role", m.getRole())
+                .field("accessLevel", m.getAccessLevel())
+                .field("active", m.getActive())
+                .field("deleted", m.getDeleted())
+                .field("createdAt", m.getCreatedAt())
+                .field("updatedAt", m.getUpdatedAt())
+                .endObject();
+    }
+
+    private static Member read(Map<String, Object> body, Member m) {
+        if (body.get("name") != null) m.setName(Json.string(body, "name"));
+        if (body.get("role") != null) m.setRole(Json.enumValue(body, "role", MemberRole.class));
+        if (body.get("accessLevel") != null) m.setAccessLevel(Json.enumValue(body, "accessLevel", AccessLevel.class));
+        if (body.get("active") != null) m.setActive(Json.bool(body, "active"));
+        return m;
+    }
+}
@@ -0,0 +1,158 @@
+package com.codeup.novabook.api;
+
+import com.codeup.novabook.exception.BusinessException;
+import com.codeup.novabook.exception.ConflictException;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.DuplicateKeyException;
+import com.codeup.novabook.exception.NotFoundException;
+import com.codeup.novabook.infra.HttpLogger;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Base of the API handlers: logs the request, runs {@link #serve}, and turns
+ * exceptions into JSON error responses.
+ * <p>
+ * Status mapping: {@link ApiException} carries its own; a
+ * {@link NotFoundException} gives 404; a rejected business rule
+ * ({@link ConflictException}: no stock left, member inactive), a duplicate key or
+ * any other integrity constraint (e.g. deleting a book that still has loans) gives
+ * 409; bad input ({@link IllegalArgumentException}, {@link BusinessException})
+ * gives 400; anything else is logged and gives 500.
+ * </p>
+ */
+abstract class Resource implements HttpHandler {
+
+    private static final Logger logger = Logger.getLogger(Resource.class.getName());
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    @FunctionalInterface
+    interface EntityWriter<T> {
+        void write(JsonWriter json, T entity) throws IOException;
+    }
+
+    @Override
+    public final void handle(HttpExchange http) throws IOException {
+        HttpLogger.log(http.getRequestMethod() + " " + http.getRequestURI());
+        ApiExchange ex = new ApiExchange(http);
+        try {
+            serve(ex);
+        } catch (Exception e) {
+            fail(ex, e);
+        } finally {
+            http.close();
+        }
+    }
+
+    protected abstract void serve(ApiExchange ex) throws Exception;
+
+    private static void fail(ApiExchange ex, Exception e) throws IOException {
+        if (ex.responded()) {
+            // a streamed list broke halfway; the client sees a truncated body
+            logger.log(Level.WARNING, "API response aborted: " + e.getMessage(), e);
+            return;
+        }
+        int status;
+        String message = e.getMessage();
+        if (e instanceof ApiException) {
+            status = ((ApiException) e).status();
+        } else if (e instanceof NotFoundException) {
+            status = 404;
+        } else if (e instanceof ConflictException || e instanceof DuplicateKeyException || violatesConstraint(e)) {
+            status = 409;
+        } else if (e instanceof IllegalArgumentException || e instanceof BusinessException) {
+            status = 400;
+        } else {
+            logger.log(Level.SEVERE, "API request failed", e);
+            status = 500;
+            message = "Internal server error";
+        }
+        ex.sendError(status, message);
+    }
+
+    // SQLState class 23 is an integrity constraint violation: foreign key, unique, not null, check
+    private static boolean violatesConstraint(Throwable e) {
+        for (Throwable cur = e; cur != null; cur = cur.getCause()) {
+            if (cur instanceof SQLIntegrityConstraintViolationException) return true;
+            if (cur instanceof SQLException) {
+                String state = ((SQLException) cur).getSQLState();
+                if (state != null && state.startsWith("23")) return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> T found(Optional<T> value) {
+        return value.orElseThrow(() -> new ApiException(404, "Not found"));
+    }
+
+    static ApiException notFound() {
+        return new ApiException(404, "Not found");
+    }
+
+    static ApiException notAllowed() {
+        return new ApiException(405, "Method not allowed");
+    }
+
+    static <T> void sendEntity(ApiExchange ex, int status, T entity, EntityWriter<T> writer) throws IOException {
+        ex.send(status, json -> writer.write(json, entity));
+    }
+
+    /**
+     * Rejects a write with 412 when {@code If-Match} is present and does not
+     * name the current state of the entity, so two clients cannot overwrite
+     * each other's changes unnoticed.
+     */
+    static <T> void checkIfMatch(ApiExchange ex, T current, EntityWriter<T> writer) throws IOException {
+        String ifMatch = ex.header("If-Match");
+        if (ifMatch != null && !ApiExchange.matches(ifMatch, ApiExchange.etag(json -> writer.write(json, current)))) {
+            throw new ApiException(412, "Precondition failed: the entity was changed");
+        }
+    }
+
+    /**
+     * Lists a table. With {@code limit} or {@code pageToken} the response is
+     * one page, {@code {"items": [...], "nextToken": ...}}, with an ETag.
+     * Without them every row is streamed as a JSON array, read page by page.
+     * {@code sort} names a sortable property, prefixed with {@code -} for
+     * descending order.
+     */
+    static <T> void list(ApiExchange ex, Function<PageRequest, Page<T>> pages, EntityWriter<T> writer) throws IOException {
+        String sortParam = ex.query("sort");
+        Sort sort = sortParam == null || sortParam.isBlank() ? null
+                : sortParam.startsWith("-") ? Sort.byDescending(sortParam.substring(1)) : Sort.by(sortParam);
+        String token = ex.query("pageToken");
+        if (token == null && ex.query("limit") == null) {
+            // the first page is read here, so a bad sort still gets a proper 400
+            streamList(ex, Page.all(t -> pages.apply(PageRequest.after(sort, t, Page.MAX_SIZE))).iterator(), writer);
+            return;
+        }
+        Page<T> page = pages.apply(PageRequest.after(sort, token, ex.queryInt("limit", DEFAULT_PAGE_SIZE)));
+        ex.send(200, json -> {
+            json.beginObject().name("items").beginArray();
+            for (T item : page.getItems()) writer.write(json, item);
+            json.endArray().field("nextToken", page.getNextToken()).endObject();
+        });
+    }
+
+    static <T> void streamList(ApiExchange ex, Iterator<T> rows, EntityWriter<T> writer) throws IOException {
+        ex.stream(json -> {
+            json.beginArray();
+            while (rows.hasNext()) writer.write(json, rows.next());
+            json.endArray();
+        });
+    }
+}
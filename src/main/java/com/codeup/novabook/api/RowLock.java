@@ -0,0 +1,53 @@
+package com.codeup.novabook.api;
+
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+
+/**
+ * Runs the read, {@code If-Match} check and write of a {@code PUT} as one
+ * transaction that holds the row with {@code SELECT ... FOR UPDATE}, so a
+ * concurrent writer waits instead of slipping in between the check and the
+ * write. The services called inside join the transaction through
+ * {@link com.codeup.novabook.jdbc.TransactionContext}; the cache and search index
+ * decorators hold their updates until it commits.
+ */
+final class RowLock {
+
+    /** Runs the work without a transaction, for servers built without a database handle. */
+    static final RowLock NONE = new RowLock(null);
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run() throws IOException;
+    }
+
+    private final JdbcTemplateLight jdbc;
+
+    RowLock(JdbcTemplateLight jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    <T> T locked(String table, int id, Work<T> work) throws IOException {
+        if (jdbc == null) return work.run();
+        String lock = "SELECT id FROM " + jdbc.dialect().quote(table) + " WHERE id = ? FOR UPDATE";
+        try {
+            return jdbc.txExecute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(lock)) {
+                    ps.setInt(1, id);
+                    // a missing row locks nothing; the work then reports it
+                    ps.executeQuery();
+                }
+                try {
+                    return work.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
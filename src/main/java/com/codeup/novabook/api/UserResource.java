@@ -0,0 +1,117 @@
+package com.codeup.novabook.api;
+
+import com.codeup.novabook.domain.AccessLevel;
+import com.codeup.novabook.domain.User;
+import com.codeup.novabook.domain.UserRole;
+import com.codeup.novabook.service.IUserService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /users}:
+ * <ul>
+ * <li>{@code GET /users} - all users; {@code ?name=} searches by name</li>
+ * <li>{@code GET /users/{id}}</li>
+ * <li>{@code POST /users}, {@code PUT /users/{id}} (fields left out keep their value), {@code DELETE /users/{id}} (soft delete)</li>
+ * <li>{@code POST /users/authenticate} {@code {"email", "password"}} - the user, or 401</li>
+ * </ul>
+ * Passwords are accepted on create/update and never written out.
+ */
+final class UserResource extends Resource {
+
+    private final IUserService users;
+    private final RowLock rows;
+
+    UserResource(IUserService users, RowLock rows) {
+        this.users = users;
+        this.rows = rows;
+    }
+
+    @Override
+    protected void serve(ApiExchange ex) throws Exception {
+        List<String> path = ex.path();
+        String method = ex.method();
+        if (path.isEmpty()) {
+            if ("GET".equals(method)) {
+                String name = ex.query("name");
+                List<User> found = name != null && !name.isBlank() ? users.findByName(name) : users.findAll();
+                streamList(ex, found.iterator(), UserResource::write);
+            } else if ("POST".equals(method)) {
+                Map<String, Object> body = ex.body();
+                Json.require(body, "name", "email", "password", "role", "accessLevel");
+                User u = read(body, new User());
+                u.setPassword(Json.string(body, "password"));
+                User created = users.create(u);
+                ex.setHeader("Location", "/users/" + created.getId());
+                sendEntity(ex, 201, created, UserResource::write);
+            } else {
+                throw notAllowed();
+            }
+            return;
+        }
+        if (path.size() == 1 && "authenticate".equals(path.get(0))) {
+            if (!"POST".equals(method)) throw notAllowed();
+            Map<String, Object> body = ex.body();
+            Json.require(body, "email", "password");
+            User user = users.authenticate(Json.string(body, "email"), Json.string(body, "password"))
+                    .orElseThrow(() -> new ApiException(401, "Invalid email or password"));
+            sendEntity(ex, 200, user, UserResource::write);
+            return;
+        }
+        if (path.size() != 1) throw notFound();
+
+        int id = ex.id(0);
+        switch (method) {
+            case "GET":
+                sendEntity(ex, 200, found(users.findById(id)), UserResource::write);
+                break;
+            case "PUT": {
+                Map<String, Object> body = ex.body();
+                User updated = rows.locked("user", id, () -> {
+                    User current = found(users.findById(id));
+                    checkIfMatch(ex, current, UserResource::write);
+                    // update() stores the password column as given, i.e. the current hash
+                    User saved = users.update(read(body, current));
+                    String password = Json.string(body, "password");
+                    if (password != null) users.updatePassword(id, password);
+                    return saved;
+                });
+                sendEntity(ex, 200, updated, UserResource::write);
+                break;
+            }
+            case "DELETE":
+                if (!users.softDelete(id)) throw notFound();
+                ex.sendStatus(204);
+                break;
+            default:
+                throw notAllowed();
+        }
+    }
+
+    static void write(JsonWriter json, User u) throws IOException {
+        json.beginObject()
+                .field("id", u.getId())
+                .field("name", u.getName())
+                .field("email", u.getEmail())
+                .field("phone", u.getPhone())
+                .field("role", u.getRole())
+                .field("accessLevel", u.getAccessLevel())
+                .field("active", u.getActive())
+                .field("deleted", u.getDeleted())
+                .field("createdAt", u.getCreatedAt())
+                .field("updatedAt", u.getUpdatedAt())
+                .endObject();
+    }
+
+    private static User read(Map<String, Object> body, User u) {
+        if (body.get("name") != null) u.setName(Json.string(body, "name"));
+        if (body.get("email") != null) u.setEmail(Json.string(body, "email"));
+        if (body.get("phone") != null) u.setPhone(Json.string(body, "phone"));
+        if (body.get("role") != null) u.setRole(Json.enumValue(body, "role", UserRole.class));
+        if (body.get("accessLevel") != null) u.setAccessLevel(Json.enumValue(body, "accessLevel", AccessLevel.class));
+        if (body.get("active") != null) u.setActive(Json.bool(body, "active"));
+        return u;
+    }
+}
@@ -6,6 +6,7 @@ package com.codeup.novabook.connection;
 
 import com.codeup.novabook.exception.DatabaseException;
 import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.jdbc.SqlDialect;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -13,14 +14,23 @@ import java.util.Properties;
 
 /**
  * Provides JDBC connections based on application.properties without modifying it.
+ * <p>
+ * The URL, credentials and driver are resolved once at construction time; every
+ * call to {@link #open()} performs a new physical connect. Use
+ * {@link PooledConnectionFactory} to reuse connections.
+ * </p>
  */
 public class ConnectionFactory {
     private final AppConfig config;
-    
-    public ConnectionFactory(AppConfig config) { this.config = config;}
-    
-    public Connection open() throws DatabaseException{
-        String vendor = trim(config.get("db.vendor"));
+    private final String vendor;
+    private final String url;
+    private final String safeUrl;
+    private final Properties props;
+    private final SqlDialect dialect;
+
+    public ConnectionFactory(AppConfig config) {
+        this.config = config;
+        this.vendor = trim(config.get("db.vendor"));
         String host = trim(config.get("db.host"));
         String port = trim(config.get("db.port"));
         String name = trim(config.get("db.name"));
@@ -28,48 +38,66 @@ public class ConnectionFactory {
         String pass = trim(config.get("db.password"));
         String explicitUrl = trim(config.get("db.url"));
         String useSSL = trim(config.get("db.useSSL"));
+        boolean hasExplicitUrl = explicitUrl != null && !explicitUrl.isBlank();
+        this.dialect = SqlDialect.forVendor(vendor, explicitUrl);
 
-        String url;
-        try {
-            if (vendor != null && vendor.equalsIgnoreCase("postgres")) {
-                // Ensure driver is loaded for older environments
-                try { Class.forName("org.postgresql.Driver"); } catch (ClassNotFoundException ignore) {}
-            } else {
-                try { Class.forName("com.mysql.cj.jdbc.Driver"); } catch (ClassNotFoundException ignore) {}
-            }
-
-            if (explicitUrl != null && !explicitUrl.isBlank()) {
-                url = explicitUrl;
-            } else if (vendor != null && vendor.equalsIgnoreCase("postgres")) {
-                url = String.format("jdbc:postgresql://%s:%s/%s", host, port, name);
-            } else {
-                // Default to MySQL-compatible URL honoring useSSL flag
-                String ssl = (useSSL == null || useSSL.isBlank()) ? "false" : useSSL;
-                url = String.format("jdbc:mysql://%s:%s/%s?useSSL=%s&serverTimezone=UTC", host, port, name, ssl);
-            }
-
-            // Use Properties object to safely pass user/pass and optional flags without altering application.properties
-            Properties props = new Properties();
-            if (user != null) props.setProperty("user", user);
-            if (pass != null) props.setProperty("password", pass);
-
-            // For MySQL 8 with caching_sha2_password, allowPublicKeyRetrieval may be required when useSSL=false
-            if (url.startsWith("jdbc:mysql:") && (useSSL == null || useSSL.equalsIgnoreCase("false"))) {
-                // Only set property if not already present in URL query
-                if (!url.contains("allowPublicKeyRetrieval=")) {
-                    props.setProperty("allowPublicKeyRetrieval", "true");
-                }
-            }
+        // Ensure driver is loaded for older environments
+        try { Class.forName(dialect.getDriverClassName()); } catch (ClassNotFoundException ignore) {}
+
+        safeUrl = hasExplicitUrl ? explicitUrl : dialect.url(host, port, name);
+        url = hasExplicitUrl ? explicitUrl : safeUrl + dialect.urlParameters(useSSL);
+
+        // Use Properties object to safely pass user/pass and optional flags without altering application.properties
+        props = new Properties();
+        if (user != null) props.setProperty("user", user);
+        if (pass != null) props.setProperty("password", pass);
+
+        // Vendor tuning (statement caching, cursor fetch, batch rewriting); a flag in db.url wins
+        boolean sslDisabled = useSSL == null || useSSL.equalsIgnoreCase("false");
+        dialect.connectionProperties(config, sslDisabled).forEach(this::setIfAbsent);
+    }
+
+    private void setIfAbsent(String key, String value) {
+        if (!url.contains(key + "=")) {
+            props.setProperty(key, value);
+        }
+    }
 
+    public Connection open() throws DatabaseException {
+        try {
             return DriverManager.getConnection(url, props);
         } catch (SQLException e) {
-            String safeUrl = (explicitUrl != null && !explicitUrl.isBlank()) ? explicitUrl : (vendor != null && vendor.equalsIgnoreCase("postgres")
-                    ? String.format("jdbc:postgresql://%s:%s/%s", host, port, name)
-                    : String.format("jdbc:mysql://%s:%s/%s", host, port, name));
             String detail = e.getMessage();
             throw new DatabaseException("Failed to connect to database (vendor=" + vendor + ", url=" + safeUrl + ") - " + detail, e);
         }
     }
 
+    /**
+     * @return the configured {@code db.vendor}, may be null (MySQL is assumed)
+     */
+    public String getVendor() { return vendor; }
+
+    /**
+     * @return true when {@code db.vendor=postgres}
+     */
+    public boolean isPostgres() { return dialect == SqlDialect.POSTGRES; }
+
+    /**
+     * @return true when connecting through the MySQL driver (the default)
+     */
+    public boolean isMysql() { return dialect == SqlDialect.MYSQL; }
+
+    /**
+     * @return the SQL dialect for {@code db.vendor}, or for the {@code db.url} prefix when no vendor is set
+     */
+    public SqlDialect getDialect() { return dialect; }
+
+    /**
+     * @return the connection URL without credentials, suitable for logs
+     */
+    public String getSafeUrl() { return safeUrl; }
+
+    protected AppConfig getConfig() { return config; }
+
     private String trim(String s) { return s == null ? null : s.trim(); }
 }
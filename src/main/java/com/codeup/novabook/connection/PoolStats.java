@@ -0,0 +1,101 @@
+package com.codeup.novabook.connection;
+
+/**
+ * Immutable snapshot of {@link PooledConnectionFactory} counters, used for tuning
+ * {@code db.pool.*} settings.
+ */
+public final class PoolStats {
+    private final int total;
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    PoolStats(int total, int active, int idle, int waiting, int maxSize, long borrowCount, long timeoutCount,
+              long createdCount, long destroyedCount, long totalWaitNanos, long maxWaitNanos,
+              long statementCacheHits, long statementCacheMisses) {
+        this.total = total;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    /** Physical connections currently open (active + idle). */
+    public int getTotal() { return total; }
+
+    /** Connections currently borrowed by callers. */
+    public int getActive() { return active; }
+
+    /** Connections parked in the pool, ready to be borrowed. */
+    public int getIdle() { return idle; }
+
+    /** Threads currently blocked waiting for a connection. */
+    public int getWaiting() { return waiting; }
+
+    public int getMaxSize() { return maxSize; }
+
+    public long getBorrowCount() { return borrowCount; }
+
+    /** Borrows that gave up after {@code db.pool.borrowTimeoutMs}. */
+    public long getTimeoutCount() { return timeoutCount; }
+
+    public long getCreatedCount() { return createdCount; }
+
+    public long getDestroyedCount() { return destroyedCount; }
+
+    /** Accumulated time callers spent inside {@code open()}, including physical connects. */
+    public long getTotalWaitMillis() { return totalWaitNanos / 1_000_000L; }
+
+    public double getAverageWaitMillis() {
+        return borrowCount == 0 ? 0.0 : (totalWaitNanos / 1_000_000.0) / borrowCount;
+    }
+
+    public long getMaxWaitMillis() { return maxWaitNanos / 1_000_000L; }
+
+    /** {@code prepareStatement} calls served from a connection's statement cache. */
+    public long getStatementCacheHits() { return statementCacheHits; }
+
+    /** {@code prepareStatement} calls that had to prepare a new statement. */
+    public long getStatementCacheMisses() { return statementCacheMisses; }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "total=" + total +
+                ", active=" + active +
+                ", idle=" + idle +
+                ", waiting=" + waiting +
+                ", maxSize=" + maxSize +
+                ", borrows=" + borrowCount +
+                ", timeouts=" + timeoutCount +
+                ", created=" + createdCount +
+                ", destroyed=" + destroyedCount +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + getMaxWaitMillis() +
+                ", stmtHits=" + statementCacheHits +
+                ", stmtMisses=" + statementCacheMisses +
+                '}';
+    }
+}
@@ -0,0 +1,573 @@
+package com.codeup.novabook.connection;
+
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.infra.config.AppConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded connection pool exposed through the {@link ConnectionFactory} contract.
+ * <p>
+ * {@link #open()} borrows a connection from the pool and the returned
+ * {@link Connection#close()} hands it back instead of disconnecting, so
+ * {@code JdbcTemplateLight} and the repositories work unchanged.
+ * </p>
+ * <p>Settings (all optional, read from application.properties):</p>
+ * <ul>
+ * <li>{@code db.pool.minIdle} (2) - connections kept open by the housekeeper</li>
+ * <li>{@code db.pool.maxSize} (10) - hard cap on physical connections</li>
+ * <li>{@code db.pool.borrowTimeoutMs} (5000) - how long {@code open()} waits for a free connection</li>
+ * <li>{@code db.pool.idleTimeoutMs} (600000) - idle connections above {@code minIdle} are closed after this</li>
+ * <li>{@code db.pool.maxLifetimeMs} (1800000) - connections are recycled after this age</li>
+ * <li>{@code db.pool.validationIntervalMs} (500) - connections idle longer than this are validated on borrow</li>
+ * <li>{@code db.pool.validationTimeoutSec} (2) - timeout passed to {@link Connection#isValid(int)}</li>
+ * <li>{@code db.pool.leakDetectionMs} (0 = off) - warn, with the borrowing stack, when a connection is held longer</li>
+ * <li>{@code db.pool.housekeepingMs} (30000) - period of the eviction / leak / refill task</li>
+ * <li>{@code db.pool.statementCacheSize} (64, 0 = off) - prepared statements kept open per connection</li>
+ * </ul>
+ * <p>
+ * Each pooled connection keeps an LRU cache of the statements prepared on it, keyed by
+ * SQL text. Repositories use a small fixed set of SQL strings, so after warm-up
+ * {@code prepareStatement} returns an already parsed statement and {@code close()}
+ * on it only clears its parameters.
+ * </p>
+ */
+public class PooledConnectionFactory extends ConnectionFactory implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(PooledConnectionFactory.class.getName());
+
+    private final int minIdle;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSec;
+    private final long leakDetectionMs;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public PooledConnectionFactory(AppConfig config) {
+        super(config);
+        this.maxSize = Math.max(1, config.getInt("db.pool.maxSize", 10));
+        this.minIdle = Math.min(maxSize, Math.max(0, config.getInt("db.pool.minIdle", 2)));
+        this.borrowTimeoutMs = Math.max(0, config.getLong("db.pool.borrowTimeoutMs", 5000));
+        this.idleTimeoutMs = config.getLong("db.pool.idleTimeoutMs", 600_000);
+        this.maxLifetimeMs = config.getLong("db.pool.maxLifetimeMs", 1_800_000);
+        this.validationIntervalMs = Math.max(0, config.getLong("db.pool.validationIntervalMs", 500));
+        this.validationTimeoutSec = Math.max(1, config.getInt("db.pool.validationTimeoutSec", 2));
+        this.leakDetectionMs = config.getLong("db.pool.leakDetectionMs", 0);
+        this.statementCacheSize = Math.max(0, config.getInt("db.pool.statementCacheSize", 64));
+        this.permits = new Semaphore(maxSize, true);
+
+        long housekeepingMs = Math.max(1000, config.getLong("db.pool.housekeepingMs", 30_000));
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "novabook-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, housekeepingMs, housekeepingMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to {@code db.pool.borrowTimeoutMs} when the pool is exhausted.
+     *
+     * @return a pooled connection; closing it returns it to the pool
+     * @throws DatabaseException if the pool is closed, the wait times out or a new connection cannot be opened
+     */
+    @Override
+    public Connection open() throws DatabaseException {
+        if (closed) {
+            throw new DatabaseException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                timeoutCount.increment();
+                throw new DatabaseException("Timed out after " + borrowTimeoutMs + "ms waiting for a database connection " + stats());
+            }
+            PooledConnection pc = take(deadline);
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.leakReported = false;
+            pc.borrowSite = leakDetectionMs > 0 ? new Throwable("Connection borrowed by " + Thread.currentThread().getName()) : null;
+            borrowed.add(pc);
+            recordWait(System.nanoTime() - start);
+            return pc.newHandle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (acquired) permits.release();
+            throw new DatabaseException("Interrupted while waiting for a database connection", e);
+        } catch (RuntimeException e) {
+            if (acquired) permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection take(long deadline) throws InterruptedException {
+        while (true) {
+            PooledConnection pc = idle.pollFirst();
+            if (pc == null) {
+                if (reserveSlot()) {
+                    try {
+                        return create();
+                    } catch (RuntimeException e) {
+                        total.decrementAndGet();
+                        throw e;
+                    }
+                }
+                // Every slot is taken by an idle connection that is being handed back; wait for it.
+                long remaining = deadline - System.nanoTime();
+                pc = remaining > 0 ? idle.pollFirst(remaining, TimeUnit.NANOSECONDS) : null;
+                if (pc == null) {
+                    timeoutCount.increment();
+                    throw new DatabaseException("Timed out waiting for an idle database connection " + stats());
+                }
+            }
+            if (isUsable(pc, true)) {
+                return pc;
+            }
+            destroy(pc);
+        }
+    }
+
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = total.get();
+            if (current >= maxSize) return false;
+        } while (!total.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private PooledConnection create() {
+        Connection physical = newPhysicalConnection();
+        createdCount.increment();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Opens a physical connection. Overridable so the pool can be exercised without a database.
+     *
+     * @return a new physical connection
+     */
+    protected Connection newPhysicalConnection() {
+        return super.open();
+    }
+
+    private boolean isUsable(PooledConnection pc, boolean onBorrow) {
+        long now = System.currentTimeMillis();
+        if (pc.broken) return false;
+        if (maxLifetimeMs > 0 && now - pc.createdAt > maxLifetimeMs) return false;
+        if (onBorrow && now - pc.lastUsedAt < validationIntervalMs) return true;
+        try {
+            return pc.physical.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        borrowed.remove(pc);
+        try {
+            if (!pc.broken && !closed) {
+                try {
+                    if (!pc.physical.getAutoCommit()) {
+                        pc.physical.rollback();
+                        pc.physical.setAutoCommit(true);
+                    }
+                    pc.physical.clearWarnings();
+                    pc.checkinStatements();
+                } catch (SQLException e) {
+                    pc.broken = true;
+                }
+            }
+            if (pc.broken || closed) {
+                destroy(pc);
+            } else {
+                pc.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pc);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        total.decrementAndGet();
+        destroyedCount.increment();
+        try {
+            pc.physical.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Error closing pooled connection", e);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.increment();
+        totalWaitNanos.add(nanos);
+        long prev;
+        do {
+            prev = maxWaitNanos.get();
+            if (nanos <= prev) return;
+        } while (!maxWaitNanos.compareAndSet(prev, nanos));
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            // Idle eviction: keep at least minIdle, recycle anything past its lifetime.
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pc = it.next();
+                boolean expired = maxLifetimeMs > 0 && now - pc.createdAt > maxLifetimeMs;
+                boolean idleTooLong = idleTimeoutMs > 0 && now - pc.lastUsedAt > idleTimeoutMs && idle.size() > minIdle;
+                if ((expired || idleTooLong) && idle.remove(pc)) {
+                    destroy(pc);
+                }
+            }
+
+            // Leak detection
+            if (leakDetectionMs > 0) {
+                for (PooledConnection pc : borrowed) {
+                    if (!pc.leakReported && now - pc.borrowedAt > leakDetectionMs) {
+                        pc.leakReported = true;
+                        logger.log(Level.WARNING, "Possible connection leak: connection held for " + (now - pc.borrowedAt) + "ms", pc.borrowSite);
+                    }
+                }
+            }
+
+            // Refill to minIdle
+            while (!closed && idle.size() < minIdle && reserveSlot()) {
+                try {
+                    PooledConnection pc = create();
+                    idle.offerLast(pc);
+                } catch (RuntimeException e) {
+                    total.decrementAndGet();
+                    logger.log(Level.FINE, "Pool refill failed: {0}", e.getMessage());
+                    break;
+                }
+            }
+            logger.log(Level.FINE, "Connection pool {0}", stats());
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    /**
+     * @return a snapshot of pool counters
+     */
+    public PoolStats stats() {
+        int idleNow = idle.size();
+        int activeNow = borrowed.size();
+        return new PoolStats(total.get(), activeNow, idleNow, permits.getQueueLength(), maxSize,
+                borrowCount.sum(), timeoutCount.sum(), createdCount.sum(), destroyedCount.sum(),
+                totalWaitNanos.sum(), maxWaitNanos.get(), statementHits.sum(), statementMisses.sum());
+    }
+
+    /**
+     * Closes idle connections and stops the housekeeper. Borrowed connections are
+     * closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    private final class PooledConnection {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsedAt = createdAt;
+        volatile long borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        volatile boolean broken;
+        final Map<StatementKey, CachedStatement> statements;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize == 0 ? null : new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) return false;
+                    CachedStatement evicted = eldest.getValue();
+                    evicted.evicted = true;
+                    if (!evicted.inUse) evicted.closePhysical();
+                    return true;
+                }
+            };
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+
+        /**
+         * Reclaims cached statements whose handles were not closed by the borrower.
+         */
+        void checkinStatements() {
+            if (statements == null) return;
+            for (CachedStatement cached : statements.values()) {
+                if (cached.inUse) cached.checkin();
+            }
+        }
+
+        /**
+         * Returns a cached statement for {@code prepareStatement(sql)} and
+         * {@code prepareStatement(sql, autoGeneratedKeys)}; other overloads are not cached.
+         */
+        PreparedStatement prepare(Connection handle, String sql, int autoGeneratedKeys) throws SQLException {
+            StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse) {
+                statementHits.increment();
+                return cached.checkout(handle);
+            }
+            statementMisses.increment();
+            PreparedStatement ps = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+                    ? physical.prepareStatement(sql)
+                    : physical.prepareStatement(sql, autoGeneratedKeys);
+            if (cached != null) {
+                // Same SQL already open on this connection (nested use): hand out an uncached one.
+                return ps;
+            }
+            CachedStatement created = new CachedStatement(ps);
+            statements.put(key, created);
+            return created.checkout(handle);
+        }
+    }
+
+    private static final class StatementKey {
+        final String sql;
+        final int autoGeneratedKeys;
+
+        StatementKey(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey k = (StatementKey) o;
+            return autoGeneratedKeys == k.autoGeneratedKeys && sql.equals(k.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return sql.hashCode() * 31 + autoGeneratedKeys;
+        }
+    }
+
+    /**
+     * A physical statement owned by the cache; callers get a handle whose {@code close()}
+     * resets the statement for the next use instead of closing it.
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        final PreparedStatement physical;
+        boolean inUse;
+        boolean evicted;
+        boolean resetFetchSize;
+        boolean resetMaxRows;
+        boolean batched;
+        Connection owner;
+        PreparedStatement handle;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement checkout(Connection owner) {
+            this.inUse = true;
+            this.owner = owner;
+            this.handle = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+            return handle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (proxy != handle || !inUse) {
+                // A handle from a previous checkout
+                switch (name) {
+                    case "close": return null;
+                    case "isClosed": return true;
+                    case "equals": return proxy == args[0];
+                    case "hashCode": return System.identityHashCode(proxy);
+                    default: throw new SQLException("Statement is closed", "HY010");
+                }
+            }
+            switch (name) {
+                case "close":
+                    checkin();
+                    return null;
+                case "isClosed":
+                    return false;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "setFetchSize":
+                    resetFetchSize = true;
+                    break;
+                case "setMaxRows":
+                    resetMaxRows = true;
+                    break;
+                case "addBatch":
+                    batched = true;
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        void checkin() {
+            inUse = false;
+            handle = null;
+            owner = null;
+            if (evicted) {
+                closePhysical();
+                return;
+            }
+            try {
+                physical.clearParameters();
+                if (batched) { physical.clearBatch(); batched = false; }
+                if (resetFetchSize) { physical.setFetchSize(0); resetFetchSize = false; }
+                if (resetMaxRows) { physical.setMaxRows(0); resetMaxRows = false; }
+            } catch (SQLException e) {
+                evicted = true;
+                closePhysical();
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Error closing cached statement", e);
+            }
+        }
+    }
+
+    /**
+     * Per-borrow view of a pooled connection; once closed it can no longer reach the physical connection.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean handleClosed;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + (handleClosed ? ", returned" : "") + "]";
+                default:
+                    break;
+            }
+            if (handleClosed) {
+                throw new SQLException("Connection has already been returned to the pool", "08003");
+            }
+            try {
+                if (pc.statements != null && method.getName().equals("prepareStatement")) {
+                    Class<?>[] types = method.getParameterTypes();
+                    if (types.length == 1) {
+                        return pc.prepare((Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (types.length == 2 && types[1] == int.class) {
+                        return pc.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                    }
+                }
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isConnectionError((SQLException) cause)) {
+                    pc.broken = true;
+                }
+                throw cause;
+            } catch (SQLException e) {
+                if (isConnectionError(e)) {
+                    pc.broken = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isConnectionError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
@@ -50,6 +50,18 @@ public class Book {
         this.stock = stock;
     }
     
+    /**
+     * Copy constructor, used by caches and indexes that hand out detached copies.
+     * 
+     * @param other the book to copy
+     */
+    public Book(Book other) {
+        this(other.isbn, other.title, other.author, other.stock);
+        this.id = other.id;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     // Business logic methods
     
     /**
@@ -64,6 +64,19 @@ public class Loan {
         this.returned = false;
     }
 
+    /**
+     * Copy constructor, used to edit a loan without touching the row on screen.
+     *
+     * @param other the loan to copy
+     */
+    public Loan(Loan other) {
+        this(other.memberId, other.bookId, other.dateLoaned, other.dateDue);
+        this.id = other.id;
+        this.returned = other.returned;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
 
     public Integer getId() {
@@ -49,6 +49,20 @@ public class Member {
         this.deleted = false;
     }
 
+    /**
+     * Copy constructor, used by caches that hand out detached copies.
+     * 
+     * @param other Member to copy
+     */
+    public Member(Member other) {
+        this(other.name, other.role, other.accessLevel);
+        this.id = other.id;
+        this.active = other.active;
+        this.deleted = other.deleted;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
 
     public Integer getId() {
@@ -0,0 +1,13 @@
+package com.codeup.novabook.exception;
+
+/**
+ * Thrown when an operation is refused by a business rule, e.g. a loan for a
+ * book with no stock left or for an inactive member.
+ *
+ * @author Coder
+ */
+public class ConflictException extends DatabaseException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.codeup.novabook.exception;
+
+/**
+ * Thrown when an INSERT or UPDATE violates a unique constraint
+ * (MySQL error 1062, PostgreSQL SQLState 23505).
+ *
+ * @author Coder
+ */
+public class DuplicateKeyException extends DatabaseException {
+    public DuplicateKeyException(String message) {
+        super(message);
+    }
+
+    public DuplicateKeyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
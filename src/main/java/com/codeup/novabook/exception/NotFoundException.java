@@ -0,0 +1,12 @@
+package com.codeup.novabook.exception;
+
+/**
+ * Thrown when an operation names a member, book or loan that does not exist.
+ *
+ * @author Coder
+ */
+public class NotFoundException extends DatabaseException {
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
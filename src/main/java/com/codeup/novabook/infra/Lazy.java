@@ -0,0 +1,32 @@
+package com.codeup.novabook.infra;
+
+import java.util.function.Supplier;
+
+/**
+ * A value built by its supplier on the first {@link #get()}, at most once, even when
+ * several threads ask for it at the same time. The value may be null.
+ */
+final class Lazy<T> implements Supplier<T> {
+
+    private Supplier<? extends T> supplier;
+    private volatile boolean built;
+    private T value;
+
+    Lazy(Supplier<? extends T> supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public T get() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    value = supplier.get();
+                    supplier = null;
+                    built = true;
+                }
+            }
+        }
+        return value;
+    }
+}
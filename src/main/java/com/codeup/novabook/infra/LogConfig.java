@@ -1,18 +1,52 @@
 package com.codeup.novabook.infra;
 
+import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.infra.logging.AsyncLogHandler;
+import com.codeup.novabook.infra.logging.LogLineFormatter;
+import com.codeup.novabook.infra.logging.RollingFileHandler;
+
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.logging.*;
 
 /**
- * Configures a FileHandler for java.util.logging to write app.log at project root.
+ * Configures java.util.logging to write to the console and a rolling app.log at project root.
+ * <p>
+ * Both go through an {@link AsyncLogHandler}, so logging threads only enqueue records;
+ * formatting and writing happen on its writer thread. Settings (all optional):
+ * </p>
+ * <ul>
+ * <li>{@code log.file} (default app.log), {@code log.file.maxSizeMb} (default 10),
+ *     {@code log.file.maxFiles} (default 5), {@code log.file.rotateDaily} (default true)</li>
+ * <li>{@code log.async.bufferSize} (default 8192) and {@code log.async.overflow}
+ *     ({@code drop}, the default, or {@code block})</li>
+ * <li>{@code log.rateLimit.perSecond} (default 200, 0 disables): records below WARNING per logger</li>
+ * </ul>
+ * <p>
+ * The JDK's shutdown hook closes the root handlers, which writes out what is still buffered.
+ * </p>
  */
 public final class LogConfig {
     private static boolean configured = false;
 
     private LogConfig() {}
 
+    /**
+     * Configures logging from application.properties, or with the defaults when it cannot be read.
+     */
     public static synchronized void configure() {
+        if (configured) return;
+        AppConfig config;
+        try {
+            config = new AppConfig();
+        } catch (RuntimeException e) {
+            config = null;
+        }
+        configure(config);
+    }
+
+    public static synchronized void configure(AppConfig config) {
         if (configured) return;
         try {
             Logger root = Logger.getLogger("");
@@ -20,18 +54,28 @@ public final class LogConfig {
             for (Handler h : root.getHandlers()) {
                 root.removeHandler(h);
             }
+            LogLineFormatter formatter = new LogLineFormatter();
+
             // Console
             ConsoleHandler console = new ConsoleHandler();
             console.setLevel(Level.INFO);
-            console.setFormatter(new SimpleFormatter());
-            root.addHandler(console);
+            console.setFormatter(formatter);
 
             // File
-            Path logPath = Path.of("app.log");
-            FileHandler file = new FileHandler(logPath.toString(), true);
+            RollingFileHandler file = new RollingFileHandler(Path.of(get(config, "log.file", "app.log")),
+                    getLong(config, "log.file.maxSizeMb", 10) * 1024 * 1024,
+                    (int) getLong(config, "log.file.maxFiles", 5),
+                    Boolean.parseBoolean(get(config, "log.file.rotateDaily", "true")));
             file.setLevel(Level.INFO);
-            file.setFormatter(new SimpleFormatter());
-            root.addHandler(file);
+            file.setFormatter(formatter);
+
+            AsyncLogHandler async = new AsyncLogHandler(List.of(console, file),
+                    (int) getLong(config, "log.async.bufferSize", 8192),
+                    "block".equalsIgnoreCase(get(config, "log.async.overflow", "drop"))
+                            ? AsyncLogHandler.OverflowPolicy.BLOCK : AsyncLogHandler.OverflowPolicy.DROP,
+                    (int) getLong(config, "log.rateLimit.perSecond", 200));
+            async.setLevel(Level.INFO);
+            root.addHandler(async);
 
             root.setLevel(Level.INFO);
             configured = true;
@@ -39,4 +83,13 @@ public final class LogConfig {
             throw new RuntimeException("Failed to configure logging", e);
         }
     }
+
+    private static String get(AppConfig config, String key, String def) {
+        String v = config == null ? null : config.get(key);
+        return v == null || v.isBlank() ? def : v.trim();
+    }
+
+    private static long getLong(AppConfig config, String key, long def) {
+        return config == null ? def : config.getLong(key, def);
+    }
 }
@@ -1,13 +1,24 @@
 package com.codeup.novabook.infra;
 
-import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.connection.PoolStats;
+import com.codeup.novabook.connection.PooledConnectionFactory;
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.domain.Member;
+import com.codeup.novabook.infra.cache.CacheStats;
+import com.codeup.novabook.infra.cache.TtlLruCache;
 import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.infra.metrics.ServiceMetrics;
+import com.codeup.novabook.infra.metrics.TimingProxy;
+import com.codeup.novabook.jdbc.BulkCopy;
 import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.SchemaMigrator;
+import com.codeup.novabook.jdbc.SqlMetrics;
 import com.codeup.novabook.repository.IBookRepository;
 import com.codeup.novabook.repository.ILoanRepository;
 import com.codeup.novabook.repository.IMemberRepository;
 import com.codeup.novabook.repository.IUserRepository;
 import com.codeup.novabook.repository.impl.BookjdbcRepository;
+import com.codeup.novabook.repository.impl.BulkjdbcRepository;
 import com.codeup.novabook.repository.impl.LoanjdbcRepository;
 import com.codeup.novabook.repository.impl.MemberjdbcRepository;
 import com.codeup.novabook.repository.impl.UserjdbcRepository;
@@ -15,21 +26,47 @@ import com.codeup.novabook.service.IBookService;
 import com.codeup.novabook.service.ILoanService;
 import com.codeup.novabook.service.IMemberService;
 import com.codeup.novabook.service.IUserService;
+import com.codeup.novabook.service.BookSearchIndex;
+import com.codeup.novabook.service.BulkTransferService;
 import com.codeup.novabook.service.ExportService;
 import com.codeup.novabook.service.FineCalculator;
 import com.codeup.novabook.service.impl.BookServiceImpl;
+import com.codeup.novabook.service.impl.CachingBookService;
+import com.codeup.novabook.service.impl.CachingMemberService;
+import com.codeup.novabook.service.impl.IndexedBookService;
 import com.codeup.novabook.service.impl.LoanServiceImpl;
 import com.codeup.novabook.service.impl.MemberServiceImpl;
 import com.codeup.novabook.service.impl.UserServiceImpl;
 import com.codeup.novabook.service.impl.DefaultingUserService;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Wires the repositories and services and runs the startup work.
+ * <p>
+ * {@link #getInstance()} only creates objects: services are built on first use, and
+ * the database work (connection preflight, schema migration, default admin seed and the
+ * search index build) runs in the background through a {@link StartupOrchestrator}, so
+ * the first window can show while it is still going. {@link #startup()} completes when
+ * it is done; callers that do not wait for it (the login window disables its buttons
+ * until then) must {@code join()} it before using a service, so that they never run
+ * against a schema that is still being migrated.
+ * </p>
+ * <p>
+ * One-shot batch runs use {@link #getBatchInstance()}, which skips the search index
+ * build: they never search, and it scans the whole catalog.
+ * </p>
+ */
 public final class ServiceRegistry {
+    private static final Logger logger = Logger.getLogger(ServiceRegistry.class.getName());
     private static ServiceRegistry INSTANCE;
 
     private final AppConfig config;
+    private final PooledConnectionFactory factory;
     private final JdbcTemplateLight jdbc;
 
     private final IBookRepository bookRepo;
@@ -37,55 +74,117 @@ public final class ServiceRegistry {
     private final ILoanRepository loanRepo;
     private final IUserRepository userRepo;
 
-    private final IBookService bookService;
-    private final IMemberService memberService;
-    private final ILoanService loanService;
-    private final IUserService userService;
-    private final ExportService exportService;
+    // null when metrics.services.enabled is off
+    private final ServiceMetrics serviceMetrics;
 
-    private ServiceRegistry() {
+    private final Lazy<IndexedBookService> indexedBooks;
+    // hold null when cache.enabled is off
+    private final Lazy<CachingBookService> bookCache;
+    private final Lazy<CachingMemberService> memberCache;
+
+    private final Lazy<IBookService> bookService;
+    private final Lazy<IMemberService> memberService;
+    private final Lazy<ILoanService> loanService;
+    private final Lazy<IUserService> userService;
+    private final Lazy<ExportService> exportService;
+    private final Lazy<BulkTransferService> bulkTransferService;
+
+    private final CompletableFuture<Void> startup;
+
+    private ServiceRegistry(boolean buildSearchIndex) {
+        long start = System.nanoTime();
         this.config = new AppConfig();
-        ConnectionFactory factory = new ConnectionFactory(config);
-        this.jdbc = new JdbcTemplateLight(factory);
+        this.factory = new PooledConnectionFactory(config);
+        this.jdbc = new JdbcTemplateLight(factory, config.getInt("db.fetchSize", JdbcTemplateLight.DEFAULT_FETCH_SIZE),
+                SqlMetrics.fromConfig(config));
 
-        this.bookRepo = new BookjdbcRepository(jdbc);
-        this.memberRepo = new MemberjdbcRepository(jdbc);
+        this.bookRepo = new BookjdbcRepository(jdbc, jdbc.dialect());
+        this.memberRepo = new MemberjdbcRepository(jdbc, jdbc.dialect());
         this.loanRepo = new LoanjdbcRepository(jdbc);
-        this.userRepo = new UserjdbcRepository(jdbc);
+        this.userRepo = new UserjdbcRepository(jdbc, jdbc.dialect());
 
         // Configure logging
-        LogConfig.configure();
+        LogConfig.configure(config);
+
+        this.serviceMetrics = ServiceMetrics.fromConfig(config);
+
+        boolean cacheEnabled = config.getBoolean("cache.enabled", false);
+        int maxSize = config.getInt("cache.maxSize", 1000);
+        long ttlSeconds = config.getLong("cache.ttlSeconds", 300);
+
+        this.indexedBooks = new Lazy<>(() -> new IndexedBookService(new BookServiceImpl(bookRepo), bookRepo, new BookSearchIndex()));
+        // Read-through caches sit outermost
+        this.bookCache = new Lazy<>(() -> !cacheEnabled ? null : new CachingBookService(indexedBooks.get(),
+                new TtlLruCache<Integer, Book>(maxSize, ttlSeconds, TimeUnit.SECONDS),
+                new TtlLruCache<String, Integer>(maxSize, ttlSeconds, TimeUnit.SECONDS)));
+        this.memberCache = new Lazy<>(() -> !cacheEnabled ? null : new CachingMemberService(new MemberServiceImpl(memberRepo),
+                new TtlLruCache<Integer, Member>(maxSize, ttlSeconds, TimeUnit.SECONDS)));
+
+        this.bookService = new Lazy<>(() -> timed(IBookService.class,
+                bookCache.get() != null ? bookCache.get() : indexedBooks.get()));
+        this.memberService = new Lazy<>(() -> timed(IMemberService.class,
+                memberCache.get() != null ? memberCache.get() : new MemberServiceImpl(memberRepo)));
+        this.loanService = new Lazy<>(() -> {
+            // Config-based services
+            ConfigService conf = new ConfigService();
+            int diasPrestamo = conf.getInt("diasPrestamo", 7);
+            long multaPorDia = conf.getLong("multaPorDia", 1500);
+            FineCalculator fineCalculator = new FineCalculator(diasPrestamo, multaPorDia);
+            return timed(ILoanService.class, new LoanServiceImpl(loanRepo, bookRepo, memberRepo, jdbc, fineCalculator, (bookId, delta) -> {
+                if (bookCache.get() != null) bookCache.get().evict(bookId);
+                indexedBooks.get().stockAdjusted(bookId, delta);
+            }));
+        });
+        this.userService = new Lazy<>(() -> timed(IUserService.class, new DefaultingUserService(new UserServiceImpl(userRepo))));
+        this.exportService = new Lazy<>(() -> new ExportService(loanRepo));
+        // Native bulk loads bypass the book service, so refresh its cache and index afterwards
+        this.bulkTransferService = new Lazy<>(() -> new BulkTransferService(
+                new BulkjdbcRepository(jdbc, BulkCopy.forDatabase(factory, config), jdbc.dialect()), bookService.get(), loanService.get(), () -> {
+            if (bookCache.get() != null) bookCache.get().clear();
+            indexedBooks.get().rebuildIndex();
+        }));
+
+        logger.log(Level.INFO, "Services wired in {0} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        // Every step is non-fatal; the admin seed and the index need the schema
+        StartupOrchestrator steps = new StartupOrchestrator()
+                .step("preflight", this::preflight)
+                .step("migrate", this::migrate)
+                .step("admin seed", this::seedDefaultAdmin, "migrate");
+        if (buildSearchIndex) {
+            // search falls back to SQL until the index is built
+            steps.step("search index", () -> indexedBooks.get().rebuildIndex(), "migrate");
+        }
+        this.startup = steps.start();
+    }
 
-        // Preflight DB connectivity (non-fatal)
+    private void preflight() {
         try {
             var c = factory.open();
             try { c.close(); } catch (Exception ignore) {}
-            Logger.getLogger(ServiceRegistry.class.getName()).info("Database connection preflight: OK");
+            logger.info("Database connection preflight: OK");
         } catch (Exception ex) {
-            Logger.getLogger(ServiceRegistry.class.getName()).log(Level.WARNING, "Database connection preflight failed: " + ex.getMessage(), ex);
+            logger.log(Level.WARNING, "Database connection preflight failed: " + ex.getMessage(), ex);
         }
+    }
 
-        // Config-based services
-        ConfigService conf = new ConfigService();
-        int diasPrestamo = conf.getInt("diasPrestamo", 7);
-        long multaPorDia = conf.getLong("multaPorDia", 1500);
-        FineCalculator fineCalculator = new FineCalculator(diasPrestamo, multaPorDia);
-
-        this.bookService = new BookServiceImpl(bookRepo);
-        this.memberService = new MemberServiceImpl(memberRepo);
-        this.loanService = new LoanServiceImpl(loanRepo, bookRepo, memberRepo, jdbc, fineCalculator);
-        this.userService = new DefaultingUserService(new UserServiceImpl(userRepo));
-        this.exportService = new ExportService(loanRepo);
-
-        // Seed default admin (non-fatal if DB not ready)
-        try { seedDefaultAdmin(); } catch (Exception ex) {
-            Logger.getLogger(ServiceRegistry.class.getName()).log(Level.WARNING, "Default admin seed failed: " + ex.getMessage());
+    // Create or upgrade the schema before anything reads it (db.migrate=false to skip)
+    private void migrate() {
+        if (config.getBoolean("db.migrate", true)) {
+            new SchemaMigrator(factory).migrate();
         }
     }
 
+    /**
+     * Puts {@code service} behind a {@link TimingProxy} when service metrics are enabled.
+     */
+    private <T> T timed(Class<T> iface, T service) {
+        return serviceMetrics != null ? TimingProxy.wrap(iface, service, serviceMetrics) : service;
+    }
+
     private void seedDefaultAdmin() {
         try {
-            List<com.codeup.novabook.domain.User> admins = userService.findByRole(com.codeup.novabook.domain.UserRole.ADMIN);
+            List<com.codeup.novabook.domain.User> admins = userService().findByRole(com.codeup.novabook.domain.UserRole.ADMIN);
             boolean hasAdmin = admins != null && !admins.isEmpty();
             if (!hasAdmin) {
                 com.codeup.novabook.domain.User u = new com.codeup.novabook.domain.User();
@@ -95,23 +194,44 @@ public final class ServiceRegistry {
                 u.setPhone("");
                 u.setRole(com.codeup.novabook.domain.UserRole.ADMIN);
                 u.setAccessLevel(com.codeup.novabook.domain.AccessLevel.MANAGE);
-                userService.create(u);
-                Logger.getLogger(ServiceRegistry.class.getName()).info("Default admin created: admin@novabook.local");
+                userService().create(u);
+                logger.info("Default admin created: admin@novabook.local");
             }
         } catch (Exception ex) {
             // swallow to avoid crashing UI
-            Logger.getLogger(ServiceRegistry.class.getName()).log(Level.WARNING, "Could not seed admin: " + ex.getMessage());
+            logger.log(Level.WARNING, "Could not seed admin: " + ex.getMessage());
         }
     }
 
     public static synchronized ServiceRegistry getInstance() {
-        if (INSTANCE == null) INSTANCE = new ServiceRegistry();
+        if (INSTANCE == null) INSTANCE = new ServiceRegistry(true);
         return INSTANCE;
     }
 
-    public IBookService bookService() { return bookService; }
-    public IMemberService memberService() { return memberService; }
-    public ILoanService loanService() { return loanService; }
-    public IUserService userService() { return userService; }
-    public ExportService exportService() { return exportService; }
+    /**
+     * Like {@link #getInstance()}, but when this call creates the registry the in-memory
+     * search index is not built at startup.
+     */
+    public static synchronized ServiceRegistry getBatchInstance() {
+        if (INSTANCE == null) INSTANCE = new ServiceRegistry(false);
+        return INSTANCE;
+    }
+
+    /**
+     * @return completes once the background startup steps have all finished, successfully or not
+     */
+    public CompletableFuture<Void> startup() { return startup; }
+
+    public IBookService bookService() { return bookService.get(); }
+    public IMemberService memberService() { return memberService.get(); }
+    public ILoanService loanService() { return loanService.get(); }
+    public IUserService userService() { return userService.get(); }
+    public ExportService exportService() { return exportService.get(); }
+    public BulkTransferService bulkTransferService() { return bulkTransferService.get(); }
+    public PoolStats poolStats() { return factory.stats(); }
+    public SqlMetrics sqlMetrics() { return jdbc.metrics(); }
+    public JdbcTemplateLight jdbc() { return jdbc; }
+    public Optional<CacheStats> bookCacheStats() { return Optional.ofNullable(bookCache.get()).map(CachingBookService::stats); }
+    public Optional<CacheStats> memberCacheStats() { return Optional.ofNullable(memberCache.get()).map(CachingMemberService::stats); }
+    public Optional<ServiceMetrics> serviceMetrics() { return Optional.ofNullable(serviceMetrics); }
 }
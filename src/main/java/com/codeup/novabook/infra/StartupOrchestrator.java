@@ -0,0 +1,119 @@
+package com.codeup.novabook.infra;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs startup steps on background daemon threads, each one as soon as the steps it
+ * depends on have finished, so independent steps run at the same time.
+ * <p>
+ * Steps are non-fatal: a failure is logged as a WARNING and the steps that depend on it
+ * still run, as they would have when startup ran inline. Every step's duration is
+ * logged, then the total once all of them are done.
+ * </p>
+ * <pre>{@code
+ * StartupOrchestrator startup = new StartupOrchestrator();
+ * startup.step("migrate", this::migrate);
+ * startup.step("admin seed", this::seedDefaultAdmin, "migrate");
+ * CompletableFuture<Void> ready = startup.start();
+ * }</pre>
+ */
+public final class StartupOrchestrator {
+
+    private static final Logger logger = Logger.getLogger(StartupOrchestrator.class.getName());
+
+    private static final class Step {
+        final String name;
+        final Runnable work;
+        final String[] after;
+
+        Step(String name, Runnable work, String[] after) {
+            this.name = name;
+            this.work = work;
+            this.after = after;
+        }
+    }
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+    private CompletableFuture<Void> ready;
+
+    /**
+     * Adds a step. Steps it depends on must have been added before it.
+     *
+     * @param after names of the steps that must finish first
+     * @throws IllegalArgumentException if a dependency is unknown or the name is taken
+     * @throws IllegalStateException if {@link #start()} was already called
+     */
+    public synchronized StartupOrchestrator step(String name, Runnable work, String... after) {
+        if (ready != null) throw new IllegalStateException("Startup already started");
+        if (steps.containsKey(name)) throw new IllegalArgumentException("Duplicate startup step: " + name);
+        for (String dependency : after) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException("Startup step " + name + " depends on unknown step " + dependency);
+            }
+        }
+        steps.put(name, new Step(name, work, after));
+        return this;
+    }
+
+    /**
+     * Starts every step that has no pending dependency and returns at once.
+     *
+     * @return completes, never exceptionally, once every step has finished
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (ready != null) return ready;
+        long start = System.nanoTime();
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, steps.size()), r -> {
+            Thread t = new Thread(r, "novabook-startup-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        for (Step step : steps.values()) {
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            for (String dependency : step.after) dependencies.add(futures.get(dependency));
+            futures.put(step.name, CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                    .thenRunAsync(() -> run(step), executor));
+        }
+        ready = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .whenComplete((v, e) -> {
+                    executor.shutdown();
+                    logger.log(Level.INFO, "Startup finished in {0} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                });
+        return ready;
+    }
+
+    private void run(Step step) {
+        long start = System.nanoTime();
+        try {
+            step.work.run();
+        } catch (Exception ex) {
+            logger.log(Level.WARNING, "Startup step " + step.name + " failed: " + ex.getMessage(), ex);
+        } finally {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            synchronized (this) {
+                timings.put(step.name, millis);
+            }
+            logger.log(Level.INFO, "Startup step {0} took {1} ms", new Object[]{step.name, millis});
+        }
+    }
+
+    /**
+     * @return the duration in milliseconds of every step finished so far, in the order they finished
+     */
+    public synchronized Map<String, Long> timings() {
+        return new LinkedHashMap<>(timings);
+    }
+}
@@ -0,0 +1,55 @@
+package com.codeup.novabook.infra.cache;
+
+/**
+ * Immutable snapshot of {@link TtlLruCache} counters.
+ */
+public final class CacheStats {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+
+    CacheStats(int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public int getSize() { return size; }
+
+    public int getMaxSize() { return maxSize; }
+
+    public long getHits() { return hits; }
+
+    /** Lookups that found nothing, including expired entries. */
+    public long getMisses() { return misses; }
+
+    /** Entries dropped because the cache was full (LRU). */
+    public long getEvictions() { return evictions; }
+
+    /** Entries dropped because their time-to-live had passed. */
+    public long getExpirations() { return expirations; }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "size=" + size +
+                ", maxSize=" + maxSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                ", evictions=" + evictions +
+                ", expirations=" + expirations +
+                '}';
+    }
+}
@@ -0,0 +1,146 @@
+package com.codeup.novabook.infra.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache with least-recently-used eviction and a fixed
+ * time-to-live per entry.
+ * <p>
+ * Entries expire {@code ttl} after they were written, whether or not they are
+ * read; when the cache is full, the least recently read entry is dropped.
+ * Operations synchronize on the cache, which is fine for the small, short-held
+ * critical sections involved. The clock is injectable for tests.
+ * </p>
+ * <p>
+ * Read-through callers take a {@link #generation()} before loading a value and
+ * store it with {@link #putUnlessInvalidated}, so an invalidation that lands
+ * while the value is loaded is not undone by the late put. Invalidations are
+ * tracked per hash stripe of the key, so an unrelated key in the same stripe
+ * can occasionally skip a put; that only costs a later miss.
+ * </p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class TtlLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private static final int STRIPES = 64;
+    // Generation of the last invalidation per key stripe, and of the last clear()
+    private final long[] invalidatedAt = new long[STRIPES];
+    private long clearedAt;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public TtlLruCache(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, ttl, unit, System::nanoTime);
+    }
+
+    /**
+     * @param clock monotonic time source in nanoseconds
+     */
+    public TtlLruCache(int maxSize, long ttl, TimeUnit unit, LongSupplier clock) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be positive");
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.clock = clock;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null when absent or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        if (clock.getAsLong() - e.writtenAt >= ttlNanos) {
+            map.remove(key);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return e.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) return;
+        map.put(key, new Entry<>(value, clock.getAsLong()));
+    }
+
+    /**
+     * @return a token to pass to {@link #putUnlessInvalidated}, taken before the value is loaded
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Puts the value unless its key was invalidated after {@code generation} was taken.
+     *
+     * @return whether the value was stored
+     */
+    public synchronized boolean putUnlessInvalidated(K key, V value, long generation) {
+        if (key == null || value == null) return false;
+        if (Math.max(clearedAt, invalidatedAt[stripe(key)]) > generation) return false;
+        map.put(key, new Entry<>(value, clock.getAsLong()));
+        return true;
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+        if (key != null) invalidatedAt[stripe(key)] = ++generation;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        clearedAt = ++generation;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(size(), maxSize, hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long writtenAt;
+
+        Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
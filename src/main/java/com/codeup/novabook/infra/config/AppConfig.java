@@ -26,4 +26,21 @@ public class AppConfig {
             }
 }
     public String get(String key) {  return properties.getProperty(key);}
+
+    public int getInt(String key, int def) {
+        String v = get(key);
+        try { return v == null ? def : Integer.parseInt(v.trim()); }
+        catch (NumberFormatException e) { return def; }
+    }
+
+    public long getLong(String key, long def) {
+        String v = get(key);
+        try { return v == null ? def : Long.parseLong(v.trim()); }
+        catch (NumberFormatException e) { return def; }
+    }
+
+    public boolean getBoolean(String key, boolean def) {
+        String v = get(key);
+        return v == null || v.isBlank() ? def : Boolean.parseBoolean(v.trim());
+    }
 }
@@ -0,0 +1,30 @@
+package com.codeup.novabook.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A login check by {@code UserjdbcRepository.authenticate}. The e-mail address is
+ * deliberately not recorded.
+ */
+@Name("com.codeup.novabook.Authentication")
+@Label("Authentication")
+@Category({"Novabook", "Security"})
+@Description("A user's password checked against the stored BCrypt hash")
+public final class AuthenticationEvent extends Event {
+
+    @Label("User Found")
+    public boolean userFound;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    @Label("BCrypt Time")
+    @Description("Time spent in BCrypt.checkpw")
+    @Timespan(Timespan.NANOSECONDS)
+    public long bcryptTime;
+}
@@ -0,0 +1,39 @@
+package com.codeup.novabook.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One batch of a CSV import written to the database, or one whole CSV export.
+ */
+@Name("com.codeup.novabook.CsvBatch")
+@Label("CSV Batch")
+@Category({"Novabook", "Service"})
+@Description("Rows imported from or exported to CSV")
+public final class CsvBatchEvent extends Event {
+
+    public static final String IMPORT = "import";
+    public static final String EXPORT = "export";
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Entity")
+    @Description("book, member or loan")
+    public String entity;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Inserted")
+    public long inserted;
+
+    @Label("Updated")
+    public long updated;
+
+    @Label("Rejected")
+    public long rejected;
+}
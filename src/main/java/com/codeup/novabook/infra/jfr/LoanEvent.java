@@ -0,0 +1,36 @@
+package com.codeup.novabook.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A borrow or return through {@code ILoanService}, including its transaction.
+ */
+@Name("com.codeup.novabook.Loan")
+@Label("Loan Operation")
+@Category({"Novabook", "Service"})
+@Description("A book borrowed or returned")
+public final class LoanEvent extends Event {
+
+    public static final String BORROW = "borrow";
+    public static final String RETURN = "return";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Loan Id")
+    public int loanId;
+
+    @Label("Member Id")
+    public int memberId;
+
+    @Label("Book Id")
+    public int bookId;
+
+    @Label("Succeeded")
+    @Description("False when the operation was rejected or rolled back")
+    public boolean succeeded;
+}
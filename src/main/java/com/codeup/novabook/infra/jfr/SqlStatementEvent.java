@@ -0,0 +1,58 @@
+package com.codeup.novabook.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One statement run by {@code JdbcTemplateLight}, from borrowing the connection
+ * until the results are read.
+ * <p>
+ * For streamed queries the event ends when the stream is closed, so its duration
+ * also includes the time the consumer spends on each row.
+ * </p>
+ */
+@Name("com.codeup.novabook.SqlStatement")
+@Label("SQL Statement")
+@Category({"Novabook", "Database"})
+@Description("A statement executed through JdbcTemplateLight")
+@StackTrace(false)
+public final class SqlStatementEvent extends Event {
+
+    @Label("SQL Id")
+    @Description("Hash of the SQL text, for grouping executions of the same statement")
+    public int sqlId;
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Rows")
+    @Description("Rows returned or affected")
+    public long rows;
+
+    @Label("Connection Wait")
+    @Description("Time spent borrowing the connection from the pool")
+    @Timespan(Timespan.NANOSECONDS)
+    public long connectionWait;
+
+    @Label("Failed")
+    public boolean failed;
+
+    /**
+     * Ends the event and commits it if it passes the recording's threshold.
+     */
+    public void finish(String sql, long rows, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.sqlId = sql.hashCode();
+            this.sql = sql;
+            this.rows = rows;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
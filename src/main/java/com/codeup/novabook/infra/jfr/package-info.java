@@ -0,0 +1,25 @@
+/**
+ * Java Flight Recorder events for SQL statements, loans, CSV batches and logins.
+ * <p>
+ * They cost nothing until a recording is started, e.g.
+ * {@code jcmd <pid> JFR.start duration=5m filename=desk.jfr}, and then appear under
+ * "Novabook" next to the JVM's own GC and thread events. Fields are only filled in when
+ * {@code shouldCommit()} is true:
+ * </p>
+ * <pre>{@code
+ * LoanEvent event = new LoanEvent();
+ * event.begin();
+ * ... the operation ...
+ * event.end();
+ * if (event.shouldCommit()) {
+ *     event.bookId = bookId;
+ *     event.commit();
+ * }
+ * }</pre>
+ * <p>
+ * Every event is enabled without a threshold by default; a {@code .jfc} settings file can
+ * raise it (e.g. {@code com.codeup.novabook.SqlStatement#threshold=20 ms}) to keep only
+ * slow operations.
+ * </p>
+ */
+package com.codeup.novabook.infra.jfr;
@@ -0,0 +1,221 @@
+package com.codeup.novabook.infra.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Hands log records to other handlers on a single background writer thread.
+ * <p>
+ * {@link #publish} only checks the level and the rate limit and puts the record in a
+ * bounded buffer; message formatting and I/O happen on the writer, which drains the
+ * buffer in batches of up to {@value #BATCH_SIZE} and flushes its targets once per
+ * batch. When the buffer is full, records are dropped ({@link OverflowPolicy#DROP}) or
+ * the caller waits for space ({@link OverflowPolicy#BLOCK}).
+ * </p>
+ * <p>
+ * Records below WARNING are limited to {@code rateLimitPerSecond} per logger; the
+ * excess is discarded. Dropped and rate-limited records are reported by the writer
+ * as WARNING summaries, at most once per second.
+ * </p>
+ * <p>
+ * Because formatting is deferred, message parameters are rendered when the writer
+ * gets to them, and the record's source is never inferred (see {@link LogLineFormatter}).
+ * </p>
+ */
+public final class AsyncLogHandler extends Handler {
+
+    /** What {@link #publish} does when the buffer is full. */
+    public enum OverflowPolicy {
+        /** Discard the record and count it. */
+        DROP,
+        /** Wait until the writer has made room. */
+        BLOCK
+    }
+
+    static final int BATCH_SIZE = 512;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final LogRecord STOP = new LogRecord(Level.OFF, "stop");
+
+    private final List<Handler> targets;
+    private final BlockingQueue<LogRecord> buffer;
+    private final OverflowPolicy policy;
+    private final int rateLimitPerSecond;
+    private final Map<String, RateWindow> windows = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param targets handlers that receive every record, in order, on the writer thread
+     * @param capacity records the buffer holds
+     * @param rateLimitPerSecond records below WARNING accepted per logger and second; 0 or less for no limit
+     */
+    public AsyncLogHandler(List<Handler> targets, int capacity, OverflowPolicy policy, int rateLimitPerSecond) {
+        this.targets = List.copyOf(targets);
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.policy = policy;
+        this.rateLimitPerSecond = rateLimitPerSecond;
+        this.writer = new Thread(this::run, "novabook-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record) || rateLimited(record)) return;
+        if (policy == OverflowPolicy.BLOCK) {
+            try {
+                buffer.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+            }
+        } else if (!buffer.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    private boolean rateLimited(LogRecord record) {
+        if (rateLimitPerSecond <= 0 || record.getLevel().intValue() >= Level.WARNING.intValue()) return false;
+        String name = record.getLoggerName() != null ? record.getLoggerName() : "";
+        RateWindow window = windows.get(name);
+        if (window == null) window = windows.computeIfAbsent(name, k -> new RateWindow());
+        return !window.tryAcquire(System.nanoTime() / 1_000_000_000L, rateLimitPerSecond);
+    }
+
+    /**
+     * @return records discarded so far because the buffer was full
+     */
+    public long getDroppedCount() { return dropped.sum(); }
+
+    private void run() {
+        List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        long lastReport = System.nanoTime();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                LogRecord first = buffer.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, BATCH_SIZE - 1);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            for (LogRecord record : batch) {
+                if (record == STOP) {
+                    stopping = true;
+                } else {
+                    write(record);
+                }
+            }
+            if (stopping) {
+                // Records published while the stop marker was queued
+                batch.clear();
+                buffer.drainTo(batch);
+                for (LogRecord record : batch) if (record != STOP) write(record);
+            }
+            if (stopping || System.nanoTime() - lastReport >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS)) {
+                reportLosses();
+                lastReport = System.nanoTime();
+            }
+            if (!batch.isEmpty() || stopping) flushTargets();
+            batch.clear();
+        }
+    }
+
+    private void write(LogRecord record) {
+        for (Handler target : targets) {
+            try {
+                target.publish(record);
+            } catch (RuntimeException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    private void reportLosses() {
+        long full = dropped.sumThenReset();
+        if (full > 0) {
+            write(summary("Log buffer full: dropped {0} records", full, null));
+        }
+        windows.forEach((logger, window) -> {
+            long suppressed = window.suppressed.sumThenReset();
+            if (suppressed > 0) {
+                write(summary("Rate limit: suppressed {0} records from {1}", suppressed, logger));
+            }
+        });
+    }
+
+    private static LogRecord summary(String message, long count, String logger) {
+        LogRecord record = new LogRecord(Level.WARNING, message);
+        record.setLoggerName(AsyncLogHandler.class.getName());
+        record.setParameters(new Object[]{count, logger});
+        return record;
+    }
+
+    private void flushTargets() {
+        for (Handler target : targets) {
+            try {
+                target.flush();
+            } catch (RuntimeException e) {
+                reportError(null, e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Does not wait; records already buffered are written by the next batch.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Writes out the buffered records, then closes the targets. Waits at most five seconds.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            if (!buffer.offer(STOP, 5, TimeUnit.SECONDS)) writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Handler target : targets) {
+            target.close();
+        }
+    }
+
+    /** A per-logger counter for the current second. */
+    private static final class RateWindow {
+        final AtomicLong second = new AtomicLong();
+        final AtomicInteger count = new AtomicInteger();
+        final LongAdder suppressed = new LongAdder();
+
+        // Approximate on the second boundary; a few extra records may get through
+        boolean tryAcquire(long now, int limit) {
+            long current = second.get();
+            if (current != now && second.compareAndSet(current, now)) count.set(0);
+            if (count.incrementAndGet() <= limit) return true;
+            suppressed.increment();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.codeup.novabook.infra.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+
+/**
+ * One line per record: timestamp, level, logger name and message, followed by the
+ * stack trace if there is one.
+ * <p>
+ * Unlike {@link java.util.logging.SimpleFormatter} it never asks the record for its
+ * source class and method. Those are inferred by walking the current thread's stack,
+ * which is both costly and wrong on {@link AsyncLogHandler}'s writer thread; the
+ * logger name, which in this application is the logging class, is printed instead.
+ * </p>
+ */
+public final class LogLineFormatter extends Formatter {
+
+    private static final String FORMAT = "%1$tF %1$tT.%1$tL %2$-7s %3$s: %4$s%n";
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    @Override
+    public String format(LogRecord record) {
+        String line = String.format(FORMAT, ZonedDateTime.ofInstant(record.getInstant(), zone),
+                record.getLevel().getName(), record.getLoggerName(), formatMessage(record));
+        if (record.getThrown() == null) return line;
+        StringWriter trace = new StringWriter();
+        trace.write(line);
+        record.getThrown().printStackTrace(new PrintWriter(trace));
+        return trace.toString();
+    }
+}
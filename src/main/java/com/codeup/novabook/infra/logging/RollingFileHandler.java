@@ -0,0 +1,129 @@
+package com.codeup.novabook.infra.logging;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Appends formatted records to a file through a buffered writer, rolling it over by
+ * size and, optionally, when the day changes.
+ * <p>
+ * On rollover {@code app.log} becomes {@code app.log.1}, {@code app.log.1} becomes
+ * {@code app.log.2} and so on; the oldest of {@code maxFiles} is deleted. Output is
+ * only flushed by {@link #flush()}, which {@link AsyncLogHandler} calls once per batch.
+ * </p>
+ */
+public final class RollingFileHandler extends Handler {
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final boolean daily;
+    private final Clock clock;
+    private Writer out;
+    private long size;
+    private LocalDate openedOn;
+
+    /**
+     * @param maxBytes size after which the file is rolled over; 0 or less for no limit
+     * @param maxFiles rolled-over files to keep
+     * @param daily also roll over on the first record of a new day
+     */
+    public RollingFileHandler(Path file, long maxBytes, int maxFiles, boolean daily) throws IOException {
+        this(file, maxBytes, maxFiles, daily, Clock.systemDefaultZone());
+    }
+
+    public RollingFileHandler(Path file, long maxBytes, int maxFiles, boolean daily, Clock clock) throws IOException {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.daily = daily;
+        this.clock = clock;
+        setFormatter(new LogLineFormatter());
+        if (Files.exists(file)) {
+            size = Files.size(file);
+            openedOn = LocalDate.ofInstant(Files.getLastModifiedTime(file).toInstant(), zone());
+        } else {
+            openedOn = LocalDate.now(clock);
+        }
+        open();
+    }
+
+    private ZoneId zone() { return clock.getZone(); }
+
+    private void open() throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(LogRecord record) {
+        if (out == null || !isLoggable(record)) return;
+        String text;
+        try {
+            text = getFormatter().format(record);
+        } catch (RuntimeException e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            LocalDate today = LocalDate.now(clock);
+            if ((daily && !today.equals(openedOn)) || (maxBytes > 0 && size > 0 && size + bytes.length > maxBytes)) {
+                rollOver(today);
+            }
+            out.write(text);
+            size += bytes.length;
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    private void rollOver(LocalDate today) throws IOException {
+        out.close();
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i))) Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        size = 0;
+        openedOn = today;
+        open();
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.CLOSE_FAILURE);
+        }
+        out = null;
+    }
+}
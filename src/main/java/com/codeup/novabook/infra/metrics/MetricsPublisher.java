@@ -0,0 +1,112 @@
+package com.codeup.novabook.infra.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes a metrics collector: registers its MBeans under
+ * {@code com.codeup.novabook} and logs its dump periodically.
+ * <p>
+ * Shared by {@link ServiceMetrics} and {@code SqlMetrics}. Until {@link #enableJmx()}
+ * is called, {@link #register} does nothing, so collectors can register their
+ * per-entry MBeans unconditionally. {@link #close()} stops the dump and
+ * unregisters everything registered through this publisher.
+ * </p>
+ */
+public final class MetricsPublisher implements AutoCloseable {
+
+    private static final String JMX_DOMAIN = "com.codeup.novabook";
+
+    private final String label;
+    private final String threadName;
+    private final Logger logger;
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+    private volatile MBeanServer mbeanServer;
+    private ScheduledExecutorService dumper;
+
+    /**
+     * @param label names the collector in log messages, e.g. {@code "SQL metrics"}
+     * @param threadName name of the dump thread
+     * @param logger the collector's logger, which receives the dumps and warnings
+     */
+    public MetricsPublisher(String label, String threadName, Logger logger) {
+        this.label = label;
+        this.threadName = threadName;
+        this.logger = logger;
+    }
+
+    /**
+     * Publishes the following {@link #register} calls on the platform MBean server.
+     */
+    public void enableJmx() {
+        mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    }
+
+    /**
+     * Registers {@code mbean} as {@code com.codeup.novabook:<properties>}, replacing
+     * any MBean already registered under that name. Does nothing without JMX.
+     */
+    public void register(Object mbean, String properties) {
+        MBeanServer server = mbeanServer;
+        if (server == null) return;
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":" + properties);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(mbean, name);
+            registered.add(name);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "Could not register " + label + " MBean " + properties, e);
+        }
+    }
+
+    /**
+     * Logs {@code dump} every {@code intervalSeconds}, skipping intervals in which
+     * {@code totalCalls} did not move.
+     *
+     * @param intervalSeconds the period; 0 or less disables the dump
+     */
+    public void startDump(long intervalSeconds, LongSupplier totalCalls, Supplier<String> dump) {
+        if (intervalSeconds <= 0) return;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+        long[] lastCalls = {0};
+        dumper.scheduleWithFixedDelay(() -> {
+            long calls = totalCalls.getAsLong();
+            if (calls == lastCalls[0]) return;
+            lastCalls[0] = calls;
+            logger.log(Level.INFO, label + "\n{0}", dump.get());
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump and unregisters the MBeans.
+     */
+    @Override
+    public void close() {
+        if (dumper != null) dumper.shutdownNow();
+        MBeanServer server = mbeanServer;
+        if (server == null) return;
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                logger.log(Level.FINE, "Could not unregister " + name, e);
+            }
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,31 @@
+package com.codeup.novabook.infra.metrics;
+
+/**
+ * Receives the timings of instrumented operations, e.g. from {@link TimingProxy}.
+ * <p>
+ * {@link ServiceMetrics} keeps them in memory and publishes them over JMX; other
+ * implementations can forward them to an external monitoring system. Both methods are
+ * called on the caller's thread, on every call, so they must be cheap and thread-safe.
+ * </p>
+ */
+public interface MetricsRegistry {
+
+    /** Records nothing. */
+    MetricsRegistry NONE = new MetricsRegistry() {
+        @Override public void started(String operation) { }
+        @Override public void finished(String operation, long nanos, boolean failed) { }
+    };
+
+    /**
+     * Called when a call to {@code operation} begins.
+     */
+    void started(String operation);
+
+    /**
+     * Called when that call returns or throws.
+     *
+     * @param nanos how long the call took
+     * @param failed true when it threw
+     */
+    void finished(String operation, long nanos, boolean failed);
+}
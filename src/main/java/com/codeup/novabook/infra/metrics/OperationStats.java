@@ -0,0 +1,73 @@
+package com.codeup.novabook.infra.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call, error and concurrency counters and a latency histogram for one operation,
+ * kept by {@link ServiceMetrics}.
+ */
+public final class OperationStats implements OperationStatsMBean {
+
+    private final String operation;
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAccumulator maxInFlight = new LongAccumulator(Long::max, 0);
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationStats(String operation) {
+        this.operation = operation;
+    }
+
+    void started() {
+        maxInFlight.accumulate(inFlight.incrementAndGet());
+    }
+
+    void finished(long nanos, boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed) errors.increment();
+        latency.record(nanos);
+    }
+
+    @Override
+    public String getOperation() { return operation; }
+
+    /** Completed calls. */
+    @Override
+    public long getCalls() { return latency.getCount(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public double getErrorRate() {
+        long calls = getCalls();
+        return calls == 0 ? 0 : (double) getErrors() / calls;
+    }
+
+    /** Calls running right now. */
+    @Override
+    public int getInFlight() { return inFlight.get(); }
+
+    @Override
+    public long getMaxInFlight() { return maxInFlight.get(); }
+
+    @Override
+    public double getTotalMillis() { return latency.getTotalMillis(); }
+
+    @Override
+    public double getMeanMillis() { return latency.getMeanMillis(); }
+
+    @Override
+    public double getMaxMillis() { return latency.getMaxMillis(); }
+
+    @Override
+    public double getP50Millis() { return latency.percentileMillis(0.50); }
+
+    @Override
+    public double getP95Millis() { return latency.percentileMillis(0.95); }
+
+    @Override
+    public double getP99Millis() { return latency.percentileMillis(0.99); }
+}
@@ -0,0 +1,31 @@
+package com.codeup.novabook.infra.metrics;
+
+/**
+ * JMX view of one operation's {@link OperationStats}.
+ */
+public interface OperationStatsMBean {
+
+    String getOperation();
+
+    long getCalls();
+
+    long getErrors();
+
+    double getErrorRate();
+
+    int getInFlight();
+
+    long getMaxInFlight();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+}
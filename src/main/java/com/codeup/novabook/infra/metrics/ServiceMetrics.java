@@ -0,0 +1,134 @@
+package com.codeup.novabook.infra.metrics;
+
+import com.codeup.novabook.infra.config.AppConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * In-memory {@link MetricsRegistry}: per-operation call counts, error rates,
+ * in-flight calls and latency percentiles, published over JMX.
+ * <p>
+ * Operations are the service methods wrapped by {@link TimingProxy}, named
+ * {@code Interface.method} (e.g. {@code ILoanService.borrowBook}); overloads share one
+ * entry. Recording a known operation is a map lookup and a few counter updates.
+ * </p>
+ * <p>
+ * Configuration (via {@link #fromConfig}):
+ * </p>
+ * <ul>
+ * <li>{@code metrics.services.enabled} (default false): wrap the services at all</li>
+ * <li>{@code metrics.services.dumpIntervalSeconds} (default 300, 0 disables): logs {@link #dump()} periodically</li>
+ * <li>{@code metrics.services.jmx} (default true): registers {@code com.codeup.novabook:type=ServiceMetrics}
+ *     and one {@code type=ServiceOperation,name=...} MBean per operation</li>
+ * </ul>
+ */
+public final class ServiceMetrics implements MetricsRegistry, ServiceMetricsMBean, AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(ServiceMetrics.class.getName());
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final MetricsPublisher publisher = new MetricsPublisher("Service metrics", "novabook-service-metrics", logger);
+
+    /**
+     * Metrics without JMX or a periodic dump.
+     */
+    public ServiceMetrics() {
+    }
+
+    /**
+     * Builds metrics from the {@code metrics.services.*} settings, registering the MBeans
+     * and starting the periodic dump when configured.
+     *
+     * @return the metrics, or null when {@code metrics.services.enabled} is off
+     */
+    public static ServiceMetrics fromConfig(AppConfig config) {
+        if (!config.getBoolean("metrics.services.enabled", false)) return null;
+        ServiceMetrics metrics = new ServiceMetrics();
+        if (config.getBoolean("metrics.services.jmx", true)) {
+            metrics.publisher.enableJmx();
+            metrics.publisher.register(metrics, "type=ServiceMetrics");
+        }
+        metrics.publisher.startDump(config.getLong("metrics.services.dumpIntervalSeconds", 300),
+                metrics::getTotalCalls, metrics::dump);
+        return metrics;
+    }
+
+    @Override
+    public void started(String operation) {
+        stats(operation).started();
+    }
+
+    @Override
+    public void finished(String operation, long nanos, boolean failed) {
+        stats(operation).finished(nanos, failed);
+    }
+
+    private OperationStats stats(String operation) {
+        OperationStats stats = operations.get(operation);
+        if (stats != null) return stats;
+        OperationStats created = new OperationStats(operation);
+        OperationStats existing = operations.putIfAbsent(operation, created);
+        if (existing != null) return existing;
+        publisher.register(created, "type=ServiceOperation,name=" + operation);
+        return created;
+    }
+
+    /**
+     * @return the statistics of every operation called so far, most total time first
+     */
+    public List<OperationStats> snapshot() {
+        List<OperationStats> list = new ArrayList<>(operations.values());
+        list.sort(Comparator.comparingDouble(OperationStats::getTotalMillis).reversed());
+        return list;
+    }
+
+    /**
+     * @return the statistics for {@code operation}, or null if it has not been called
+     */
+    public OperationStats get(String operation) { return operations.get(operation); }
+
+    @Override
+    public int getOperationCount() { return operations.size(); }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (OperationStats s : operations.values()) total += s.getCalls();
+        return total;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long total = 0;
+        for (OperationStats s : operations.values()) total += s.getErrors();
+        return total;
+    }
+
+    @Override
+    public String dump() {
+        List<OperationStats> all = snapshot();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Service operations: %d%n", all.size()));
+        out.append(String.format("%10s %7s %9s %11s %9s %9s %9s %9s %6s  %s%n",
+                "calls", "errors", "err %", "total ms", "mean ms", "p95 ms", "p99 ms", "max ms", "peak", "operation"));
+        for (OperationStats s : all) {
+            out.append(String.format("%10d %7d %9.2f %11.1f %9.2f %9.2f %9.2f %9.2f %6d  %s%n",
+                    s.getCalls(), s.getErrors(), s.getErrorRate() * 100, s.getTotalMillis(), s.getMeanMillis(),
+                    s.getP95Millis(), s.getP99Millis(), s.getMaxMillis(), s.getMaxInFlight(), s.getOperation()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Stops the periodic dump and unregisters the MBeans.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
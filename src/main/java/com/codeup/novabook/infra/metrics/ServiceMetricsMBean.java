@@ -0,0 +1,18 @@
+package com.codeup.novabook.infra.metrics;
+
+/**
+ * JMX view of {@link ServiceMetrics}.
+ */
+public interface ServiceMetricsMBean {
+
+    int getOperationCount();
+
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    /**
+     * @return a table of every operation, most total time first
+     */
+    String dump();
+}
@@ -0,0 +1,76 @@
+package com.codeup.novabook.infra.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps a service in a {@link Proxy} that reports every interface method call to a
+ * {@link MetricsRegistry}, so implementations need no timing code of their own.
+ * <p>
+ * A call counts as failed when it throws; the exception reaches the caller unchanged.
+ * Only the call itself is timed: for methods returning a lazy {@code Stream} that is
+ * opening it, not consuming it. {@code equals}, {@code hashCode} and {@code toString}
+ * are not timed.
+ * </p>
+ * <pre>{@code
+ * ILoanService loans = TimingProxy.wrap(ILoanService.class, new LoanServiceImpl(...), metrics);
+ * }</pre>
+ */
+public final class TimingProxy implements InvocationHandler {
+
+    private final Object target;
+    private final MetricsRegistry registry;
+    // Filled once in the constructor and only read afterwards
+    private final Map<Method, String> names = new HashMap<>();
+
+    private TimingProxy(Class<?> iface, Object target, MetricsRegistry registry) {
+        this.target = target;
+        this.registry = registry;
+        for (Method m : iface.getMethods()) {
+            names.put(m, iface.getSimpleName() + "." + m.getName());
+        }
+    }
+
+    /**
+     * @return {@code target} behind a timing proxy implementing {@code iface}
+     */
+    public static <T> T wrap(Class<T> iface, T target, MetricsRegistry registry) {
+        if (!iface.isInterface()) {
+            throw new IllegalArgumentException(iface.getName() + " is not an interface");
+        }
+        return iface.cast(Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface},
+                new TimingProxy(iface, target, registry)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String operation = names.get(method);
+        if (operation == null) {
+            return objectMethod(proxy, method, args);
+        }
+        registry.started(operation);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = method.invoke(target, args);
+            failed = false;
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            registry.finished(operation, System.nanoTime() - start, failed);
+        }
+    }
+
+    private Object objectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            default: return "Timed " + target;
+        }
+    }
+}
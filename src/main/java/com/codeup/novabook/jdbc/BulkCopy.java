@@ -0,0 +1,169 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.infra.config.AppConfig;
+
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Vendor-native CSV transfer between a stream and a table.
+ * <p>
+ * On MySQL rows are streamed through {@code LOAD DATA LOCAL INFILE} (Connector/J
+ * {@code setLocalInfileInputStream}); on PostgreSQL through {@code COPY ... FROM STDIN}
+ * and {@code COPY ... TO STDOUT} with the driver's {@code CopyManager}. Both skip
+ * per-row statement execution entirely. Data is loaded into a temporary staging table
+ * of text columns, so callers validate and merge it with set-based SQL.
+ * </p>
+ * <p>
+ * The PostgreSQL driver is only needed at runtime, so its copy API is reached by reflection.
+ * </p>
+ */
+public final class BulkCopy {
+
+    /** How CSV reaches the database. */
+    public enum Mode {
+        /** MySQL {@code LOAD DATA LOCAL INFILE}; load only. */
+        MYSQL_LOAD_DATA,
+        /** PostgreSQL {@code COPY}; load and unload. */
+        POSTGRES_COPY,
+        /** No native path: callers fall back to JDBC batching and cursor streaming. */
+        NONE
+    }
+
+    private final Mode mode;
+
+    public BulkCopy(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Picks the native path for the configured database: COPY on PostgreSQL,
+     * LOAD DATA on MySQL when {@code db.mysql.allowLoadLocalInfile=true} (the server
+     * also needs {@code local_infile=ON}), otherwise none. {@code db.bulk.native=false}
+     * disables both.
+     */
+    public static BulkCopy forDatabase(ConnectionFactory factory, AppConfig config) {
+        if (!config.getBoolean("db.bulk.native", true)) return new BulkCopy(Mode.NONE);
+        if (factory.isPostgres()) {
+            return new BulkCopy(isPresent("org.postgresql.PGConnection") ? Mode.POSTGRES_COPY : Mode.NONE);
+        }
+        if (factory.isMysql() && config.getBoolean("db.mysql.allowLoadLocalInfile", false)) {
+            return new BulkCopy(Mode.MYSQL_LOAD_DATA);
+        }
+        return new BulkCopy(Mode.NONE);
+    }
+
+    public Mode getMode() { return mode; }
+
+    public boolean canLoad() { return mode != Mode.NONE; }
+
+    public boolean canUnload() { return mode == Mode.POSTGRES_COPY; }
+
+    /**
+     * Creates an empty temporary table {@code stage} with a load-order {@code seq}
+     * column followed by {@code columns} as text. It lives until {@link #dropStage} on
+     * MySQL and until the end of the transaction on PostgreSQL.
+     */
+    public void createStage(Connection c, String stage, List<String> columns) throws SQLException {
+        StringJoiner ddl;
+        if (mode == Mode.POSTGRES_COPY) {
+            ddl = new StringJoiner(", ", "CREATE TEMP TABLE " + stage + " (seq BIGSERIAL, ", ") ON COMMIT DROP");
+        } else {
+            dropStage(c, stage); // left over on this pooled connection by a failed load
+            ddl = new StringJoiner(", ", "CREATE TEMPORARY TABLE " + stage + " (seq BIGINT AUTO_INCREMENT PRIMARY KEY, ", ")");
+        }
+        for (String column : columns) ddl.add(column + " TEXT");
+        try (Statement st = c.createStatement()) {
+            st.execute(ddl.toString());
+        }
+    }
+
+    /**
+     * Drops a staging table on MySQL; PostgreSQL drops it when the transaction ends
+     * (including a rollback, when no further statement could run).
+     */
+    public void dropStage(Connection c, String stage) throws SQLException {
+        if (mode == Mode.POSTGRES_COPY) return;
+        try (Statement st = c.createStatement()) {
+            st.execute("DROP TEMPORARY TABLE IF EXISTS " + stage);
+        }
+    }
+
+    /**
+     * Streams UTF-8 CSV with a header line into {@code columns} of {@code stage}.
+     * Empty unquoted fields become NULL.
+     *
+     * @return rows loaded
+     */
+    public long copyIn(Connection c, String stage, List<String> columns, InputStream csv) throws SQLException {
+        switch (mode) {
+            case POSTGRES_COPY: {
+                String sql = "COPY " + stage + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv, HEADER true)";
+                return (Long) copyApi(c, "copyIn", InputStream.class, sql, csv);
+            }
+            case MYSQL_LOAD_DATA: {
+                // Load into variables so empty fields become NULL and a CRLF line end is trimmed
+                StringJoiner vars = new StringJoiner(", ", " (", ")");
+                StringJoiner set = new StringJoiner(", ", " SET ", "");
+                for (int i = 0; i < columns.size(); i++) {
+                    String var = "@c" + i;
+                    vars.add(var);
+                    if (i == columns.size() - 1) var = "TRIM(TRAILING CHAR(13 USING utf8mb4) FROM " + var + ")";
+                    set.add(columns.get(i) + " = NULLIF(" + var + ", '')");
+                }
+                String sql = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + stage + " CHARACTER SET utf8mb4"
+                        + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY ''"
+                        + " LINES TERMINATED BY '\\n' IGNORE 1 LINES" + vars + set;
+                try (Statement st = c.createStatement()) {
+                    st.unwrap(com.mysql.cj.jdbc.JdbcStatement.class).setLocalInfileInputStream(csv);
+                    return st.executeLargeUpdate(sql);
+                }
+            }
+            default:
+                throw new UnsupportedOperationException("No native bulk load for this database");
+        }
+    }
+
+    /**
+     * Streams the rows of {@code select} as CSV with a header line (its column labels) into {@code out}.
+     *
+     * @return rows written
+     */
+    public long copyOut(Connection c, String select, Writer out) throws SQLException {
+        if (!canUnload()) throw new UnsupportedOperationException("No native bulk unload for this database");
+        return (Long) copyApi(c, "copyOut", Writer.class, "COPY (" + select + ") TO STDOUT WITH (FORMAT csv, HEADER true)", out);
+    }
+
+    private static Object copyApi(Connection c, String method, Class<?> streamType, String sql, Object stream)
+            throws SQLException {
+        try {
+            Class<?> pgConnection = Class.forName("org.postgresql.PGConnection");
+            Object copyManager = pgConnection.getMethod("getCopyAPI").invoke(c.unwrap(pgConnection));
+            Method copy = copyManager.getClass().getMethod(method, String.class, streamType);
+            return copy.invoke(copyManager, sql, stream);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            throw new SQLException("COPY failed: " + cause.getMessage(), cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("PostgreSQL copy API unavailable", e);
+        }
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -8,13 +8,22 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.codeup.novabook.connection.ConnectionFactory;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.DuplicateKeyException;
+import com.codeup.novabook.infra.jfr.SqlStatementEvent;
 
 /**
  * Lightweight JDBC template for simplified database operations.
@@ -27,7 +36,14 @@ import com.codeup.novabook.exception.DatabaseException;
  * <ul>
  * <li>Automatic resource management (Connection, PreparedStatement, ResultSet)</li>
  * <li>Type-safe result mapping using {@link RowMapper}</li>
+ * <li>JDBC batching for bulk writes via {@link #batchUpdate}</li>
+ * <li>Constant-memory streaming of large results via {@link #stream} and {@link #forEach}</li>
  * <li>Transaction support with rollback on exceptions</li>
+ * <li>Connection propagation: calls inside {@link #txExecute(SqlTxCallback)} share its connection</li>
+ * <li>Statement reuse: with a {@code PooledConnectionFactory}, {@code prepareStatement}
+ *     is served from the connection's statement cache</li>
+ * <li>Per-statement latency, row and error metrics with a slow-query log via {@link SqlMetrics}</li>
+ * <li>A Flight Recorder {@link SqlStatementEvent} per statement, including the connection wait</li>
  * <li>Parameterized queries to prevent SQL injection</li>
  * <li>Functional interfaces for flexible parameter binding</li>
  * </ul>
@@ -67,7 +83,18 @@ import com.codeup.novabook.exception.DatabaseException;
  * @see RowMapper
  */
 public class JdbcTemplateLight {
+    private static final Logger logger = Logger.getLogger(JdbcTemplateLight.class.getName());
+    /** MySQL/MariaDB vendor code for a duplicate entry on a unique key. */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    /** SQLState for unique_violation (PostgreSQL and the SQL standard). */
+    private static final String UNIQUE_VIOLATION = "23505";
+    /** Default number of rows fetched per round-trip by {@link #stream} and {@link #forEach}. */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
     private final ConnectionFactory factory;
+    private final SqlDialect dialect;
+    private final int fetchSize;
+    private final SqlMetrics metrics;
     
     /**
      * Constructs a JdbcTemplateLight with the specified connection factory.
@@ -76,12 +103,49 @@ public class JdbcTemplateLight {
      * @throws IllegalArgumentException if factory is null
      */
     public JdbcTemplateLight(ConnectionFactory factory) { 
+        this(factory, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Constructs a JdbcTemplateLight with the specified connection factory and
+     * streaming fetch size.
+     * 
+     * @param factory the connection factory for obtaining database connections
+     * @param fetchSize rows fetched per round-trip by streaming queries
+     * @throws IllegalArgumentException if factory is null
+     */
+    public JdbcTemplateLight(ConnectionFactory factory, int fetchSize) { 
+        this(factory, fetchSize, SqlMetrics.disabled());
+    }
+
+    /**
+     * Constructs a JdbcTemplateLight that records every statement in {@code metrics}.
+     * 
+     * @param factory the connection factory for obtaining database connections
+     * @param fetchSize rows fetched per round-trip by streaming queries
+     * @param metrics where statement timings are recorded
+     * @throws IllegalArgumentException if factory is null
+     */
+    public JdbcTemplateLight(ConnectionFactory factory, int fetchSize, SqlMetrics metrics) { 
         if (factory == null) {
             throw new IllegalArgumentException("ConnectionFactory cannot be null");
         }
         this.factory = factory; 
+        this.dialect = factory.getDialect() != null ? factory.getDialect() : SqlDialect.MYSQL;
+        this.fetchSize = fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE;
+        this.metrics = metrics != null ? metrics : SqlMetrics.disabled();
     }
 
+    /**
+     * @return the SQL dialect of the underlying database
+     */
+    public SqlDialect dialect() { return dialect; }
+
+    /**
+     * @return the statement metrics, disabled unless given to the constructor
+     */
+    public SqlMetrics metrics() { return metrics; }
+
     /**
      * Executes a query and maps the results using the provided RowMapper.
      * <p>
@@ -98,8 +162,10 @@ public class JdbcTemplateLight {
      * @throws DatabaseException if a database error occurs
      */
     public <T> List<T> query(String sql, Consumer<PreparedStatement> binder, RowMapper<T> mapper) throws DatabaseException {
-        try (Connection c = factory.open();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        SqlStatementEvent event = beginEvent();
+        Connection c = acquire(event);
+        long start = System.nanoTime();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
             if (binder != null) {
                 binder.accept(ps);
             }
@@ -108,13 +174,97 @@ public class JdbcTemplateLight {
                 while (rs.next()) {
                     out.add(mapper.map(rs));
                 }
+                metrics.record(sql, System.nanoTime() - start, out.size(), binder);
+                event.finish(sql, out.size(), false);
                 return out;
             }
         } catch (SQLException e) {
+            metrics.recordError(sql, System.nanoTime() - start, binder);
+            event.finish(sql, 0, true);
+            throw new DatabaseException("Error executing query: " + sql, e);
+        } finally {
+            release(c);
+        }
+    }
+
+    /**
+     * Executes a query and returns its rows as a lazily populated stream.
+     * <p>
+     * Rows are read from the database cursor {@code fetchSize} at a time as the
+     * stream is consumed, so memory stays constant regardless of the result size.
+     * The connection and statement stay open until the stream is fully consumed
+     * or closed; callers must close it, preferably with try-with-resources:
+     * </p>
+     * <pre>{@code
+     * try (Stream<Loan> loans = jdbc.stream("SELECT * FROM loan", null, LOAN_MAPPER)) {
+     *     loans.forEach(writer::write);
+     * }
+     * }</pre>
+     * <p>
+     * On MySQL this relies on {@code useCursorFetch=true} (set by
+     * {@code ConnectionFactory}); on PostgreSQL the statement runs with auto-commit
+     * disabled, which the driver requires for cursor fetching.
+     * </p>
+     * 
+     * @param <T> the type of objects to return
+     * @param sql the SQL query to execute
+     * @param binder a consumer to bind parameters to the PreparedStatement, can be null
+     * @param mapper the RowMapper to convert ResultSet rows to objects
+     * @return a sequential stream of mapped rows that must be closed
+     * @throws DatabaseException if a database error occurs while opening or reading the cursor
+     */
+    public <T> Stream<T> stream(String sql, Consumer<PreparedStatement> binder, RowMapper<T> mapper) throws DatabaseException {
+        SqlStatementEvent event = beginEvent();
+        Connection c = acquire(event);
+        PreparedStatement ps = null;
+        long start = System.nanoTime();
+        try {
+            if (dialect.cursorNeedsTransaction() && c.getAutoCommit() && c != TransactionContext.connectionFor(factory)) {
+                c.setAutoCommit(false);
+            }
+            ps = c.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            if (binder != null) {
+                binder.accept(ps);
+            }
+            ResultSet rs = ps.executeQuery();
+            Cursor<T> cursor = new Cursor<>(sql, binder, c, ps, rs, mapper, System.nanoTime() - start, event);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(ps);
+            release(c);
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            metrics.recordError(sql, System.nanoTime() - start, binder);
+            event.finish(sql, 0, true);
             throw new DatabaseException("Error executing query: " + sql, e);
         }
     }
 
+    /**
+     * Executes a query and hands every mapped row to {@code action} while the
+     * cursor is being read, without collecting the results.
+     * 
+     * @param <T> the type of objects to map
+     * @param sql the SQL query to execute
+     * @param binder a consumer to bind parameters to the PreparedStatement, can be null
+     * @param mapper the RowMapper to convert ResultSet rows to objects
+     * @param action the callback invoked for each row
+     * @return the number of rows processed
+     * @throws DatabaseException if a database error occurs
+     */
+    public <T> long forEach(String sql, Consumer<PreparedStatement> binder, RowMapper<T> mapper, Consumer<? super T> action) throws DatabaseException {
+        long[] count = {0};
+        try (Stream<T> rows = stream(sql, binder, mapper)) {
+            rows.forEach(row -> {
+                action.accept(row);
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
     /**
      * Executes a query expecting a single result.
      * <p>
@@ -144,17 +294,27 @@ public class JdbcTemplateLight {
      * @param sql the SQL statement to execute
      * @param binder a consumer to bind parameters to the PreparedStatement, can be null
      * @return the number of rows affected by the statement
+     * @throws DuplicateKeyException if the statement violates a unique constraint
      * @throws DatabaseException if a database error occurs
      */
     public int update(String sql, Consumer<PreparedStatement> binder) throws DatabaseException {
-        try (Connection c = factory.open();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        SqlStatementEvent event = beginEvent();
+        Connection c = acquire(event);
+        long start = System.nanoTime();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
             if (binder != null) {
                 binder.accept(ps);
             }
-            return ps.executeUpdate();
+            int rows = ps.executeUpdate();
+            metrics.record(sql, System.nanoTime() - start, rows, binder);
+            event.finish(sql, rows, false);
+            return rows;
         } catch (SQLException e) {
-            throw new DatabaseException("Error executing update: " + sql, e);
+            metrics.recordError(sql, System.nanoTime() - start, binder);
+            event.finish(sql, 0, true);
+            throw translate("Error executing update: " + sql, e);
+        } finally {
+            release(c);
         }
     }
 
@@ -162,35 +322,135 @@ public class JdbcTemplateLight {
      * Executes an INSERT statement and returns the generated key.
      * <p>
      * Useful for getting the auto-generated ID after inserting a new record.
+     * The key comes back with the INSERT itself, so no follow-up SELECT is
+     * needed: PostgreSQL runs it as {@code INSERT ... RETURNING id} (only the key
+     * is sent back, rather than the whole row the driver's generated-keys mode
+     * asks for), and MySQL reads it from {@code RETURN_GENERATED_KEYS}.
      * </p>
      * 
      * @param sql the INSERT SQL statement to execute
      * @param binder a consumer to bind parameters to the PreparedStatement, can be null
      * @return the generated key (typically an auto-increment ID)
+     * @throws DuplicateKeyException if the row violates a unique constraint
      * @throws DatabaseException if a database error occurs or no key was generated
      */
     public int insert(String sql, Consumer<PreparedStatement> binder) throws DatabaseException {
-        try (Connection c = factory.open();
-             PreparedStatement ps = c.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        String returning = dialect.insertReturning(sql, "id");
+        SqlStatementEvent event = beginEvent();
+        Connection c = acquire(event);
+        long start = System.nanoTime();
+        try (PreparedStatement ps = returning != null
+                ? c.prepareStatement(returning)
+                : c.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             if (binder != null) {
                 binder.accept(ps);
             }
-            int affectedRows = ps.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new DatabaseException("Insert failed, no rows affected");
-            }
-            
-            try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new DatabaseException("Insert failed, no ID obtained");
+            int key;
+            if (returning != null) {
+                try (ResultSet keys = ps.executeQuery()) {
+                    key = firstKey(keys);
+                }
+            } else {
+                int affectedRows = ps.executeUpdate();
+                
+                if (affectedRows == 0) {
+                    throw new DatabaseException("Insert failed, no rows affected");
+                }
+                
+                try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                    key = firstKey(generatedKeys);
                 }
             }
+            metrics.record(sql, System.nanoTime() - start, 1, binder);
+            event.finish(sql, 1, false);
+            return key;
         } catch (SQLException e) {
-            throw new DatabaseException("Error executing insert: " + sql, e);
+            metrics.recordError(sql, System.nanoTime() - start, binder);
+            event.finish(sql, 0, true);
+            throw translate("Error executing insert: " + sql, e);
+        } finally {
+            release(c);
+        }
+    }
+
+    private static int firstKey(ResultSet keys) throws SQLException, DatabaseException {
+        if (keys.next()) {
+            return keys.getInt(1);
+        }
+        throw new DatabaseException("Insert failed, no ID obtained");
+    }
+
+    /**
+     * Executes a parameterized statement once per item using JDBC batching.
+     * <p>
+     * Items are bound with {@code binder} and sent with {@code addBatch/executeBatch}
+     * every {@code batchSize} rows, all inside one transaction (joining the current
+     * one if there is one). On MySQL, {@code rewriteBatchedStatements=true} (set by
+     * {@code ConnectionFactory}) turns each batch of INSERTs into a single
+     * multi-row statement.
+     * </p>
+     * 
+     * @param <T> the type of the items to write
+     * @param sql the INSERT/UPDATE/DELETE statement to execute
+     * @param items the items to bind, one statement execution each
+     * @param binder binds one item to the PreparedStatement
+     * @param batchSize rows sent per round-trip; values below 1 mean a single batch
+     * @return the number of rows affected; rows reported as {@link Statement#SUCCESS_NO_INFO} count as one
+     * @throws DatabaseException if a database error occurs, rolling back the whole batch
+     */
+    public <T> int batchUpdate(String sql, Iterable<? extends T> items, BatchBinder<? super T> binder, int batchSize) throws DatabaseException {
+        final int size = batchSize < 1 ? Integer.MAX_VALUE : batchSize;
+        return txExecute(conn -> {
+            SqlStatementEvent event = beginEvent();
+            Connection c = acquire(event);
+            long start = System.nanoTime();
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                int total = 0;
+                int pending = 0;
+                for (T item : items) {
+                    binder.bind(ps, item);
+                    ps.addBatch();
+                    if (++pending >= size) {
+                        total += sum(ps.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    total += sum(ps.executeBatch());
+                }
+                // Batches are recorded as one execution; their parameters are not logged
+                metrics.record(sql, System.nanoTime() - start, total, null);
+                event.finish(sql, total, false);
+                return total;
+            } catch (SQLException e) {
+                metrics.recordError(sql, System.nanoTime() - start, null);
+                event.finish(sql, 0, true);
+                throw translate("Error executing batch: " + sql, e);
+            } finally {
+                release(c);
+            }
+        });
+    }
+
+    /**
+     * Wraps {@code e} in a {@link DuplicateKeyException} when it reports a unique
+     * constraint violation, otherwise in a plain {@link DatabaseException}.
+     */
+    private static DatabaseException translate(String message, SQLException e) {
+        for (SQLException cur = e; cur != null; cur = cur.getNextException()) {
+            if (cur.getErrorCode() == MYSQL_DUPLICATE_ENTRY || UNIQUE_VIOLATION.equals(cur.getSQLState())) {
+                return new DuplicateKeyException(message, e);
+            }
+        }
+        return new DatabaseException(message, e);
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int n : counts) {
+            total += n == Statement.SUCCESS_NO_INFO ? 1 : Math.max(n, 0);
         }
+        return total;
     }
 
     /**
@@ -200,47 +460,229 @@ public class JdbcTemplateLight {
      * executing the callback, and then either committing on success or
      * rolling back on exception. The original auto-commit state is restored.
      * </p>
+     * <p>
+     * While the callback runs, its connection is bound to the current thread
+     * through {@link TransactionContext}, so every {@code query}, {@code update}
+     * and {@code insert} made by repositories inside the callback reuses it and
+     * takes part in the same commit. A nested {@code txExecute} joins the
+     * enclosing transaction instead of starting a new one. Actions registered
+     * with {@link TransactionContext#afterCommit} run once the commit succeeded.
+     * </p>
      * 
      * @param <T> the type of result returned by the callback
      * @param cb the callback containing the transactional operations
      * @return the result returned by the callback
-     * @throws DatabaseException if any database error occurs, triggering rollback
+     * @throws DatabaseException if any database error occurs, triggering rollback;
+     *         runtime exceptions thrown by the callback also roll back and are rethrown as-is
      */
     public <T> T txExecute(SqlTxCallback<T> cb) throws DatabaseException {
-        Connection c = null;
+        Connection bound = TransactionContext.connectionFor(factory);
+        if (bound != null) {
+            try {
+                return cb.doInTx(bound);
+            } catch (SQLException ex) {
+                // the enclosing txExecute rolls back when this reaches it
+                throw new DatabaseException("Statement failed in the enclosing transaction", ex);
+            }
+        }
+
+        Connection c = factory.open();
         boolean originalAutoCommit = true;
-        
+        boolean committed = false;
         try {
-            c = factory.open();
             originalAutoCommit = c.getAutoCommit();
             c.setAutoCommit(false);
-            
+            TransactionContext.bind(factory, c);
+
             T result = cb.doInTx(c);
             c.commit();
+            committed = true;
             return result;
-            
+
         } catch (SQLException ex) {
-            if (c != null) {
-                try {
-                    c.rollback();
-                } catch (SQLException rollbackEx) {
-                    throw new DatabaseException("Error during rollback", rollbackEx);
-                }
-            }
+            rollbackQuietly(c, ex);
             throw new DatabaseException("Transaction failed and was rolled back", ex);
-            
+        } catch (RuntimeException | Error ex) {
+            rollbackQuietly(c, ex);
+            throw ex;
         } finally {
-            if (c != null) {
+            List<Runnable> afterCommit = TransactionContext.unbind();
+            try {
+                c.setAutoCommit(originalAutoCommit);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Could not restore auto-commit", e);
+            } finally {
                 try {
-                    c.setAutoCommit(originalAutoCommit);
                     c.close();
                 } catch (SQLException e) {
-                    throw new DatabaseException("Error closing connection", e);
+                    logger.log(Level.WARNING, "Error closing connection", e);
+                }
+            }
+            if (committed) runAfterCommit(afterCommit);
+        }
+    }
+
+    // The transaction is already committed, so a failing action must not fail the caller
+    private static void runAfterCommit(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "After-commit action failed", e);
+            }
+        }
+    }
+
+    private void rollbackQuietly(Connection c, Throwable cause) {
+        try {
+            c.rollback();
+        } catch (SQLException rollbackEx) {
+            cause.addSuppressed(rollbackEx);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) return;
+        try {
+            resource.close();
+        } catch (Exception e) {
+            logger.log(Level.FINE, "Error closing JDBC resource", e);
+        }
+    }
+
+    /**
+     * Spliterator over an open cursor; releases the result set, statement and
+     * connection once exhausted, on error, or when the owning stream is closed.
+     * Its metrics count only the time spent executing and fetching, not the time
+     * the stream's consumer takes per row; its Flight Recorder event spans the
+     * whole life of the stream.
+     */
+    private final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final String sql;
+        private final Consumer<PreparedStatement> binder;
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final RowMapper<T> mapper;
+        private final SqlStatementEvent event;
+        private long nanos;
+        private long rows;
+        private boolean failed;
+        private boolean closed;
+
+        Cursor(String sql, Consumer<PreparedStatement> binder, Connection connection, PreparedStatement statement,
+               ResultSet resultSet, RowMapper<T> mapper, long executeNanos, SqlStatementEvent event) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.sql = sql;
+            this.binder = binder;
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+            this.nanos = executeNanos;
+            this.event = event;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) return false;
+            T row;
+            long start = System.nanoTime();
+            try {
+                if (!resultSet.next()) {
+                    nanos += System.nanoTime() - start;
+                    close();
+                    return false;
                 }
+                row = mapper.map(resultSet);
+                nanos += System.nanoTime() - start;
+                rows++;
+            } catch (SQLException e) {
+                nanos += System.nanoTime() - start;
+                failed = true;
+                close();
+                throw new DatabaseException("Error reading cursor: " + sql, e);
+            }
+            action.accept(row);
+            return true;
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            if (failed) {
+                metrics.recordError(sql, nanos, binder);
+            } else {
+                metrics.record(sql, nanos, rows, binder);
             }
+            event.finish(sql, rows, failed);
+            closeQuietly(resultSet);
+            closeQuietly(statement);
+            release(connection);
         }
     }
 
+    private static SqlStatementEvent beginEvent() {
+        SqlStatementEvent event = new SqlStatementEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Like {@link #acquire()}, timing the wait for the event while a recording has it enabled.
+     */
+    private Connection acquire(SqlStatementEvent event) throws DatabaseException {
+        if (!event.isEnabled()) {
+            return acquire();
+        }
+        long start = System.nanoTime();
+        try {
+            return acquire();
+        } finally {
+            event.connectionWait = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Returns the connection bound to the current transaction, or opens a new one.
+     */
+    private Connection acquire() throws DatabaseException {
+        Connection bound = TransactionContext.connectionFor(factory);
+        return bound != null ? bound : factory.open();
+    }
+
+    /**
+     * Closes connections opened by {@link #acquire()}; transaction-bound ones stay open.
+     */
+    private void release(Connection c) {
+        if (c == TransactionContext.connectionFor(factory)) {
+            return;
+        }
+        try {
+            c.close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error closing connection", e);
+        }
+    }
+
+    /**
+     * Binds one item of a {@link #batchUpdate} call to the statement parameters.
+     * 
+     * @param <T> the type of the items being written
+     */
+    @FunctionalInterface
+    public interface BatchBinder<T> {
+
+        /**
+         * Sets the statement parameters for {@code item}.
+         * 
+         * @param ps the statement being batched
+         * @param item the item to bind
+         * @throws SQLException if a parameter cannot be set
+         */
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
     /**
      * Functional interface for transactional callback operations.
      * <p>
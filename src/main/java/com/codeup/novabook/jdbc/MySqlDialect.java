@@ -0,0 +1,93 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.infra.config.AppConfig;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * MySQL 8 with Connector/J.
+ */
+final class MySqlDialect extends SqlDialect {
+
+    @Override
+    public String getName() { return "mysql"; }
+
+    @Override
+    public String getDriverClassName() { return "com.mysql.cj.jdbc.Driver"; }
+
+    @Override
+    public String url(String host, String port, String database) {
+        return String.format("jdbc:mysql://%s:%s/%s", host, port, database);
+    }
+
+    @Override
+    public String urlParameters(String useSSL) {
+        String ssl = (useSSL == null || useSSL.isBlank()) ? "false" : useSSL;
+        return "?useSSL=" + ssl + "&serverTimezone=UTC";
+    }
+
+    @Override
+    public Map<String, String> connectionProperties(AppConfig config, boolean sslDisabled) {
+        Map<String, String> props = new LinkedHashMap<>();
+        // For MySQL 8 with caching_sha2_password, allowPublicKeyRetrieval may be required when useSSL=false
+        if (sslDisabled) props.put("allowPublicKeyRetrieval", "true");
+        // Server-side prepared statements: parsed once per pooled connection and reused
+        // through the pool's statement cache (db.mysql.useServerPrepStmts=false to disable)
+        props.put("useServerPrepStmts", String.valueOf(config.getBoolean("db.mysql.useServerPrepStmts", true)));
+        // Cursor-based fetching for statements with a fetch size (JdbcTemplateLight.stream)
+        props.put("useCursorFetch", String.valueOf(config.getBoolean("db.mysql.useCursorFetch", true)));
+        // Send JdbcTemplateLight.batchUpdate INSERT batches as multi-row statements
+        props.put("rewriteBatchedStatements", String.valueOf(config.getBoolean("db.mysql.rewriteBatchedStatements", true)));
+        // Lets BulkCopy stream LOAD DATA LOCAL INFILE; off by default because the server
+        // may then request client files
+        if (config.getBoolean("db.mysql.allowLoadLocalInfile", false)) props.put("allowLoadLocalInfile", "true");
+        return props;
+    }
+
+    @Override
+    public boolean cursorNeedsTransaction() { return false; }
+
+    @Override
+    public String quote(String identifier) { return "`" + identifier + "`"; }
+
+    @Override
+    public boolean isAlreadyExists(SQLException e) {
+        // ER_TABLE_EXISTS_ERROR, ER_DUP_KEYNAME: MySQL has no CREATE INDEX IF NOT EXISTS
+        return e.getErrorCode() == 1050 || e.getErrorCode() == 1061;
+    }
+
+    @Override
+    public String likeIgnoreCase(String column) {
+        // The schema's utf8mb4_unicode_ci collation already compares case-insensitively,
+        // and a bare column keeps prefix patterns able to use its index
+        return column + " LIKE ?";
+    }
+
+    @Override
+    public String insertReturning(String insertSql, String keyColumn) { return null; }
+
+    @Override
+    public String onConflictUpdate(List<String> keyColumns, List<String> updateColumns) {
+        StringJoiner set = new StringJoiner(", ", " ON DUPLICATE KEY UPDATE ", "");
+        for (String column : updateColumns) set.add(column + " = VALUES(" + column + ")");
+        return set.toString();
+    }
+
+    @Override
+    public boolean upsertNeedsDistinctKeys() { return false; }
+
+    @Override
+    public boolean nullsSortFirst() { return true; }
+
+    @Override
+    public String regexMatches(String expression, String pattern) {
+        return expression + " REGEXP '" + pattern + "'";
+    }
+
+    @Override
+    public String castToInt(String expression) { return "CAST(" + expression + " AS SIGNED)"; }
+}
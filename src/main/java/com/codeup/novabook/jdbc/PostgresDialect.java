@@ -0,0 +1,81 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.infra.config.AppConfig;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * PostgreSQL 10 or later with the pgJDBC driver.
+ */
+final class PostgresDialect extends SqlDialect {
+
+    @Override
+    public String getName() { return "postgres"; }
+
+    @Override
+    public String getDriverClassName() { return "org.postgresql.Driver"; }
+
+    @Override
+    public String url(String host, String port, String database) {
+        return String.format("jdbc:postgresql://%s:%s/%s", host, port, database);
+    }
+
+    @Override
+    public String urlParameters(String useSSL) {
+        // db.useSSL is a MySQL flag; pgJDBC takes sslmode in an explicit db.url
+        return "";
+    }
+
+    @Override
+    public Map<String, String> connectionProperties(AppConfig config, boolean sslDisabled) {
+        Map<String, String> props = new LinkedHashMap<>();
+        // Send JdbcTemplateLight.batchUpdate INSERT batches as multi-row statements
+        props.put("reWriteBatchedInserts", String.valueOf(config.getBoolean("db.postgres.reWriteBatchedInserts", true)));
+        return props;
+    }
+
+    @Override
+    public boolean cursorNeedsTransaction() { return true; }
+
+    @Override
+    public String quote(String identifier) { return "\"" + identifier + "\""; }
+
+    @Override
+    public boolean isAlreadyExists(SQLException e) {
+        // duplicate_table (also raised for indexes) and duplicate_object
+        return "42P07".equals(e.getSQLState()) || "42710".equals(e.getSQLState());
+    }
+
+    @Override
+    public String likeIgnoreCase(String column) { return column + " ILIKE ?"; }
+
+    @Override
+    public String insertReturning(String insertSql, String keyColumn) {
+        return insertSql + " RETURNING " + keyColumn;
+    }
+
+    @Override
+    public String onConflictUpdate(List<String> keyColumns, List<String> updateColumns) {
+        StringJoiner set = new StringJoiner(", ", " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET ", "");
+        for (String column : updateColumns) set.add(column + " = EXCLUDED." + column);
+        return set.toString();
+    }
+
+    @Override
+    public boolean upsertNeedsDistinctKeys() { return true; }
+
+    @Override
+    public boolean nullsSortFirst() { return false; }
+
+    @Override
+    public String regexMatches(String expression, String pattern) {
+        return expression + " ~ '" + pattern + "'";
+    }
+
+    @Override
+    public String castToInt(String expression) { return "CAST(" + expression + " AS INTEGER)"; }
+}
@@ -0,0 +1,206 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.exception.DatabaseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema migrations, applied at startup.
+ * <p>
+ * Each {@link Migration} is a script on the classpath under
+ * {@code /db/migration/<dialect>/V<version>__<name>.sql}. Scripts that are not yet
+ * recorded in the {@code schema_version} table run in version order, one statement
+ * at a time, and are then recorded with a checksum of their text. A statement that
+ * fails only because its table or index already exists is skipped, so the baseline
+ * also applies cleanly to a database created by the former {@code DatabaseSchema.sql}
+ * and a script interrupted half-way can simply run again.
+ * </p>
+ * <p>
+ * Statements are separated by a {@code ;} at the end of a line; lines starting with
+ * {@code --} are comments.
+ * </p>
+ */
+public final class SchemaMigrator {
+
+    /** A versioned script. */
+    public static final class Migration {
+        private final int version;
+        private final String name;
+
+        public Migration(int version, String name) {
+            this.version = version;
+            this.name = name;
+        }
+
+        public int getVersion() { return version; }
+
+        public String getName() { return name; }
+
+        String resource(SqlDialect dialect) {
+            return "/db/migration/" + dialect.getName() + "/V" + version + "__" + name + ".sql";
+        }
+
+        @Override
+        public String toString() { return "V" + version + "__" + name; }
+    }
+
+    /** The migrations shipped with the application, oldest first. */
+    public static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "create_tables"),
+            new Migration(2, "query_indexes"),
+            new Migration(3, "loan_returned_not_null"));
+
+    private static final String HISTORY_TABLE = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT PRIMARY KEY, "
+            + "name VARCHAR(200) NOT NULL, "
+            + "checksum BIGINT NOT NULL, "
+            + "execution_ms BIGINT NOT NULL, "
+            + "installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private static final Logger logger = Logger.getLogger(SchemaMigrator.class.getName());
+
+    private final ConnectionFactory factory;
+    private final SqlDialect dialect;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(ConnectionFactory factory) {
+        this(factory, MIGRATIONS);
+    }
+
+    public SchemaMigrator(ConnectionFactory factory, List<Migration> migrations) {
+        this.factory = factory;
+        this.dialect = factory.getDialect() != null ? factory.getDialect() : SqlDialect.MYSQL;
+        this.migrations = migrations;
+    }
+
+    /**
+     * Applies every migration that is not recorded yet.
+     *
+     * @return the number of migrations applied
+     * @throws DatabaseException if a script is missing or one of its statements fails
+     */
+    public int migrate() throws DatabaseException {
+        try (Connection c = factory.open()) {
+            c.setAutoCommit(true);
+            try (Statement st = c.createStatement()) {
+                st.execute(HISTORY_TABLE);
+            }
+            Map<Integer, Long> applied = applied(c);
+            int count = 0;
+            for (Migration m : migrations) {
+                String script = load(m);
+                long checksum = checksum(script);
+                Long recorded = applied.get(m.getVersion());
+                if (recorded != null) {
+                    if (recorded != checksum) {
+                        logger.log(Level.WARNING, "Migration {0} changed after it was applied; it is not run again", m);
+                    }
+                    continue;
+                }
+                long start = System.nanoTime();
+                for (String sql : statements(script)) {
+                    execute(c, m, sql);
+                }
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                record(c, m, checksum, elapsedMs);
+                logger.log(Level.INFO, "Migration {0} applied in {1} ms", new Object[]{m, elapsedMs});
+                count++;
+            }
+            return count;
+        } catch (SQLException e) {
+            throw new DatabaseException("Schema migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void execute(Connection c, Migration m, String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute(sql);
+        } catch (SQLException e) {
+            if (!dialect.isAlreadyExists(e)) {
+                throw new SQLException(m + ": " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+            }
+            logger.log(Level.FINE, "Migration {0}: already present, skipped: {1}", new Object[]{m, firstLine(sql)});
+        }
+    }
+
+    private static Map<Integer, Long> applied(Connection c) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void record(Connection c, Migration m, long checksum, long elapsedMs) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO schema_version (version, name, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+            ps.setInt(1, m.getVersion());
+            ps.setString(2, m.getName());
+            ps.setLong(3, checksum);
+            ps.setLong(4, elapsedMs);
+            ps.executeUpdate();
+        }
+    }
+
+    private String load(Migration m) throws DatabaseException {
+        String resource = m.resource(dialect);
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new DatabaseException("Migration script not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DatabaseException("Error reading migration script " + resource, e);
+        }
+    }
+
+    /**
+     * Splits a script into statements, dropping comment lines and blank statements.
+     */
+    private static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(trimmed).append('\n');
+            }
+        }
+        if (current.toString().trim().length() > 0) statements.add(current.toString().trim());
+        return statements;
+    }
+
+    private static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static String firstLine(String sql) {
+        int nl = sql.indexOf('\n');
+        return nl < 0 ? sql : sql.substring(0, nl);
+    }
+}
@@ -0,0 +1,116 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.infra.config.AppConfig;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The SQL and driver details that differ between the supported databases.
+ * <p>
+ * One dialect is chosen from {@code db.vendor} (or the {@code db.url} prefix)
+ * by {@code ConnectionFactory}; repositories and {@link JdbcTemplateLight} ask it
+ * for the fastest form of a statement on that backend instead of writing the
+ * lowest common denominator.
+ * </p>
+ */
+public abstract class SqlDialect {
+
+    /** MySQL 8 (the default vendor). */
+    public static final SqlDialect MYSQL = new MySqlDialect();
+
+    /** PostgreSQL 10 or later. */
+    public static final SqlDialect POSTGRES = new PostgresDialect();
+
+    /**
+     * @param vendor the configured {@code db.vendor}, may be null
+     * @param url an explicit JDBC URL, may be null; used when no vendor is set
+     */
+    public static SqlDialect forVendor(String vendor, String url) {
+        if (vendor != null && !vendor.isBlank()) {
+            return vendor.trim().equalsIgnoreCase("postgres") || vendor.trim().equalsIgnoreCase("postgresql")
+                    ? POSTGRES : MYSQL;
+        }
+        return url != null && url.startsWith("jdbc:postgresql:") ? POSTGRES : MYSQL;
+    }
+
+    public abstract String getName();
+
+    public abstract String getDriverClassName();
+
+    /**
+     * @return the JDBC URL for a host, port and database, without credentials
+     */
+    public abstract String url(String host, String port, String database);
+
+    /**
+     * @return the query string appended to {@link #url} when the URL is not given explicitly
+     */
+    public abstract String urlParameters(String useSSL);
+
+    /**
+     * Driver properties this application relies on; {@code ConnectionFactory}
+     * sets each one unless the URL already does.
+     *
+     * @param sslDisabled true when {@code db.useSSL} is unset or false
+     */
+    public abstract Map<String, String> connectionProperties(AppConfig config, boolean sslDisabled);
+
+    /**
+     * @return true when a result set is only fetched in chunks inside a transaction
+     */
+    public abstract boolean cursorNeedsTransaction();
+
+    /**
+     * Quotes an identifier that may be a reserved word (such as {@code user}).
+     */
+    public abstract String quote(String identifier);
+
+    /**
+     * @return true when {@code e} reports that a table or index being created already exists
+     */
+    public abstract boolean isAlreadyExists(SQLException e);
+
+    /**
+     * A case-insensitive {@code LIKE} of {@code column} against one parameter.
+     */
+    public abstract String likeIgnoreCase(String column);
+
+    /**
+     * Rewrites an INSERT so that executing it as a query returns the generated
+     * {@code keyColumn}, or returns null when the driver's generated-keys call must be used.
+     */
+    public abstract String insertReturning(String insertSql, String keyColumn);
+
+    /**
+     * The clause appended to an {@code INSERT} that updates {@code updateColumns}
+     * from the inserted values when the unique {@code keyColumns} already exist.
+     */
+    public abstract String onConflictUpdate(List<String> keyColumns, List<String> updateColumns);
+
+    /**
+     * True when one upsert statement may not touch the same row twice, so the
+     * input must be reduced to one row per key first.
+     */
+    public abstract boolean upsertNeedsDistinctKeys();
+
+    /**
+     * True when an ascending {@code ORDER BY} puts NULLs before every value
+     * (and a descending one after them).
+     */
+    public abstract boolean nullsSortFirst();
+
+    /**
+     * A predicate that is true when {@code expression} matches the regular expression {@code pattern}.
+     */
+    public abstract String regexMatches(String expression, String pattern);
+
+    /**
+     * Casts a text expression to a 32-bit integer.
+     */
+    public abstract String castToInt(String expression);
+
+    @Override
+    public String toString() { return getName(); }
+}
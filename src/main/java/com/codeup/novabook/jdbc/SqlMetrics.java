@@ -0,0 +1,252 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.infra.metrics.MetricsPublisher;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-statement latency, row and error counts for {@link JdbcTemplateLight}, plus a
+ * slow-query log.
+ * <p>
+ * Statistics are keyed by the SQL text, which the repositories keep constant per
+ * statement. Once a statement has been seen, recording it is a map lookup and a few
+ * {@link java.util.concurrent.atomic.LongAdder} increments: no locks and no allocation.
+ * Bind parameters are only captured for executions slower than
+ * {@code db.slowQuery.thresholdMs}: the statement's binder is run again against a
+ * recording {@link PreparedStatement}, so fast executions pay nothing for them.
+ * </p>
+ * <p>
+ * Configuration (via {@link #fromConfig}):
+ * </p>
+ * <ul>
+ * <li>{@code db.metrics.enabled} (default true)</li>
+ * <li>{@code db.slowQuery.thresholdMs} (default 500)</li>
+ * <li>{@code db.slowQuery.redactParameters} (default false): log parameter types instead of values</li>
+ * <li>{@code db.metrics.dumpIntervalSeconds} (default 300, 0 disables): logs {@link #dump()} periodically</li>
+ * <li>{@code db.metrics.jmx} (default true): registers {@code com.codeup.novabook:type=SqlMetrics}
+ *     and one {@code type=SqlStatement} MBean per statement</li>
+ * </ul>
+ */
+public final class SqlMetrics implements SqlMetricsMBean, AutoCloseable {
+
+    /** Distinct statements tracked; further ones are counted under {@link #OTHER}. */
+    static final int MAX_STATEMENTS = 500;
+    static final String OTHER = "(other statements)";
+
+    private static final int DUMP_LIMIT = 20;
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private static final Logger logger = Logger.getLogger(SqlMetrics.class.getName());
+    private static final Logger slowLog = Logger.getLogger(SqlMetrics.class.getName() + ".slow");
+
+    private static final SqlMetrics DISABLED = new SqlMetrics(false, Long.MAX_VALUE, false);
+
+    private final boolean enabled;
+    private final Map<String, SqlStatementStats> statements = new ConcurrentHashMap<>();
+    private final MetricsPublisher publisher = new MetricsPublisher("SQL metrics", "novabook-sql-metrics", logger);
+    private final AtomicLong nextId = new AtomicLong();
+    private volatile long thresholdNanos;
+    private volatile boolean redactParameters;
+
+    private SqlMetrics(boolean enabled, long thresholdMillis, boolean redactParameters) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.redactParameters = redactParameters;
+    }
+
+    /**
+     * Metrics without JMX or a periodic dump.
+     */
+    public SqlMetrics(long slowThresholdMillis, boolean redactParameters) {
+        this(true, slowThresholdMillis, redactParameters);
+    }
+
+    /**
+     * @return a shared instance that records nothing
+     */
+    public static SqlMetrics disabled() { return DISABLED; }
+
+    /**
+     * Builds metrics from the {@code db.metrics.*} and {@code db.slowQuery.*} settings,
+     * registering the MBeans and starting the periodic dump when configured.
+     */
+    public static SqlMetrics fromConfig(AppConfig config) {
+        if (!config.getBoolean("db.metrics.enabled", true)) return DISABLED;
+        SqlMetrics metrics = new SqlMetrics(config.getLong("db.slowQuery.thresholdMs", 500),
+                config.getBoolean("db.slowQuery.redactParameters", false));
+        if (config.getBoolean("db.metrics.jmx", true)) {
+            metrics.publisher.enableJmx();
+            metrics.publisher.register(metrics, "type=SqlMetrics");
+        }
+        metrics.publisher.startDump(config.getLong("db.metrics.dumpIntervalSeconds", 300),
+                metrics::getTotalCalls, metrics::dump);
+        return metrics;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Records one execution.
+     *
+     * @param binder the statement's binder, re-run only to log a slow execution's parameters; may be null
+     */
+    void record(String sql, long nanos, long rows, Consumer<PreparedStatement> binder) {
+        record(sql, nanos, rows, binder, false);
+    }
+
+    /**
+     * Records one execution that failed with an SQL error.
+     */
+    void recordError(String sql, long nanos, Consumer<PreparedStatement> binder) {
+        record(sql, nanos, 0, binder, true);
+    }
+
+    private void record(String sql, long nanos, long rows, Consumer<PreparedStatement> binder, boolean failed) {
+        if (!enabled) return;
+        SqlStatementStats stats = statements.get(sql);
+        if (stats == null) stats = add(sql);
+        boolean slow = nanos >= thresholdNanos;
+        stats.record(nanos, rows, failed, slow);
+        if (slow) logSlow(sql, nanos, rows, binder, failed);
+    }
+
+    private SqlStatementStats add(String sql) {
+        String key = statements.size() < MAX_STATEMENTS ? sql : OTHER;
+        SqlStatementStats other = key == OTHER ? statements.get(OTHER) : null;
+        if (other != null) return other;
+        SqlStatementStats created = new SqlStatementStats(key);
+        SqlStatementStats existing = statements.putIfAbsent(key, created);
+        if (existing != null) return existing;
+        publisher.register(created, "type=SqlStatement,id=" + nextId.incrementAndGet());
+        return created;
+    }
+
+    private void logSlow(String sql, long nanos, long rows, Consumer<PreparedStatement> binder, boolean failed) {
+        if (!slowLog.isLoggable(Level.WARNING)) return;
+        slowLog.log(Level.WARNING, "Slow query{0} ({1} ms, {2} rows): {3} parameters={4}", new Object[]{
+                failed ? " failed" : "", String.format("%.1f", nanos / 1e6), rows, sql, parameters(binder)});
+    }
+
+    /**
+     * Replays {@code binder} against a recording statement and formats what it set.
+     */
+    private String parameters(Consumer<PreparedStatement> binder) {
+        if (binder == null) return "[]";
+        Map<Integer, Object> values = new TreeMap<>();
+        PreparedStatement recorder = (PreparedStatement) Proxy.newProxyInstance(
+                SqlMetrics.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        values.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+        try {
+            binder.accept(recorder);
+        } catch (RuntimeException e) {
+            return "[unavailable]";
+        }
+        StringJoiner out = new StringJoiner(", ", "[", "]");
+        boolean redact = redactParameters;
+        values.forEach((index, value) -> out.add(index + "=" + format(value, redact)));
+        return out.toString();
+    }
+
+    private static String format(Object value, boolean redact) {
+        if (value == null) return "NULL";
+        if (redact) return "<" + value.getClass().getSimpleName() + ">";
+        String text = value.toString();
+        if (text.length() > MAX_PARAMETER_LENGTH) text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+        return value instanceof CharSequence ? "'" + text + "'" : text;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0d;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return null;
+    }
+
+    /**
+     * @return the statistics of every tracked statement, most total time first
+     */
+    public List<SqlStatementStats> snapshot() {
+        List<SqlStatementStats> list = new ArrayList<>(statements.values());
+        list.sort(Comparator.comparingDouble(SqlStatementStats::getTotalMillis).reversed());
+        return list;
+    }
+
+    /**
+     * @return the statistics for {@code sql}, or null if it has not run
+     */
+    public SqlStatementStats get(String sql) { return statements.get(sql); }
+
+    @Override
+    public int getStatementCount() { return statements.size(); }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (SqlStatementStats s : statements.values()) total += s.getCalls();
+        return total;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long total = 0;
+        for (SqlStatementStats s : statements.values()) total += s.getErrors();
+        return total;
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() { return TimeUnit.NANOSECONDS.toMillis(thresholdNanos); }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long millis) { this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis); }
+
+    @Override
+    public boolean isRedactParameters() { return redactParameters; }
+
+    @Override
+    public void setRedactParameters(boolean redact) { this.redactParameters = redact; }
+
+    @Override
+    public String dump() {
+        List<SqlStatementStats> all = snapshot();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("SQL statements: %d, top %d by total time%n", all.size(), Math.min(DUMP_LIMIT, all.size())));
+        out.append(String.format("%10s %7s %10s %11s %9s %9s %9s %9s %6s  %s%n",
+                "calls", "errors", "rows", "total ms", "mean ms", "p95 ms", "p99 ms", "max ms", "slow", "sql"));
+        for (SqlStatementStats s : all.subList(0, Math.min(DUMP_LIMIT, all.size()))) {
+            out.append(String.format("%10d %7d %10d %11.1f %9.2f %9.2f %9.2f %9.2f %6d  %s%n",
+                    s.getCalls(), s.getErrors(), s.getRows(), s.getTotalMillis(), s.getMeanMillis(),
+                    s.getP95Millis(), s.getP99Millis(), s.getMaxMillis(), s.getSlowCalls(), s.getSql()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Stops the periodic dump and unregisters the MBeans.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
@@ -0,0 +1,26 @@
+package com.codeup.novabook.jdbc;
+
+/**
+ * JMX view of {@link SqlMetrics}; the slow-query settings can be changed at runtime.
+ */
+public interface SqlMetricsMBean {
+
+    int getStatementCount();
+
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long millis);
+
+    boolean isRedactParameters();
+
+    void setRedactParameters(boolean redact);
+
+    /**
+     * @return the statements with the most total time, as a text table
+     */
+    String dump();
+}
@@ -0,0 +1,71 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.infra.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram for one SQL statement, kept by {@link SqlMetrics}.
+ * <p>
+ * Recording only increments striped counters ({@link LongAdder}), so concurrent
+ * callers never lock or allocate. Percentiles come from a {@link LatencyHistogram}
+ * and are accurate to a factor of two.
+ * </p>
+ */
+public final class SqlStatementStats implements SqlStatementStatsMBean {
+
+    private final String sql;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    SqlStatementStats(String sql) {
+        this.sql = sql;
+    }
+
+    void record(long nanos, long rowCount, boolean failed, boolean slow) {
+        if (failed) errors.increment();
+        if (slow) slowCalls.increment();
+        rows.add(rowCount);
+        latency.record(nanos);
+    }
+
+    @Override
+    public String getSql() { return sql; }
+
+    @Override
+    public long getCalls() { return latency.getCount(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public long getRows() { return rows.sum(); }
+
+    @Override
+    public long getSlowCalls() { return slowCalls.sum(); }
+
+    @Override
+    public double getTotalMillis() { return latency.getTotalMillis(); }
+
+    @Override
+    public double getMeanMillis() { return latency.getMeanMillis(); }
+
+    @Override
+    public double getMaxMillis() { return latency.getMaxMillis(); }
+
+    @Override
+    public double getP50Millis() { return percentileMillis(0.50); }
+
+    @Override
+    public double getP95Millis() { return percentileMillis(0.95); }
+
+    @Override
+    public double getP99Millis() { return percentileMillis(0.99); }
+
+    /**
+     * @return the upper bound of the bucket holding the {@code p}-th latency, capped at the maximum
+     */
+    public double percentileMillis(double p) { return latency.percentileMillis(p); }
+}
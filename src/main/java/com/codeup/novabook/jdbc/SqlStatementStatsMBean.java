@@ -0,0 +1,29 @@
+package com.codeup.novabook.jdbc;
+
+/**
+ * JMX view of one SQL statement's {@link SqlStatementStats}.
+ */
+public interface SqlStatementStatsMBean {
+
+    String getSql();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    long getSlowCalls();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+}
@@ -0,0 +1,81 @@
+package com.codeup.novabook.jdbc;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds the connection of the running {@link JdbcTemplateLight#txExecute} unit of work
+ * to the current thread.
+ * <p>
+ * Every {@link JdbcTemplateLight} call made while a transaction is bound reuses its
+ * connection instead of opening a new one, so repositories invoked from inside a
+ * transactional callback take part in the same commit or rollback. The binding is a
+ * plain {@link ThreadLocal}, which behaves the same on platform and virtual threads;
+ * work handed to another thread does not inherit it.
+ * </p>
+ * <p>
+ * Caches and indexes kept next to the database register their updates with
+ * {@link #afterCommit(Runnable)}, so nothing outside the database sees a change
+ * before it is committed, or at all when it is rolled back.
+ * </p>
+ *
+ * @see JdbcTemplateLight#txExecute(JdbcTemplateLight.SqlTxCallback)
+ */
+public final class TransactionContext {
+    private static final ThreadLocal<TransactionContext> CURRENT = new ThreadLocal<>();
+
+    private final ConnectionFactory factory;
+    private final Connection connection;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    private TransactionContext(ConnectionFactory factory, Connection connection) {
+        this.factory = factory;
+        this.connection = connection;
+    }
+
+    /**
+     * @return true if the current thread is running inside a transaction
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * @return the connection bound to the current thread, or null outside a transaction
+     */
+    public static Connection currentConnection() {
+        TransactionContext ctx = CURRENT.get();
+        return ctx == null ? null : ctx.connection;
+    }
+
+    /**
+     * Runs {@code action} once the current transaction has committed, or right away
+     * outside a transaction. Actions of a transaction that rolls back are dropped.
+     */
+    public static void afterCommit(Runnable action) {
+        TransactionContext ctx = CURRENT.get();
+        if (ctx == null) action.run();
+        else ctx.afterCommit.add(action);
+    }
+
+    static Connection connectionFor(ConnectionFactory factory) {
+        TransactionContext ctx = CURRENT.get();
+        return ctx != null && ctx.factory == factory ? ctx.connection : null;
+    }
+
+    static void bind(ConnectionFactory factory, Connection connection) {
+        CURRENT.set(new TransactionContext(factory, connection));
+    }
+
+    /**
+     * @return the actions registered with {@link #afterCommit} while the binding was held
+     */
+    static List<Runnable> unbind() {
+        TransactionContext ctx = CURRENT.get();
+        CURRENT.remove();
+        return ctx == null ? List.of() : ctx.afterCommit;
+    }
+}
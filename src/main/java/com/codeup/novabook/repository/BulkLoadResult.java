@@ -0,0 +1,25 @@
+package com.codeup.novabook.repository;
+
+/**
+ * Row counts of a bulk load: rows staged from the file, rows rejected by the
+ * set-based validation, and distinct records inserted and updated by the merge.
+ */
+public final class BulkLoadResult {
+
+    private final long staged;
+    private final long rejected;
+    private final long inserted;
+    private final long updated;
+
+    public BulkLoadResult(long staged, long rejected, long inserted, long updated) {
+        this.staged = staged;
+        this.rejected = rejected;
+        this.inserted = inserted;
+        this.updated = updated;
+    }
+
+    public long getStaged() { return staged; }
+    public long getRejected() { return rejected; }
+    public long getInserted() { return inserted; }
+    public long getUpdated() { return updated; }
+}
@@ -0,0 +1,57 @@
+package com.codeup.novabook.repository;
+
+import com.codeup.novabook.exception.DatabaseException;
+
+import java.io.InputStream;
+import java.io.Writer;
+
+/**
+ * Whole-table CSV transfers through the database's native bulk paths.
+ * Each load stages the file in a temporary table and merges it with a few
+ * set-based statements in one transaction; rows failing validation are
+ * counted and left out instead of aborting the load.
+ */
+public interface IBulkRepository {
+
+    /**
+     * @return true when {@link #loadBooks} and {@link #loadLoans} are available
+     */
+    boolean canLoad();
+
+    /**
+     * @return true when {@link #unloadBooks} and {@link #unloadLoans} are available
+     */
+    boolean canUnload();
+
+    /**
+     * Loads isbn,title,author,stock CSV and upserts it by ISBN; for a repeated ISBN the last row wins.
+     *
+     * @param csv UTF-8 CSV with a header line
+     * @throws DatabaseException if a database error occurs (nothing is merged)
+     */
+    BulkLoadResult loadBooks(InputStream csv) throws DatabaseException;
+
+    /**
+     * Loads memberId,bookId,dateLoaned,dateDue[,returned] CSV as loan history. Rows whose
+     * member, book and loan date are already on file, or whose member or book does not
+     * exist, are skipped. Book stock is not adjusted.
+     *
+     * @param csv UTF-8 CSV with a header line
+     * @throws DatabaseException if a database error occurs (nothing is inserted)
+     */
+    BulkLoadResult loadLoans(InputStream csv) throws DatabaseException;
+
+    /**
+     * Writes every book as isbn,title,author,stock CSV.
+     *
+     * @return rows written
+     */
+    long unloadBooks(Writer out) throws DatabaseException;
+
+    /**
+     * Writes every loan as memberId,bookId,dateLoaned,dateDue,returned CSV.
+     *
+     * @return rows written
+     */
+    long unloadLoans(Writer out) throws DatabaseException;
+}
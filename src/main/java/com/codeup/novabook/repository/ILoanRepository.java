@@ -10,6 +10,7 @@ import com.codeup.novabook.exception.DatabaseException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Loan entity operations.
@@ -29,6 +30,15 @@ public interface ILoanRepository {
      */
     Loan save(Loan loan) throws DatabaseException;
     
+    /**
+     * Inserts several new loans using JDBC batching in a single transaction.
+     * Generated IDs are not populated and book stock is not adjusted.
+     * @param loans Loan entities to insert
+     * @return Number of rows inserted
+     * @throws DatabaseException if a database error occurs (no loan is inserted)
+     */
+    int saveAll(List<Loan> loans) throws DatabaseException;
+    
     /**
      * Updates an existing loan in the database.
      * 
@@ -64,6 +74,34 @@ public interface ILoanRepository {
      */
     List<Loan> findAll() throws DatabaseException;
     
+    /**
+     * Streams all loans, newest first, from a database cursor instead of
+     * loading the whole table. The stream must be closed.
+     * 
+     * @return Lazily populated stream of all loans
+     * @throws DatabaseException if a database error occurs
+     */
+    Stream<Loan> streamAll() throws DatabaseException;
+    
+    /**
+     * Retrieves one page of loans in the requested order, by keyset from a
+     * page token or by position. Sortable properties: {@code dateLoaned}, {@code dateDue}, {@code memberId}, {@code bookId} and {@code id}; default {@code dateLoaned} descending.
+     * 
+     * @param request order, page token or offset, and page size
+     * @return the page and the token for the next one in the same order
+     * @throws IllegalArgumentException if the sort property is not supported or the token is malformed
+     * @throws DatabaseException if a database error occurs
+     */
+    Page<Loan> findPage(PageRequest request) throws DatabaseException;
+    
+    /**
+     * Counts all loans.
+     * 
+     * @return the number of rows
+     * @throws DatabaseException if a database error occurs
+     */
+    long count() throws DatabaseException;
+    
     /**
      * Finds all loans for a specific member.
      * 
@@ -108,6 +146,18 @@ public interface ILoanRepository {
      */
     List<Loan> findOverdueLoans() throws DatabaseException;
     
+    /**
+     * Streams the loans overdue on {@code asOf} (not returned, due before that
+     * date), oldest due date first, from a database cursor. The cutoff is
+     * bound as a parameter, so the application clock decides, not the
+     * database's. The stream must be closed.
+     * 
+     * @param asOf Day the report is for, usually today
+     * @return Lazily populated stream of overdue loans
+     * @throws DatabaseException if a database error occurs
+     */
+    Stream<Loan> streamOverdue(LocalDate asOf) throws DatabaseException;
+    
     /**
      * Finds loans by date range.
      * 
@@ -120,9 +170,11 @@ public interface ILoanRepository {
     
     /**
      * Marks a loan as returned.
+     * Only loans that are still active are changed, so concurrent returns of the
+     * same loan succeed exactly once.
      * 
      * @param loanId Loan ID to mark as returned
-     * @return true if update was successful, false otherwise
+     * @return true if the loan changed from active to returned, false otherwise
      * @throws DatabaseException if a database error occurs
      */
     boolean markAsReturned(Integer loanId) throws DatabaseException;
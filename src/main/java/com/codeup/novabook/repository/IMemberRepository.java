@@ -29,6 +29,15 @@ public interface IMemberRepository {
      */
     Member save(Member member) throws DatabaseException;
     
+    /**
+     * Inserts several new members using JDBC batching in a single transaction.
+     * Generated IDs are not populated.
+     * @param members Member entities to insert
+     * @return Number of rows inserted
+     * @throws DatabaseException if a database error occurs (no member is inserted)
+     */
+    int saveAll(List<Member> members) throws DatabaseException;
+    
     /**
      * Updates an existing member in the database.
      * 
@@ -73,6 +82,25 @@ public interface IMemberRepository {
      */
     List<Member> findAll() throws DatabaseException;
     
+    /**
+     * Retrieves one page of members in the requested order, by keyset from a
+     * page token or by position. Sortable properties: {@code name} and {@code id}; default {@code name}.
+     * 
+     * @param request order, page token or offset, and page size
+     * @return the page and the token for the next one in the same order
+     * @throws IllegalArgumentException if the sort property is not supported or the token is malformed
+     * @throws DatabaseException if a database error occurs
+     */
+    Page<Member> findPage(PageRequest request) throws DatabaseException;
+    
+    /**
+     * Counts all members.
+     * 
+     * @return the number of rows
+     * @throws DatabaseException if a database error occurs
+     */
+    long count() throws DatabaseException;
+    
     /**
      * Retrieves all active members (not deleted).
      * 
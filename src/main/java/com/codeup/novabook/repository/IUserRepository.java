@@ -7,6 +7,7 @@ package com.codeup.novabook.repository;
 import com.codeup.novabook.domain.User;
 import com.codeup.novabook.domain.UserRole;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.DuplicateKeyException;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,7 +25,8 @@ public interface IUserRepository {
      * Saves a new user to the database.
      * 
      * @param user User entity to save
-     * @return The saved user with generated ID
+     * @return The saved user with generated ID and timestamps
+     * @throws DuplicateKeyException if the email already exists
      * @throws DatabaseException if a database error occurs
      */
     User save(User user) throws DatabaseException;
@@ -0,0 +1,143 @@
+package com.codeup.novabook.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset-paginated list query.
+ * <p>
+ * Repositories seek past the sort key and ID of the last row they returned
+ * instead of using {@code OFFSET}, so every page costs the same regardless of
+ * how deep it is. The position is handed to callers as an opaque continuation
+ * token: pass {@link #getNextToken()} back to {@code findPage} to get the
+ * following page, or {@code null} to start from the top.
+ * </p>
+ *
+ * @param <T> the type of the rows in the page
+ */
+public final class Page<T> {
+
+    /** Largest page a repository will return, whatever the caller asks for. */
+    public static final int MAX_SIZE = 500;
+
+    private static final String SEPARATOR = "\u001F";
+    private static final String NULL_KEY = "\u0000";
+
+    private final List<T> items;
+    private final String nextToken;
+
+    public Page(List<T> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code limit + 1} rows: the
+     * extra row only tells whether another page exists and is dropped.
+     *
+     * @param rows the rows read, at most {@code limit + 1}
+     * @param limit the page size requested
+     * @param tokenOf builds the continuation token from the last row kept
+     */
+    public static <T> Page<T> of(List<T> rows, int limit, Function<? super T, String> tokenOf) {
+        if (rows.size() <= limit) return new Page<>(rows, null);
+        List<T> kept = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(kept, tokenOf.apply(kept.get(limit - 1)));
+    }
+
+    /**
+     * Walks every page lazily: the next page is fetched only once the rows of
+     * the current one have been consumed.
+     *
+     * @param fetch loads the page after the given token (null for the first)
+     * @return a view over all rows; each iteration starts again from the first page
+     */
+    public static <T> Iterable<T> all(Function<String, Page<T>> fetch) {
+        return () -> new Iterator<T>() {
+            private Page<T> page = fetch.apply(null);
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == page.items.size() && page.hasNext()) {
+                    page = fetch.apply(page.nextToken);
+                    next = 0;
+                }
+                return next < page.items.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return page.items.get(next++);
+            }
+        };
+    }
+
+    /**
+     * Clamps a requested page size to {@code 1..MAX_SIZE}.
+     */
+    public static int size(int limit) {
+        return Math.max(1, Math.min(limit, MAX_SIZE));
+    }
+
+    /**
+     * Encodes the seek keys of a row (sort key values, then ID) as a URL-safe token.
+     */
+    public static String token(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(SEPARATOR);
+            sb.append(keys[i] == null ? NULL_KEY : keys[i].toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token built by {@link #token(Object...)}.
+     *
+     * @param token the continuation token
+     * @param count the number of keys the caller expects
+     * @return the keys in order; {@code null} where a null key was encoded
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static String[] keys(String token, int count) {
+        String[] keys;
+        try {
+            keys = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+        if (keys.length != count) throw new IllegalArgumentException("Invalid page token");
+        for (int i = 0; i < keys.length; i++) {
+            if (NULL_KEY.equals(keys[i])) keys[i] = null;
+        }
+        return keys;
+    }
+
+    /**
+     * Reads the row ID, the last key of a decoded token.
+     *
+     * @throws IllegalArgumentException if it is not a number
+     */
+    public static int id(String[] keys) {
+        try {
+            return Integer.parseInt(keys[keys.length - 1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+
+    public List<T> getItems() { return items; }
+
+    /** Token for the following page, or null when this is the last one. */
+    public String getNextToken() { return nextToken; }
+
+    public boolean hasNext() { return nextToken != null; }
+}
@@ -0,0 +1,54 @@
+package com.codeup.novabook.repository;
+
+/**
+ * Which page a paginated list query should return.
+ * <p>
+ * Pages are normally reached by keyset: {@link #after} continues from the
+ * token of the previous page. {@link #at} jumps to a row position with an
+ * {@code OFFSET} instead, for callers such as a scrolled table that need an
+ * arbitrary page; its cost grows with the offset, so prefer tokens whenever
+ * the previous page is known.
+ * </p>
+ */
+public final class PageRequest {
+
+    private final Sort sort;
+    private final String pageToken;
+    private final long offset;
+    private final int limit;
+
+    private PageRequest(Sort sort, String pageToken, long offset, int limit) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        this.sort = sort;
+        this.pageToken = pageToken;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * @param sort the order, or null for the repository's default order
+     * @param pageToken token of the previous page in the same order, or null for the first page
+     * @param limit page size, capped at {@link Page#MAX_SIZE}
+     */
+    public static PageRequest after(Sort sort, String pageToken, int limit) {
+        return new PageRequest(sort, pageToken, 0, limit);
+    }
+
+    /**
+     * @param sort the order, or null for the repository's default order
+     * @param offset number of rows to skip
+     * @param limit page size, capped at {@link Page#MAX_SIZE}
+     */
+    public static PageRequest at(Sort sort, long offset, int limit) {
+        return new PageRequest(sort, null, offset, limit);
+    }
+
+    /** The order, or null for the repository's default. */
+    public Sort getSort() { return sort; }
+
+    public String getPageToken() { return pageToken; }
+
+    public long getOffset() { return offset; }
+
+    public int getLimit() { return limit; }
+}
@@ -0,0 +1,50 @@
+package com.codeup.novabook.repository;
+
+import java.util.Objects;
+
+/**
+ * Sort order of a paginated list query: one property, ascending or
+ * descending, with the row ID as tie-breaker. Repositories only accept the
+ * properties they document as sortable.
+ */
+public final class Sort {
+
+    private final String property;
+    private final boolean descending;
+
+    private Sort(String property, boolean descending) {
+        this.property = Objects.requireNonNull(property, "property");
+        this.descending = descending;
+    }
+
+    public static Sort by(String property) {
+        return new Sort(property, false);
+    }
+
+    public static Sort byDescending(String property) {
+        return new Sort(property, true);
+    }
+
+    public String getProperty() { return property; }
+
+    public boolean isDescending() { return descending; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Sort)) return false;
+        Sort other = (Sort) o;
+        return descending == other.descending && property.equals(other.property);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, descending);
+    }
+
+    /** {@code title} or {@code -title}; also stored in page tokens. */
+    @Override
+    public String toString() {
+        return descending ? "-" + property : property;
+    }
+}
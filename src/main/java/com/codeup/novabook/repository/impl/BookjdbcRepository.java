@@ -6,13 +6,25 @@ package com.codeup.novabook.repository.impl;
 
 import com.codeup.novabook.domain.Book;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.DuplicateKeyException;
 import com.codeup.novabook.jdbc.JdbcTemplateLight;
 import com.codeup.novabook.jdbc.RowMapper;
+import com.codeup.novabook.jdbc.SqlDialect;
 import com.codeup.novabook.repository.IBookRepository;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,7 +37,7 @@ import java.util.logging.Logger;
  * 
  * <p><strong>Key Features:</strong></p>
  * <ul>
- *   <li><strong>ISBN Uniqueness</strong> - Ensures no duplicate ISBNs in the system</li>
+ *   <li><strong>ISBN Uniqueness</strong> - Enforced by the unique constraint, reported as {@link DuplicateKeyException}</li>
  *   <li><strong>Stock Management</strong> - Tracks book availability for lending</li>
  *   <li><strong>Search Capabilities</strong> - Supports search by title, author, and ISBN</li>
  * </ul>
@@ -36,17 +48,33 @@ import java.util.logging.Logger;
  */
 public class BookjdbcRepository implements IBookRepository {
     
+    private static final int BATCH_SIZE = 1000;
+    // Largest IN list sent in one lookup query
+    private static final int IN_LIMIT = 1000;
     private final JdbcTemplateLight jdbc;
+    private final SqlDialect dialect;
     private static final Logger logger = Logger.getLogger(BookjdbcRepository.class.getName());
 
     /**
-     * Constructs a new BookjdbcRepository with the specified JDBC template.
+     * Constructs a new BookjdbcRepository with the specified JDBC template,
+     * using the template's SQL dialect.
      * 
      * @param jdbc the JDBC template for database operations
      * @throws NullPointerException if jdbc is null
      */
     public BookjdbcRepository(JdbcTemplateLight jdbc) { 
+        this(jdbc, jdbc.dialect());
+    }
+
+    /**
+     * Constructs a new BookjdbcRepository for a specific database.
+     * 
+     * @param jdbc the JDBC template for database operations
+     * @param dialect the SQL dialect used for vendor-specific statements
+     */
+    public BookjdbcRepository(JdbcTemplateLight jdbc, SqlDialect dialect) { 
         this.jdbc = jdbc; 
+        this.dialect = dialect;
     }
 
     // Row MAPPER
@@ -63,36 +91,63 @@ public class BookjdbcRepository implements IBookRepository {
         return book;
     };
 
+    // List pages: sortable properties and the default order
+    private static final KeysetQuery<Book> PAGES = new KeysetQuery<>("book", BOOK_MAPPER, Book::getId, Sort.by("title"))
+            .column("title", "title", KeysetQuery.Type.STRING, Book::getTitle)
+            .column("author", "author", KeysetQuery.Type.STRING, Book::getAuthor)
+            .column("isbn", "isbn", KeysetQuery.Type.STRING, Book::getIsbn)
+            .column("stock", "stock", KeysetQuery.Type.INT, Book::getStock);
+
     @Override
     public Book save(Book book) throws DatabaseException {
-        if (existsByIsbn(book.getIsbn())) {
-            throw new DatabaseException("ISBN already exists: " + book.getIsbn());
-        }
-
-        String sql = "INSERT INTO book (isbn, title, author, stock) VALUES (?, ?, ?, ?)";
+        // Single round-trip: timestamps come from the app clock and the ISBN
+        // uniqueness check from the unique constraint
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String sql = "INSERT INTO book (isbn, title, author, stock, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
         try {
-            int rows = jdbc.update(sql, ps -> {
+            int id = jdbc.insert(sql, ps -> {
                 try {
                     ps.setString(1, book.getIsbn());
                     ps.setString(2, book.getTitle());
                     ps.setString(3, book.getAuthor());
                     ps.setInt(4, book.getStock());
+                    ps.setTimestamp(5, Timestamp.valueOf(now));
+                    ps.setTimestamp(6, Timestamp.valueOf(now));
                 } catch (SQLException e) {
                     throw new RuntimeException("Error creating book", e);
                 }
             });
-            if (rows != 1) {
-                throw new DatabaseException("Failed to create book");
-            }
-
-            return findByIsbn(book.getIsbn()).orElseThrow(() -> 
-                new DatabaseException("Failed to retrieve created book"));
+            book.setId(id);
+            book.setCreatedAt(now);
+            book.setUpdatedAt(now);
+            return book;
+        } catch (DuplicateKeyException e) {
+            logger.log(Level.WARNING, "Duplicate ISBN: {0}", book.getIsbn());
+            throw new DuplicateKeyException("ISBN already exists: " + book.getIsbn(), e);
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error creating book", e);
             throw e;
         }
     }
 
+    @Override
+    public int saveAll(List<Book> books) throws DatabaseException {
+        String sql = "INSERT INTO book (isbn, title, author, stock) VALUES (?, ?, ?, ?)";
+        try {
+            int rows = jdbc.batchUpdate(sql, books, (ps, book) -> {
+                ps.setString(1, book.getIsbn());
+                ps.setString(2, book.getTitle());
+                ps.setString(3, book.getAuthor());
+                ps.setInt(4, book.getStock());
+            }, BATCH_SIZE);
+            logger.log(Level.INFO, "Book batch insert executed: {0} rows", rows);
+            return rows;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error creating books in batch", e);
+            throw e;
+        }
+    }
+
     @Override
     public Book update(Book book) throws DatabaseException {
         String sql = "UPDATE book SET isbn=?, title=?, author=?, stock=? WHERE id=?";
@@ -118,6 +173,25 @@ public class BookjdbcRepository implements IBookRepository {
         }
     }
 
+    @Override
+    public int updateAll(List<Book> books) throws DatabaseException {
+        String sql = "UPDATE book SET isbn=?, title=?, author=?, stock=? WHERE id=?";
+        try {
+            int rows = jdbc.batchUpdate(sql, books, (ps, book) -> {
+                ps.setString(1, book.getIsbn());
+                ps.setString(2, book.getTitle());
+                ps.setString(3, book.getAuthor());
+                ps.setInt(4, book.getStock());
+                ps.setInt(5, book.getId());
+            }, BATCH_SIZE);
+            logger.log(Level.INFO, "Book batch update executed: {0} rows", rows);
+            return rows;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error updating books in batch", e);
+            throw e;
+        }
+    }
+
     @Override
     public boolean delete(Integer id) throws DatabaseException {
         String sql = "DELETE FROM book WHERE id = ?";
@@ -173,6 +247,31 @@ public class BookjdbcRepository implements IBookRepository {
         }
     }
 
+    @Override
+    public List<Book> findByIsbns(Collection<String> isbns) throws DatabaseException {
+        List<String> all = new ArrayList<>(isbns);
+        List<Book> found = new ArrayList<>();
+        try {
+            for (int from = 0; from < all.size(); from += IN_LIMIT) {
+                List<String> part = all.subList(from, Math.min(from + IN_LIMIT, all.size()));
+                String sql = "SELECT * FROM book WHERE isbn IN (" + String.join(",", Collections.nCopies(part.size(), "?")) + ")";
+                found.addAll(jdbc.query(sql, ps -> {
+                    try {
+                        for (int i = 0; i < part.size(); i++) ps.setString(i + 1, part.get(i));
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error searching books by ISBN", e);
+                    }
+                }, BOOK_MAPPER));
+            }
+            logger.log(Level.FINE, "Book bulk search by ISBN executed: {0} of {1} found",
+                    new Object[]{found.size(), all.size()});
+            return found;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing bulk search by ISBN: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
     @Override
     public List<Book> findAll() throws DatabaseException {
         String sql = "SELECT * FROM book ORDER BY title";
@@ -185,9 +284,42 @@ public class BookjdbcRepository implements IBookRepository {
         }
     }
 
+    @Override
+    public Stream<Book> streamAll() throws DatabaseException {
+        String sql = "SELECT * FROM book ORDER BY title";
+        try {
+            logger.log(Level.INFO, "Book stream executed");
+            return jdbc.stream(sql, null, BOOK_MAPPER);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing stream books: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Book> findPage(PageRequest request) throws DatabaseException {
+        // Seek on (sort column, id) unless a position was asked for
+        try {
+            return PAGES.find(jdbc, request);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing book page: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public long count() throws DatabaseException {
+        try {
+            return PAGES.count(jdbc);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing book count: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
     @Override
     public List<Book> findByTitle(String title) throws DatabaseException {
-        String sql = "SELECT * FROM book WHERE LOWER(title) LIKE LOWER(?) ORDER BY title";
+        String sql = "SELECT * FROM book WHERE " + dialect.likeIgnoreCase("title") + " ORDER BY title";
         try {
             List<Book> list = jdbc.query(sql, ps -> {
                 try { 
@@ -206,7 +338,7 @@ public class BookjdbcRepository implements IBookRepository {
 
     @Override
     public List<Book> findByAuthor(String author) throws DatabaseException {
-        String sql = "SELECT * FROM book WHERE LOWER(author) LIKE LOWER(?) ORDER BY author, title";
+        String sql = "SELECT * FROM book WHERE " + dialect.likeIgnoreCase("author") + " ORDER BY author, title";
         try {
             List<Book> list = jdbc.query(sql, ps -> {
                 try { 
@@ -261,6 +393,26 @@ public class BookjdbcRepository implements IBookRepository {
         }
     }
 
+    @Override
+    public boolean adjustStock(Integer bookId, int delta) throws DatabaseException {
+        String sql = "UPDATE book SET stock = stock + ? WHERE id = ? AND stock + ? >= 0";
+        try {
+            int rows = jdbc.update(sql, ps -> {
+                try {
+                    ps.setInt(1, delta);
+                    ps.setInt(2, bookId);
+                    ps.setInt(3, delta);
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error adjusting book stock", e);
+                }
+            });
+            return rows > 0;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error adjusting book stock", e);
+            throw e;
+        }
+    }
+
     @Override
     public boolean existsByIsbn(String isbn) throws DatabaseException {
         String sql = "SELECT COUNT(*) FROM book WHERE isbn=?";
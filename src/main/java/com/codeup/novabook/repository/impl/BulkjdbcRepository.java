@@ -0,0 +1,183 @@
+package com.codeup.novabook.repository.impl;
+
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.BulkCopy;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.SqlDialect;
+import com.codeup.novabook.repository.BulkLoadResult;
+import com.codeup.novabook.repository.IBulkRepository;
+
+import java.io.InputStream;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JDBC implementation of {@link IBulkRepository} on top of {@link BulkCopy}.
+ * <p>
+ * A load runs in one transaction: the CSV is copied into a temporary staging
+ * table of text columns, rows are validated in SQL (types, lengths, referenced
+ * rows), and the valid ones are merged into the target table with a single
+ * {@code INSERT ... SELECT} with the dialect's upsert clause
+ * ({@code ON DUPLICATE KEY UPDATE} on MySQL, {@code ON CONFLICT} on PostgreSQL).
+ * </p>
+ */
+public class BulkjdbcRepository implements IBulkRepository {
+
+    private static final List<String> BOOK_COLUMNS = List.of("isbn", "title", "author", "stock");
+    private static final List<String> LOAN_COLUMNS = List.of("member_id", "book_id", "date_loaned", "date_due", "returned");
+    private static final String INT_PATTERN = "^[0-9]{1,9}$";
+    // A real calendar date, leap days included, so the guarded CAST can never fail
+    // and abort the load; plain groups because MySQL 5.7 has no (?:...)
+    private static final String DATE_PATTERN = "^(([1-9][0-9]{3})-((0[13578]|1[02])-(0[1-9]|[12][0-9]|3[01])"
+            + "|(0[469]|11)-(0[1-9]|[12][0-9]|30)|02-(0[1-9]|1[0-9]|2[0-8]))"
+            + "|([1-9][0-9](0[48]|[2468][048]|[13579][26])|([2468][048]|[13579][26])00)-02-29)$";
+    // Rows are validated, counted and merged on the trimmed ISBN
+    private static final String ISBN = "TRIM(s.isbn)";
+
+    private static final Logger logger = Logger.getLogger(BulkjdbcRepository.class.getName());
+
+    private final JdbcTemplateLight jdbc;
+    private final BulkCopy bulk;
+    private final SqlDialect dialect;
+
+    public BulkjdbcRepository(JdbcTemplateLight jdbc, BulkCopy bulk, SqlDialect dialect) {
+        this.jdbc = jdbc;
+        this.bulk = bulk;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public boolean canLoad() { return bulk.canLoad(); }
+
+    @Override
+    public boolean canUnload() { return bulk.canUnload(); }
+
+    @Override
+    public BulkLoadResult loadBooks(InputStream csv) throws DatabaseException {
+        String valid = ISBN + " <> '' AND CHAR_LENGTH(" + ISBN + ") <= 20"
+                + " AND TRIM(s.title) <> '' AND CHAR_LENGTH(s.title) <= 100"
+                + " AND s.author IS NOT NULL AND CHAR_LENGTH(s.author) <= 100"
+                + " AND " + matches("s.stock", INT_PATTERN);
+        String merge = "INSERT INTO book (isbn, title, author, stock)"
+                + (dialect.upsertNeedsDistinctKeys()
+                    // The upsert may touch a row only once, so keep the last row per ISBN
+                    ? " SELECT DISTINCT ON (" + ISBN + ") " + ISBN + ", s.title, s.author, " + toInt("s.stock")
+                        + " FROM book_stage s WHERE " + valid + " ORDER BY " + ISBN + ", s.seq DESC"
+                    // Rows are applied in file order, so the last row per ISBN wins
+                    : " SELECT " + ISBN + ", s.title, s.author, " + toInt("s.stock")
+                        + " FROM book_stage s WHERE " + valid + " ORDER BY s.seq")
+                + dialect.onConflictUpdate(List.of("isbn"), List.of("title", "author", "stock"));
+        try {
+            BulkLoadResult result = jdbc.txExecute(c -> {
+                bulk.createStage(c, "book_stage", BOOK_COLUMNS);
+                try {
+                    long staged = bulk.copyIn(c, "book_stage", BOOK_COLUMNS, csv);
+                    long validRows = count(c, "SELECT COUNT(*) FROM book_stage s WHERE " + valid);
+                    long isbns = count(c, "SELECT COUNT(DISTINCT " + ISBN + ") FROM book_stage s WHERE " + valid);
+                    long existing = count(c, "SELECT COUNT(DISTINCT " + ISBN + ") FROM book_stage s"
+                            + " JOIN book b ON b.isbn = " + ISBN + " WHERE " + valid);
+                    try (Statement st = c.createStatement()) {
+                        st.executeLargeUpdate(merge);
+                    }
+                    return new BulkLoadResult(staged, staged - validRows, isbns - existing, existing);
+                } finally {
+                    bulk.dropStage(c, "book_stage");
+                }
+            });
+            logger.log(Level.INFO, "Book bulk load executed: {0} staged, {1} rejected, {2} inserted, {3} updated",
+                    new Object[]{result.getStaged(), result.getRejected(), result.getInserted(), result.getUpdated()});
+            return result;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing book bulk load", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public BulkLoadResult loadLoans(InputStream csv) throws DatabaseException {
+        String member = toInt("s.member_id");
+        String book = toInt("s.book_id");
+        String valid = matches("s.member_id", INT_PATTERN) + " AND " + matches("s.book_id", INT_PATTERN)
+                + " AND " + matches("s.date_loaned", DATE_PATTERN) + " AND " + matches("s.date_due", DATE_PATTERN)
+                + " AND EXISTS (SELECT 1 FROM member m WHERE m.id = " + member + ")"
+                + " AND EXISTS (SELECT 1 FROM book b WHERE b.id = " + book + ")";
+        String insert = "INSERT INTO loan (member_id, book_id, date_loaned, date_due, returned)"
+                + " SELECT " + member + ", " + book + ", " + toDate("s.date_loaned") + ", " + toDate("s.date_due") + ","
+                + " LOWER(COALESCE(s.returned, '')) = 'true'"
+                + " FROM loan_stage s WHERE " + valid
+                + " AND NOT EXISTS (SELECT 1 FROM loan l WHERE l.member_id = " + member
+                + " AND l.book_id = " + book + " AND l.date_loaned = " + toDate("s.date_loaned") + ")"
+                + " ORDER BY s.seq";
+        try {
+            BulkLoadResult result = jdbc.txExecute(c -> {
+                bulk.createStage(c, "loan_stage", LOAN_COLUMNS);
+                try {
+                    long staged = bulk.copyIn(c, "loan_stage", LOAN_COLUMNS, csv);
+                    long validRows = count(c, "SELECT COUNT(*) FROM loan_stage s WHERE " + valid);
+                    long inserted;
+                    try (Statement st = c.createStatement()) {
+                        inserted = st.executeLargeUpdate(insert);
+                    }
+                    return new BulkLoadResult(staged, staged - validRows, inserted, 0);
+                } finally {
+                    bulk.dropStage(c, "loan_stage");
+                }
+            });
+            logger.log(Level.INFO, "Loan bulk load executed: {0} staged, {1} rejected, {2} inserted",
+                    new Object[]{result.getStaged(), result.getRejected(), result.getInserted()});
+            return result;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing loan bulk load", e);
+            throw e;
+        }
+    }
+
+    @Override
+    public long unloadBooks(Writer out) throws DatabaseException {
+        return unload("books", "SELECT isbn, title, author, stock FROM book ORDER BY id", out);
+    }
+
+    @Override
+    public long unloadLoans(Writer out) throws DatabaseException {
+        // Column labels and the returned text match LoanCsv.write
+        return unload("loans", "SELECT member_id AS \"memberId\", book_id AS \"bookId\", date_loaned AS \"dateLoaned\","
+                + " date_due AS \"dateDue\", COALESCE(CAST(returned AS TEXT), 'null') AS returned FROM loan ORDER BY id", out);
+    }
+
+    private long unload(String what, String select, Writer out) throws DatabaseException {
+        try {
+            long rows = jdbc.txExecute(c -> bulk.copyOut(c, select, out));
+            logger.log(Level.INFO, "Bulk unload of {0} executed: {1} rows", new Object[]{what, rows});
+            return rows;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing bulk unload of " + what, e);
+            throw e;
+        }
+    }
+
+    private String matches(String column, String pattern) {
+        return dialect.regexMatches(column, pattern);
+    }
+
+    // Casts are guarded because neither database promises to test the WHERE patterns first
+    private String toInt(String column) {
+        return "CASE WHEN " + matches(column, INT_PATTERN) + " THEN " + dialect.castToInt(column) + " END";
+    }
+
+    private String toDate(String column) {
+        return "CASE WHEN " + matches(column, DATE_PATTERN) + " THEN CAST(" + column + " AS DATE) END";
+    }
+
+    private static long count(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
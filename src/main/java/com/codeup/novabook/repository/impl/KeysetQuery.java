@@ -0,0 +1,166 @@
+package com.codeup.novabook.repository.impl;
+
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.RowMapper;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds the paginated list queries of one table.
+ * <p>
+ * Each sortable property maps to a column. A page in that order is
+ * {@code ORDER BY column, id} (both descending for a descending sort). The
+ * query seeks past the column value and ID encoded in the page token. When a
+ * request asks for a position instead of a token, it uses {@code OFFSET}. The
+ * token also records the sort order, and a token from another order is
+ * rejected.
+ * </p>
+ * <p>
+ * A nullable column keeps the plain {@code ORDER BY}, so its index still
+ * serves the page, and NULLs land where the database puts them: first when
+ * ascending on MySQL, last on PostgreSQL. The seek follows that order. A page
+ * ending on a NULL row carries a null key and resumes among the remaining
+ * NULL rows by ID.
+ * </p>
+ *
+ * @param <T> the entity type
+ */
+final class KeysetQuery<T> {
+
+    enum Type { STRING, INT, DATE }
+
+    private static final class Column<T> {
+        final String sql;
+        final Type type;
+        final Function<T, Object> value;
+        final boolean nullable;
+
+        Column(String sql, Type type, Function<T, Object> value, boolean nullable) {
+            this.sql = sql;
+            this.type = type;
+            this.value = value;
+            this.nullable = nullable;
+        }
+    }
+
+    private final String table;
+    private final RowMapper<T> mapper;
+    private final Function<T, Integer> id;
+    private final Sort defaultSort;
+    private final Map<String, Column<T>> columns = new LinkedHashMap<>();
+
+    KeysetQuery(String table, RowMapper<T> mapper, Function<T, Integer> id, Sort defaultSort) {
+        this.table = table;
+        this.mapper = mapper;
+        this.id = id;
+        this.defaultSort = defaultSort;
+        column("id", "id", Type.INT, id::apply);
+    }
+
+    /**
+     * Declares a sortable property backed by a NOT NULL column.
+     */
+    KeysetQuery<T> column(String property, String sql, Type type, Function<T, Object> value) {
+        columns.put(property, new Column<>(sql, type, value, false));
+        return this;
+    }
+
+    /**
+     * Declares a sortable property backed by a column that may hold NULL.
+     */
+    KeysetQuery<T> nullableColumn(String property, String sql, Type type, Function<T, Object> value) {
+        columns.put(property, new Column<>(sql, type, value, true));
+        return this;
+    }
+
+    Page<T> find(JdbcTemplateLight jdbc, PageRequest request) throws DatabaseException {
+        Sort sort = request.getSort() == null ? defaultSort : request.getSort();
+        Column<T> col = columns.get(sort.getProperty());
+        if (col == null) throw new IllegalArgumentException("Unsupported sort for " + table + ": " + sort.getProperty());
+
+        int size = Page.size(request.getLimit());
+        String[] after = request.getPageToken() == null ? null : Page.keys(request.getPageToken(), 3);
+        if (after != null && !sort.toString().equals(after[0])) {
+            throw new IllegalArgumentException("Page token does not match the sort order");
+        }
+        Object afterValue = after == null ? null : parse(col, after[1]);
+        int afterId = after == null ? 0 : Page.id(after);
+        long offset = after == null ? request.getOffset() : 0;
+
+        boolean byId = "id".equals(col.sql);
+        String dir = sort.isDescending() ? " DESC" : " ASC";
+        String cmp = sort.isDescending() ? " < ?" : " > ?";
+        boolean afterNull = after != null && !byId && afterValue == null;
+        // NULLs follow the values when ascending on PostgreSQL or descending on MySQL
+        boolean nullsAfter = col.nullable && jdbc.dialect().nullsSortFirst() == sort.isDescending();
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table);
+        if (afterNull) {
+            sql.append(" WHERE " + col.sql + " IS NULL AND id" + cmp
+                    + (nullsAfter ? "" : " OR " + col.sql + " IS NOT NULL"));
+        } else if (after != null) {
+            sql.append(byId
+                    ? " WHERE id" + cmp
+                    : " WHERE " + col.sql + cmp + " OR (" + col.sql + " = ? AND id" + cmp + ")"
+                            + (nullsAfter ? " OR " + col.sql + " IS NULL" : ""));
+        }
+        sql.append(byId ? " ORDER BY id" + dir : " ORDER BY " + col.sql + dir + ", id" + dir);
+        sql.append(" LIMIT ?");
+        if (offset > 0) sql.append(" OFFSET ?");
+
+        List<T> rows = jdbc.query(sql.toString(), ps -> {
+            try {
+                int i = 1;
+                if (after != null) {
+                    if (!byId && !afterNull) {
+                        bind(ps, i++, col.type, afterValue);
+                        bind(ps, i++, col.type, afterValue);
+                    }
+                    ps.setInt(i++, afterId);
+                }
+                ps.setInt(i++, size + 1);
+                if (offset > 0) ps.setLong(i, offset);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error setting parameters", e);
+            }
+        }, mapper);
+        return Page.of(rows, size, row -> Page.token(sort, col.value.apply(row), id.apply(row)));
+    }
+
+    long count(JdbcTemplateLight jdbc) throws DatabaseException {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, null, rs -> rs.getLong(1)).orElse(0L);
+    }
+
+    private static void bind(PreparedStatement ps, int index, Type type, Object value) throws SQLException {
+        switch (type) {
+            case INT: ps.setInt(index, (Integer) value); break;
+            case DATE: ps.setDate(index, java.sql.Date.valueOf((LocalDate) value)); break;
+            default: ps.setString(index, (String) value);
+        }
+    }
+
+    private static Object parse(Column<?> col, String key) {
+        if (key == null) {
+            if (col.nullable) return null;
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        try {
+            switch (col.type) {
+                case INT: return Integer.valueOf(key);
+                case DATE: return LocalDate.parse(key);
+                default: return key;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+}
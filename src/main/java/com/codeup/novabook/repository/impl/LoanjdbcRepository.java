@@ -9,11 +9,21 @@ import com.codeup.novabook.exception.DatabaseException;
 import com.codeup.novabook.jdbc.JdbcTemplateLight;
 import com.codeup.novabook.jdbc.RowMapper;
 import com.codeup.novabook.repository.ILoanRepository;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,6 +47,8 @@ import java.util.logging.Logger;
  */
 public class LoanjdbcRepository implements ILoanRepository {
     
+    private static final int BATCH_SIZE = 1000;
+    private static final String OVERDUE_SQL = "SELECT * FROM loan WHERE returned = FALSE AND date_due < ? ORDER BY date_due, id";
     private final JdbcTemplateLight jdbc;
     private static final Logger logger = Logger.getLogger(LoanjdbcRepository.class.getName());
 
@@ -52,11 +64,14 @@ public class LoanjdbcRepository implements ILoanRepository {
 
     // Row MAPPER
     private static final RowMapper<Loan> LOAN_MAPPER = rs -> {
+        // Every loan column but the ID is nullable in the schema
+        Date loaned = rs.getDate("date_loaned");
+        Date due = rs.getDate("date_due");
         Loan loan = new Loan(
-            rs.getInt("member_id"),
-            rs.getInt("book_id"),
-            rs.getDate("date_loaned").toLocalDate(),
-            rs.getDate("date_due").toLocalDate()
+            rs.getObject("member_id", Integer.class),
+            rs.getObject("book_id", Integer.class),
+            loaned == null ? null : loaned.toLocalDate(),
+            due == null ? null : due.toLocalDate()
         );
         loan.setId(rs.getInt("id"));
         loan.setReturned(rs.getBoolean("returned"));
@@ -65,34 +80,60 @@ public class LoanjdbcRepository implements ILoanRepository {
         return loan;
     };
 
+    // List pages: sortable properties and the default order
+    private static final KeysetQuery<Loan> PAGES = new KeysetQuery<>("loan", LOAN_MAPPER, Loan::getId, Sort.byDescending("dateLoaned"))
+            .nullableColumn("dateLoaned", "date_loaned", KeysetQuery.Type.DATE, Loan::getDateLoaned)
+            .nullableColumn("dateDue", "date_due", KeysetQuery.Type.DATE, Loan::getDateDue)
+            .nullableColumn("memberId", "member_id", KeysetQuery.Type.INT, Loan::getMemberId)
+            .nullableColumn("bookId", "book_id", KeysetQuery.Type.INT, Loan::getBookId);
+
     @Override
     public Loan save(Loan loan) throws DatabaseException {
-        String sql = "INSERT INTO loan (member_id, book_id, date_loaned, date_due, returned) VALUES (?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String sql = "INSERT INTO loan (member_id, book_id, date_loaned, date_due, returned, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
         try {
-            int rows = jdbc.update(sql, ps -> {
+            int id = jdbc.insert(sql, ps -> {
                 try {
                     ps.setInt(1, loan.getMemberId());
                     ps.setInt(2, loan.getBookId());
                     ps.setDate(3, java.sql.Date.valueOf(loan.getDateLoaned()));
                     ps.setDate(4, java.sql.Date.valueOf(loan.getDateDue()));
                     ps.setBoolean(5, loan.getReturned());
+                    ps.setTimestamp(6, Timestamp.valueOf(now));
+                    ps.setTimestamp(7, Timestamp.valueOf(now));
                 } catch (SQLException e) {
                     throw new RuntimeException("Error creating loan", e);
                 }
             });
-            if (rows != 1) {
-                throw new DatabaseException("Failed to create loan");
-            }
-
-            return findByMemberId(loan.getMemberId()).stream()
-                    .findFirst()
-                    .orElseThrow(() -> new DatabaseException("Failed to retrieve created loan"));
+            loan.setId(id);
+            loan.setCreatedAt(now);
+            loan.setUpdatedAt(now);
+            return loan;
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error creating loan", e);
             throw e;
         }
     }
 
+    @Override
+    public int saveAll(List<Loan> loans) throws DatabaseException {
+        String sql = "INSERT INTO loan (member_id, book_id, date_loaned, date_due, returned) VALUES (?, ?, ?, ?, ?)";
+        try {
+            int rows = jdbc.batchUpdate(sql, loans, (ps, loan) -> {
+                ps.setInt(1, loan.getMemberId());
+                ps.setInt(2, loan.getBookId());
+                ps.setDate(3, java.sql.Date.valueOf(loan.getDateLoaned()));
+                ps.setDate(4, java.sql.Date.valueOf(loan.getDateDue()));
+                ps.setBoolean(5, loan.getReturned());
+            }, BATCH_SIZE);
+            logger.log(Level.INFO, "Loan batch insert executed: {0} rows", rows);
+            return rows;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error creating loans in batch", e);
+            throw e;
+        }
+    }
+
     @Override
     public Loan update(Loan loan) throws DatabaseException {
         String sql = "UPDATE loan SET member_id=?, book_id=?, date_loaned=?, date_due=?, returned=? WHERE id=?";
@@ -167,6 +208,39 @@ public class LoanjdbcRepository implements ILoanRepository {
         }
     }
 
+    @Override
+    public Stream<Loan> streamAll() throws DatabaseException {
+        String sql = "SELECT * FROM loan ORDER BY date_loaned DESC";
+        try {
+            logger.log(Level.INFO, "Loan stream executed");
+            return jdbc.stream(sql, null, LOAN_MAPPER);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing stream loans: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Loan> findPage(PageRequest request) throws DatabaseException {
+        // Seek on (sort column, id) unless a position was asked for
+        try {
+            return PAGES.find(jdbc, request);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing loan page: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public long count() throws DatabaseException {
+        try {
+            return PAGES.count(jdbc);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing loan count: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
     @Override
     public List<Loan> findByMemberId(Integer memberId) throws DatabaseException {
         String sql = "SELECT * FROM loan WHERE member_id = ? ORDER BY date_loaned DESC";
@@ -245,16 +319,37 @@ public class LoanjdbcRepository implements ILoanRepository {
 
     @Override
     public List<Loan> findOverdueLoans() throws DatabaseException {
-        String sql = "SELECT * FROM loan WHERE date_due < CURDATE() AND returned = FALSE ORDER BY date_due";
         try {
             logger.log(Level.INFO, "Overdue loans list executed");
-            return jdbc.query(sql, null, LOAN_MAPPER);
+            return jdbc.query(OVERDUE_SQL, overdueBinder(LocalDate.now()), LOAN_MAPPER);
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error executing overdue loans list: {0}", e.getMessage());
             throw e;
         }
     }
 
+    @Override
+    public Stream<Loan> streamOverdue(LocalDate asOf) throws DatabaseException {
+        try {
+            logger.log(Level.INFO, "Overdue loans stream executed for {0}", asOf);
+            return jdbc.stream(OVERDUE_SQL, overdueBinder(asOf), LOAN_MAPPER);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing overdue loans stream: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    // the cutoff comes from the application clock, not CURDATE()
+    private static Consumer<PreparedStatement> overdueBinder(LocalDate asOf) {
+        return ps -> {
+            try {
+                ps.setDate(1, java.sql.Date.valueOf(asOf));
+            } catch (SQLException e) {
+                throw new RuntimeException("Error setting parameters", e);
+            }
+        };
+    }
+
     @Override
     public List<Loan> findByDateRange(LocalDate startDate, LocalDate endDate) throws DatabaseException {
         String sql = "SELECT * FROM loan WHERE date_loaned BETWEEN ? AND ? ORDER BY date_loaned DESC";
@@ -277,7 +372,8 @@ public class LoanjdbcRepository implements ILoanRepository {
 
     @Override
     public boolean markAsReturned(Integer loanId) throws DatabaseException {
-        String sql = "UPDATE loan SET returned = TRUE WHERE id = ?";
+        // IS NOT TRUE also claims a legacy NULL row, so its return restocks the book
+        String sql = "UPDATE loan SET returned = TRUE WHERE id = ? AND returned IS NOT TRUE";
         try {
             int rows = jdbc.update(sql, ps -> {
                 try {
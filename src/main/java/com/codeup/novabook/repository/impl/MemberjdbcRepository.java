@@ -10,9 +10,16 @@ import com.codeup.novabook.domain.MemberRole;
 import com.codeup.novabook.exception.DatabaseException;
 import com.codeup.novabook.jdbc.JdbcTemplateLight;
 import com.codeup.novabook.jdbc.RowMapper;
+import com.codeup.novabook.jdbc.SqlDialect;
 import com.codeup.novabook.repository.IMemberRepository;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -38,17 +45,31 @@ import java.util.logging.Logger;
  */
 public class MemberjdbcRepository implements IMemberRepository {
     
+    private static final int BATCH_SIZE = 1000;
     private final JdbcTemplateLight jdbc;
+    private final SqlDialect dialect;
     private static final Logger logger = Logger.getLogger(MemberjdbcRepository.class.getName());
 
     /**
-     * Constructs a new MemberjdbcRepository with the specified JDBC template.
+     * Constructs a new MemberjdbcRepository with the specified JDBC template,
+     * using the template's SQL dialect.
      * 
      * @param jdbc the JDBC template for database operations
      * @throws NullPointerException if jdbc is null
      */
     public MemberjdbcRepository(JdbcTemplateLight jdbc) { 
+        this(jdbc, jdbc.dialect());
+    }
+
+    /**
+     * Constructs a new MemberjdbcRepository for a specific database.
+     * 
+     * @param jdbc the JDBC template for database operations
+     * @param dialect the SQL dialect used for vendor-specific statements
+     */
+    public MemberjdbcRepository(JdbcTemplateLight jdbc, SqlDialect dialect) { 
         this.jdbc = jdbc; 
+        this.dialect = dialect;
     }
 
     // Row MAPPER
@@ -66,34 +87,57 @@ public class MemberjdbcRepository implements IMemberRepository {
         return member;
     };
 
+    // List pages: sortable properties and the default order
+    private static final KeysetQuery<Member> PAGES = new KeysetQuery<>("member", MEMBER_MAPPER, Member::getId, Sort.by("name"))
+            .column("name", "name", KeysetQuery.Type.STRING, Member::getName);
+
     @Override
     public Member save(Member member) throws DatabaseException {
-        String sql = "INSERT INTO member (name, active, deleted, role, access_level) VALUES (?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String sql = "INSERT INTO member (name, active, deleted, role, access_level, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
         try {
-            int rows = jdbc.update(sql, ps -> {
+            int id = jdbc.insert(sql, ps -> {
                 try {
                     ps.setString(1, member.getName());
                     ps.setBoolean(2, member.getActive());
                     ps.setBoolean(3, member.getDeleted());
                     ps.setString(4, member.getRole().name());
                     ps.setString(5, member.getAccessLevel().name());
+                    ps.setTimestamp(6, Timestamp.valueOf(now));
+                    ps.setTimestamp(7, Timestamp.valueOf(now));
                 } catch (SQLException e) {
                     throw new RuntimeException("Error creating member", e);
                 }
             });
-            if (rows != 1) {
-                throw new DatabaseException("Failed to create member");
-            }
-
-            return findByName(member.getName()).stream()
-                    .findFirst()
-                    .orElseThrow(() -> new DatabaseException("Failed to retrieve created member"));
+            member.setId(id);
+            member.setCreatedAt(now);
+            member.setUpdatedAt(now);
+            return member;
         } catch (DatabaseException e) {
             logger.log(Level.SEVERE, "Error creating member", e);
             throw e;
         }
     }
 
+    @Override
+    public int saveAll(List<Member> members) throws DatabaseException {
+        String sql = "INSERT INTO member (name, active, deleted, role, access_level) VALUES (?, ?, ?, ?, ?)";
+        try {
+            int rows = jdbc.batchUpdate(sql, members, (ps, member) -> {
+                ps.setString(1, member.getName());
+                ps.setBoolean(2, member.getActive());
+                ps.setBoolean(3, member.getDeleted());
+                ps.setString(4, member.getRole().name());
+                ps.setString(5, member.getAccessLevel().name());
+            }, BATCH_SIZE);
+            logger.log(Level.INFO, "Member batch insert executed: {0} rows", rows);
+            return rows;
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error creating members in batch", e);
+            throw e;
+        }
+    }
+
     @Override
     public Member update(Member member) throws DatabaseException {
         String sql = "UPDATE member SET name=?, active=?, deleted=?, role=?, access_level=? WHERE id=?";
@@ -186,6 +230,27 @@ public class MemberjdbcRepository implements IMemberRepository {
         }
     }
 
+    @Override
+    public Page<Member> findPage(PageRequest request) throws DatabaseException {
+        // Seek on (sort column, id) unless a position was asked for
+        try {
+            return PAGES.find(jdbc, request);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing member page: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public long count() throws DatabaseException {
+        try {
+            return PAGES.count(jdbc);
+        } catch (DatabaseException e) {
+            logger.log(Level.SEVERE, "Error executing member count: {0}", e.getMessage());
+            throw e;
+        }
+    }
+
     @Override
     public List<Member> findAllActive() throws DatabaseException {
         String sql = "SELECT * FROM member WHERE deleted = FALSE ORDER BY name";
@@ -200,7 +265,7 @@ public class MemberjdbcRepository implements IMemberRepository {
 
     @Override
     public List<Member> findByName(String name) throws DatabaseException {
-        String sql = "SELECT * FROM member WHERE LOWER(name) LIKE LOWER(?) ORDER BY name";
+        String sql = "SELECT * FROM member WHERE " + dialect.likeIgnoreCase("name") + " ORDER BY name";
         try {
             List<Member> list = jdbc.query(sql, ps -> {
                 try { 
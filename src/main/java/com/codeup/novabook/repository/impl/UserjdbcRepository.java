@@ -4,12 +4,18 @@ import com.codeup.novabook.domain.AccessLevel;
 import com.codeup.novabook.domain.User;
 import com.codeup.novabook.domain.UserRole;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.DuplicateKeyException;
+import com.codeup.novabook.infra.jfr.AuthenticationEvent;
 import com.codeup.novabook.jdbc.JdbcTemplateLight;
 import com.codeup.novabook.jdbc.RowMapper;
+import com.codeup.novabook.jdbc.SqlDialect;
 import com.codeup.novabook.repository.IUserRepository;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -18,10 +24,19 @@ import java.util.logging.Logger;
 public class UserjdbcRepository implements IUserRepository {
 
     private final JdbcTemplateLight jdbc;
+    private final SqlDialect dialect;
+    // user is a reserved word on PostgreSQL
+    private final String table;
     private static final Logger logger = Logger.getLogger(UserjdbcRepository.class.getName());
 
     public UserjdbcRepository(JdbcTemplateLight jdbc) {
+        this(jdbc, jdbc.dialect());
+    }
+
+    public UserjdbcRepository(JdbcTemplateLight jdbc, SqlDialect dialect) {
         this.jdbc = jdbc;
+        this.dialect = dialect;
+        this.table = dialect.quote("user");
     }
 
     private static final RowMapper<User> USER_MAPPER = rs -> {
@@ -42,33 +57,41 @@ public class UserjdbcRepository implements IUserRepository {
 
     @Override
     public User save(User user) throws DatabaseException {
-        if (existsByEmail(user.getEmail())) {
-            throw new DatabaseException("Email already exists: " + user.getEmail());
-        }
         final String hashed = safeHash(user.getPassword());
-        String sql = "INSERT INTO user (name, email, password, phone, role, access_level, active, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        int id = jdbc.insert(sql, ps -> {
-            try {
-                ps.setString(1, user.getName());
-                ps.setString(2, user.getEmail());
-                ps.setString(3, hashed);
-                ps.setString(4, user.getPhone());
-                ps.setString(5, user.getRole().name());
-                ps.setString(6, user.getAccessLevel().name());
-                ps.setBoolean(7, user.getActive());
-                ps.setBoolean(8, user.getDeleted());
-            } catch (SQLException e) {
-                throw new RuntimeException("Error creating user", e);
-            }
-        });
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String sql = "INSERT INTO " + table + " (name, email, password, phone, role, access_level, active, deleted, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        int id;
+        try {
+            id = jdbc.insert(sql, ps -> {
+                try {
+                    ps.setString(1, user.getName());
+                    ps.setString(2, user.getEmail());
+                    ps.setString(3, hashed);
+                    ps.setString(4, user.getPhone());
+                    ps.setString(5, user.getRole().name());
+                    ps.setString(6, user.getAccessLevel().name());
+                    ps.setBoolean(7, user.getActive());
+                    ps.setBoolean(8, user.getDeleted());
+                    ps.setTimestamp(9, Timestamp.valueOf(now));
+                    ps.setTimestamp(10, Timestamp.valueOf(now));
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error creating user", e);
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            // the unique email constraint replaces the former existsByEmail pre-query
+            throw new DuplicateKeyException("Email already exists: " + user.getEmail(), e);
+        }
         user.setId(id);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
         user.setPassword(null); // do not keep raw password in memory
         return user;
     }
 
     @Override
     public User update(User user) throws DatabaseException {
-        String sql = "UPDATE user SET name=?, email=?, password=?, phone=?, role=?, access_level=?, active=?, deleted=? WHERE id=?";
+        String sql = "UPDATE " + table + " SET name=?, email=?, password=?, phone=?, role=?, access_level=?, active=?, deleted=? WHERE id=?";
         int rows = jdbc.update(sql, ps -> {
             try {
                 ps.setString(1, user.getName());
@@ -92,7 +115,7 @@ public class UserjdbcRepository implements IUserRepository {
 
     @Override
     public boolean softDelete(Integer id) throws DatabaseException {
-        String sql = "UPDATE user SET deleted = TRUE WHERE id = ?";
+        String sql = "UPDATE " + table + " SET deleted = TRUE WHERE id = ?";
         int rows = jdbc.update(sql, ps -> {
             try { ps.setInt(1, id);} catch (SQLException e) { throw new RuntimeException(e);} });
         return rows > 0;
@@ -100,7 +123,7 @@ public class UserjdbcRepository implements IUserRepository {
 
     @Override
     public boolean hardDelete(Integer id) throws DatabaseException {
-        String sql = "DELETE FROM user WHERE id = ?";
+        String sql = "DELETE FROM " + table + " WHERE id = ?";
         int rows = jdbc.update(sql, ps -> {
             try { ps.setInt(1, id);} catch (SQLException e) { throw new RuntimeException(e);} });
         return rows > 0;
@@ -108,56 +131,74 @@ public class UserjdbcRepository implements IUserRepository {
 
     @Override
     public Optional<User> findById(Integer id) throws DatabaseException {
-        String sql = "SELECT * FROM user WHERE id = ?";
+        String sql = "SELECT * FROM " + table + " WHERE id = ?";
         return jdbc.queryForObject(sql, ps -> { try { ps.setInt(1, id);} catch (SQLException e) { throw new RuntimeException(e);} }, USER_MAPPER);
     }
 
     @Override
     public Optional<User> findByEmail(String email) throws DatabaseException {
-        String sql = "SELECT * FROM user WHERE email = ?";
+        String sql = "SELECT * FROM " + table + " WHERE email = ?";
         return jdbc.queryForObject(sql, ps -> { try { ps.setString(1, email);} catch (SQLException e) { throw new RuntimeException(e);} }, USER_MAPPER);
     }
 
     @Override
     public List<User> findAll() throws DatabaseException {
-        return jdbc.query("SELECT * FROM user ORDER BY name", null, USER_MAPPER);
+        return jdbc.query("SELECT * FROM " + table + " ORDER BY name", null, USER_MAPPER);
     }
 
     @Override
     public List<User> findAllActive() throws DatabaseException {
-        return jdbc.query("SELECT * FROM user WHERE deleted = FALSE ORDER BY name", null, USER_MAPPER);
+        return jdbc.query("SELECT * FROM " + table + " WHERE deleted = FALSE ORDER BY name", null, USER_MAPPER);
     }
 
     @Override
     public List<User> findByName(String name) throws DatabaseException {
-        String sql = "SELECT * FROM user WHERE LOWER(name) LIKE LOWER(?) ORDER BY name";
+        String sql = "SELECT * FROM " + table + " WHERE " + dialect.likeIgnoreCase("name") + " ORDER BY name";
         return jdbc.query(sql, ps -> { try { ps.setString(1, "%" + name + "%");} catch (SQLException e) { throw new RuntimeException(e);} }, USER_MAPPER);
     }
 
     @Override
     public List<User> findByRole(UserRole role) throws DatabaseException {
-        String sql = "SELECT * FROM user WHERE role = ? ORDER BY name";
+        String sql = "SELECT * FROM " + table + " WHERE role = ? ORDER BY name";
         return jdbc.query(sql, ps -> { try { ps.setString(1, role.name());} catch (SQLException e) { throw new RuntimeException(e);} }, USER_MAPPER);
     }
 
     @Override
     public Optional<User> authenticate(String email, String password) throws DatabaseException {
+        AuthenticationEvent event = new AuthenticationEvent();
+        event.begin();
         Optional<User> db = findByEmail(email);
-        if (db.isEmpty()) return Optional.empty();
+        if (db.isEmpty()) {
+            commit(event, false, false);
+            return Optional.empty();
+        }
         User u = db.get();
         boolean ok;
+        long hashStart = System.nanoTime();
         try {
             ok = BCrypt.checkpw(password, u.getPassword());
         } catch (Exception ex) {
             logger.log(Level.WARNING, "BCrypt check failed, falling back to plain compare");
             ok = password.equals(u.getPassword());
         }
-        return ok && Boolean.TRUE.equals(u.getActive()) && Boolean.FALSE.equals(u.getDeleted()) ? Optional.of(u) : Optional.empty();
+        event.bcryptTime = System.nanoTime() - hashStart;
+        boolean accepted = ok && Boolean.TRUE.equals(u.getActive()) && Boolean.FALSE.equals(u.getDeleted());
+        commit(event, true, accepted);
+        return accepted ? Optional.of(u) : Optional.empty();
+    }
+
+    private static void commit(AuthenticationEvent event, boolean userFound, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.userFound = userFound;
+            event.succeeded = succeeded;
+            event.commit();
+        }
     }
 
     @Override
     public boolean updateActiveStatus(Integer userId, Boolean active) throws DatabaseException {
-        String sql = "UPDATE user SET active = ? WHERE id = ?";
+        String sql = "UPDATE " + table + " SET active = ? WHERE id = ?";
         int rows = jdbc.update(sql, ps -> { try { ps.setBoolean(1, active); ps.setInt(2, userId);} catch (SQLException e) { throw new RuntimeException(e);} });
         return rows > 0;
     }
@@ -165,7 +206,7 @@ public class UserjdbcRepository implements IUserRepository {
     @Override
     public boolean updatePassword(Integer userId, String newPassword) throws DatabaseException {
         final String hashed = safeHash(newPassword);
-        String sql = "UPDATE user SET password = ? WHERE id = ?";
+        String sql = "UPDATE " + table + " SET password = ? WHERE id = ?";
         int rows = jdbc.update(sql, ps -> { try { ps.setString(1, hashed); ps.setInt(2, userId);} catch (SQLException e) { throw new RuntimeException(e);} });
         return rows > 0;
     }
@@ -180,7 +221,7 @@ public class UserjdbcRepository implements IUserRepository {
 
     @Override
     public boolean existsByEmail(String email) throws DatabaseException {
-        String sql = "SELECT 1 FROM user WHERE email = ? LIMIT 1";
+        String sql = "SELECT 1 FROM " + table + " WHERE email = ? LIMIT 1";
         List<Integer> rows = jdbc.query(sql, ps -> { try { ps.setString(1, email);} catch (SQLException e) { throw new RuntimeException(e);} }, rs -> 1);
         return !rows.isEmpty();
     }
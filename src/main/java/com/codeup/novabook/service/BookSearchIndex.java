@@ -0,0 +1,423 @@
+package com.codeup.novabook.service;
+
+import com.codeup.novabook.domain.Book;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram inverted index over book titles and authors.
+ * <p>
+ * Text is lower-cased, stripped of accents and split into words; every word is
+ * padded ({@code "  word "}) and cut into 3-character grams, each pointing to the
+ * sorted IDs of the books containing it. A query is scored by the share of its
+ * trigrams found in a book's title or author, which gives:
+ * </p>
+ * <ul>
+ *   <li><strong>Prefix matching</strong> - the last query word is not end-padded, so
+ *       {@code "harr"} matches {@code "Harry"}</li>
+ *   <li><strong>Fuzzy matching</strong> - a typo only loses a few trigrams, so
+ *       results above {@link #DEFAULT_MIN_SIMILARITY} are still returned</li>
+ *   <li><strong>Ranking</strong> - title hits weigh twice as much as author hits, and
+ *       literal substring matches are boosted</li>
+ * </ul>
+ * <p>
+ * A search only walks the posting lists of its rarest trigrams: a book reaching
+ * the similarity threshold must appear in at least one of them. The other
+ * trigrams, however common, are then checked per candidate by binary search.
+ * </p>
+ * <p>
+ * Lookups take a read lock and never touch the database; writers ({@link #put},
+ * {@link #remove}, {@link #rebuild}) take the write lock. Stored books are copies,
+ * and {@link #search} returns fresh copies, so callers may mutate the results.
+ * </p>
+ */
+public class BookSearchIndex {
+
+    /** Minimum share of query trigrams a title or author must contain to match. */
+    public static final double DEFAULT_MIN_SIMILARITY = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int[] EMPTY = new int[0];
+
+    private final double minSimilarity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Integer, Entry> entries = new HashMap<>();
+    private Map<String, Postings> titleGrams = new HashMap<>();
+    private Map<String, Postings> authorGrams = new HashMap<>();
+    // Writes made while a rebuild runs, by book ID (null for a removal)
+    private Map<Integer, Entry> pending;
+
+    public BookSearchIndex() {
+        this(DEFAULT_MIN_SIMILARITY);
+    }
+
+    public BookSearchIndex(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * Replaces the whole index with {@code books}. The new index is built without
+     * holding the lock, so searches keep running against the old one meanwhile.
+     * Calls to {@link #put} and {@link #remove} made during the build are replayed
+     * on the new index before it is swapped in.
+     */
+    public synchronized void rebuild(Iterable<Book> books) {
+        lock.writeLock().lock();
+        try {
+            pending = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Integer, Entry> newEntries = new HashMap<>();
+        Map<String, Postings> newTitles = new HashMap<>();
+        Map<String, Postings> newAuthors = new HashMap<>();
+        for (Book book : books) {
+            if (book.getId() == null || newEntries.containsKey(book.getId())) continue;
+            Entry entry = new Entry(book);
+            newEntries.put(book.getId(), entry);
+            link(entry, newTitles, newAuthors, false);
+        }
+        newTitles.values().forEach(Postings::seal);
+        newAuthors.values().forEach(Postings::seal);
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Integer, Entry> write : pending.entrySet()) {
+                Entry previous = newEntries.remove(write.getKey());
+                if (previous != null) unlink(previous, newTitles, newAuthors);
+                if (write.getValue() != null) {
+                    newEntries.put(write.getKey(), write.getValue());
+                    link(write.getValue(), newTitles, newAuthors, true);
+                }
+            }
+            pending = null;
+            entries = newEntries;
+            titleGrams = newTitles;
+            authorGrams = newAuthors;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book or replaces the indexed version with the same ID.
+     */
+    public void put(Book book) {
+        if (book == null || book.getId() == null) return;
+        Entry entry = new Entry(book);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(book.getId(), entry);
+            if (previous != null) unlink(previous, titleGrams, authorGrams);
+            link(entry, titleGrams, authorGrams, true);
+            if (pending != null) pending.put(book.getId(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the stock of the indexed book by {@code delta} in place; stock is not
+     * searched, so the grams stay as they are.
+     */
+    public void adjustStock(Integer id, int delta) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry == null || entry.book.getStock() == null) return;
+            entry.book.setStock(entry.book.getStock() + delta);
+            if (pending != null) pending.put(id, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) unlink(previous, titleGrams, authorGrams);
+            if (pending != null) pending.put(id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the indexed book, if present.
+     */
+    public Book get(Integer id) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            return entry == null ? null : new Book(entry.book);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds books whose title or author match {@code query}, best first.
+     *
+     * @param query free text (words, prefixes, or misspelled words)
+     * @param limit maximum number of results
+     * @return matching books ordered by score, then title; empty for a blank query
+     */
+    public List<Book> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) return new ArrayList<>();
+        Set<String> grams = trigrams(normalized, true);
+        int total = grams.size();
+        int need = (int) Math.ceil(minSimilarity * total);
+        if (need > 1 && (double) (need - 1) / total >= minSimilarity) need--;
+        need = Math.max(1, Math.min(need, total));
+
+        lock.readLock().lock();
+        try {
+            Postings[] titles = postings(titleGrams, grams);
+            Postings[] authors = postings(authorGrams, grams);
+            int[] candidates = candidates(titles, authors, total, need, rarestInterior(titleGrams, authorGrams, grams));
+
+            PriorityQueue<Scored> top = new PriorityQueue<>(Scored.WORST_FIRST);
+            for (int id : candidates) {
+                Entry entry = entries.get(id);
+                double titleSim = (double) hits(titles, id) / total;
+                double authorSim = (double) hits(authors, id) / total;
+                boolean inTitle = entry.title.contains(normalized);
+                boolean inAuthor = entry.author.contains(normalized);
+                if (Math.max(titleSim, authorSim) < minSimilarity && !inTitle && !inAuthor) continue;
+
+                double score = (2 * titleSim + authorSim) / 3;
+                if (inTitle) score += entry.title.startsWith(normalized) ? 1.5 : 1.0;
+                else if (inAuthor) score += 0.5;
+                top.add(new Scored(entry, score));
+                if (top.size() > limit) top.poll();
+            }
+
+            List<Scored> ranked = new ArrayList<>(top);
+            ranked.sort(Scored.WORST_FIRST.reversed());
+            List<Book> out = new ArrayList<>(ranked.size());
+            for (Scored s : ranked) out.add(new Book(s.entry.book));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Posting lists of the query grams in one field, rarest first; missing grams are dropped. */
+    private static Postings[] postings(Map<String, Postings> field, Set<String> grams) {
+        List<Postings> found = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Postings p = field.get(gram);
+            if (p != null) found.add(p);
+        }
+        found.sort(Comparator.comparingInt(p -> p.size));
+        return found.toArray(new Postings[0]);
+    }
+
+    /**
+     * The rarest posting list of a gram without padding. A book containing the
+     * query as a substring contains all of those grams, so this list keeps
+     * substring matches below the similarity threshold among the candidates.
+     */
+    private static Postings rarestInterior(Map<String, Postings> titles, Map<String, Postings> authors, Set<String> grams) {
+        Postings title = null;
+        Postings author = null;
+        for (String gram : grams) {
+            if (gram.indexOf(' ') >= 0) continue;
+            Postings t = titles.getOrDefault(gram, Postings.NONE);
+            Postings a = authors.getOrDefault(gram, Postings.NONE);
+            if (title == null || t.size + a.size < title.size + author.size) {
+                title = t;
+                author = a;
+            }
+        }
+        return title == null ? null : Postings.union(title, author);
+    }
+
+    /**
+     * IDs of the books that can reach the threshold. A book missing at most
+     * {@code total - need} grams of a field is in one of the {@code total - need + 1}
+     * rarest lists of that field; grams absent from the field count as empty
+     * lists, so each one found missing leaves one list fewer to walk.
+     */
+    private static int[] candidates(Postings[] titles, Postings[] authors, int total, int need, Postings interior) {
+        Postings out = interior == null ? Postings.NONE : interior;
+        int lists = total - need + 1;
+        for (int i = 0; i < lists - (total - titles.length); i++) out = Postings.union(out, titles[i]);
+        for (int i = 0; i < lists - (total - authors.length); i++) out = Postings.union(out, authors[i]);
+        return Arrays.copyOf(out.ids, out.size);
+    }
+
+    private static int hits(Postings[] field, int id) {
+        int n = 0;
+        for (Postings p : field) {
+            if (Arrays.binarySearch(p.ids, 0, p.size, id) >= 0) n++;
+        }
+        return n;
+    }
+
+    private static void link(Entry entry, Map<String, Postings> titles, Map<String, Postings> authors, boolean sorted) {
+        int id = entry.book.getId();
+        for (String gram : entry.titleGrams) {
+            Postings p = titles.computeIfAbsent(gram, k -> new Postings());
+            if (sorted) p.insert(id); else p.append(id);
+        }
+        for (String gram : entry.authorGrams) {
+            Postings p = authors.computeIfAbsent(gram, k -> new Postings());
+            if (sorted) p.insert(id); else p.append(id);
+        }
+    }
+
+    private static void unlink(Entry entry, Map<String, Postings> titles, Map<String, Postings> authors) {
+        int id = entry.book.getId();
+        for (String gram : entry.titleGrams) {
+            Postings p = titles.get(gram);
+            if (p != null && p.delete(id) && p.size == 0) titles.remove(gram);
+        }
+        for (String gram : entry.authorGrams) {
+            Postings p = authors.get(gram);
+            if (p != null && p.delete(id) && p.size == 0) authors.remove(gram);
+        }
+    }
+
+    /**
+     * Lower-cases, strips accents and collapses punctuation to single spaces.
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        String s = Normalizer.normalize(text, Normalizer.Form.NFD);
+        s = DIACRITICS.matcher(s).replaceAll("");
+        return NON_ALNUM.matcher(s.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    /**
+     * Trigrams of every word, padded like {@code "  word "}; with {@code prefix}
+     * the last word gets no trailing pad so it can match longer words.
+     */
+    static Set<String> trigrams(String normalized, boolean prefix) {
+        Set<String> out = new LinkedHashSet<>();
+        if (normalized.isEmpty()) return out;
+        String[] words = normalized.split(" ");
+        for (int w = 0; w < words.length; w++) {
+            boolean open = prefix && w == words.length - 1;
+            String padded = "  " + words[w] + (open ? "" : " ");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                out.add(padded.substring(i, i + 3));
+            }
+        }
+        return out;
+    }
+
+    private static final class Entry {
+        final Book book;
+        final String title;
+        final String author;
+        final Set<String> titleGrams;
+        final Set<String> authorGrams;
+
+        Entry(Book book) {
+            this.book = new Book(book);
+            this.title = normalize(book.getTitle());
+            this.author = normalize(book.getAuthor());
+            this.titleGrams = trigrams(title, false);
+            this.authorGrams = trigrams(author, false);
+        }
+    }
+
+    private static final class Scored {
+        static final Comparator<Scored> WORST_FIRST = Comparator
+                .comparingDouble((Scored s) -> s.score)
+                .thenComparing((Scored s) -> s.entry.title, Comparator.reverseOrder());
+
+        final Entry entry;
+        final double score;
+
+        Scored(Entry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Growable sorted array of book IDs for one trigram.
+     */
+    private static final class Postings {
+        static final Postings NONE = new Postings();
+
+        int[] ids = EMPTY;
+        int size;
+
+        /** Merges two sorted lists into a new one without duplicates. */
+        static Postings union(Postings a, Postings b) {
+            Postings out = new Postings();
+            out.ids = new int[a.size + b.size];
+            int i = 0, j = 0;
+            while (i < a.size || j < b.size) {
+                int next;
+                if (j == b.size || (i < a.size && a.ids[i] < b.ids[j])) next = a.ids[i++];
+                else if (i == a.size || b.ids[j] < a.ids[i]) next = b.ids[j++];
+                else { next = a.ids[i++]; j++; }
+                out.ids[out.size++] = next;
+            }
+            return out;
+        }
+
+        /** Bulk load: append without ordering, then {@link #seal()}. */
+        void append(int id) {
+            ensureCapacity();
+            ids[size++] = id;
+        }
+
+        void seal() {
+            Arrays.sort(ids, 0, size);
+        }
+
+        void insert(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean delete(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.codeup.novabook.service;
+
+import com.codeup.novabook.repository.BulkLoadResult;
+import com.codeup.novabook.repository.IBulkRepository;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Whole-catalog and loan-history transfers (quarterly refreshes, migrations).
+ * <p>
+ * Loads go through the database's native bulk path when {@link IBulkRepository#canLoad()}
+ * (MySQL {@code LOAD DATA LOCAL INFILE}, PostgreSQL {@code COPY}), and otherwise through the
+ * services' batched CSV imports. Unloads use {@code COPY TO STDOUT} when available, and
+ * otherwise the services' cursor-streamed exports. Both paths read and write the same CSV
+ * layouts as the regular imports and exports.
+ * </p>
+ */
+public class BulkTransferService {
+
+    private static final Logger logger = Logger.getLogger(BulkTransferService.class.getName());
+
+    private final IBulkRepository bulk;
+    private final IBookService books;
+    private final ILoanService loans;
+    private final Runnable booksChanged;
+
+    /**
+     * @param booksChanged called after a native book load, which bypasses the book service,
+     *                     so that its caches and search index can be refreshed
+     */
+    public BulkTransferService(IBulkRepository bulk, IBookService books, ILoanService loans, Runnable booksChanged) {
+        this.bulk = bulk;
+        this.books = books;
+        this.loans = loans;
+        this.booksChanged = booksChanged;
+    }
+
+    /**
+     * @return true when loads use the native bulk path
+     */
+    public boolean isNative() { return bulk.canLoad(); }
+
+    /**
+     * Upserts isbn,title,author,stock CSV by ISBN.
+     */
+    public ImportReport loadBooks(InputStream csv) throws Exception {
+        long start = System.nanoTime();
+        if (!bulk.canLoad()) return books.importFromCsv(reader(csv), report -> { });
+        try {
+            return report("books", bulk.loadBooks(csv), start);
+        } finally {
+            booksChanged.run();
+        }
+    }
+
+    /**
+     * Appends memberId,bookId,dateLoaned,dateDue[,returned] CSV as loan history, without adjusting stock.
+     */
+    public ImportReport loadLoans(InputStream csv) throws Exception {
+        long start = System.nanoTime();
+        if (!bulk.canLoad()) {
+            int n = loans.importFromCsv(reader(csv));
+            return new ImportReport(n, n, 0, 0, List.of(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return report("loans", bulk.loadLoans(csv), start);
+    }
+
+    /**
+     * Writes the whole catalog as CSV. The caller closes the writer.
+     */
+    public void unloadBooks(Writer out) throws Exception {
+        if (bulk.canUnload()) bulk.unloadBooks(out);
+        else books.exportToCsv(out);
+    }
+
+    /**
+     * Writes every loan as CSV. The caller closes the writer.
+     */
+    public void unloadLoans(Writer out) throws Exception {
+        if (bulk.canUnload()) bulk.unloadLoans(out);
+        else loans.exportToCsv(out);
+    }
+
+    private static Reader reader(InputStream csv) {
+        return new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+    }
+
+    private static ImportReport report(String what, BulkLoadResult r, long start) {
+        ImportReport report = new ImportReport(r.getStaged(), r.getInserted(), r.getUpdated(), r.getRejected(),
+                List.of(), (System.nanoTime() - start) / 1_000_000);
+        logger.log(Level.INFO, "Bulk load of {0} finished: {1}", new Object[]{what, report});
+        return report;
+    }
+}
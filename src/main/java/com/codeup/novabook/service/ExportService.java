@@ -4,31 +4,67 @@ import com.codeup.novabook.domain.Loan;
 import com.codeup.novabook.repository.ILoanRepository;
 import com.codeup.novabook.util.csv.LoanCsv;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Export-related operations (CSV files) without changing project structure.
+ * <p>
+ * The overdue report is filtered in SQL and streamed from a cursor into a
+ * buffered writer, so memory depends on the buffer, not on the loan table.
+ * </p>
  */
 public class ExportService {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final ILoanRepository loanRepository;
 
     public ExportService(ILoanRepository loanRepository) {
         this.loanRepository = loanRepository;
     }
 
+    /**
+     * Writes the loans overdue today to {@code path}, gzip-compressed when
+     * the file name ends in {@code .gz}.
+     */
     public Path exportOverdueLoansCsv(Path path) throws Exception {
-        List<Loan> all = loanRepository.findAll();
-        List<Loan> overdue = all.stream()
-                .filter(l -> l.getDateDue() != null && !Boolean.TRUE.equals(l.getReturned()) && LocalDate.now().isAfter(l.getDateDue()))
-                .collect(Collectors.toList());
-        try (FileWriter w = new FileWriter(path.toFile())) {
-            LoanCsv.write(overdue, w);
+        return exportOverdueLoansCsv(path, LocalDate.now());
+    }
+
+    /**
+     * Writes the loans overdue on {@code asOf} to {@code path}, gzip-compressed
+     * when the file name ends in {@code .gz}.
+     */
+    public Path exportOverdueLoansCsv(Path path, LocalDate asOf) throws Exception {
+        boolean gzip = path.getFileName().toString().endsWith(".gz");
+        OutputStream out = Files.newOutputStream(path);
+        try {
+            if (gzip) out = new GZIPOutputStream(out, BUFFER_SIZE);
+        } catch (Exception e) {
+            out.close();
+            throw e;
+        }
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            exportOverdueLoansCsv(w, asOf);
         }
         return path;
     }
+
+    /**
+     * Streams the loans overdue on {@code asOf} as CSV into {@code writer}, and closes it.
+     */
+    public void exportOverdueLoansCsv(Writer writer, LocalDate asOf) throws Exception {
+        try (Stream<Loan> overdue = loanRepository.streamOverdue(asOf)) {
+            LoanCsv.write(overdue::iterator, writer);
+        }
+    }
 }
@@ -2,11 +2,14 @@ package com.codeup.novabook.service;
 
 import com.codeup.novabook.domain.Book;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
 
 import java.io.Reader;
 import java.io.Writer;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface IBookService {
     Book create(Book book) throws DatabaseException;
@@ -16,11 +19,30 @@ public interface IBookService {
     Optional<Book> findById(Integer id) throws DatabaseException;
     Optional<Book> findByIsbn(String isbn) throws DatabaseException;
     List<Book> findAll() throws DatabaseException;
+
+    /**
+     * One page in any supported order, by page token or by position (see the repository for sortable properties).
+     */
+    Page<Book> findPage(PageRequest request) throws DatabaseException;
+
+    long count() throws DatabaseException;
+
     List<Book> findByTitle(String title) throws DatabaseException;
     List<Book> findByAuthor(String author) throws DatabaseException;
 
+    /**
+     * Ranked search over title and author (prefix and typo tolerant when indexed).
+     */
+    List<Book> search(String query, int limit) throws DatabaseException;
+
     boolean updateStock(Integer bookId, Integer newStock) throws DatabaseException;
 
     int importFromCsv(Reader reader) throws Exception;
+
+    /**
+     * Imports isbn,title,author,stock rows, inserting new ISBNs and updating known ones.
+     * Invalid rows are skipped and listed in the report; {@code progress} gets a snapshot as chunks are written.
+     */
+    ImportReport importFromCsv(Reader reader, Consumer<ImportReport> progress) throws Exception;
     void exportToCsv(Writer writer) throws Exception;
 }
@@ -2,7 +2,11 @@ package com.codeup.novabook.service;
 
 import com.codeup.novabook.domain.Loan;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
 
+import java.io.Reader;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +18,14 @@ public interface ILoanService {
 
     Optional<Loan> findById(Integer id) throws DatabaseException;
     List<Loan> findAll() throws DatabaseException;
+
+    /**
+     * One page in any supported order, by page token or by position (see the repository for sortable properties).
+     */
+    Page<Loan> findPage(PageRequest request) throws DatabaseException;
+
+    long count() throws DatabaseException;
+
     List<Loan> findByMemberId(Integer memberId) throws DatabaseException;
     List<Loan> findByBookId(Integer bookId) throws DatabaseException;
     List<Loan> findActiveLoansByMemberId(Integer memberId) throws DatabaseException;
@@ -27,4 +39,17 @@ public interface ILoanService {
     // Business operations
     Loan borrowBook(Integer memberId, Integer bookId, LocalDate dueDate) throws DatabaseException;
     boolean returnBook(Integer loanId) throws DatabaseException;
+
+    /**
+     * Same as {@link #borrowBook}, also returning the book with its new stock.
+     */
+    LoanChange checkOut(Integer memberId, Integer bookId, LocalDate dueDate) throws DatabaseException;
+
+    /**
+     * Same as {@link #returnBook}, returning the loan as now stored and the restocked book.
+     */
+    LoanChange checkIn(Integer loanId) throws DatabaseException;
+
+    int importFromCsv(Reader reader) throws Exception;
+    void exportToCsv(Writer writer) throws Exception;
 }
@@ -3,6 +3,8 @@ package com.codeup.novabook.service;
 import com.codeup.novabook.domain.Member;
 import com.codeup.novabook.domain.MemberRole;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
 
 import java.io.Reader;
 import java.io.Writer;
@@ -17,6 +19,14 @@ public interface IMemberService {
 
     Optional<Member> findById(Integer id) throws DatabaseException;
     List<Member> findAll() throws DatabaseException;
+
+    /**
+     * One page in any supported order, by page token or by position (see the repository for sortable properties).
+     */
+    Page<Member> findPage(PageRequest request) throws DatabaseException;
+
+    long count() throws DatabaseException;
+
     List<Member> findAllActive() throws DatabaseException;
     List<Member> findByName(String name) throws DatabaseException;
     List<Member> findByRole(MemberRole role) throws DatabaseException;
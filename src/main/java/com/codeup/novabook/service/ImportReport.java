@@ -0,0 +1,73 @@
+package com.codeup.novabook.service;
+
+import java.util.List;
+
+/**
+ * Progress or outcome of a CSV import: rows read so far, how many were
+ * applied, the rows rejected (with their line numbers) and the throughput.
+ * Reports are immutable snapshots.
+ */
+public final class ImportReport {
+
+    /** A rejected row: its line in the file and why it was skipped. */
+    public static final class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() { return "line " + line + ": " + message; }
+    }
+
+    private final long rowsRead;
+    private final long inserted;
+    private final long updated;
+    private final long rejected;
+    private final List<RowError> errors;
+    private final long elapsedMillis;
+
+    public ImportReport(long rowsRead, long inserted, long updated, long rejected,
+                        List<RowError> errors, long elapsedMillis) {
+        this.rowsRead = rowsRead;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.rejected = rejected;
+        this.errors = List.copyOf(errors);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsRead() { return rowsRead; }
+
+    /** Valid rows applied; a repeated key counts once per row, as before. */
+    public long getImported() { return rowsRead - rejected; }
+
+    /** New records created. */
+    public long getInserted() { return inserted; }
+
+    /** Existing records overwritten. */
+    public long getUpdated() { return updated; }
+
+    public long getRejected() { return rejected; }
+
+    /** The first rejected rows; may hold fewer entries than {@link #getRejected()}. */
+    public List<RowError> getErrors() { return errors; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return rowsRead + " rows read, " + inserted + " inserted, " + updated + " updated, "
+                + rejected + " rejected in " + elapsedMillis + " ms (" + getRowsPerSecond() + " rows/s)";
+    }
+}
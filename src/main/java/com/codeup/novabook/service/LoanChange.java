@@ -0,0 +1,25 @@
+package com.codeup.novabook.service;
+
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.domain.Loan;
+
+/**
+ * Outcome of a borrow or a return: the loan as stored and the book whose
+ * stock it changed, read in the same transaction, so a caller can show both
+ * without reloading its lists.
+ */
+public final class LoanChange {
+
+    private final Loan loan;
+    private final Book book;
+
+    public LoanChange(Loan loan, Book book) {
+        this.loan = loan;
+        this.book = book;
+    }
+
+    public Loan getLoan() { return loan; }
+
+    /** The book with its new stock, or null when the stock did not change. */
+    public Book getBook() { return book; }
+}
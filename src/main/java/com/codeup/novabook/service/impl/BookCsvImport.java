@@ -0,0 +1,236 @@
+package com.codeup.novabook.service.impl;
+
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.infra.jfr.CsvBatchEvent;
+import com.codeup.novabook.repository.IBookRepository;
+import com.codeup.novabook.service.ImportReport;
+import com.codeup.novabook.service.ImportReport.RowError;
+import com.codeup.novabook.util.csv.BookCsv;
+import com.opencsv.CSVReader;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Staged catalog import: one thread parses the CSV into chunks, a small pool
+ * validates chunks in parallel, and the calling thread writes them in file
+ * order: one bulk ISBN lookup per chunk, then batched updates and inserts.
+ * <p>
+ * Chunks travel through a bounded queue, so a slow database blocks the parser
+ * instead of buffering the file; at most {@code queueCapacity + 1} chunks are
+ * in memory. Invalid rows are skipped and reported, not fatal; a database or
+ * I/O error stops the import (chunks already written stay written).
+ * </p>
+ */
+final class BookCsvImport {
+
+    static final int CHUNK_SIZE = 2000;
+    static final int QUEUE_CAPACITY = 4;
+    // Rejected rows kept in the report; the count is always exact
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Logger logger = Logger.getLogger(BookCsvImport.class.getName());
+
+    private final IBookRepository repo;
+    private final Consumer<Book> validator;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final int validators;
+
+    BookCsvImport(IBookRepository repo, Consumer<Book> validator) {
+        this(repo, validator, CHUNK_SIZE, QUEUE_CAPACITY,
+                Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)));
+    }
+
+    BookCsvImport(IBookRepository repo, Consumer<Book> validator, int chunkSize, int queueCapacity, int validators) {
+        this.repo = repo;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.validators = validators;
+    }
+
+    private static final class Row {
+        final long line;
+        final String[] cells;
+
+        Row(long line, String[] cells) {
+            this.line = line;
+            this.cells = cells;
+        }
+    }
+
+    private static final class Chunk {
+        final int rows;
+        final List<Book> books;
+        final List<RowError> errors;
+
+        Chunk(int rows, List<Book> books, List<RowError> errors) {
+            this.rows = rows;
+            this.books = books;
+            this.errors = errors;
+        }
+    }
+
+    // Marks the end of the file in the queue
+    private static final Chunk END = new Chunk(0, List.of(), List.of());
+
+    /**
+     * Runs the import, calling {@code progress} on this thread after each chunk is written.
+     */
+    ImportReport run(Reader reader, Consumer<ImportReport> progress) throws Exception {
+        long start = System.nanoTime();
+        BlockingQueue<Future<Chunk>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService validation = Executors.newFixedThreadPool(validators, threads("book-import-validate"));
+        ExecutorService parsing = Executors.newSingleThreadExecutor(threads("book-import-parse"));
+        long rows = 0, inserted = 0, updated = 0, rejected = 0;
+        List<RowError> errors = new ArrayList<>();
+        try {
+            parsing.submit(() -> parse(reader, queue, validation));
+            // The queue is FIFO, so chunks are written in file order even if validated out of order
+            for (Chunk chunk = get(queue.take()); chunk != END; chunk = get(queue.take())) {
+                CsvBatchEvent event = new CsvBatchEvent();
+                event.begin();
+                int[] written = write(chunk.books);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.direction = CsvBatchEvent.IMPORT;
+                    event.entity = "book";
+                    event.rows = chunk.rows;
+                    event.inserted = written[0];
+                    event.updated = written[1];
+                    event.rejected = chunk.errors.size();
+                    event.commit();
+                }
+                rows += chunk.rows;
+                inserted += written[0];
+                updated += written[1];
+                rejected += chunk.errors.size();
+                for (RowError e : chunk.errors) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) errors.add(e);
+                }
+                progress.accept(new ImportReport(rows, inserted, updated, rejected, errors, millisSince(start)));
+            }
+        } finally {
+            // Unblocks a parser waiting on a full queue when the writer failed
+            parsing.shutdownNow();
+            validation.shutdownNow();
+        }
+        ImportReport report = new ImportReport(rows, inserted, updated, rejected, errors, millisSince(start));
+        logger.log(Level.INFO, "Book import finished: {0}", report);
+        return report;
+    }
+
+    private Void parse(Reader reader, BlockingQueue<Future<Chunk>> queue, ExecutorService validation)
+            throws InterruptedException {
+        try (CSVReader csv = new CSVReader(reader)) {
+            csv.readNext(); // header
+            List<Row> rows = new ArrayList<>(chunkSize);
+            String[] cells;
+            while ((cells = csv.readNext()) != null) {
+                if (cells.length == 1 && cells[0].isBlank()) continue;
+                rows.add(new Row(csv.getLinesRead(), cells));
+                if (rows.size() == chunkSize) {
+                    List<Row> full = rows;
+                    queue.put(validation.submit(() -> validate(full)));
+                    rows = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!rows.isEmpty()) {
+                List<Row> last = rows;
+                queue.put(validation.submit(() -> validate(last)));
+            }
+            queue.put(CompletableFuture.completedFuture(END));
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            queue.put(CompletableFuture.failedFuture(e));
+        }
+        return null;
+    }
+
+    private Chunk validate(List<Row> rows) {
+        List<Book> books = new ArrayList<>(rows.size());
+        List<RowError> errors = new ArrayList<>();
+        for (Row row : rows) {
+            try {
+                Book b = BookCsv.parse(row.cells);
+                validator.accept(b);
+                books.add(b);
+            } catch (RuntimeException e) {
+                errors.add(new RowError(row.line, e.getMessage()));
+            }
+        }
+        return new Chunk(rows.size(), books, errors);
+    }
+
+    /**
+     * Upserts one chunk: a repeated ISBN overwrites the earlier row.
+     *
+     * @return {inserted, updated}
+     */
+    private int[] write(List<Book> books) {
+        if (books.isEmpty()) return new int[]{0, 0};
+        Map<String, Book> byIsbn = new LinkedHashMap<>();
+        for (Book b : books) byIsbn.put(b.getIsbn(), b);
+        Map<String, Book> existing = new HashMap<>();
+        for (Book b : repo.findByIsbns(byIsbn.keySet())) existing.put(b.getIsbn(), b);
+
+        List<Book> inserts = new ArrayList<>();
+        List<Book> updates = new ArrayList<>();
+        for (Book b : byIsbn.values()) {
+            Book target = existing.get(b.getIsbn());
+            if (target == null) {
+                inserts.add(b);
+            } else {
+                target.setTitle(b.getTitle());
+                target.setAuthor(b.getAuthor());
+                target.setStock(b.getStock());
+                updates.add(target);
+            }
+        }
+        if (!updates.isEmpty()) repo.updateAll(updates);
+        if (!inserts.isEmpty()) repo.saveAll(inserts);
+        return new int[]{inserts.size(), updates.size()};
+    }
+
+    private static Chunk get(Future<Chunk> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static ThreadFactory threads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -2,14 +2,23 @@ package com.codeup.novabook.service.impl;
 
 import com.codeup.novabook.domain.Book;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.infra.jfr.CsvBatchEvent;
 import com.codeup.novabook.repository.IBookRepository;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
 import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ImportReport;
 import com.codeup.novabook.util.csv.BookCsv;
 
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class BookServiceImpl implements IBookService {
 
@@ -51,6 +60,16 @@ public class BookServiceImpl implements IBookService {
         return repo.findAll();
     }
 
+    @Override
+    public Page<Book> findPage(PageRequest request) throws DatabaseException {
+        return repo.findPage(request);
+    }
+
+    @Override
+    public long count() throws DatabaseException {
+        return repo.count();
+    }
+
     @Override
     public List<Book> findByTitle(String title) throws DatabaseException {
         return repo.findByTitle(title);
@@ -61,6 +80,17 @@ public class BookServiceImpl implements IBookService {
         return repo.findByAuthor(author);
     }
 
+    @Override
+    public List<Book> search(String query, int limit) throws DatabaseException {
+        // Unindexed fallback: title matches first, then author matches
+        if (query == null || query.isBlank() || limit <= 0) return new ArrayList<>();
+        Map<Integer, Book> byId = new LinkedHashMap<>();
+        for (Book b : repo.findByTitle(query)) byId.putIfAbsent(b.getId(), b);
+        for (Book b : repo.findByAuthor(query)) byId.putIfAbsent(b.getId(), b);
+        List<Book> out = new ArrayList<>(byId.values());
+        return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
     @Override
     public boolean updateStock(Integer bookId, Integer newStock) throws DatabaseException {
         return repo.updateStock(bookId, newStock);
@@ -68,29 +98,29 @@ public class BookServiceImpl implements IBookService {
 
     @Override
     public int importFromCsv(Reader reader) throws Exception {
-        List<Book> books = BookCsv.read(reader);
-        int count = 0;
-        for (Book b : books) {
-            validateBook(b);
-            if (repo.findByIsbn(b.getIsbn()).isPresent()) {
-                // update existing
-                Book existing = repo.findByIsbn(b.getIsbn()).get();
-                existing.setTitle(b.getTitle());
-                existing.setAuthor(b.getAuthor());
-                existing.setStock(b.getStock());
-                repo.update(existing);
-            } else {
-                repo.save(b);
-            }
-            count++;
-        }
-        return count;
+        return (int) importFromCsv(reader, report -> { }).getImported();
+    }
+
+    @Override
+    public ImportReport importFromCsv(Reader reader, Consumer<ImportReport> progress) throws Exception {
+        return new BookCsvImport(repo, this::validateBook).run(reader, progress);
     }
 
     @Override
     public void exportToCsv(Writer writer) throws Exception {
-        List<Book> all = repo.findAll();
-        BookCsv.write(all, writer);
+        CsvBatchEvent event = new CsvBatchEvent();
+        event.begin();
+        long rows;
+        try (Stream<Book> all = repo.streamAll()) {
+            rows = BookCsv.write(all::iterator, writer);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = CsvBatchEvent.EXPORT;
+            event.entity = "book";
+            event.rows = rows;
+            event.commit();
+        }
     }
     private void validateBook(Book b) {
         if (b.getStock() == null || b.getStock() < 0) {
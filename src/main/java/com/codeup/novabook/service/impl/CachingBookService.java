@@ -0,0 +1,160 @@
+package com.codeup.novabook.service.impl;
+
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.TransactionContext;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.infra.cache.CacheStats;
+import com.codeup.novabook.infra.cache.TtlLruCache;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ImportReport;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read-through caching decorator for {@link IBookService}.
+ * <p>
+ * {@code findById} and {@code findByIsbn} are served from a bounded TTL/LRU cache
+ * of books by ID; the ISBN cache only maps an ISBN to a book ID, which is checked
+ * against the cached book, so evicting a book by ID covers both lookups. Every
+ * write made through the service evicts the book once it is committed, and
+ * {@link #evict(Integer)} covers changes made elsewhere (e.g. stock adjusted by a loan).
+ * Cached books are copies, so callers may mutate what they get back, and a book
+ * loaded while it was evicted is not cached. Inside a transaction both lookups
+ * read the database and leave the cache alone, so a caller holding the row lock
+ * sees the committed row.
+ * </p>
+ */
+public class CachingBookService implements IBookService {
+
+    private final IBookService delegate;
+    private final TtlLruCache<Integer, Book> byId;
+    private final TtlLruCache<String, Integer> idByIsbn;
+
+    public CachingBookService(IBookService delegate, TtlLruCache<Integer, Book> byId, TtlLruCache<String, Integer> idByIsbn) {
+        this.delegate = delegate;
+        this.byId = byId;
+        this.idByIsbn = idByIsbn;
+    }
+
+    @Override
+    public Optional<Book> findById(Integer id) throws DatabaseException {
+        if (TransactionContext.isActive()) return delegate.findById(id);
+        Book cached = byId.get(id);
+        if (cached != null) return Optional.of(new Book(cached));
+        long generation = byId.generation();
+        Optional<Book> loaded = delegate.findById(id);
+        loaded.ifPresent(b -> cache(b, generation));
+        return loaded;
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) throws DatabaseException {
+        if (TransactionContext.isActive()) return delegate.findByIsbn(isbn);
+        Integer id = idByIsbn.get(isbn);
+        Book cached = id != null ? byId.get(id) : null;
+        // the ISBN may have changed since the mapping was cached
+        if (cached != null && Objects.equals(cached.getIsbn(), isbn)) return Optional.of(new Book(cached));
+        long generation = byId.generation();
+        Optional<Book> loaded = delegate.findByIsbn(isbn);
+        loaded.ifPresent(b -> cache(b, generation));
+        return loaded;
+    }
+
+    /**
+     * Drops the cached entry of one book; its ISBN mapping then leads to a miss.
+     */
+    public void evict(Integer bookId) {
+        if (bookId == null) return;
+        byId.invalidate(bookId);
+    }
+
+    /**
+     * Drops every cached book, e.g. after a bulk load that bypassed this service.
+     */
+    public void clear() {
+        byId.clear();
+        idByIsbn.clear();
+    }
+
+    public CacheStats stats() { return byId.stats(); }
+
+    public CacheStats isbnStats() { return idByIsbn.stats(); }
+
+    // Skips a book evicted while it was loaded, so a concurrent write is not undone
+    private void cache(Book book, long generation) {
+        Book copy = new Book(book);
+        if (byId.putUnlessInvalidated(copy.getId(), copy, generation)) idByIsbn.put(copy.getIsbn(), copy.getId());
+    }
+
+    @Override
+    public Book create(Book book) throws DatabaseException { return delegate.create(book); }
+
+    @Override
+    public Book update(Book book) throws DatabaseException {
+        try {
+            return delegate.update(book);
+        } finally {
+            TransactionContext.afterCommit(() -> evict(book.getId()));
+        }
+    }
+
+    @Override
+    public boolean delete(Integer id) throws DatabaseException {
+        try {
+            return delegate.delete(id);
+        } finally {
+            TransactionContext.afterCommit(() -> evict(id));
+        }
+    }
+
+    @Override
+    public boolean updateStock(Integer bookId, Integer newStock) throws DatabaseException {
+        try {
+            return delegate.updateStock(bookId, newStock);
+        } finally {
+            TransactionContext.afterCommit(() -> evict(bookId));
+        }
+    }
+
+    @Override
+    public int importFromCsv(Reader reader) throws Exception {
+        return (int) importFromCsv(reader, report -> { }).getImported();
+    }
+
+    @Override
+    public ImportReport importFromCsv(Reader reader, Consumer<ImportReport> progress) throws Exception {
+        try {
+            return delegate.importFromCsv(reader, progress);
+        } finally {
+            clear();
+        }
+    }
+
+    @Override
+    public List<Book> findAll() throws DatabaseException { return delegate.findAll(); }
+
+    @Override
+    public Page<Book> findPage(PageRequest request) throws DatabaseException { return delegate.findPage(request); }
+
+    @Override
+    public long count() throws DatabaseException { return delegate.count(); }
+
+    @Override
+    public List<Book> findByTitle(String title) throws DatabaseException { return delegate.findByTitle(title); }
+
+    @Override
+    public List<Book> findByAuthor(String author) throws DatabaseException { return delegate.findByAuthor(author); }
+
+    @Override
+    public List<Book> search(String query, int limit) throws DatabaseException { return delegate.search(query, limit); }
+
+    @Override
+    public void exportToCsv(Writer writer) throws Exception { delegate.exportToCsv(writer); }
+}
@@ -0,0 +1,121 @@
+package com.codeup.novabook.service.impl;
+
+import com.codeup.novabook.domain.Member;
+import com.codeup.novabook.domain.MemberRole;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.TransactionContext;
+import com.codeup.novabook.infra.cache.CacheStats;
+import com.codeup.novabook.infra.cache.TtlLruCache;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.service.IMemberService;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through caching decorator for {@link IMemberService}.
+ * <p>
+ * {@code findById} is served from a bounded TTL/LRU cache; writes made through
+ * the service invalidate the member they touch once they are committed, including
+ * while it is being loaded. Cached members are copies.
+ * Inside a transaction {@code findById} reads the database and leaves the cache
+ * alone, so a caller holding the row lock sees the committed row.
+ * </p>
+ */
+public class CachingMemberService implements IMemberService {
+
+    private final IMemberService delegate;
+    private final TtlLruCache<Integer, Member> byId;
+
+    public CachingMemberService(IMemberService delegate, TtlLruCache<Integer, Member> byId) {
+        this.delegate = delegate;
+        this.byId = byId;
+    }
+
+    @Override
+    public Optional<Member> findById(Integer id) throws DatabaseException {
+        if (TransactionContext.isActive()) return delegate.findById(id);
+        Member cached = byId.get(id);
+        if (cached != null) return Optional.of(new Member(cached));
+        long generation = byId.generation();
+        Optional<Member> loaded = delegate.findById(id);
+        loaded.ifPresent(m -> byId.putUnlessInvalidated(m.getId(), new Member(m), generation));
+        return loaded;
+    }
+
+    public CacheStats stats() { return byId.stats(); }
+
+    // Inside a transaction, waits for the commit so a read in between cannot cache the old row
+    private void evictAfterCommit(Integer id) {
+        TransactionContext.afterCommit(() -> byId.invalidate(id));
+    }
+
+    @Override
+    public Member create(Member member) throws DatabaseException { return delegate.create(member); }
+
+    @Override
+    public Member update(Member member) throws DatabaseException {
+        try {
+            return delegate.update(member);
+        } finally {
+            evictAfterCommit(member.getId());
+        }
+    }
+
+    @Override
+    public boolean softDelete(Integer id) throws DatabaseException {
+        try {
+            return delegate.softDelete(id);
+        } finally {
+            evictAfterCommit(id);
+        }
+    }
+
+    @Override
+    public boolean hardDelete(Integer id) throws DatabaseException {
+        try {
+            return delegate.hardDelete(id);
+        } finally {
+            evictAfterCommit(id);
+        }
+    }
+
+    @Override
+    public boolean updateActiveStatus(Integer memberId, Boolean active) throws DatabaseException {
+        try {
+            return delegate.updateActiveStatus(memberId, active);
+        } finally {
+            evictAfterCommit(memberId);
+        }
+    }
+
+    @Override
+    public int importFromCsv(Reader reader) throws Exception { return delegate.importFromCsv(reader); }
+
+    @Override
+    public List<Member> findAll() throws DatabaseException { return delegate.findAll(); }
+
+    @Override
+    public Page<Member> findPage(PageRequest request) throws DatabaseException { return delegate.findPage(request); }
+
+    @Override
+    public long count() throws DatabaseException { return delegate.count(); }
+
+    @Override
+    public List<Member> findAllActive() throws DatabaseException { return delegate.findAllActive(); }
+
+    @Override
+    public List<Member> findByName(String name) throws DatabaseException { return delegate.findByName(name); }
+
+    @Override
+    public List<Member> findByRole(MemberRole role) throws DatabaseException { return delegate.findByRole(role); }
+
+    @Override
+    public List<Member> findActiveByRole(MemberRole role) throws DatabaseException { return delegate.findActiveByRole(role); }
+
+    @Override
+    public void exportToCsv(Writer writer) throws Exception { delegate.exportToCsv(writer); }
+}
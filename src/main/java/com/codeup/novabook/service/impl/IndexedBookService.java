@@ -0,0 +1,148 @@
+package com.codeup.novabook.service.impl;
+
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.TransactionContext;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.IBookRepository;
+import com.codeup.novabook.service.BookSearchIndex;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ImportReport;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that answers {@link #search} from an in-memory {@link BookSearchIndex}
+ * and keeps the index in sync with every write made through the service, once
+ * that write is committed.
+ * <p>
+ * Until {@link #rebuildIndex()} has succeeded, searches fall back to the
+ * delegate's SQL search.
+ * </p>
+ */
+public class IndexedBookService implements IBookService {
+
+    private static final Logger logger = Logger.getLogger(IndexedBookService.class.getName());
+
+    private final IBookService delegate;
+    private final IBookRepository repo;
+    private final BookSearchIndex index;
+    private volatile boolean ready;
+
+    public IndexedBookService(IBookService delegate, IBookRepository repo, BookSearchIndex index) {
+        this.delegate = delegate;
+        this.repo = repo;
+        this.index = index;
+    }
+
+    /**
+     * Loads every book into the index, streaming the catalog from the database.
+     * Safe to call again, e.g. after bulk changes.
+     */
+    public void rebuildIndex() throws DatabaseException {
+        long start = System.nanoTime();
+        try (Stream<Book> all = repo.streamAll()) {
+            index.rebuild(all::iterator);
+        }
+        ready = true;
+        logger.log(Level.INFO, "Book search index built: {0} books in {1} ms",
+                new Object[]{index.size(), (System.nanoTime() - start) / 1_000_000});
+    }
+
+    /**
+     * Applies a stock change made outside this service (e.g. by a loan) to the
+     * indexed book, without reading it back from the database.
+     */
+    public void stockAdjusted(Integer bookId, int delta) {
+        if (!ready || bookId == null) return;
+        index.adjustStock(bookId, delta);
+    }
+
+    @Override
+    public List<Book> search(String query, int limit) throws DatabaseException {
+        if (!ready) return delegate.search(query, limit);
+        return index.search(query, limit);
+    }
+
+    @Override
+    public Book create(Book book) throws DatabaseException {
+        Book created = delegate.create(book);
+        TransactionContext.afterCommit(() -> index.put(created));
+        return created;
+    }
+
+    @Override
+    public Book update(Book book) throws DatabaseException {
+        Book updated = delegate.update(book);
+        TransactionContext.afterCommit(() -> index.put(updated));
+        return updated;
+    }
+
+    @Override
+    public boolean delete(Integer id) throws DatabaseException {
+        boolean deleted = delegate.delete(id);
+        if (deleted) TransactionContext.afterCommit(() -> index.remove(id));
+        return deleted;
+    }
+
+    @Override
+    public boolean updateStock(Integer bookId, Integer newStock) throws DatabaseException {
+        boolean updated = delegate.updateStock(bookId, newStock);
+        if (updated) TransactionContext.afterCommit(() -> {
+            Book indexed = index.get(bookId);
+            if (indexed != null) {
+                indexed.setStock(newStock);
+                index.put(indexed);
+            }
+        });
+        return updated;
+    }
+
+    @Override
+    public int importFromCsv(Reader reader) throws Exception {
+        return (int) importFromCsv(reader, report -> { }).getImported();
+    }
+
+    @Override
+    public ImportReport importFromCsv(Reader reader, Consumer<ImportReport> progress) throws Exception {
+        try {
+            return delegate.importFromCsv(reader, progress);
+        } finally {
+            // Batched imports do not return generated IDs, and a failed import may have written
+            // some chunks, so reload the whole index
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public Optional<Book> findById(Integer id) throws DatabaseException { return delegate.findById(id); }
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) throws DatabaseException { return delegate.findByIsbn(isbn); }
+
+    @Override
+    public List<Book> findAll() throws DatabaseException { return delegate.findAll(); }
+
+    @Override
+    public Page<Book> findPage(PageRequest request) throws DatabaseException { return delegate.findPage(request); }
+
+    @Override
+    public long count() throws DatabaseException { return delegate.count(); }
+
+    @Override
+    public List<Book> findByTitle(String title) throws DatabaseException { return delegate.findByTitle(title); }
+
+    @Override
+    public List<Book> findByAuthor(String author) throws DatabaseException { return delegate.findByAuthor(author); }
+
+    @Override
+    public void exportToCsv(Writer writer) throws Exception { delegate.exportToCsv(writer); }
+}
@@ -1,18 +1,30 @@
 package com.codeup.novabook.service.impl;
 
-import com.codeup.novabook.domain.Book;
 import com.codeup.novabook.domain.Loan;
 import com.codeup.novabook.domain.Member;
+import com.codeup.novabook.exception.ConflictException;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.NotFoundException;
+import com.codeup.novabook.infra.jfr.CsvBatchEvent;
+import com.codeup.novabook.infra.jfr.LoanEvent;
 import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.TransactionContext;
 import com.codeup.novabook.repository.IBookRepository;
 import com.codeup.novabook.repository.ILoanRepository;
 import com.codeup.novabook.repository.IMemberRepository;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
 import com.codeup.novabook.service.ILoanService;
+import com.codeup.novabook.service.LoanChange;
+import com.codeup.novabook.util.csv.LoanCsv;
 
+import java.io.Reader;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 public class LoanServiceImpl implements ILoanService {
 
@@ -21,13 +33,22 @@ public class LoanServiceImpl implements ILoanService {
     private final IMemberRepository memberRepo;
     private final JdbcTemplateLight jdbc;
     private final com.codeup.novabook.service.FineCalculator fineCalculator;
+    private final BiConsumer<Integer, Integer> stockChanged;
 
     public LoanServiceImpl(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo, JdbcTemplateLight jdbc, com.codeup.novabook.service.FineCalculator fineCalculator) {
+        this(loanRepo, bookRepo, memberRepo, jdbc, fineCalculator, (bookId, delta) -> {});
+    }
+
+    /**
+     * @param stockChanged notified with the book ID and the stock delta after a committed borrow/return
+     */
+    public LoanServiceImpl(ILoanRepository loanRepo, IBookRepository bookRepo, IMemberRepository memberRepo, JdbcTemplateLight jdbc, com.codeup.novabook.service.FineCalculator fineCalculator, BiConsumer<Integer, Integer> stockChanged) {
         this.loanRepo = loanRepo;
         this.bookRepo = bookRepo;
         this.memberRepo = memberRepo;
         this.jdbc = jdbc;
         this.fineCalculator = fineCalculator;
+        this.stockChanged = stockChanged;
     }
 
     @Override
@@ -45,6 +66,12 @@ public class LoanServiceImpl implements ILoanService {
     @Override
     public List<Loan> findAll() throws DatabaseException { return loanRepo.findAll(); }
 
+    @Override
+    public Page<Loan> findPage(PageRequest request) throws DatabaseException { return loanRepo.findPage(request); }
+
+    @Override
+    public long count() throws DatabaseException { return loanRepo.count(); }
+
     @Override
     public List<Loan> findByMemberId(Integer memberId) throws DatabaseException { return loanRepo.findByMemberId(memberId); }
 
@@ -71,46 +98,154 @@ public class LoanServiceImpl implements ILoanService {
 
     @Override
     public Loan borrowBook(Integer memberId, Integer bookId, LocalDate dueDate) throws DatabaseException {
-        return jdbc.txExecute(conn -> {
-            // validations
-            Member member = memberRepo.findById(memberId).orElseThrow(() -> new DatabaseException("Member not found: " + memberId));
-            if (!member.isActiveAndNotDeleted()) throw new DatabaseException("Member is not active");
+        return borrow(memberId, bookId, dueDate, false).getLoan();
+    }
 
-            Book book = bookRepo.findById(bookId).orElseThrow(() -> new DatabaseException("Book not found: " + bookId));
-            if (!book.isAvailable()) throw new DatabaseException("Book not available in stock");
+    @Override
+    public LoanChange checkOut(Integer memberId, Integer bookId, LocalDate dueDate) throws DatabaseException {
+        return borrow(memberId, bookId, dueDate, true);
+    }
 
-            if (loanRepo.hasActiveLoan(memberId, bookId)) throw new DatabaseException("Member already has an active loan for this book");
+    @Override
+    public boolean returnBook(Integer loanId) throws DatabaseException {
+        giveBack(loanId, false);
+        return true;
+    }
 
-            // update stock and create loan
-            book.decreaseStock();
-            if (!bookRepo.updateStock(bookId, book.getStock())) {
-                throw new DatabaseException("Failed to update book stock");
+    @Override
+    public LoanChange checkIn(Integer loanId) throws DatabaseException {
+        return giveBack(loanId, true);
+    }
+
+    /**
+     * @param readBook also read back the book, in the transaction, to return its new stock
+     */
+    private LoanChange borrow(Integer memberId, Integer bookId, LocalDate dueDate, boolean readBook) throws DatabaseException {
+        LoanEvent event = new LoanEvent();
+        event.begin();
+        LoanChange change = null;
+        try {
+            change = doBorrow(memberId, bookId, dueDate, readBook);
+            return change;
+        } finally {
+            commit(event, LoanEvent.BORROW, change, null, memberId, bookId);
+        }
+    }
+
+    private LoanChange doBorrow(Integer memberId, Integer bookId, LocalDate dueDate, boolean readBook) throws DatabaseException {
+        // Repository calls below join this transaction through TransactionContext
+        LoanChange change = jdbc.txExecute(conn -> {
+            // validations
+            Member member = memberRepo.findById(memberId).orElseThrow(() -> new NotFoundException("Member not found: " + memberId));
+            if (!member.isActiveAndNotDeleted()) throw new ConflictException("Member is not active");
+
+            if (loanRepo.hasActiveLoan(memberId, bookId)) throw new ConflictException("Member already has an active loan for this book");
+
+            // take one copy with a conditional UPDATE (stock - 1 only while stock > 0),
+            // so two desks cannot both lend the last copy
+            if (!bookRepo.adjustStock(bookId, -1)) {
+                if (bookRepo.findById(bookId).isEmpty()) throw new NotFoundException("Book not found: " + bookId);
+                throw new ConflictException("Book not available in stock");
             }
 
             Loan loan = new Loan(memberId, bookId, LocalDate.now(), dueDate);
-            return loanRepo.save(loan);
+            Loan saved = loanRepo.save(loan);
+            return new LoanChange(saved, readBook ? bookRepo.findById(bookId).orElse(null) : null);
         });
+        TransactionContext.afterCommit(() -> stockChanged.accept(bookId, -1));
+        return change;
     }
 
-    @Override
-    public boolean returnBook(Integer loanId) throws DatabaseException {
-        return jdbc.txExecute(conn -> {
-            Loan loan = loanRepo.findById(loanId).orElseThrow(() -> new DatabaseException("Loan not found: " + loanId));
-            if (Boolean.TRUE.equals(loan.getReturned())) return true; // idempotent
+    private LoanChange giveBack(Integer loanId, boolean readBook) throws DatabaseException {
+        LoanEvent event = new LoanEvent();
+        event.begin();
+        LoanChange change = null;
+        try {
+            change = doGiveBack(loanId, readBook);
+            return change;
+        } finally {
+            commit(event, LoanEvent.RETURN, change, loanId, null, null);
+        }
+    }
 
-            // mark as returned
-            if (!loanRepo.markAsReturned(loanId)) {
-                throw new DatabaseException("Failed to mark loan as returned");
-            }
+    /**
+     * Ends a Flight Recorder event for a borrow or return; {@code change} is null when it failed.
+     */
+    private static void commit(LoanEvent event, String operation, LoanChange change, Integer loanId, Integer memberId, Integer bookId) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        Loan loan = change != null ? change.getLoan() : null;
+        event.operation = operation;
+        event.succeeded = change != null;
+        event.loanId = orZero(loan != null ? loan.getId() : loanId);
+        event.memberId = orZero(loan != null ? loan.getMemberId() : memberId);
+        event.bookId = orZero(loan != null ? loan.getBookId() : bookId);
+        event.commit();
+    }
+
+    private static int orZero(Integer id) {
+        return id != null ? id : 0;
+    }
+
+    private LoanChange doGiveBack(Integer loanId, boolean readBook) throws DatabaseException {
+        // stays false when nothing changed: already returned here or by another desk
+        boolean[] restocked = new boolean[1];
+        LoanChange change = jdbc.txExecute(conn -> {
+            Loan loan = loanRepo.findById(loanId).orElseThrow(() -> new NotFoundException("Loan not found: " + loanId));
+            if (Boolean.TRUE.equals(loan.getReturned())) return new LoanChange(loan, null); // idempotent
+
+            // mark as returned; no row changed means another desk returned it first
+            boolean marked = loanRepo.markAsReturned(loanId);
+            loan.setReturned(true);
+            if (!marked) return new LoanChange(loan, null); // idempotent, stock already given back
 
             // calculate fine and log
             long fine = fineCalculator.calculateFine(loan.getDateDue(), java.time.LocalDate.now());
             com.codeup.novabook.infra.HttpLogger.log("PATCH /loans/" + loanId + " return -> fine=" + fine);
 
-            // increase stock
-            Book book = bookRepo.findById(loan.getBookId()).orElseThrow(() -> new DatabaseException("Book not found: " + loan.getBookId()));
-            book.increaseStock();
-            return bookRepo.updateStock(book.getId(), book.getStock());
+            // give the copy back
+            if (!bookRepo.adjustStock(loan.getBookId(), 1)) {
+                throw new NotFoundException("Book not found: " + loan.getBookId());
+            }
+            restocked[0] = true;
+            return new LoanChange(loan, readBook ? bookRepo.findById(loan.getBookId()).orElse(null) : null);
         });
+        if (restocked[0]) TransactionContext.afterCommit(() -> stockChanged.accept(change.getLoan().getBookId(), 1));
+        return change;
+    }
+
+    @Override
+    public int importFromCsv(Reader reader) throws Exception {
+        CsvBatchEvent event = new CsvBatchEvent();
+        event.begin();
+        // Imports raw loans (does not adjust stock)
+        List<Loan> loans = LoanCsv.read(reader);
+        int saved = loans.isEmpty() ? 0 : loanRepo.saveAll(loans);
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = CsvBatchEvent.IMPORT;
+            event.entity = "loan";
+            event.rows = loans.size();
+            event.inserted = saved;
+            event.commit();
+        }
+        return saved;
+    }
+
+    @Override
+    public void exportToCsv(Writer writer) throws Exception {
+        CsvBatchEvent event = new CsvBatchEvent();
+        event.begin();
+        long rows;
+        try (Stream<Loan> all = loanRepo.streamAll()) {
+            rows = LoanCsv.write(all::iterator, writer);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = CsvBatchEvent.EXPORT;
+            event.entity = "loan";
+            event.rows = rows;
+            event.commit();
+        }
     }
 }
@@ -3,7 +3,10 @@ package com.codeup.novabook.service.impl;
 import com.codeup.novabook.domain.Member;
 import com.codeup.novabook.domain.MemberRole;
 import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.infra.jfr.CsvBatchEvent;
 import com.codeup.novabook.repository.IMemberRepository;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
 import com.codeup.novabook.service.IMemberService;
 import com.codeup.novabook.util.csv.MemberCsv;
 
@@ -38,6 +41,12 @@ public class MemberServiceImpl implements IMemberService {
     @Override
     public List<Member> findAll() throws DatabaseException { return repo.findAll(); }
 
+    @Override
+    public Page<Member> findPage(PageRequest request) throws DatabaseException { return repo.findPage(request); }
+
+    @Override
+    public long count() throws DatabaseException { return repo.count(); }
+
     @Override
     public List<Member> findAllActive() throws DatabaseException { return repo.findAllActive(); }
 
@@ -55,16 +64,34 @@ public class MemberServiceImpl implements IMemberService {
 
     @Override
     public int importFromCsv(Reader reader) throws Exception {
+        CsvBatchEvent event = new CsvBatchEvent();
+        event.begin();
         List<Member> members = MemberCsv.read(reader);
-        int count = 0;
-        for (Member m : members) {
-            // Without a unique field in Member, just save them
-            repo.save(m);
-            count++;
+        // Without a unique field in Member, just save them
+        int saved = members.isEmpty() ? 0 : repo.saveAll(members);
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = CsvBatchEvent.IMPORT;
+            event.entity = "member";
+            event.rows = members.size();
+            event.inserted = saved;
+            event.commit();
         }
-        return count;
+        return saved;
     }
 
     @Override
-    public void exportToCsv(Writer writer) throws Exception { MemberCsv.write(repo.findAll(), writer); }
+    public void exportToCsv(Writer writer) throws Exception {
+        CsvBatchEvent event = new CsvBatchEvent();
+        event.begin();
+        // Page through the table so the export never holds more than one page
+        long rows = MemberCsv.write(Page.all(token -> repo.findPage(PageRequest.after(null, token, Page.MAX_SIZE))), writer);
+        event.end();
+        if (event.shouldCommit()) {
+            event.direction = CsvBatchEvent.EXPORT;
+            event.entity = "member";
+            event.rows = rows;
+            event.commit();
+        }
+    }
 }
@@ -0,0 +1,300 @@
+package com.codeup.novabook.ui;
+
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Virtual {@code ObservableList} behind a {@link TableView}: it reports the
+ * full row count but only holds a few blocks of rows, fetched as the table
+ * scrolls.
+ * <p>
+ * Rows that are not loaded yet read as {@code null}, so cell value factories
+ * must tolerate a null row. Visible rows ask for their block through the row
+ * factory installed by {@link #attach}. The block after the one in view is
+ * prefetched. Once more than {@code maxBlocks} blocks are held, the least
+ * recently viewed one is dropped, so the heap stays bounded whatever the
+ * table size. Blocks following a loaded one continue by keyset from its page
+ * token; blocks reached by dragging the scrollbar are fetched by offset.
+ * Sorting a mapped column re-queries the database in that order.
+ * </p>
+ * <p>
+ * After a write, the row can be patched in place instead of reloading:
+ * {@link #replaceRow} swaps a loaded row, {@link #insertRow} shows a new row
+ * on top, and {@link #removeRow} takes one out and re-reads only its block.
+ * Blocks after an insert or removal are dropped and fetched again by offset
+ * when they come back into view. {@link #reload()} re-counts everything.
+ * </p>
+ * <p>
+ * Like the table, this list must only be used on the FX thread.
+ * </p>
+ *
+ * @param <T> the row type
+ */
+final class LazyTableItems<T> extends ObservableListBase<T> {
+
+    @FunctionalInterface
+    interface Source<T> {
+        Page<T> fetch(PageRequest request) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface Counter {
+        long count() throws Exception;
+    }
+
+    private final UiTaskRunner tasks;
+    private final String key;
+    private final String title;
+    private final Source<T> source;
+    private final Counter counter;
+    private final int blockSize;
+    private final int maxBlocks;
+    private final Consumer<Exception> onError;
+    private final Function<T, ?> idOf;
+
+    // block index -> rows, least recently viewed first
+    private final LinkedHashMap<Integer, List<T>> blocks = new LinkedHashMap<>();
+    // page token that starts each block, when the block before it was loaded
+    private final Map<Integer, String> startTokens = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private Sort sort;
+    private int size;
+    private int generation;
+    // last block in view; read by workers to skip blocks scrolled far away
+    private volatile int focusBlock;
+
+    /**
+     * @param key task key prefix, unique per table
+     * @param title status text while rows load
+     * @param idOf row identity, used to find the row to patch
+     */
+    LazyTableItems(UiTaskRunner tasks, String key, String title, Source<T> source, Counter counter,
+                   int blockSize, int maxBlocks, Consumer<Exception> onError, Function<T, ?> idOf) {
+        this.tasks = tasks;
+        this.key = key;
+        this.title = title;
+        this.source = source;
+        this.counter = counter;
+        this.blockSize = Math.max(1, Math.min(blockSize, Page.MAX_SIZE));
+        this.maxBlocks = Math.max(2, maxBlocks);
+        this.onError = onError;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Shows this list in {@code table}, loading rows as they come into view
+     * and sorting the mapped columns on the server; other columns are not sortable.
+     *
+     * @param sortable sortable columns and the repository property each one sorts by
+     */
+    void attach(TableView<T> table, Map<TableColumn<T, ?>, String> sortable) {
+        for (TableColumn<T, ?> column : table.getColumns()) column.setSortable(sortable.containsKey(column));
+        table.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && tv.getItems() == LazyTableItems.this) touch(getIndex());
+            }
+        });
+        table.setSortPolicy(tv -> {
+            if (tv.getItems() != this) return TableView.DEFAULT_SORT_POLICY.call(tv);
+            Sort requested = null;
+            if (!tv.getSortOrder().isEmpty()) {
+                TableColumn<T, ?> column = tv.getSortOrder().get(0);
+                String property = sortable.get(column);
+                if (property == null) return false;
+                requested = column.getSortType() == TableColumn.SortType.DESCENDING
+                        ? Sort.byDescending(property) : Sort.by(property);
+            }
+            if (!Objects.equals(requested, sort)) {
+                sort = requested;
+                reload();
+            }
+            return true;
+        });
+        table.setItems(this);
+    }
+
+    /**
+     * Re-counts the rows and drops every loaded block; visible rows reload.
+     */
+    void reload() {
+        tasks.submit(key + ".count", title, counter::count, total -> {
+            generation++;
+            blocks.clear();
+            startTokens.clear();
+            pending.clear();
+            int oldSize = size;
+            size = (int) Math.min(total, Integer.MAX_VALUE);
+            beginChange();
+            if (oldSize > 0) nextRemove(0, Collections.nCopies(oldSize, null));
+            if (size > 0) nextAdd(0, size);
+            endChange();
+            request(0);
+        }, onError);
+    }
+
+    /**
+     * Swaps in the new state of a row changed in the database, if it is loaded.
+     */
+    void replaceRow(T row) {
+        int index = loadedIndexOf(idOf.apply(row));
+        if (index < 0) return;
+        T old = blocks.get(index / blockSize).set(index % blockSize, row);
+        beginChange();
+        nextSet(index, old);
+        endChange();
+    }
+
+    /**
+     * Shows a row just added to the database at the top of the list, where the
+     * default order puts new loans; in other orders it stays there until the
+     * next {@link #reload()}.
+     */
+    void insertRow(T row) {
+        restructured(0);
+        List<T> first = blocks.get(0);
+        if (first != null) {
+            first.add(0, row);
+            if (first.size() > blockSize) first.remove(blockSize);
+        }
+        size++;
+        beginChange();
+        nextAdd(0, 1);
+        endChange();
+    }
+
+    /**
+     * Takes out a row deleted from the database, if it is loaded, and re-reads
+     * its block so the row after it moves up.
+     */
+    void removeRow(T row) {
+        int index = loadedIndexOf(idOf.apply(row));
+        if (index < 0) return;
+        int block = index / blockSize;
+        restructured(block);
+        List<T> rows = blocks.get(block);
+        T removed = rows.remove(index % blockSize);
+        size--;
+        beginChange();
+        nextRemove(index, removed);
+        endChange();
+        if ((long) block * blockSize + rows.size() < size) fetch(block);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the row, or null while its block is not loaded
+     */
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        List<T> rows = blocks.get(index / blockSize);
+        int offset = index % blockSize;
+        return rows == null || offset >= rows.size() ? null : rows.get(offset);
+    }
+
+    /**
+     * Marks the row at {@code index} as in view: loads its block, or the next
+     * one once the second half of the block is shown.
+     */
+    private void touch(int index) {
+        int block = index / blockSize;
+        focusBlock = block;
+        List<T> rows = blocks.remove(block);
+        if (rows == null) {
+            request(block);
+            return;
+        }
+        blocks.put(block, rows); // most recently viewed
+        if (index % blockSize >= blockSize / 2) request(block + 1);
+    }
+
+    private int loadedIndexOf(Object id) {
+        for (Map.Entry<Integer, List<T>> e : blocks.entrySet()) {
+            List<T> rows = e.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (Objects.equals(idOf.apply(rows.get(i)), id)) return e.getKey() * blockSize + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rows after {@code block} move by one: drops the blocks and page tokens
+     * past it and discards fetches still in flight.
+     */
+    private void restructured(int block) {
+        generation++;
+        pending.clear();
+        blocks.keySet().removeIf(b -> b > block);
+        startTokens.keySet().removeIf(b -> b > block);
+    }
+
+    private void request(int block) {
+        if (!blocks.containsKey(block)) fetch(block);
+    }
+
+    private void fetch(int block) {
+        if (block < 0 || (long) block * blockSize >= size || !pending.add(block)) return;
+
+        String token = startTokens.get(block);
+        PageRequest request = block == 0 || token != null
+                ? PageRequest.after(sort, token, blockSize)
+                : PageRequest.at(sort, (long) block * blockSize, blockSize);
+        int gen = generation;
+        tasks.submit(title, () -> {
+            // scrolled far away while queued: not worth a query any more
+            if (Math.abs(block - focusBlock) > maxBlocks) return null;
+            return source.fetch(request);
+        }, page -> loaded(gen, block, page), e -> {
+            if (gen == generation) pending.remove(block);
+            onError.accept(e);
+        });
+    }
+
+    private void loaded(int gen, int block, Page<T> page) {
+        if (gen != generation) return;
+        pending.remove(block);
+        if (page == null) return;
+
+        List<T> rows = new ArrayList<>(page.getItems());
+        List<T> old = blocks.put(block, rows);
+        if (page.hasNext()) startTokens.put(block + 1, page.getNextToken());
+        for (Iterator<Integer> it = blocks.keySet().iterator(); blocks.size() > maxBlocks && it.hasNext(); ) {
+            if (it.next() != block) it.remove();
+        }
+
+        int from = block * blockSize;
+        int to = Math.min(from + rows.size(), size);
+        if (from < to) {
+            List<T> replaced = new ArrayList<>(to - from);
+            for (int i = 0; i < to - from; i++) replaced.add(old != null && i < old.size() ? old.get(i) : null);
+            beginChange();
+            nextReplace(from, to, replaced);
+            endChange();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.codeup.novabook.domain.User;
 import com.codeup.novabook.infra.ServiceRegistry;
 import com.codeup.novabook.infra.SessionManager;
 import com.codeup.novabook.service.IUserService;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -16,6 +17,7 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class LoginController {
 
@@ -26,6 +28,19 @@ public class LoginController {
 
     private final IUserService userService = ServiceRegistry.getInstance().userService();
 
+    @FXML
+    public void initialize() {
+        // The window shows while the database is still being prepared; logging in and registering wait for it
+        CompletableFuture<Void> startup = ServiceRegistry.getInstance().startup();
+        if (startup.isDone()) return;
+        loginButton.setDisable(true);
+        registerButton.setDisable(true);
+        startup.whenComplete((v, ex) -> Platform.runLater(() -> {
+            loginButton.setDisable(false);
+            registerButton.setDisable(false);
+        }));
+    }
+
     @FXML
     public void onLogin(ActionEvent e) {
         String email = emailField.getText();
@@ -9,28 +9,40 @@ import com.codeup.novabook.infra.ServiceRegistry;
 import com.codeup.novabook.service.IBookService;
 import com.codeup.novabook.service.ILoanService;
 import com.codeup.novabook.service.IMemberService;
-import com.codeup.novabook.util.csv.LoanCsv;
 import com.codeup.novabook.util.csv.MemberCsv;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
+import javafx.stage.WindowEvent;
+import javafx.util.Callback;
 
+import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.Reader;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 public class MainController {
 
+    private static final int BOOK_SEARCH_LIMIT = 200;
+    private static final int TABLE_BLOCK_SIZE = 100;
+    private static final int TABLE_MAX_BLOCKS = 10;
+    private static final int UI_WORKER_THREADS = 4;
+
     private final ServiceRegistry registry = ServiceRegistry.getInstance();
     private final IBookService bookService = registry.bookService();
     private final IMemberService memberService = registry.memberService();
     private final ILoanService loanService = registry.loanService();
     private final com.codeup.novabook.service.ExportService exportService = registry.exportService();
+    private final UiTaskRunner tasks = new UiTaskRunner(UI_WORKER_THREADS);
 
     // Books UI
     @FXML private TableView<Book> booksTable;
@@ -69,77 +81,113 @@ public class MainController {
     @FXML private TextField bookIdField;
     @FXML private TextField dueDateField;
 
+    // Status bar
+    @FXML private ProgressIndicator busyIndicator;
+    @FXML private Label statusLabel;
+
+    private LazyTableItems<Book> booksItems;
+    private LazyTableItems<Member> membersItems;
+    private LazyTableItems<Loan> loansItems;
+
     @FXML
     public void initialize() {
         // Books table bindings
-        colIsbn.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getIsbn()));
-        colTitle.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getTitle()));
-        colAuthor.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getAuthor()));
-        colStock.setCellValueFactory(c -> new javafx.beans.property.SimpleIntegerProperty(c.getValue().getStock()));
+        colIsbn.setCellValueFactory(cell(b -> new javafx.beans.property.SimpleStringProperty(b.getIsbn())));
+        colTitle.setCellValueFactory(cell(b -> new javafx.beans.property.SimpleStringProperty(b.getTitle())));
+        colAuthor.setCellValueFactory(cell(b -> new javafx.beans.property.SimpleStringProperty(b.getAuthor())));
+        colStock.setCellValueFactory(cell(b -> new javafx.beans.property.SimpleIntegerProperty(b.getStock())));
 
         // Members table bindings
         if (colMemberId != null) {
-            colMemberId.setCellValueFactory(c -> new javafx.beans.property.SimpleIntegerProperty(c.getValue().getId()));
-            colMemberName.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getName()));
-            colMemberRole.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getRole() == null ? "" : c.getValue().getRole().name()));
-            colMemberAccess.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getAccessLevel() == null ? "" : c.getValue().getAccessLevel().name()));
-            colMemberActive.setCellValueFactory(c -> new javafx.beans.property.SimpleBooleanProperty(Boolean.TRUE.equals(c.getValue().getActive())));
+            colMemberId.setCellValueFactory(cell(m -> new javafx.beans.property.SimpleIntegerProperty(m.getId())));
+            colMemberName.setCellValueFactory(cell(m -> new javafx.beans.property.SimpleStringProperty(m.getName())));
+            colMemberRole.setCellValueFactory(cell(m -> new javafx.beans.property.SimpleStringProperty(m.getRole() == null ? "" : m.getRole().name())));
+            colMemberAccess.setCellValueFactory(cell(m -> new javafx.beans.property.SimpleStringProperty(m.getAccessLevel() == null ? "" : m.getAccessLevel().name())));
+            colMemberActive.setCellValueFactory(cell(m -> new javafx.beans.property.SimpleBooleanProperty(Boolean.TRUE.equals(m.getActive()))));
             if (memberRoleChoice != null) memberRoleChoice.getItems().addAll(MemberRole.values());
             if (memberAccessChoice != null) memberAccessChoice.getItems().addAll(AccessLevel.values());
         }
 
         // Loans table bindings
         if (colLoanId != null) {
-            colLoanId.setCellValueFactory(c -> new javafx.beans.property.SimpleIntegerProperty(c.getValue().getId()));
-            colLoanMember.setCellValueFactory(c -> new javafx.beans.property.SimpleIntegerProperty(c.getValue().getMemberId()));
-            colLoanBook.setCellValueFactory(c -> new javafx.beans.property.SimpleIntegerProperty(c.getValue().getBookId()));
-            colLoanLoaned.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getDateLoaned() == null ? "" : c.getValue().getDateLoaned().toString()));
-            colLoanDue.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(c.getValue().getDateDue() == null ? "" : c.getValue().getDateDue().toString()));
-            colLoanReturned.setCellValueFactory(c -> new javafx.beans.property.SimpleBooleanProperty(Boolean.TRUE.equals(c.getValue().getReturned())));
+            colLoanId.setCellValueFactory(cell(l -> new javafx.beans.property.SimpleIntegerProperty(l.getId())));
+            colLoanMember.setCellValueFactory(cell(l -> new javafx.beans.property.SimpleIntegerProperty(l.getMemberId())));
+            colLoanBook.setCellValueFactory(cell(l -> new javafx.beans.property.SimpleIntegerProperty(l.getBookId())));
+            colLoanLoaned.setCellValueFactory(cell(l -> new javafx.beans.property.SimpleStringProperty(l.getDateLoaned() == null ? "" : l.getDateLoaned().toString())));
+            colLoanDue.setCellValueFactory(cell(l -> new javafx.beans.property.SimpleStringProperty(l.getDateDue() == null ? "" : l.getDateDue().toString())));
+            colLoanReturned.setCellValueFactory(cell(l -> new javafx.beans.property.SimpleBooleanProperty(Boolean.TRUE.equals(l.getReturned()))));
         }
 
+        // Database work runs on background workers; the indicator shows while any is busy
+        busyIndicator.visibleProperty().bind(tasks.activeProperty().greaterThan(0));
+        statusLabel.textProperty().bind(tasks.statusProperty());
+        booksTable.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene != null) scene.windowProperty().addListener((o, oldWindow, window) -> {
+                if (window != null) window.addEventHandler(WindowEvent.WINDOW_HIDDEN, ev -> tasks.shutdown());
+            });
+        });
+
+        // Tables hold a few blocks of rows, fetched as they scroll into view and sorted by the database
+        booksItems = new LazyTableItems<>(tasks, "books", "Loading books", bookService::findPage, bookService::count,
+                TABLE_BLOCK_SIZE, TABLE_MAX_BLOCKS, this::showError, Book::getId);
+        booksItems.attach(booksTable, Map.of(colIsbn, "isbn", colTitle, "title", colAuthor, "author", colStock, "stock"));
+        membersItems = new LazyTableItems<>(tasks, "members", "Loading members", memberService::findPage, memberService::count,
+                TABLE_BLOCK_SIZE, TABLE_MAX_BLOCKS, this::showError, Member::getId);
+        membersItems.attach(membersTable, Map.of(colMemberId, "id", colMemberName, "name"));
+        loansItems = new LazyTableItems<>(tasks, "loans", "Loading loans", loanService::findPage, loanService::count,
+                TABLE_BLOCK_SIZE, TABLE_MAX_BLOCKS, this::showError, Loan::getId);
+        loansItems.attach(loansTable, Map.of(colLoanId, "id", colLoanMember, "memberId", colLoanBook, "bookId",
+                colLoanLoaned, "dateLoaned", colLoanDue, "dateDue"));
+
+        // the three tables load in parallel; after that, writes patch the rows they changed
+        // and only Refresh, a blank search or an import reloads a table
         refreshBooks();
         refreshMembers();
         refreshLoans();
     }
 
+    @FXML
+    public void onRefreshBooks(ActionEvent e) {
+        refreshBooks();
+    }
+
+    @FXML
+    public void onRefreshMembers(ActionEvent e) {
+        refreshMembers();
+    }
+
+    @FXML
+    public void onRefreshLoans(ActionEvent e) {
+        refreshLoans();
+    }
+
     private void refreshBooks() {
-        try {
-            ObservableList<Book> data = FXCollections.observableArrayList(bookService.findAll());
-            booksTable.setItems(data);
-        } catch (Exception e) {
-            showError(e);
-        }
+        tasks.cancel("books.search");
+        booksTable.setItems(booksItems);
+        booksItems.reload();
     }
 
     private void refreshLoans() {
-        try {
-            ObservableList<Loan> data = FXCollections.observableArrayList(loanService.findAll());
-            loansTable.setItems(data);
-        } catch (Exception e) {
-            showError(e);
-        }
+        loansItems.reload();
     }
 
     private void refreshMembers() {
-        try {
-            ObservableList<Member> data = FXCollections.observableArrayList(memberService.findAll());
-            membersTable.setItems(data);
-        } catch (Exception e) { showError(e); }
+        tasks.cancel("members.search");
+        membersTable.setItems(membersItems);
+        membersItems.reload();
     }
 
     @FXML
     public void onSearchBooks(ActionEvent e) {
         com.codeup.novabook.infra.HttpLogger.log("GET /books?query=" + bookSearchField.getText());
         String q = bookSearchField.getText();
-        try {
-            if (q == null || q.isBlank()) {
-                refreshBooks();
-            } else {
-                // search by title first, could combine
-                booksTable.setItems(FXCollections.observableArrayList(bookService.findByTitle(q)));
-            }
-        } catch (Exception ex) { showError(ex); }
+        if (q == null || q.isBlank()) {
+            refreshBooks();
+        } else {
+            // ranked title/author search served from the in-memory index
+            tasks.submit("books.search", "Searching books", () -> bookService.search(q, BOOK_SEARCH_LIMIT),
+                    found -> booksTable.setItems(FXCollections.observableArrayList(found)), this::showError);
+        }
     }
 
     @FXML
@@ -147,8 +195,7 @@ public class MainController {
         try {
             Book b = new Book(isbnField.getText(), titleField.getText(), authorField.getText(), Integer.parseInt(stockField.getText()));
             com.codeup.novabook.infra.HttpLogger.log("POST /books");
-            bookService.create(b);
-            refreshBooks();
+            tasks.submit("Saving book", () -> bookService.create(b), created -> booksItems.insertRow(created), this::showError);
         } catch (Exception ex) { showError(ex); }
     }
 
@@ -157,13 +204,15 @@ public class MainController {
         Book selected = booksTable.getSelectionModel().getSelectedItem();
         if (selected == null) return;
         try {
-            selected.setIsbn(isbnField.getText());
-            selected.setTitle(titleField.getText());
-            selected.setAuthor(authorField.getText());
-            selected.setStock(Integer.parseInt(stockField.getText()));
+            // edit a copy: the row on screen only changes once the update is saved
+            Book changed = new Book(selected);
+            changed.setIsbn(isbnField.getText());
+            changed.setTitle(titleField.getText());
+            changed.setAuthor(authorField.getText());
+            changed.setStock(Integer.parseInt(stockField.getText()));
             com.codeup.novabook.infra.HttpLogger.log("PATCH /books/" + selected.getId());
-            bookService.update(selected);
-            refreshBooks();
+            tasks.submit("Saving book", () -> bookService.update(changed),
+                    updated -> replaceRow(booksTable, booksItems, updated, Book::getId), this::showError);
         } catch (Exception ex) { showError(ex); }
     }
 
@@ -171,119 +220,119 @@ public class MainController {
     public void onDeleteBook(ActionEvent e) {
         Book selected = booksTable.getSelectionModel().getSelectedItem();
         if (selected == null) return;
-        try {
-            com.codeup.novabook.infra.HttpLogger.log("DELETE /books/" + selected.getId());
-            bookService.delete(selected.getId());
-            refreshBooks();
-        } catch (Exception ex) { showError(ex); }
+        com.codeup.novabook.infra.HttpLogger.log("DELETE /books/" + selected.getId());
+        tasks.submit("Deleting book", () -> bookService.delete(selected.getId()),
+                deleted -> {
+                    if (deleted) removeRow(booksTable, booksItems, selected, Book::getId);
+                }, this::showError);
     }
 
     @FXML
     public void onImportBooksCsv(ActionEvent e) {
-        try {
-            FileChooser chooser = new FileChooser();
-            chooser.setTitle("Import Books CSV");
-            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
-            chooser.setInitialDirectory(resolveImportsDir());
-            var file = chooser.showOpenDialog(booksTable.getScene().getWindow());
-            if (file == null) return;
-            try (FileReader r = new FileReader(file)) {
-                int n = bookService.importFromCsv(r);
-                showInfo("Imported " + n + " books from " + file.getAbsolutePath());
+        var file = chooseImportFile("Import Books CSV", booksTable);
+        if (file == null) return;
+        tasks.submitWithProgress(null, "Importing books", progress -> {
+            try (Reader r = new BufferedReader(new FileReader(file))) {
+                return bookService.importFromCsv(r, report -> progress.accept(
+                        report.getRowsRead() + " rows read, " + report.getRejected() + " rejected"));
             }
+        }, report -> {
+            StringBuilder msg = new StringBuilder("Imported " + report.getImported() + " books from "
+                    + file.getAbsolutePath() + " (" + report.getInserted() + " new, "
+                    + report.getUpdated() + " updated)");
+            if (report.getRejected() > 0) {
+                msg.append("\n").append(report.getRejected()).append(" rows rejected:");
+                report.getErrors().stream().limit(10).forEach(err -> msg.append("\n  ").append(err));
+            }
+            showInfo(msg.toString());
             refreshBooks();
-        } catch (Exception ex) { showError(ex); }
+        }, this::showError);
     }
 
     @FXML
     public void onExportBooksCsv(ActionEvent e) {
-        try {
-            Path path = resolveExportPath("books_export.csv");
+        Path path = resolveExportPath("books_export.csv");
+        tasks.submit("Exporting books", () -> {
             try (FileWriter w = new FileWriter(path.toFile())) {
                 bookService.exportToCsv(w);
             }
-            showInfo("Exported books to " + path);
-        } catch (Exception ex) { showError(ex); }
+            return path;
+        }, out -> showInfo("Exported books to " + out), this::showError);
     }
 
     // Member CRUD
     @FXML
     public void onAddMember(ActionEvent e) {
-        try {
-            Member m = new Member();
-            m.setName(memberNameField.getText());
-            m.setRole(memberRoleChoice.getValue());
-            m.setAccessLevel(memberAccessChoice.getValue());
-            m.setActive(memberActiveCheck.isSelected());
-            m.setDeleted(false);
-            memberService.create(m);
-            refreshMembers();
-        } catch (Exception ex) { showError(ex); }
+        Member m = new Member();
+        m.setName(memberNameField.getText());
+        m.setRole(memberRoleChoice.getValue());
+        m.setAccessLevel(memberAccessChoice.getValue());
+        m.setActive(memberActiveCheck.isSelected());
+        m.setDeleted(false);
+        tasks.submit("Saving member", () -> memberService.create(m), created -> membersItems.insertRow(created), this::showError);
     }
 
     @FXML
     public void onUpdateMember(ActionEvent e) {
         Member selected = membersTable.getSelectionModel().getSelectedItem();
         if (selected == null) return;
-        try {
-            selected.setName(memberNameField.getText());
-            selected.setRole(memberRoleChoice.getValue());
-            selected.setAccessLevel(memberAccessChoice.getValue());
-            selected.setActive(memberActiveCheck.isSelected());
-            memberService.update(selected);
-            refreshMembers();
-        } catch (Exception ex) { showError(ex); }
+        Member changed = new Member(selected);
+        changed.setName(memberNameField.getText());
+        changed.setRole(memberRoleChoice.getValue());
+        changed.setAccessLevel(memberAccessChoice.getValue());
+        changed.setActive(memberActiveCheck.isSelected());
+        tasks.submit("Saving member", () -> memberService.update(changed),
+                updated -> replaceRow(membersTable, membersItems, updated, Member::getId), this::showError);
     }
 
     @FXML
     public void onDeleteMember(ActionEvent e) {
         Member selected = membersTable.getSelectionModel().getSelectedItem();
         if (selected == null) return;
-        try {
-            memberService.softDelete(selected.getId());
-            refreshMembers();
-        } catch (Exception ex) { showError(ex); }
+        // soft-deleted members stay listed, flagged as deleted
+        tasks.submit("Deleting member", () -> memberService.softDelete(selected.getId()), deleted -> {
+            if (!deleted) return;
+            Member changed = new Member(selected);
+            changed.setDeleted(true);
+            replaceRow(membersTable, membersItems, changed, Member::getId);
+        }, this::showError);
     }
 
     // Search/Import/Export Members
     @FXML
     public void onSearchMembers(ActionEvent e) {
-        try {
-            String q = memberSearchField.getText();
-            if (q == null || q.isBlank()) {
-                refreshMembers();
-            } else {
-                membersTable.setItems(FXCollections.observableArrayList(memberService.findByName(q)));
-            }
-        } catch (Exception ex) { showError(ex); }
+        String q = memberSearchField.getText();
+        if (q == null || q.isBlank()) {
+            refreshMembers();
+        } else {
+            tasks.submit("members.search", "Searching members", () -> memberService.findByName(q),
+                    found -> membersTable.setItems(FXCollections.observableArrayList(found)), this::showError);
+        }
     }
 
     @FXML
     public void onImportMembersCsv(ActionEvent e) {
-        try {
-            FileChooser chooser = new FileChooser();
-            chooser.setTitle("Import Members CSV");
-            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
-            chooser.setInitialDirectory(resolveImportsDir());
-            var file = chooser.showOpenDialog(membersTable.getScene().getWindow());
-            if (file == null) return;
+        var file = chooseImportFile("Import Members CSV", membersTable);
+        if (file == null) return;
+        tasks.submit("Importing members", () -> {
             try (FileReader r = new FileReader(file)) {
-                int n = memberService.importFromCsv(r);
-                showInfo("Imported " + n + " members from " + file.getAbsolutePath());
+                return memberService.importFromCsv(r);
             }
+        }, n -> {
+            showInfo("Imported " + n + " members from " + file.getAbsolutePath());
             refreshMembers();
-        } catch (Exception ex) { showError(ex); }
+        }, this::showError);
     }
 
     @FXML
     public void onExportMembersCsv(ActionEvent e) {
-        try {
-            Path path = resolveExportPath("members_export.csv");
+        Path path = resolveExportPath("members_export.csv");
+        tasks.submit("Exporting members", () -> {
             try (FileWriter w = new FileWriter(path.toFile())) {
                 memberService.exportToCsv(w);
             }
-            showInfo("Exported members to " + path);
-        } catch (Exception ex) { showError(ex); }
+            return path;
+        }, out -> showInfo("Exported members to " + out), this::showError);
     }
 
     @FXML
@@ -293,9 +342,10 @@ public class MainController {
             Integer memberId = Integer.parseInt(memberIdField.getText());
             Integer bookId = Integer.parseInt(bookIdField.getText());
             LocalDate due = LocalDate.parse(dueDateField.getText());
-            loanService.borrowBook(memberId, bookId, due);
-            refreshLoans();
-            refreshBooks();
+            tasks.submit("Registering loan", () -> loanService.checkOut(memberId, bookId, due), change -> {
+                loansItems.insertRow(change.getLoan());
+                if (change.getBook() != null) replaceRow(booksTable, booksItems, change.getBook(), Book::getId);
+            }, this::showError);
         } catch (Exception ex) { showError(ex); }
     }
 
@@ -305,9 +355,9 @@ public class MainController {
         if (selected == null) return;
         try {
             LocalDate due = LocalDate.parse(dueDateField.getText());
-            selected.setDateDue(due);
-            loanService.update(selected);
-            refreshLoans();
+            Loan changed = new Loan(selected);
+            changed.setDateDue(due);
+            tasks.submit("Saving loan", () -> loanService.update(changed), updated -> loansItems.replaceRow(updated), this::showError);
         } catch (Exception ex) { showError(ex); }
     }
 
@@ -315,10 +365,9 @@ public class MainController {
     public void onDeleteLoan(ActionEvent e) {
         Loan selected = loansTable.getSelectionModel().getSelectedItem();
         if (selected == null) return;
-        try {
-            loanService.delete(selected.getId());
-            refreshLoans();
-        } catch (Exception ex) { showError(ex); }
+        tasks.submit("Deleting loan", () -> loanService.delete(selected.getId()), deleted -> {
+            if (deleted) loansItems.removeRow(selected);
+        }, this::showError);
     }
 
     @FXML
@@ -326,54 +375,67 @@ public class MainController {
         com.codeup.novabook.infra.HttpLogger.log("PATCH /loans/return");
         Loan selected = loansTable.getSelectionModel().getSelectedItem();
         if (selected == null) return;
-        try {
-            loanService.returnBook(selected.getId());
-            refreshLoans();
-            refreshBooks();
-        } catch (Exception ex) { showError(ex); }
+        tasks.submit("Returning loan", () -> loanService.checkIn(selected.getId()), change -> {
+            loansItems.replaceRow(change.getLoan());
+            if (change.getBook() != null) replaceRow(booksTable, booksItems, change.getBook(), Book::getId);
+        }, this::showError);
     }
 
     @FXML
     public void onExportOverdueLoans(ActionEvent e) {
-        try {
-            Path out = resolveExportPath("overdue_loans.csv");
-            exportService.exportOverdueLoansCsv(out);
-            showInfo("Exported overdue loans to " + out);
-        } catch (Exception ex) { showError(ex); }
+        Path out = resolveExportPath("overdue_loans.csv");
+        tasks.submit("Exporting overdue loans", () -> exportService.exportOverdueLoansCsv(out),
+                path -> showInfo("Exported overdue loans to " + path), this::showError);
     }
 
     @FXML
     public void onExportAllLoansCsv(ActionEvent e) {
-        try {
-            Path out = resolveExportPath("loans_export.csv");
-            try (FileWriter w = new FileWriter(out.toFile())) {
-                LoanCsv.write(loanService.findAll(), w);
+        Path path = resolveExportPath("loans_export.csv");
+        tasks.submit("Exporting loans", () -> {
+            try (FileWriter w = new FileWriter(path.toFile())) {
+                loanService.exportToCsv(w);
             }
-            showInfo("Exported loans to " + out);
-        } catch (Exception ex) { showError(ex); }
+            return path;
+        }, out -> showInfo("Exported loans to " + out), this::showError);
     }
 
     @FXML
     public void onImportLoansCsv(ActionEvent e) {
-        try {
-            FileChooser chooser = new FileChooser();
-            chooser.setTitle("Import Loans CSV");
-            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
-            chooser.setInitialDirectory(resolveImportsDir());
-            var file = chooser.showOpenDialog(loansTable.getScene().getWindow());
-            if (file == null) return;
+        var file = chooseImportFile("Import Loans CSV", loansTable);
+        if (file == null) return;
+        tasks.submit("Importing loans", () -> {
+            // Import raw loans in batches (does not adjust stock)
             try (FileReader r = new FileReader(file)) {
-                var loans = com.codeup.novabook.util.csv.LoanCsv.read(r);
-                int n = 0;
-                for (var l : loans) {
-                    // Import raw loans via service create (does not adjust stock)
-                    loanService.create(l);
-                    n++;
-                }
-                showInfo("Imported " + n + " loans from " + file.getAbsolutePath());
+                return loanService.importFromCsv(r);
             }
+        }, n -> {
+            showInfo("Imported " + n + " loans from " + file.getAbsolutePath());
             refreshLoans();
-        } catch (Exception ex) { showError(ex); }
+        }, this::showError);
+    }
+
+    // Cell values for rows that may not be loaded yet (null)
+    private static <S, V> Callback<TableColumn.CellDataFeatures<S, V>, ObservableValue<V>> cell(Function<S, ObservableValue<V>> value) {
+        return c -> c.getValue() == null ? null : value.apply(c.getValue());
+    }
+
+    // Patches a changed row into the lazy list, and into search results when those are shown
+    private static <T> void replaceRow(TableView<T> table, LazyTableItems<T> lazy, T row, Function<T, Integer> id) {
+        lazy.replaceRow(row);
+        if (table.getItems() != lazy) table.getItems().replaceAll(r -> Objects.equals(id.apply(r), id.apply(row)) ? row : r);
+    }
+
+    private static <T> void removeRow(TableView<T> table, LazyTableItems<T> lazy, T row, Function<T, Integer> id) {
+        lazy.removeRow(row);
+        if (table.getItems() != lazy) table.getItems().removeIf(r -> Objects.equals(id.apply(r), id.apply(row)));
+    }
+
+    private java.io.File chooseImportFile(String title, Control owner) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        chooser.setInitialDirectory(resolveImportsDir());
+        return chooser.showOpenDialog(owner.getScene().getWindow());
     }
 
     private void showError(Exception e) {
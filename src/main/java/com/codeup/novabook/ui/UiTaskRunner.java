@@ -0,0 +1,149 @@
+package com.codeup.novabook.ui;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs controller work (service and database calls) off the JavaFX application
+ * thread, on a small bounded pool of daemon threads, wrapped in {@link Task}s.
+ * <p>
+ * A submission may carry a key; submitting again under the same key cancels
+ * the previous task, so a reload or a new search makes the stale one go away
+ * and its result is never applied. Writes go without a key and always finish. Callbacks run on the FX thread, and so must
+ * every call to this class. {@link #activeProperty()} and
+ * {@link #statusProperty()} drive the progress indicator; long work can append
+ * its own progress to the status text through {@link ProgressWork}.
+ * </p>
+ */
+final class UiTaskRunner {
+
+    /**
+     * Background work that reports progress while it runs.
+     */
+    @FunctionalInterface
+    interface ProgressWork<T> {
+        /**
+         * @param progress takes a short message for the status bar; may be called from the worker thread
+         */
+        T call(Consumer<String> progress) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final Map<String, Task<?>> running = new HashMap<>();
+    private final Set<Task<?>> inFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ReadOnlyIntegerWrapper active = new ReadOnlyIntegerWrapper(0);
+    private final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper("");
+
+    UiTaskRunner(int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "ui-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Runs {@code work} in the background, replacing any task still running under {@code key}.
+     *
+     * @param key identifies work that supersedes earlier work with the same key, or null
+     * @param title shown in the status bar while the task runs
+     * @param work the blocking call
+     * @param onSuccess receives the result on the FX thread
+     * @param onError receives the failure on the FX thread
+     * @return the task, e.g. to cancel it
+     */
+    <T> Task<T> submit(String key, String title, Callable<T> work, Consumer<? super T> onSuccess, Consumer<Exception> onError) {
+        return submitWithProgress(key, title, progress -> work.call(), onSuccess, onError);
+    }
+
+    /**
+     * Like {@link #submit(String, String, Callable, Consumer, Consumer)}, showing the
+     * messages {@code work} reports after the title in the status bar.
+     */
+    <T> Task<T> submitWithProgress(String key, String title, ProgressWork<T> work,
+                                   Consumer<? super T> onSuccess, Consumer<Exception> onError) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                // updateMessage coalesces the calls onto the FX thread
+                return work.call(this::updateMessage);
+            }
+        };
+        task.messageProperty().addListener((obs, old, message) -> {
+            if (inFlight.contains(task) && message != null && !message.isEmpty()) status.set(title + ": " + message);
+        });
+        task.setOnSucceeded(e -> {
+            if (finished(key, task)) onSuccess.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            if (!finished(key, task)) return;
+            Throwable t = task.getException();
+            onError.accept(t instanceof Exception ? (Exception) t : new RuntimeException(t));
+        });
+        task.setOnCancelled(e -> finished(key, task));
+
+        if (key != null) {
+            Task<?> previous = running.put(key, task);
+            if (previous != null) previous.cancel(true);
+        }
+        inFlight.add(task);
+        active.set(inFlight.size());
+        status.set(title);
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Runs {@code work} in the background; it is never superseded.
+     */
+    <T> Task<T> submit(String title, Callable<T> work, Consumer<? super T> onSuccess, Consumer<Exception> onError) {
+        return submit(null, title, work, onSuccess, onError);
+    }
+
+    /**
+     * Cancels the task running under {@code key}, if any; its callbacks will not run.
+     */
+    void cancel(String key) {
+        Task<?> task = running.get(key);
+        if (task != null) task.cancel(true);
+    }
+
+    /**
+     * Cancels everything and stops the worker threads, e.g. when the window closes.
+     */
+    void shutdown() {
+        for (Task<?> task : new ArrayList<>(inFlight)) task.cancel(true);
+        executor.shutdownNow();
+    }
+
+    ReadOnlyIntegerProperty activeProperty() { return active.getReadOnlyProperty(); }
+
+    ReadOnlyStringProperty statusProperty() { return status.getReadOnlyProperty(); }
+
+    /**
+     * @return false when the task was already settled (e.g. cancelled before its result arrived)
+     */
+    private boolean finished(String key, Task<?> task) {
+        if (key != null && running.get(key) == task) running.remove(key);
+        if (!inFlight.remove(task)) return false;
+        active.set(inFlight.size());
+        if (inFlight.isEmpty()) status.set("");
+        return true;
+    }
+}
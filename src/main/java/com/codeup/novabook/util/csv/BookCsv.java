@@ -20,17 +20,34 @@ public final class BookCsv {
             while ((row = csv.readNext()) != null) {
                 if (!headerSkipped) { headerSkipped = true; continue; }
                 if (row.length < 4) continue;
-                String isbn = row[0];
-                String title = row[1];
-                String author = row[2];
-                Integer stock = Integer.parseInt(row[3]);
-                out.add(new Book(isbn, title, author, stock));
+                out.add(parse(row));
             }
             return out;
         }
     }
 
-    public static void write(List<Book> books, Writer writer) throws Exception {
+    /**
+     * Converts one data row (isbn,title,author,stock) into a book.
+     *
+     * @throws IllegalArgumentException if the row is short or the stock is not a number
+     */
+    public static Book parse(String[] row) {
+        if (row.length < 4) {
+            throw new IllegalArgumentException("Expected 4 columns (isbn,title,author,stock) but found " + row.length);
+        }
+        Integer stock;
+        try {
+            stock = Integer.parseInt(row[3].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Stock is not a whole number: " + row[3]);
+        }
+        return new Book(row[0], row[1], row[2], stock);
+    }
+
+    /**
+     * @return the number of rows written, without the header
+     */
+    public static long write(Iterable<Book> books, Writer writer) throws Exception {
         // Configure CSVWriter to avoid quoting simple values so that output matches tests
         try (CSVWriter csv = new CSVWriter(
                 writer,
@@ -39,6 +56,7 @@ public final class BookCsv {
                 CSVWriter.DEFAULT_ESCAPE_CHARACTER,
                 CSVWriter.DEFAULT_LINE_END)) {
             csv.writeNext(new String[]{"isbn","title","author","stock"});
+            long rows = 0;
             for (Book b : books) {
                 csv.writeNext(new String[]{
                         b.getIsbn(),
@@ -46,8 +64,10 @@ public final class BookCsv {
                         b.getAuthor(),
                         String.valueOf(b.getStock())
                 });
+                rows++;
             }
             csv.flush();
+            return rows;
         }
     }
 }
@@ -32,9 +32,13 @@ public final class LoanCsv {
         }
     }
 
-    public static void write(List<Loan> loans, Writer writer) throws Exception {
+    /**
+     * @return the number of rows written, without the header
+     */
+    public static long write(Iterable<Loan> loans, Writer writer) throws Exception {
         try (CSVWriter csv = new CSVWriter(writer)) {
             csv.writeNext(new String[]{"memberId","bookId","dateLoaned","dateDue","returned"});
+            long rows = 0;
             for (Loan l : loans) {
                 csv.writeNext(new String[]{
                         String.valueOf(l.getMemberId()),
@@ -43,8 +47,10 @@ public final class LoanCsv {
                         l.getDateDue() == null ? "" : l.getDateDue().toString(),
                         String.valueOf(l.getReturned())
                 });
+                rows++;
             }
             csv.flush();
+            return rows;
         }
     }
 }
@@ -32,17 +32,23 @@ public final class MemberCsv {
         }
     }
 
-    public static void write(List<Member> members, Writer writer) throws Exception {
+    /**
+     * @return the number of rows written, without the header
+     */
+    public static long write(Iterable<Member> members, Writer writer) throws Exception {
         try (CSVWriter csv = new CSVWriter(writer)) {
             csv.writeNext(new String[]{"name","role","accessLevel"});
+            long rows = 0;
             for (Member m : members) {
                 csv.writeNext(new String[]{
                         m.getName(),
                         m.getRole().name(),
                         m.getAccessLevel().name()
                 });
+                rows++;
             }
             csv.flush();
+            return rows;
         }
     }
 }
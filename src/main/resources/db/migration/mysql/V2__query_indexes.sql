@@ -0,0 +1,7 @@
+-- A member's or a book's loans, open ones first filtered by returned, newest first.
+-- These also serve the foreign keys, which otherwise get single-column indexes.
+CREATE INDEX idx_loan_member_returned ON loan (member_id, returned, date_loaned);
+CREATE INDEX idx_loan_book_returned ON loan (book_id, returned, date_loaned);
+
+-- Active members by name
+CREATE INDEX idx_member_deleted_name ON member (deleted, name);
@@ -0,0 +1,4 @@
+-- A loan with returned NULL matched neither "returned = FALSE" nor "returned = TRUE":
+-- it was never listed as open and returning it did not restock the book.
+UPDATE loan SET returned = FALSE WHERE returned IS NULL;
+ALTER TABLE loan MODIFY returned BOOLEAN NOT NULL DEFAULT FALSE;
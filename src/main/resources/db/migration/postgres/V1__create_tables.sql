@@ -0,0 +1,61 @@
+-- Baseline: the same tables and indexes as the MySQL script.
+-- PostgreSQL has no ON UPDATE, so updated_at keeps the time the row was inserted.
+
+CREATE TABLE IF NOT EXISTS "user" (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(120) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    phone VARCHAR(30) NOT NULL,
+    role VARCHAR(10) NOT NULL DEFAULT 'USER' CHECK (role IN ('USER','ADMIN')),
+    access_level VARCHAR(10) NOT NULL DEFAULT 'READ_WRITE' CHECK (access_level IN ('READ_ONLY','READ_WRITE','MANAGE')),
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS book (
+    id SERIAL PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL UNIQUE,
+    title VARCHAR(100) NOT NULL,
+    author VARCHAR(100) NOT NULL,
+    stock INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS member (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    role VARCHAR(10) NOT NULL DEFAULT 'REGULAR' CHECK (role IN ('REGULAR','PREMIUM')),
+    access_level VARCHAR(10) NOT NULL DEFAULT 'READ_WRITE' CHECK (access_level IN ('READ_ONLY','READ_WRITE','MANAGE')),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS loan (
+    id SERIAL PRIMARY KEY,
+    member_id INT,
+    book_id INT,
+    date_loaned DATE,
+    date_due DATE,
+    returned BOOLEAN,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (member_id) REFERENCES member(id),
+    FOREIGN KEY (book_id) REFERENCES book(id)
+);
+
+-- Keyset pagination seeks on the sortable list columns plus id
+CREATE INDEX IF NOT EXISTS idx_book_title_id ON book (title, id);
+CREATE INDEX IF NOT EXISTS idx_book_author_id ON book (author, id);
+CREATE INDEX IF NOT EXISTS idx_book_stock_id ON book (stock, id);
+CREATE INDEX IF NOT EXISTS idx_member_name_id ON member (name, id);
+CREATE INDEX IF NOT EXISTS idx_loan_date_loaned_id ON loan (date_loaned, id);
+CREATE INDEX IF NOT EXISTS idx_loan_date_due_id ON loan (date_due, id);
+
+-- Overdue report: open loans by due date
+CREATE INDEX IF NOT EXISTS idx_loan_returned_date_due ON loan (returned, date_due);
@@ -0,0 +1,195 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.api.ApiServer;
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.domain.Loan;
+import com.codeup.novabook.exception.ConflictException;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.NotFoundException;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.SqlDialect;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ILoanService;
+import com.codeup.novabook.service.IMemberService;
+import com.codeup.novabook.service.IUserService;
+import com.codeup.novabook.service.LoanChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ApiServerTest {
+
+    private IBookService books;
+    private ILoanService loans;
+    private ApiServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        books = mock(IBookService.class);
+        loans = mock(ILoanService.class);
+        server = new ApiServer(new InetSocketAddress("127.0.0.1", 0), 2, "secret",
+                books, mock(IMemberService.class), loans, mock(IUserService.class));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.address().getPort() + path))
+                .header("Authorization", "Bearer secret");
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Book book(int id, String title, int stock) {
+        Book b = new Book("isbn-" + id, title, "Author", stock);
+        b.setId(id);
+        return b;
+    }
+
+    @Test
+    void rejectsRequestsWithoutToken() throws Exception {
+        HttpResponse<String> res = client.send(HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.address().getPort() + "/books/1")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(401, res.statusCode());
+        verifyNoInteractions(books);
+    }
+
+    @Test
+    void getByIdSendsEtagAndAnswers304WhenUnchanged() throws Exception {
+        when(books.findById(7)).thenReturn(Optional.of(book(7, "Dune \"1965\"", 3)));
+
+        HttpResponse<String> first = send(request("/books/7"));
+        assertEquals(200, first.statusCode());
+        assertTrue(first.body().contains("\"title\":\"Dune \\\"1965\\\"\""), first.body());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> again = send(request("/books/7").header("If-None-Match", etag));
+        assertEquals(304, again.statusCode());
+        assertEquals("", again.body());
+    }
+
+    @Test
+    void putWithStaleEtagIsRejected() throws Exception {
+        when(books.findById(7)).thenReturn(Optional.of(book(7, "Dune", 3)));
+
+        HttpResponse<String> res = send(request("/books/7").header("If-Match", "\"stale\"")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"stock\": 5}")));
+
+        assertEquals(412, res.statusCode());
+        verify(books, never()).update(any());
+    }
+
+    @Test
+    void listWithoutLimitStreamsEveryPage() throws Exception {
+        when(books.findPage(any(PageRequest.class))).thenAnswer(inv -> {
+            PageRequest r = inv.getArgument(0);
+            return r.getPageToken() == null
+                    ? new Page<>(List.of(book(1, "A", 1)), "next")
+                    : new Page<>(List.of(book(2, "B", 0)), null);
+        });
+
+        HttpResponse<String> res = send(request("/books"));
+
+        assertEquals(200, res.statusCode());
+        assertTrue(res.body().startsWith("[{\"id\":1,"), res.body());
+        assertTrue(res.body().contains("},{\"id\":2,"), res.body());
+        assertTrue(res.body().endsWith("}]"), res.body());
+    }
+
+    @Test
+    void borrowReturnsLoanAndBookWithNewStock() throws Exception {
+        Loan loan = new Loan(1, 7, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 8));
+        loan.setId(40);
+        when(loans.checkOut(1, 7, LocalDate.of(2024, 5, 8))).thenReturn(new LoanChange(loan, book(7, "Dune", 2)));
+
+        HttpResponse<String> res = send(request("/loans").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"memberId\": 1, \"bookId\": 7, \"dateDue\": \"2024-05-08\"}")));
+
+        assertEquals(201, res.statusCode());
+        assertEquals("/loans/40", res.headers().firstValue("Location").orElseThrow());
+        assertTrue(res.body().contains("\"dateDue\":\"2024-05-08\""), res.body());
+        assertTrue(res.body().contains("\"book\":{\"id\":7,") && res.body().contains("\"stock\":2"), res.body());
+    }
+
+    @Test
+    void mapsErrorsToStatusCodes() throws Exception {
+        when(loans.checkOut(anyInt(), anyInt(), any())).thenThrow(new ConflictException("Book not available in stock"));
+
+        assertEquals(400, send(request("/loans").POST(HttpRequest.BodyPublishers.ofString("{\"memberId\": 1,"))).statusCode());
+        assertEquals(400, send(request("/loans").POST(HttpRequest.BodyPublishers.ofString("{\"memberId\": 1}"))).statusCode());
+        assertEquals(404, send(request("/books/abc")).statusCode());
+
+        HttpResponse<String> conflict = send(request("/loans").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"memberId\": 1, \"bookId\": 7, \"dateDue\": \"2024-05-08\"}")));
+        assertEquals(409, conflict.statusCode());
+        assertTrue(conflict.body().contains("Book not available in stock"), conflict.body());
+
+        when(loans.checkIn(41)).thenThrow(new NotFoundException("Loan not found: 41"));
+        assertEquals(404, send(request("/loans/41/return").POST(HttpRequest.BodyPublishers.noBody())).statusCode());
+
+        // a book that still has loans; a cause-less DatabaseException is no longer taken for a conflict
+        when(books.delete(7)).thenThrow(new DatabaseException("Error deleting book",
+                new DatabaseException("Update failed", new SQLException("Cannot delete a parent row", "23000", 1451))));
+        assertEquals(409, send(request("/books/7").DELETE()).statusCode());
+        when(books.delete(8)).thenThrow(new DatabaseException("Timed out waiting for an idle database connection"));
+        assertEquals(500, send(request("/books/8").DELETE()).statusCode());
+    }
+
+    @Test
+    void putLocksTheRowForTheCheckAndTheWrite() throws Exception {
+        JdbcTemplateLight jdbc = mock(JdbcTemplateLight.class);
+        Connection c = mock(Connection.class);
+        PreparedStatement lock = mock(PreparedStatement.class);
+        when(jdbc.dialect()).thenReturn(SqlDialect.MYSQL);
+        when(c.prepareStatement(anyString())).thenReturn(lock);
+        when(jdbc.txExecute(any())).thenAnswer(inv -> inv.<JdbcTemplateLight.SqlTxCallback<?>>getArgument(0).doInTx(c));
+        ApiServer locking = new ApiServer(new InetSocketAddress("127.0.0.1", 0), 2, null,
+                books, mock(IMemberService.class), loans, mock(IUserService.class), jdbc);
+        locking.start();
+        try {
+            when(books.findById(7)).thenReturn(Optional.of(book(7, "Dune", 3)));
+            when(books.update(any())).thenAnswer(inv -> inv.getArgument(0));
+
+            HttpResponse<String> res = client.send(HttpRequest.newBuilder(URI.create(
+                    "http://127.0.0.1:" + locking.address().getPort() + "/books/7"))
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"stock\": 5}")).build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, res.statusCode());
+            InOrder order = inOrder(lock, books);
+            order.verify(lock).executeQuery();
+            order.verify(books).findById(7);
+            order.verify(books).update(any());
+            verify(c).prepareStatement("SELECT id FROM `book` WHERE id = ? FOR UPDATE");
+        } finally {
+            locking.stop(0);
+        }
+    }
+}
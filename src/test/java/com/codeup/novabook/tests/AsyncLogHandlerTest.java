@@ -0,0 +1,136 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.infra.logging.AsyncLogHandler;
+import com.codeup.novabook.infra.logging.LogLineFormatter;
+import com.codeup.novabook.infra.logging.RollingFileHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncLogHandlerTest {
+
+    /** Formats on whichever thread publishes, like the real file and console handlers. */
+    private static final class Capture extends Handler {
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+        int flushes;
+
+        Capture(CountDownLatch release) {
+            this.release = release;
+            setFormatter(new LogLineFormatter());
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            threads.add(Thread.currentThread().getName());
+            lines.add(getFormatter().format(record));
+        }
+
+        @Override public synchronized void flush() { flushes++; }
+        @Override public void close() { }
+    }
+
+    private static LogRecord record(Level level, String logger, String message, Object... params) {
+        LogRecord r = new LogRecord(level, message);
+        r.setLoggerName(logger);
+        r.setParameters(params);
+        return r;
+    }
+
+    @Test
+    void recordsAreFormattedAndFlushedInBatchesOnTheWriterThread() {
+        Capture target = new Capture(new CountDownLatch(0));
+        AsyncLogHandler async = new AsyncLogHandler(List.of(target), 1000, AsyncLogHandler.OverflowPolicy.BLOCK, 0);
+        for (int i = 0; i < 100; i++) {
+            async.publish(record(Level.INFO, "repo", "Book saved: {0}", i));
+        }
+        async.close();
+
+        assertEquals(100, target.lines.size());
+        assertTrue(target.lines.get(7).contains("INFO    repo: Book saved: 7"), target.lines.get(7));
+        assertTrue(target.threads.stream().allMatch("novabook-log-writer"::equals));
+        assertTrue(target.flushes < 100, "flushed " + target.flushes + " times");
+    }
+
+    @Test
+    void fullBufferDropsAndReportsTheLoss() {
+        CountDownLatch release = new CountDownLatch(1);
+        Capture target = new Capture(release);
+        AsyncLogHandler async = new AsyncLogHandler(List.of(target), 10, AsyncLogHandler.OverflowPolicy.DROP, 0);
+        // The writer is stuck inside the batch it drained (at most 10 records),
+        // so at most 10 more fit in the buffer
+        for (int i = 0; i < 50; i++) {
+            async.publish(record(Level.INFO, "repo", "row {0}", i));
+        }
+        assertTrue(async.getDroppedCount() >= 30, "dropped " + async.getDroppedCount());
+        release.countDown();
+        async.close();
+
+        assertTrue(target.lines.size() <= 21);
+        assertTrue(target.lines.stream().anyMatch(l -> l.contains("Log buffer full: dropped")), String.join("", target.lines));
+    }
+
+    @Test
+    void rateLimitAppliesPerLoggerBelowWarning() {
+        Capture target = new Capture(new CountDownLatch(0));
+        AsyncLogHandler async = new AsyncLogHandler(List.of(target), 1000, AsyncLogHandler.OverflowPolicy.BLOCK, 5);
+        for (int i = 0; i < 20; i++) {
+            async.publish(record(Level.INFO, "chatty", "tick {0}", i));
+            async.publish(record(Level.WARNING, "chatty", "problem {0}", i));
+        }
+        async.publish(record(Level.INFO, "quiet", "hello"));
+        async.close();
+
+        long ticks = target.lines.stream().filter(l -> l.contains("tick")).count();
+        assertTrue(ticks >= 5 && ticks < 20, "ticks " + ticks);
+        assertEquals(20, target.lines.stream().filter(l -> l.contains("problem")).count());
+        assertTrue(target.lines.stream().anyMatch(l -> l.contains("quiet: hello")));
+        assertTrue(target.lines.stream().anyMatch(l -> l.contains("Rate limit: suppressed") && l.contains("from chatty")));
+    }
+
+    @Test
+    void fileRollsOverBySizeAndByDay(@TempDir Path dir) throws Exception {
+        Path log = dir.resolve("app.log");
+        Instant monday = Instant.parse("2024-05-06T10:00:00Z");
+        RollingFileHandler bySize = new RollingFileHandler(log, 300, 2, false, Clock.fixed(monday, ZoneOffset.UTC));
+        for (int i = 0; i < 20; i++) {
+            bySize.publish(record(Level.INFO, "repo", "line {0} padded to take some room", i));
+        }
+        bySize.close();
+
+        assertTrue(Files.exists(dir.resolve("app.log.1")));
+        assertTrue(Files.exists(dir.resolve("app.log.2")));
+        assertFalse(Files.exists(dir.resolve("app.log.3")));
+        assertTrue(Files.size(log) <= 300);
+        assertTrue(Files.readString(log).contains("line 19"));
+
+        RollingFileHandler daily = new RollingFileHandler(log, 0, 2, true,
+                Clock.fixed(monday.plus(Duration.ofDays(1)), ZoneOffset.UTC));
+        daily.publish(record(Level.INFO, "repo", "next day"));
+        daily.close();
+
+        assertEquals(1, Files.readAllLines(log).size());
+        assertTrue(Files.readString(dir.resolve("app.log.1")).contains("line 19"));
+    }
+}
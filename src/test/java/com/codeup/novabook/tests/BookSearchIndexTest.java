@@ -0,0 +1,105 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.service.BookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    private static Book book(int id, String title, String author) {
+        Book b = new Book("isbn-" + id, title, author, 1);
+        b.setId(id);
+        return b;
+    }
+
+    private List<Integer> ids(String query) {
+        return index.search(query, 10).stream().map(Book::getId).collect(Collectors.toList());
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.rebuild(List.of(
+                book(1, "Harry Potter and the Philosopher's Stone", "J. K. Rowling"),
+                book(2, "Cien años de soledad", "Gabriel García Márquez"),
+                book(3, "The Hobbit", "J. R. R. Tolkien"),
+                book(4, "Tolkien: A Biography", "Humphrey Carpenter")));
+    }
+
+    @Test
+    void matchesPrefixesAccentsAndTypos() {
+        assertEquals(List.of(1), ids("harr"));
+        assertEquals(List.of(2), ids("garcia marquez"));
+        assertEquals(List.of(1), ids("hary poter"));
+        assertTrue(ids("zzzz").isEmpty());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveAuthorMatches() {
+        assertEquals(List.of(4, 3), ids("tolkien"));
+    }
+
+    @Test
+    void putAndRemoveKeepIndexInSync() {
+        index.put(book(3, "The Lord of the Rings", "J. R. R. Tolkien"));
+        assertTrue(ids("hobbit").isEmpty());
+        assertEquals(List.of(3), ids("lord rings"));
+
+        index.remove(3);
+        assertEquals(List.of(4), ids("tolkien"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void stockIsAdjustedInPlace() {
+        index.adjustStock(3, -1);
+        index.adjustStock(99, 1);
+
+        assertEquals(0, index.get(3).getStock());
+        assertEquals(0, index.search("hobbit", 10).get(0).getStock());
+        assertNull(index.get(99));
+    }
+
+    @Test
+    void resultsAreCopies() {
+        index.search("hobbit", 1).get(0).setTitle("changed");
+        assertEquals("The Hobbit", index.get(3).getTitle());
+    }
+
+    @Test
+    void writesDuringRebuildAreKeptAfterTheSwap() {
+        Iterable<Book> slowLoad = () -> {
+            // A book is saved and another deleted while the rebuild reads the table
+            index.put(book(5, "Dune", "Frank Herbert"));
+            index.remove(1);
+            return List.of(book(1, "Harry Potter and the Philosopher's Stone", "J. K. Rowling"),
+                    book(3, "The Hobbit", "J. R. R. Tolkien")).iterator();
+        };
+        index.rebuild(slowLoad);
+
+        assertEquals(List.of(5), ids("dune"));
+        assertTrue(ids("harry").isEmpty());
+        assertEquals(List.of(3), ids("hobbit"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void commonGramsDoNotHideRareMatches() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 10; i < 1010; i++) books.add(book(i, "The Story " + i, "Anonymous"));
+        books.add(book(5, "The Silmarillion", "J. R. R. Tolkien"));
+        index.rebuild(books);
+
+        assertEquals(List.of(5), ids("the silmarilion"));
+        assertEquals(10, index.search("the story", 10).size());
+    }
+}
@@ -2,6 +2,7 @@ package com.codeup.novabook.tests;
 
 import com.codeup.novabook.domain.Book;
 import com.codeup.novabook.repository.IBookRepository;
+import com.codeup.novabook.service.ImportReport;
 import com.codeup.novabook.service.impl.BookServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -9,6 +10,7 @@ import org.mockito.ArgumentCaptor;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,7 +24,7 @@ public class BookServiceImplTest {
         IBookRepository repo = mock(IBookRepository.class);
         when(repo.findByIsbn(anyString())).thenReturn(Optional.empty());
         when(repo.findAll()).thenReturn(new ArrayList<>());
-        when(repo.save(any(Book.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(repo.saveAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
 
         BookServiceImpl svc = new BookServiceImpl(repo);
 
@@ -32,15 +34,20 @@ public class BookServiceImplTest {
         int imported = svc.importFromCsv(new StringReader(csv));
         assertEquals(2, imported);
 
-        // capture saves
-        ArgumentCaptor<Book> saved = ArgumentCaptor.forClass(Book.class);
-        verify(repo, times(2)).save(saved.capture());
-        List<Book> list = saved.getAllValues();
+        // capture the single batched insert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Book>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repo, times(1)).saveAll(saved.capture());
+        verify(repo, never()).save(any(Book.class));
+        verify(repo, never()).updateAll(anyList());
+        List<Book> list = saved.getValue();
+        assertEquals(2, list.size());
         assertEquals("111", list.get(0).getIsbn());
         assertEquals("222", list.get(1).getIsbn());
 
         // export
         when(repo.findAll()).thenReturn(list);
+        when(repo.streamAll()).thenAnswer(inv -> list.stream());
         StringWriter out = new StringWriter();
         svc.exportToCsv(out);
         String result = out.toString();
@@ -48,4 +55,35 @@ public class BookServiceImplTest {
         assertTrue(result.contains("111"));
         assertTrue(result.contains("222"));
     }
+
+    @Test
+    void importStreamsChunksUpsertsAndReportsBadRows() throws Exception {
+        IBookRepository repo = mock(IBookRepository.class);
+        Book known = new Book("isbn-0", "Old", "Someone", 1);
+        known.setId(7);
+        when(repo.findByIsbns(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<String>>getArgument(0).contains("isbn-0") ? List.of(known) : List.of());
+
+        StringBuilder csv = new StringBuilder("isbn,title,author,stock\n");
+        for (int i = 0; i < 4500; i++) csv.append("isbn-").append(i).append(",Title ").append(i).append(",Author,3\n");
+        csv.append("bad,No stock,Author,many\n");
+        csv.append(",No isbn,Author,1\n");
+        List<ImportReport> progress = new ArrayList<>();
+
+        ImportReport report = new BookServiceImpl(repo).importFromCsv(new StringReader(csv.toString()), progress::add);
+
+        assertEquals(4502, report.getRowsRead());
+        assertEquals(4500, report.getImported());
+        assertEquals(4499, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(2, report.getRejected());
+        assertEquals(4502, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(1).getMessage().contains("ISBN"));
+        assertEquals(3, progress.size(), "one snapshot per chunk");
+        // one bulk ISBN lookup per chunk instead of one query per row
+        verify(repo, times(3)).findByIsbns(anyCollection());
+        verify(repo, never()).findByIsbn(anyString());
+        verify(repo).updateAll(List.of(known));
+        assertEquals("Title 0", known.getTitle());
+    }
 }
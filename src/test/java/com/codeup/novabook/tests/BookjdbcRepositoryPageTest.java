@@ -0,0 +1,84 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.RowMapper;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
+import com.codeup.novabook.repository.impl.BookjdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BookjdbcRepositoryPageTest {
+
+    private JdbcTemplateLight jdbc;
+    private BookjdbcRepository repo;
+    private final List<Book> rows = new ArrayList<>();
+
+    private static Book book(int id, String title, int stock) {
+        Book b = new Book("isbn-" + id, title, "Author", stock);
+        b.setId(id);
+        return b;
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplateLight.class);
+        when(jdbc.query(anyString(), any(), any())).thenAnswer(inv -> new ArrayList<>(rows));
+        repo = new BookjdbcRepository(jdbc);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String lastSql(PreparedStatement ps) throws Exception {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Consumer<PreparedStatement>> binder = ArgumentCaptor.forClass(Consumer.class);
+        verify(jdbc, atLeastOnce()).query(sql.capture(), binder.capture(), any(RowMapper.class));
+        binder.getValue().accept(ps);
+        return sql.getValue();
+    }
+
+    @Test
+    void followingPageSeeksPastLastRowOfPrevious() throws Exception {
+        rows.addAll(List.of(book(4, "A", 1), book(2, "B", 1), book(9, "B", 1)));
+        Page<Book> first = repo.findPage(PageRequest.after(null, null, 2));
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.hasNext());
+
+        rows.clear();
+        repo.findPage(PageRequest.after(null, first.getNextToken(), 2));
+        PreparedStatement ps = mock(PreparedStatement.class);
+        assertEquals("SELECT * FROM book WHERE title > ? OR (title = ? AND id > ?) ORDER BY title ASC, id ASC LIMIT ?", lastSql(ps));
+        verify(ps, times(2)).setString(anyInt(), eq("B"));
+        verify(ps).setInt(3, 2);
+        verify(ps).setInt(4, 3);
+    }
+
+    @Test
+    void sortsOnServerAndJumpsByOffset() throws Exception {
+        repo.findPage(PageRequest.at(Sort.byDescending("stock"), 300, 100));
+        PreparedStatement ps = mock(PreparedStatement.class);
+        assertEquals("SELECT * FROM book ORDER BY stock DESC, id DESC LIMIT ? OFFSET ?", lastSql(ps));
+        verify(ps).setInt(1, 101);
+        verify(ps).setLong(2, 300L);
+    }
+
+    @Test
+    void rejectsUnknownSortAndTokensFromAnotherOrder() {
+        rows.addAll(List.of(book(1, "A", 1), book(2, "B", 1)));
+        String byTitle = repo.findPage(PageRequest.after(null, null, 1)).getNextToken();
+
+        assertThrows(IllegalArgumentException.class, () -> repo.findPage(PageRequest.after(Sort.by("password"), null, 10)));
+        assertThrows(IllegalArgumentException.class, () -> repo.findPage(PageRequest.after(Sort.by("stock"), byTitle, 10)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.repository.BulkLoadResult;
+import com.codeup.novabook.repository.IBulkRepository;
+import com.codeup.novabook.service.BulkTransferService;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ILoanService;
+import com.codeup.novabook.service.ImportReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BulkTransferServiceTest {
+
+    private IBulkRepository repo;
+    private IBookService books;
+    private ILoanService loans;
+    private final AtomicInteger refreshed = new AtomicInteger();
+    private BulkTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(IBulkRepository.class);
+        books = mock(IBookService.class);
+        loans = mock(ILoanService.class);
+        service = new BulkTransferService(repo, books, loans, refreshed::incrementAndGet);
+    }
+
+    private static InputStream csv(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void nativeLoadMergesInDatabaseAndRefreshesBookService() throws Exception {
+        when(repo.canLoad()).thenReturn(true);
+        when(repo.loadBooks(any())).thenReturn(new BulkLoadResult(10, 2, 5, 3));
+
+        ImportReport report = service.loadBooks(csv("isbn,title,author,stock\n"));
+
+        assertEquals(10, report.getRowsRead());
+        assertEquals(8, report.getImported());
+        assertEquals(5, report.getInserted());
+        assertEquals(3, report.getUpdated());
+        assertEquals(1, refreshed.get());
+        verifyNoInteractions(books);
+    }
+
+    @Test
+    void withoutNativePathFallsBackToBatchedImportAndStreamedExport() throws Exception {
+        when(books.importFromCsv(any(Reader.class), any())).thenReturn(new ImportReport(1, 1, 0, 0, List.of(), 1));
+        when(loans.importFromCsv(any(Reader.class))).thenReturn(4);
+
+        assertEquals(1, service.loadBooks(csv("isbn,title,author,stock\n111,A,B,1\n")).getImported());
+        assertEquals(4, service.loadLoans(csv("memberId,bookId,dateLoaned,dateDue\n")).getInserted());
+        service.unloadBooks(new StringWriter());
+
+        verify(books).exportToCsv(any());
+        verify(repo, never()).loadBooks(any());
+        verify(repo, never()).unloadBooks(any());
+        assertEquals(0, refreshed.get(), "the book service refreshes itself on imports");
+    }
+}
@@ -0,0 +1,121 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.infra.cache.CacheStats;
+import com.codeup.novabook.infra.cache.TtlLruCache;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.impl.CachingBookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingBookServiceTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private IBookService delegate;
+    private CachingBookService svc;
+
+    private static Book book(int id) {
+        Book b = new Book("isbn-" + id, "Title " + id, "Author", 3);
+        b.setId(id);
+        return b;
+    }
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(IBookService.class);
+        for (int id = 1; id <= 3; id++) {
+            when(delegate.findById(id)).thenReturn(Optional.of(book(id)));
+        }
+        svc = new CachingBookService(delegate,
+                new TtlLruCache<>(2, 60, TimeUnit.SECONDS, now::get),
+                new TtlLruCache<>(2, 60, TimeUnit.SECONDS, now::get));
+    }
+
+    @Test
+    void servesRepeatedReadsFromCacheAsCopies() {
+        svc.findById(1).get().setTitle("changed");
+        assertEquals("Title 1", svc.findById(1).get().getTitle());
+        assertEquals("isbn-1", svc.findByIsbn("isbn-1").get().getIsbn());
+
+        verify(delegate, times(1)).findById(1);
+        verify(delegate, never()).findByIsbn(any());
+        // the ISBN lookup is answered by the book cached by ID
+        CacheStats stats = svc.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, svc.isbnStats().getHits());
+    }
+
+    @Test
+    void writesInvalidateBothKeys() {
+        svc.findById(1);
+        svc.updateStock(1, 0);
+        when(delegate.findByIsbn("isbn-1")).thenReturn(Optional.of(book(1)));
+        svc.findByIsbn("isbn-1");
+        svc.findById(1);
+
+        verify(delegate, times(1)).findByIsbn("isbn-1");
+        verify(delegate, times(1)).findById(1); // reloaded by the ISBN miss
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredEntries() {
+        svc.findById(1);
+        svc.findById(2);
+        svc.findById(1);
+        svc.findById(3); // full: drops 2, the least recently read
+        svc.findById(2);
+        assertEquals(2, svc.stats().getEvictions());
+        verify(delegate, times(2)).findById(2);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        svc.findById(3);
+        assertEquals(1, svc.stats().getExpirations());
+        verify(delegate, times(2)).findById(3);
+    }
+
+    @Test
+    void aWriteDuringTheLoadIsNotUndoneByTheLatePut() {
+        when(delegate.findById(1)).thenAnswer(inv -> {
+            Book stale = book(1);
+            svc.updateStock(1, 0); // committed and evicted while the row was in flight
+            return Optional.of(stale);
+        }).thenReturn(Optional.of(book(1)));
+        when(delegate.findByIsbn("isbn-1")).thenReturn(Optional.of(book(1)));
+        svc.findById(1);
+
+        svc.findById(1);
+        svc.findByIsbn("isbn-1");
+        verify(delegate, times(2)).findById(1);
+        verify(delegate, never()).findByIsbn("isbn-1"); // cached by the second load
+    }
+
+    @Test
+    void aChangedIsbnOrAnOpenTransactionGoesToTheDatabase() throws Exception {
+        svc.findById(1);
+        Book renumbered = book(1);
+        renumbered.setIsbn("isbn-9");
+        when(delegate.findById(1)).thenReturn(Optional.of(renumbered));
+        svc.evict(1);
+        svc.findById(1);
+
+        when(delegate.findByIsbn("isbn-1")).thenReturn(Optional.empty());
+        assertTrue(svc.findByIsbn("isbn-1").isEmpty());
+        verify(delegate).findByIsbn("isbn-1");
+
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        when(factory.open()).thenReturn(mock(Connection.class));
+        new JdbcTemplateLight(factory).txExecute(c -> svc.findByIsbn("isbn-9"));
+        verify(delegate).findByIsbn("isbn-9");
+    }
+}
@@ -0,0 +1,44 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.domain.Loan;
+import com.codeup.novabook.repository.ILoanRepository;
+import com.codeup.novabook.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExportServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void overdueExportStreamsFromSqlFilterAndGzips() throws Exception {
+        LocalDate asOf = LocalDate.of(2024, 6, 1);
+        ILoanRepository repo = mock(ILoanRepository.class);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repo.streamOverdue(asOf)).thenReturn(Stream.of(
+                new Loan(3, 9, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 8))).onClose(() -> closed.set(true)));
+
+        Path out = new ExportService(repo).exportOverdueLoansCsv(dir.resolve("overdue.csv.gz"), asOf);
+
+        String csv;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(out))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(csv.contains("\"3\",\"9\",\"2024-05-01\",\"2024-05-08\""), csv);
+        assertTrue(closed.get(), "cursor stream must be closed");
+        verify(repo, never()).findAll();
+    }
+}
@@ -0,0 +1,148 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.domain.AccessLevel;
+import com.codeup.novabook.domain.Loan;
+import com.codeup.novabook.domain.Member;
+import com.codeup.novabook.domain.MemberRole;
+import com.codeup.novabook.domain.User;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.SqlDialect;
+import com.codeup.novabook.repository.IBookRepository;
+import com.codeup.novabook.repository.ILoanRepository;
+import com.codeup.novabook.repository.IMemberRepository;
+import com.codeup.novabook.repository.impl.UserjdbcRepository;
+import com.codeup.novabook.service.FineCalculator;
+import com.codeup.novabook.service.impl.LoanServiceImpl;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class FlightRecorderEventsTest {
+
+    private static final String LOAN = "com.codeup.novabook.Loan";
+    private static final String AUTH = "com.codeup.novabook.Authentication";
+
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws Exception {
+        Path file = dir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void everyStatementIsRecordedWithItsRowsAndOutcome() throws Exception {
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(factory.open()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(ps.executeUpdate()).thenThrow(new SQLException("Lock wait timeout exceeded", "40001", 1205));
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+
+        List<RecordedEvent> events = record("com.codeup.novabook.SqlStatement", () -> {
+            jdbc.query("SELECT * FROM book", null, r -> "row");
+            assertThrows(DatabaseException.class, () -> jdbc.update("UPDATE book SET stock = 0", null));
+        });
+
+        assertEquals(2, events.size());
+        RecordedEvent select = events.get(0);
+        assertEquals("SQL Statement", select.getEventType().getLabel());
+        assertEquals("SELECT * FROM book", select.getString("sql"));
+        assertEquals("SELECT * FROM book".hashCode(), select.getInt("sqlId"));
+        assertEquals(3, select.getLong("rows"));
+        assertFalse(select.getBoolean("failed"));
+        assertTrue(select.getDuration("connectionWait").toNanos() <= select.getDuration().toNanos());
+        assertTrue(events.get(1).getBoolean("failed"));
+    }
+
+    @Test
+    void borrowIsRecordedWhetherItSucceedsOrNot() throws Exception {
+        ILoanRepository loanRepo = mock(ILoanRepository.class);
+        IBookRepository bookRepo = mock(IBookRepository.class);
+        IMemberRepository memberRepo = mock(IMemberRepository.class);
+        JdbcTemplateLight jdbc = mock(JdbcTemplateLight.class);
+        when(jdbc.txExecute(any())).thenAnswer(inv ->
+                inv.<JdbcTemplateLight.SqlTxCallback<?>>getArgument(0).doInTx(null));
+        Member member = new Member("Ana", MemberRole.REGULAR, AccessLevel.READ_WRITE);
+        member.setId(1);
+        when(memberRepo.findById(1)).thenReturn(Optional.of(member));
+        when(loanRepo.save(any(Loan.class))).thenAnswer(inv -> {
+            Loan loan = inv.getArgument(0);
+            loan.setId(42);
+            return loan;
+        });
+        when(bookRepo.adjustStock(10, -1)).thenReturn(true, false);
+        LoanServiceImpl svc = new LoanServiceImpl(loanRepo, bookRepo, memberRepo, jdbc, new FineCalculator(7, 1500));
+
+        List<RecordedEvent> events = record(LOAN, () -> {
+            svc.borrowBook(1, 10, LocalDate.now().plusDays(7));
+            assertThrows(DatabaseException.class, () -> svc.borrowBook(1, 10, LocalDate.now().plusDays(7)));
+        });
+
+        assertEquals(2, events.size());
+        assertEquals("borrow", events.get(0).getString("operation"));
+        assertEquals(42, events.get(0).getInt("loanId"));
+        assertEquals(10, events.get(0).getInt("bookId"));
+        assertTrue(events.get(0).getBoolean("succeeded"));
+        assertEquals(1, events.get(1).getInt("memberId"));
+        assertFalse(events.get(1).getBoolean("succeeded"));
+    }
+
+    @Test
+    void authenticationRecordsBcryptTimeButNotTheUser() throws Exception {
+        JdbcTemplateLight jdbc = mock(JdbcTemplateLight.class);
+        User user = new User();
+        user.setEmail("ana@novabook.local");
+        user.setPassword(BCrypt.hashpw("secret", BCrypt.gensalt(4)));
+        user.setActive(true);
+        user.setDeleted(false);
+        when(jdbc.queryForObject(anyString(), any(), any())).thenAnswer(inv -> Optional.of(user));
+        when(jdbc.dialect()).thenReturn(SqlDialect.MYSQL);
+        UserjdbcRepository repo = new UserjdbcRepository(jdbc);
+
+        List<RecordedEvent> events = record(AUTH, () -> {
+            assertTrue(repo.authenticate("ana@novabook.local", "secret").isPresent());
+            assertTrue(repo.authenticate("ana@novabook.local", "wrong").isEmpty());
+        });
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).getBoolean("succeeded"));
+        assertFalse(events.get(1).getBoolean("succeeded"));
+        assertTrue(events.get(1).getBoolean("userFound"));
+        assertTrue(events.get(0).getDuration("bcryptTime").toNanos() > 0);
+        assertFalse(events.get(0).getFields().stream().anyMatch(f -> f.getName().contains("mail")));
+    }
+}
@@ -0,0 +1,151 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.exception.DuplicateKeyException;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.TransactionContext;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class JdbcTemplateLightTest {
+
+    @Test
+    void callsInsideTxShareOneConnectionAndCommitOnce() throws Exception {
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(factory.open()).thenReturn(conn);
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+        when(ps.executeUpdate()).thenReturn(1);
+
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+        int rows = jdbc.txExecute(c -> {
+            assertSame(conn, TransactionContext.currentConnection());
+            return jdbc.update("UPDATE a SET x = 1", null) + jdbc.update("UPDATE b SET y = 2", null);
+        });
+
+        assertEquals(2, rows);
+        verify(factory, times(1)).open();
+        verify(conn, times(1)).commit();
+        verify(conn, never()).rollback();
+        verify(conn, times(1)).close();
+        assertFalse(TransactionContext.isActive());
+    }
+
+    @Test
+    void runtimeExceptionInsideTxRollsBack() throws Exception {
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        Connection conn = mock(Connection.class);
+        when(factory.open()).thenReturn(conn);
+        when(conn.getAutoCommit()).thenReturn(true);
+
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+        DatabaseException ex = assertThrows(DatabaseException.class, () -> jdbc.txExecute(c -> {
+            throw new DatabaseException("Book not available in stock");
+        }));
+
+        assertEquals("Book not available in stock", ex.getMessage());
+        verify(conn).rollback();
+
+        DatabaseException nested = assertThrows(DatabaseException.class, () -> jdbc.txExecute(c ->
+                jdbc.txExecute(inner -> { throw new SQLException("deadlock"); })));
+        assertEquals("Statement failed in the enclosing transaction", nested.getMessage());
+        verify(conn, times(2)).rollback();
+        verify(conn, never()).commit();
+        verify(conn, times(2)).close();
+        assertFalse(TransactionContext.isActive());
+    }
+
+    @Test
+    void afterCommitActionsWaitForTheCommitAndAreDroppedOnRollback() throws Exception {
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        Connection conn = mock(Connection.class);
+        when(factory.open()).thenReturn(conn);
+        when(conn.getAutoCommit()).thenReturn(true);
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+        List<String> ran = new ArrayList<>();
+
+        jdbc.txExecute(c -> {
+            TransactionContext.afterCommit(() -> ran.add("evict"));
+            jdbc.txExecute(nested -> {
+                TransactionContext.afterCommit(() -> ran.add("index"));
+                return null;
+            });
+            assertTrue(ran.isEmpty());
+            verify(conn, never()).commit();
+            return null;
+        });
+        assertEquals(List.of("evict", "index"), ran);
+
+        ran.clear();
+        assertThrows(IllegalStateException.class, () -> jdbc.txExecute(c -> {
+            TransactionContext.afterCommit(() -> ran.add("evict"));
+            throw new IllegalStateException("write failed");
+        }));
+        assertTrue(ran.isEmpty());
+
+        TransactionContext.afterCommit(() -> ran.add("now"));
+        assertEquals(List.of("now"), ran);
+    }
+
+    @Test
+    void streamReadsLazilyAndReleasesOnClose() throws Exception {
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(factory.open()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getInt(1)).thenReturn(1, 2, 3);
+
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory, 2);
+        try (Stream<Integer> rows = jdbc.stream("SELECT id FROM loan", null, r -> r.getInt(1))) {
+            assertEquals(List.of(1, 2), rows.limit(2).collect(Collectors.toList()));
+            verify(conn, never()).close();
+        }
+        verify(ps).setFetchSize(2);
+        verify(rs).close();
+        verify(ps).close();
+        verify(conn).close();
+    }
+
+    @Test
+    void uniqueViolationsBecomeDuplicateKeyException() throws Exception {
+        ConnectionFactory factory = mock(ConnectionFactory.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(factory.open()).thenReturn(conn);
+        when(conn.prepareStatement(anyString(), anyInt())).thenReturn(ps);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory);
+        when(ps.executeUpdate()).thenThrow(new SQLException("Duplicate entry '111' for key 'isbn'", "23000", 1062));
+        assertThrows(DuplicateKeyException.class, () -> jdbc.insert("INSERT INTO book (isbn) VALUES (?)", null));
+
+        reset(ps);
+        when(ps.executeUpdate()).thenThrow(new SQLException("duplicate key value violates unique constraint", "23505"));
+        assertThrows(DuplicateKeyException.class, () -> jdbc.update("UPDATE book SET isbn = ?", null));
+
+        reset(ps);
+        when(ps.executeUpdate()).thenThrow(new SQLException("foreign key violation", "23503"));
+        DatabaseException other = assertThrows(DatabaseException.class, () -> jdbc.update("DELETE FROM book", null));
+        assertFalse(other instanceof DuplicateKeyException);
+    }
+}
@@ -0,0 +1,125 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.domain.AccessLevel;
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.domain.Loan;
+import com.codeup.novabook.domain.Member;
+import com.codeup.novabook.domain.MemberRole;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.repository.IBookRepository;
+import com.codeup.novabook.repository.ILoanRepository;
+import com.codeup.novabook.repository.IMemberRepository;
+import com.codeup.novabook.service.FineCalculator;
+import com.codeup.novabook.service.LoanChange;
+import com.codeup.novabook.service.impl.LoanServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LoanServiceImplTest {
+
+    private ILoanRepository loanRepo;
+    private IBookRepository bookRepo;
+    private IMemberRepository memberRepo;
+    private LoanServiceImpl svc;
+
+    @BeforeEach
+    void setUp() {
+        loanRepo = mock(ILoanRepository.class);
+        bookRepo = mock(IBookRepository.class);
+        memberRepo = mock(IMemberRepository.class);
+        JdbcTemplateLight jdbc = mock(JdbcTemplateLight.class);
+        when(jdbc.txExecute(any())).thenAnswer(inv ->
+                inv.<JdbcTemplateLight.SqlTxCallback<?>>getArgument(0).doInTx(null));
+        svc = new LoanServiceImpl(loanRepo, bookRepo, memberRepo, jdbc, new FineCalculator(7, 1500));
+
+        Member member = new Member("Ana", MemberRole.REGULAR, AccessLevel.READ_WRITE);
+        member.setId(1);
+        when(memberRepo.findById(1)).thenReturn(Optional.of(member));
+        when(loanRepo.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void borrowTakesOneCopyWithConditionalUpdate() {
+        when(bookRepo.adjustStock(10, -1)).thenReturn(true);
+
+        Loan loan = svc.borrowBook(1, 10, LocalDate.now().plusDays(7));
+
+        assertEquals(10, loan.getBookId());
+        verify(bookRepo).adjustStock(10, -1);
+        verify(bookRepo, never()).updateStock(anyInt(), anyInt());
+        verify(bookRepo, never()).findById(anyInt());
+    }
+
+    @Test
+    void borrowFailsWithoutCreatingLoanWhenNoCopyLeft() {
+        when(bookRepo.adjustStock(10, -1)).thenReturn(false);
+        when(bookRepo.findById(10)).thenReturn(Optional.of(new Book("111", "A", "B", 0)));
+
+        DatabaseException ex = assertThrows(DatabaseException.class,
+                () -> svc.borrowBook(1, 10, LocalDate.now().plusDays(7)));
+
+        assertEquals("Book not available in stock", ex.getMessage());
+        verify(loanRepo, never()).save(any(Loan.class));
+    }
+
+    @Test
+    void returnGivesCopyBackOnlyOnce() {
+        // each desk reads the loan before either has marked it returned
+        when(loanRepo.findById(5)).thenAnswer(inv -> {
+            Loan loan = new Loan(1, 10, LocalDate.now().minusDays(3), LocalDate.now().plusDays(4));
+            loan.setId(5);
+            return Optional.of(loan);
+        });
+        when(loanRepo.markAsReturned(5)).thenReturn(true, false);
+        when(bookRepo.adjustStock(10, 1)).thenReturn(true);
+
+        assertTrue(svc.returnBook(5));
+        // the second desk's conditional update changes no row: another desk returned it first
+        assertTrue(svc.returnBook(5));
+
+        verify(loanRepo, times(2)).markAsReturned(5);
+        verify(bookRepo, times(1)).adjustStock(10, 1);
+    }
+
+    @Test
+    void checkOutReturnsLoanAndBookWithNewStock() {
+        Book book = new Book("111", "A", "B", 2);
+        book.setId(10);
+        when(bookRepo.adjustStock(10, -1)).thenReturn(true);
+        when(bookRepo.findById(10)).thenReturn(Optional.of(book));
+
+        LoanChange change = svc.checkOut(1, 10, LocalDate.now().plusDays(7));
+
+        assertEquals(10, change.getLoan().getBookId());
+        assertSame(book, change.getBook());
+    }
+
+    @Test
+    void checkInReturnsBookOnlyWhenStockChanged() {
+        Loan loan = new Loan(1, 10, LocalDate.now().minusDays(3), LocalDate.now().plusDays(4));
+        loan.setId(5);
+        Book book = new Book("111", "A", "B", 3);
+        book.setId(10);
+        when(loanRepo.findById(5)).thenReturn(Optional.of(loan));
+        when(loanRepo.markAsReturned(5)).thenReturn(true);
+        when(bookRepo.adjustStock(10, 1)).thenReturn(true);
+        when(bookRepo.findById(10)).thenReturn(Optional.of(book));
+
+        LoanChange first = svc.checkIn(5);
+        assertTrue(first.getLoan().getReturned());
+        assertSame(book, first.getBook());
+
+        LoanChange again = svc.checkIn(5);
+        assertTrue(again.getLoan().getReturned());
+        assertNull(again.getBook());
+        verify(bookRepo, times(1)).adjustStock(10, 1);
+    }
+}
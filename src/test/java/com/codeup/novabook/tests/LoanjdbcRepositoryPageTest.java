@@ -0,0 +1,105 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.domain.Loan;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.RowMapper;
+import com.codeup.novabook.jdbc.SqlDialect;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
+import com.codeup.novabook.repository.impl.LoanjdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LoanjdbcRepositoryPageTest {
+
+    private static final Sort BY_DUE = Sort.by("dateDue");
+
+    private JdbcTemplateLight jdbc;
+    private LoanjdbcRepository repo;
+    private final List<Loan> rows = new ArrayList<>();
+
+    private static Loan loan(int id, LocalDate due) {
+        Loan l = new Loan(1, 10, LocalDate.of(2024, 1, 1), due);
+        l.setId(id);
+        return l;
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplateLight.class);
+        when(jdbc.query(anyString(), any(), any())).thenAnswer(inv -> new ArrayList<>(rows));
+        when(jdbc.dialect()).thenReturn(SqlDialect.POSTGRES);
+        repo = new LoanjdbcRepository(jdbc);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String lastSql(PreparedStatement ps) throws Exception {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Consumer<PreparedStatement>> binder = ArgumentCaptor.forClass(Consumer.class);
+        verify(jdbc, atLeastOnce()).query(sql.capture(), binder.capture(), any(RowMapper.class));
+        binder.getValue().accept(ps);
+        return sql.getValue();
+    }
+
+    @Test
+    void nullDatesAreReachedAfterTheValuesOnPostgres() throws Exception {
+        LocalDate due = LocalDate.of(2024, 2, 1);
+        rows.addAll(List.of(loan(3, due), loan(5, due), loan(8, due)));
+        Page<Loan> first = repo.findPage(PageRequest.after(BY_DUE, null, 2));
+
+        rows.clear();
+        repo.findPage(PageRequest.after(BY_DUE, first.getNextToken(), 2));
+        PreparedStatement ps = mock(PreparedStatement.class);
+        assertEquals("SELECT * FROM loan WHERE date_due > ? OR (date_due = ? AND id > ?) OR date_due IS NULL"
+                + " ORDER BY date_due ASC, id ASC LIMIT ?", lastSql(ps));
+        verify(ps, times(2)).setDate(anyInt(), eq(Date.valueOf(due)));
+        verify(ps).setInt(3, 5);
+    }
+
+    @Test
+    void aPageEndingOnNullSeeksThroughTheRemainingNullRows() throws Exception {
+        rows.addAll(List.of(loan(4, null), loan(7, null)));
+        Page<Loan> first = repo.findPage(PageRequest.after(BY_DUE, null, 1));
+        assertNotNull(first.getNextToken());
+
+        rows.clear();
+        repo.findPage(PageRequest.after(BY_DUE, first.getNextToken(), 1));
+        PreparedStatement ps = mock(PreparedStatement.class);
+        assertEquals("SELECT * FROM loan WHERE date_due IS NULL AND id > ?"
+                + " ORDER BY date_due ASC, id ASC LIMIT ?", lastSql(ps));
+        verify(ps).setInt(1, 4);
+        verify(ps).setInt(2, 2);
+        verify(ps, never()).setDate(anyInt(), any());
+    }
+
+    @Test
+    void nullsComeFirstWhenAscendingOnMysql() throws Exception {
+        when(jdbc.dialect()).thenReturn(SqlDialect.MYSQL);
+        rows.addAll(List.of(loan(4, null), loan(7, null)));
+        String afterNull = repo.findPage(PageRequest.after(BY_DUE, null, 1)).getNextToken();
+
+        rows.clear();
+        repo.findPage(PageRequest.after(BY_DUE, afterNull, 1));
+        assertEquals("SELECT * FROM loan WHERE date_due IS NULL AND id > ? OR date_due IS NOT NULL"
+                + " ORDER BY date_due ASC, id ASC LIMIT ?", lastSql(mock(PreparedStatement.class)));
+
+        rows.addAll(List.of(loan(3, LocalDate.of(2024, 2, 1)), loan(5, LocalDate.of(2024, 2, 1))));
+        String afterValue = repo.findPage(PageRequest.after(BY_DUE, null, 1)).getNextToken();
+        repo.findPage(PageRequest.after(BY_DUE, afterValue, 1));
+        assertEquals("SELECT * FROM loan WHERE date_due > ? OR (date_due = ? AND id > ?)"
+                + " ORDER BY date_due ASC, id ASC LIMIT ?", lastSql(mock(PreparedStatement.class)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.NovabookCli;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.service.BulkTransferService;
+import com.codeup.novabook.service.ExportService;
+import com.codeup.novabook.service.IBookService;
+import com.codeup.novabook.service.ILoanService;
+import com.codeup.novabook.service.IMemberService;
+import com.codeup.novabook.service.ImportReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class NovabookCliTest {
+
+    @TempDir
+    Path dir;
+
+    private IBookService books;
+    private ILoanService loans;
+    private ExportService exports;
+    private BulkTransferService bulk;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private NovabookCli cli;
+
+    @BeforeEach
+    void setUp() {
+        books = mock(IBookService.class);
+        loans = mock(ILoanService.class);
+        exports = mock(ExportService.class);
+        bulk = mock(BulkTransferService.class);
+        cli = new NovabookCli(books, mock(IMemberService.class), loans, exports, bulk,
+                new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    @Test
+    void importsFileThroughService() throws Exception {
+        Path csv = Files.writeString(dir.resolve("books.csv"), "isbn,title,author,stock\n");
+        when(books.importFromCsv(any(Reader.class), any())).thenReturn(new ImportReport(3, 2, 1, 0, List.of(), 5));
+
+        assertEquals(NovabookCli.OK, cli.run("import", "books", csv.toString()));
+        assertTrue(out.toString().startsWith("Imported 3 books"));
+    }
+
+    @Test
+    void importWithRejectedRowsListsThemAndExitsPartial() throws Exception {
+        Path csv = Files.writeString(dir.resolve("books.csv"), "isbn,title,author,stock\n");
+        when(books.importFromCsv(any(Reader.class), any())).thenReturn(new ImportReport(3, 2, 0, 1,
+                List.of(new ImportReport.RowError(4, "Stock must be >= 0")), 5));
+
+        assertEquals(NovabookCli.PARTIAL, cli.run("import", "books", csv.toString()));
+        assertTrue(err.toString().contains("Rejected line 4: Stock must be >= 0"), err.toString());
+    }
+
+    @Test
+    void exportWritesToFile() throws Exception {
+        Path csv = dir.resolve("loans.csv");
+        doAnswer(inv -> {
+            inv.<Writer>getArgument(0).write("id,memberId\n");
+            return null;
+        }).when(loans).exportToCsv(any(Writer.class));
+
+        assertEquals(NovabookCli.OK, cli.run("export", "loans", csv.toString()));
+        assertEquals("id,memberId\n", Files.readString(csv, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void badArgumentsExitWithUsage() {
+        assertEquals(NovabookCli.USAGE, cli.run("import", "overdue", "x.csv"));
+        assertEquals(NovabookCli.USAGE, cli.run("export", "books"));
+        assertEquals(NovabookCli.USAGE, cli.run("load", "members", "m.csv"));
+        assertTrue(err.toString().contains("Usage"));
+        verifyNoInteractions(books, loans, exports, bulk);
+    }
+
+    @Test
+    void failuresExitNonZero() throws Exception {
+        when(exports.exportOverdueLoansCsv(any(Path.class))).thenThrow(new DatabaseException("Connection refused"));
+
+        assertEquals(NovabookCli.FAILED, cli.run("export", "overdue", dir.resolve("o.csv").toString()));
+        assertEquals(NovabookCli.FAILED, cli.run("import", "books", dir.resolve("missing.csv").toString()));
+        assertTrue(err.toString().contains("Connection refused"));
+    }
+
+    @Test
+    void loadGoesThroughBulkTransfer() throws Exception {
+        Path csv = Files.writeString(dir.resolve("loans.csv"), "memberId,bookId,dateLoaned,dateDue\n");
+        when(bulk.isNative()).thenReturn(true);
+        when(bulk.loadLoans(any(InputStream.class))).thenReturn(new ImportReport(5, 4, 0, 1, List.of(), 10));
+
+        assertEquals(NovabookCli.PARTIAL, cli.run("load", "loans", csv.toString()));
+        assertTrue(out.toString().startsWith("Loaded 4 loans"), out.toString());
+        assertTrue(out.toString().contains("native bulk load"), out.toString());
+        verifyNoInteractions(loans);
+    }
+}
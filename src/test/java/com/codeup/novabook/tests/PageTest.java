@@ -0,0 +1,61 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.repository.Page;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageTest {
+
+    @Test
+    void tokenRoundTripsKeysIncludingNulls() {
+        String token = Page.token("Cien años: de soledad", null, 42);
+        String[] keys = Page.keys(token, 3);
+
+        assertEquals("Cien años: de soledad", keys[0]);
+        assertNull(keys[1]);
+        assertEquals(42, Page.id(keys));
+        assertEquals(LocalDate.of(2025, 1, 31).toString(), Page.keys(Page.token(LocalDate.of(2025, 1, 31), 7), 2)[0]);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> Page.keys("not base64!", 2));
+        assertThrows(IllegalArgumentException.class, () -> Page.keys(Page.token("a", 1), 3));
+        assertThrows(IllegalArgumentException.class, () -> Page.id(Page.keys(Page.token("a", "b"), 2)));
+    }
+
+    @Test
+    void extraRowOnlySignalsNextPage() {
+        Page<Integer> page = Page.of(new ArrayList<>(List.of(1, 2, 3)), 2, n -> Page.token(n));
+        assertEquals(List.of(1, 2), page.getItems());
+        assertEquals("2", Page.keys(page.getNextToken(), 1)[0]);
+
+        assertFalse(Page.of(List.of(1, 2), 2, n -> Page.token(n)).hasNext());
+        assertEquals(Page.MAX_SIZE, Page.size(10_000));
+        assertEquals(1, Page.size(0));
+    }
+
+    @Test
+    void allWalksEveryPage() {
+        List<Integer> rows = IntStream.rangeClosed(1, 7).boxed().collect(Collectors.toList());
+        List<String> fetched = new ArrayList<>();
+        Iterable<Integer> all = Page.all(token -> {
+            fetched.add(token);
+            int from = token == null ? 0 : Integer.parseInt(Page.keys(token, 1)[0]);
+            List<Integer> slice = rows.subList(from, Math.min(from + 4, rows.size()));
+            return Page.of(new ArrayList<>(slice), 3, n -> Page.token(n));
+        });
+
+        List<Integer> out = new ArrayList<>();
+        all.forEach(out::add);
+        assertEquals(rows, out);
+        assertEquals(3, fetched.size());
+    }
+}
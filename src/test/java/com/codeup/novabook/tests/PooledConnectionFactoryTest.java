@@ -0,0 +1,112 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.PooledConnectionFactory;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.infra.config.AppConfig;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PooledConnectionFactoryTest {
+
+    private static AppConfig config(int maxSize, long borrowTimeoutMs) {
+        AppConfig config = mock(AppConfig.class);
+        when(config.getInt(anyString(), anyInt())).thenAnswer(inv -> inv.getArgument(1));
+        when(config.getLong(anyString(), anyLong())).thenAnswer(inv -> inv.getArgument(1));
+        when(config.getInt(eq("db.pool.maxSize"), anyInt())).thenReturn(maxSize);
+        when(config.getInt(eq("db.pool.minIdle"), anyInt())).thenReturn(0);
+        when(config.getLong(eq("db.pool.borrowTimeoutMs"), anyLong())).thenReturn(borrowTimeoutMs);
+        when(config.getLong(eq("db.pool.housekeepingMs"), anyLong())).thenReturn(3_600_000L);
+        return config;
+    }
+
+    private static final class FakePool extends PooledConnectionFactory {
+        final List<Connection> physical = new ArrayList<>();
+
+        FakePool(AppConfig config) { super(config); }
+
+        @Override
+        protected Connection newPhysicalConnection() {
+            try {
+                Connection c = mock(Connection.class);
+                when(c.isValid(anyInt())).thenReturn(true);
+                when(c.getAutoCommit()).thenReturn(true);
+                when(c.prepareStatement(anyString())).thenAnswer(inv -> mock(PreparedStatement.class));
+                physical.add(c);
+                return c;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Test
+    void closeReturnsConnectionForReuse() throws Exception {
+        try (FakePool pool = new FakePool(config(2, 200))) {
+            for (int i = 0; i < 5; i++) {
+                try (Connection c = pool.open()) {
+                    assertFalse(c.isClosed());
+                }
+            }
+            assertEquals(1, pool.physical.size());
+            assertEquals(5, pool.stats().getBorrowCount());
+            assertEquals(1, pool.stats().getIdle());
+            assertEquals(0, pool.stats().getActive());
+            verify(pool.physical.get(0), never()).close();
+        }
+    }
+
+    @Test
+    void borrowTimesOutWhenExhausted() throws Exception {
+        try (FakePool pool = new FakePool(config(1, 50))) {
+            Connection held = pool.open();
+            assertThrows(DatabaseException.class, pool::open);
+            assertEquals(1, pool.stats().getTimeoutCount());
+            held.close();
+            try (Connection again = pool.open()) {
+                assertNotNull(again);
+            }
+        }
+    }
+
+    @Test
+    void returnedHandleCannotBeReused() throws Exception {
+        try (FakePool pool = new FakePool(config(1, 50))) {
+            Connection c = pool.open();
+            c.close();
+            assertTrue(c.isClosed());
+            assertThrows(java.sql.SQLException.class, c::createStatement);
+        }
+    }
+
+    @Test
+    void preparedStatementsAreCachedPerConnection() throws Exception {
+        try (FakePool pool = new FakePool(config(1, 50))) {
+            String sql = "SELECT * FROM book WHERE id = ?";
+            for (int i = 0; i < 3; i++) {
+                try (Connection c = pool.open(); PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setInt(1, i);
+                }
+            }
+            Connection physical = pool.physical.get(0);
+            verify(physical, times(1)).prepareStatement(sql);
+            assertEquals(2, pool.stats().getStatementCacheHits());
+            assertEquals(1, pool.stats().getStatementCacheMisses());
+
+            // Same SQL opened twice at once: the second one is not served from the cache
+            try (Connection c = pool.open();
+                 PreparedStatement first = c.prepareStatement(sql);
+                 PreparedStatement second = c.prepareStatement(sql)) {
+                assertNotSame(first, second);
+            }
+            verify(physical, times(2)).prepareStatement(sql);
+        }
+    }
+}
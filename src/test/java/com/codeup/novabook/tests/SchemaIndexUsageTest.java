@@ -0,0 +1,262 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.domain.AccessLevel;
+import com.codeup.novabook.domain.Book;
+import com.codeup.novabook.domain.Loan;
+import com.codeup.novabook.domain.Member;
+import com.codeup.novabook.domain.MemberRole;
+import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.SchemaMigrator;
+import com.codeup.novabook.repository.Page;
+import com.codeup.novabook.repository.PageRequest;
+import com.codeup.novabook.repository.Sort;
+import com.codeup.novabook.repository.impl.BookjdbcRepository;
+import com.codeup.novabook.repository.impl.LoanjdbcRepository;
+import com.codeup.novabook.repository.impl.MemberjdbcRepository;
+import com.codeup.novabook.repository.impl.UserjdbcRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks with {@code EXPLAIN} that the repositories' filtered reads are served by an
+ * index of the migrated schema. Needs a scratch database, so it only runs when
+ * {@code novabook.it.db.url} is set, e.g.
+ * {@code mvn test -Dtest=SchemaIndexUsageTest -Dnovabook.it.db.url=jdbc:mysql://localhost:3306/nova_it
+ * -Dnovabook.it.db.user=... -Dnovabook.it.db.password=...}
+ * <p>
+ * The statements are not written out here: the repositories run against the seeded
+ * database and every SELECT they prepare is recorded with its parameters, then
+ * explained. Whole-table reads ({@code findAll}, {@code streamAll}), the
+ * {@code LIKE '%...%'} searches and the bulk-load merges, which read a session
+ * staging table on purpose, are not checked.
+ * </p>
+ * <p>
+ * An index counts as usable when PostgreSQL, with {@code enable_seqscan} off, plans
+ * no sequential scan, or when MySQL either does not plan a full scan or lists a
+ * possible key for it. MySQL has no switch to price full scans out, so the tables
+ * are seeded and analyzed first to make its plans meaningful.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "novabook.it.db.url", matches = ".+")
+public class SchemaIndexUsageTest {
+
+    private static final int SEED_ROWS = 500;
+
+    private static ConnectionFactory factory;
+    private static final Map<String, List<Call>> recorded = new LinkedHashMap<>();
+
+    /** One parameter setter call, replayed on the EXPLAIN statement. */
+    private static final class Call {
+        final Method method;
+        final Object[] args;
+
+        Call(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+    }
+
+    @BeforeAll
+    static void migrateSeedAndRecord() throws Exception {
+        AppConfig config = mock(AppConfig.class);
+        when(config.getBoolean(anyString(), anyBoolean())).thenAnswer(inv -> inv.getArgument(1));
+        when(config.get("db.url")).thenReturn(System.getProperty("novabook.it.db.url"));
+        when(config.get("db.user")).thenReturn(System.getProperty("novabook.it.db.user"));
+        when(config.get("db.password")).thenReturn(System.getProperty("novabook.it.db.password"));
+        factory = new ConnectionFactory(config);
+        new SchemaMigrator(factory).migrate();
+
+        seed(new JdbcTemplateLight(factory));
+
+        ConnectionFactory recording = spy(factory);
+        doAnswer(inv -> recording((Connection) inv.callRealMethod())).when(recording).open();
+        runRepositoryReads(new JdbcTemplateLight(recording));
+    }
+
+    private static void seed(JdbcTemplateLight jdbc) throws Exception {
+        BookjdbcRepository books = new BookjdbcRepository(jdbc, factory.getDialect());
+        MemberjdbcRepository members = new MemberjdbcRepository(jdbc, factory.getDialect());
+        LoanjdbcRepository loans = new LoanjdbcRepository(jdbc);
+        if (books.count() < SEED_ROWS) {
+            List<Book> rows = new ArrayList<>();
+            long run = System.currentTimeMillis();
+            for (int i = 0; i < SEED_ROWS; i++) rows.add(new Book("it-" + run + "-" + i, "Title " + i, "Author " + i % 50, i % 7));
+            books.saveAll(rows);
+        }
+        if (members.count() < SEED_ROWS) {
+            List<Member> rows = new ArrayList<>();
+            for (int i = 0; i < SEED_ROWS; i++) rows.add(new Member("Member " + i, MemberRole.REGULAR, AccessLevel.READ_WRITE));
+            members.saveAll(rows);
+        }
+        if (loans.count() < SEED_ROWS * 4) {
+            List<Integer> bookIds = ids(books.findPage(PageRequest.after(Sort.by("id"), null, Page.MAX_SIZE)).getItems(), Book::getId);
+            List<Integer> memberIds = ids(members.findPage(PageRequest.after(Sort.by("id"), null, Page.MAX_SIZE)).getItems(), Member::getId);
+            List<Loan> rows = new ArrayList<>();
+            LocalDate start = LocalDate.of(2024, 1, 1);
+            for (int i = 0; i < SEED_ROWS * 4; i++) {
+                Loan loan = new Loan(memberIds.get(i % memberIds.size()), bookIds.get(i * 7 % bookIds.size()),
+                        start.plusDays(i % 365), start.plusDays(i % 365 + 14));
+                loan.setReturned(i % 3 != 0);
+                rows.add(loan);
+            }
+            loans.saveAll(rows);
+        }
+        try (Connection c = factory.open(); Statement st = c.createStatement()) {
+            st.execute(factory.isPostgres() ? "ANALYZE" : "ANALYZE TABLE book, member, loan");
+        }
+    }
+
+    private static <T> List<Integer> ids(List<T> rows, Function<T, Integer> id) {
+        List<Integer> out = new ArrayList<>();
+        for (T row : rows) out.add(id.apply(row));
+        return out;
+    }
+
+    // Every read the application issues against a filtered or ordered slice of a table
+    private static void runRepositoryReads(JdbcTemplateLight jdbc) throws Exception {
+        BookjdbcRepository books = new BookjdbcRepository(jdbc, factory.getDialect());
+        MemberjdbcRepository members = new MemberjdbcRepository(jdbc, factory.getDialect());
+        LoanjdbcRepository loans = new LoanjdbcRepository(jdbc);
+        UserjdbcRepository users = new UserjdbcRepository(jdbc, factory.getDialect());
+        LocalDate day = LocalDate.of(2024, 5, 1);
+
+        Book book = books.findPage(PageRequest.after(null, null, 1)).getItems().get(0);
+        books.findById(book.getId());
+        books.findByIsbn(book.getIsbn());
+        books.findByIsbns(List.of(book.getIsbn(), "978-0"));
+        books.count();
+        pages(s -> books.findPage(s), "id", "title", "author", "isbn", "stock");
+
+        Member member = members.findPage(PageRequest.after(null, null, 1)).getItems().get(0);
+        members.findById(member.getId());
+        members.findAllActive();
+        members.count();
+        pages(s -> members.findPage(s), "id", "name");
+
+        Loan loan = loans.findPage(PageRequest.after(null, null, 1)).getItems().get(0);
+        loans.findById(loan.getId());
+        loans.findByMemberId(loan.getMemberId());
+        loans.findByBookId(loan.getBookId());
+        loans.findActiveLoansByMemberId(loan.getMemberId());
+        loans.findActiveLoansByBookId(loan.getBookId());
+        loans.countActiveLoansByMemberId(loan.getMemberId());
+        loans.hasActiveLoan(loan.getMemberId(), loan.getBookId());
+        loans.findOverdueLoans();
+        try (Stream<Loan> overdue = loans.streamOverdue(day)) {
+            overdue.limit(1).count();
+        }
+        loans.findByDateRange(day, day.plusDays(7));
+        loans.count();
+        pages(s -> loans.findPage(s), "id", "dateLoaned", "dateDue", "memberId", "bookId");
+
+        users.findByEmail("nobody@novabook.local");
+    }
+
+    // First page, the following page (keyset) and an OFFSET jump, in both directions
+    private static void pages(Function<PageRequest, Page<?>> find, String... properties) {
+        for (String property : properties) {
+            for (Sort sort : List.of(Sort.by(property), Sort.byDescending(property))) {
+                Page<?> first = find.apply(PageRequest.after(sort, null, 2));
+                if (first.getNextToken() != null) find.apply(PageRequest.after(sort, first.getNextToken(), 2));
+                find.apply(PageRequest.at(sort, 100, 2));
+            }
+        }
+    }
+
+    private static Connection recording(Connection c) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(c, method, args);
+                    if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement) {
+                        return recording((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement recording(PreparedStatement ps, String sql) {
+        List<Call> calls = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        calls.add(new Call(method, args));
+                    } else if (name.equals("executeQuery") && args == null && sql.trim().startsWith("SELECT")) {
+                        synchronized (recorded) {
+                            recorded.putIfAbsent(sql, new ArrayList<>(calls));
+                        }
+                    }
+                    return invoke(ps, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Exception {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        }
+    }
+
+    @Test
+    void everyRecordedStatementUsesAnIndex() throws Exception {
+        assertTrue(recorded.size() > 20, "only " + recorded.size() + " statements recorded");
+        List<String> unindexed = new ArrayList<>();
+        for (Map.Entry<String, List<Call>> e : recorded.entrySet()) {
+            String plan = explain(e.getKey(), e.getValue());
+            if (plan.contains("Seq Scan") || plan.contains("ALL null")) {
+                unindexed.add(e.getKey() + "\n" + plan);
+            }
+        }
+        assertTrue(unindexed.isEmpty(), "Statements without an index:\n" + String.join("\n", unindexed));
+    }
+
+    private static String explain(String sql, List<Call> params) throws Exception {
+        try (Connection c = factory.open()) {
+            if (factory.isPostgres()) {
+                // Ask whether an index could serve the statement, whatever the table size
+                try (Statement st = c.createStatement()) {
+                    st.execute("SET enable_seqscan = off");
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement("EXPLAIN " + sql)) {
+                for (Call call : params) invoke(ps, call.method, call.args);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (factory.isPostgres()) {
+                            plan.append(rs.getString(1)).append('\n');
+                        } else {
+                            plan.append(rs.getString("type")).append(' ').append(rs.getString("possible_keys"))
+                                    .append(' ').append(rs.getString("key")).append('\n');
+                        }
+                    }
+                }
+                return plan.toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.jdbc.SchemaMigrator;
+import com.codeup.novabook.jdbc.SqlDialect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SchemaMigratorTest {
+
+    private ConnectionFactory factory;
+    private Statement statement;
+    private PreparedStatement record;
+    private final List<String> executed = new ArrayList<>();
+    private final List<Integer> appliedVersions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        factory = mock(ConnectionFactory.class);
+        Connection c = mock(Connection.class);
+        statement = mock(Statement.class);
+        record = mock(PreparedStatement.class);
+        when(factory.getDialect()).thenReturn(SqlDialect.MYSQL);
+        when(factory.open()).thenReturn(c);
+        when(c.createStatement()).thenReturn(statement);
+        when(c.prepareStatement(startsWith("INSERT INTO schema_version"))).thenReturn(record);
+        when(statement.execute(anyString())).thenAnswer(inv -> executed.add(inv.getArgument(0)));
+        when(statement.executeQuery("SELECT version, checksum FROM schema_version")).thenAnswer(inv -> history());
+    }
+
+    // Recorded versions whose checksum matches nothing, so the migrator also logs the mismatch
+    private ResultSet history() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        int[] row = {-1};
+        when(rs.next()).thenAnswer(inv -> ++row[0] < appliedVersions.size());
+        when(rs.getInt(1)).thenAnswer(inv -> appliedVersions.get(row[0]));
+        when(rs.getLong(2)).thenReturn(0L);
+        return rs;
+    }
+
+    private long executed(String prefix) {
+        return executed.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+
+    @Test
+    void freshDatabaseGetsEveryScriptInOrderAndRecordsIt() throws Exception {
+        assertEquals(3, new SchemaMigrator(factory).migrate());
+
+        assertTrue(executed.get(0).startsWith("CREATE TABLE IF NOT EXISTS schema_version"));
+        assertEquals(5, executed("CREATE TABLE"));
+        assertEquals(10, executed("CREATE INDEX"));
+        assertTrue(executed.indexOf("CREATE INDEX idx_loan_member_returned ON loan (member_id, returned, date_loaned)")
+                > executed.indexOf("CREATE INDEX idx_book_title_id ON book (title, id)"));
+        verify(record).setInt(1, 1);
+        verify(record).setInt(1, 2);
+        verify(record).setInt(1, 3);
+        verify(record, times(3)).executeUpdate();
+        assertTrue(executed.indexOf("UPDATE loan SET returned = FALSE WHERE returned IS NULL")
+                < executed.indexOf("ALTER TABLE loan MODIFY returned BOOLEAN NOT NULL DEFAULT FALSE"));
+    }
+
+    @Test
+    void appliedVersionsAreSkipped() throws Exception {
+        appliedVersions.add(1);
+
+        assertEquals(2, new SchemaMigrator(factory).migrate());
+
+        assertEquals(1, executed("CREATE TABLE"));
+        assertEquals(3, executed("CREATE INDEX"));
+        verify(record).setInt(1, 2);
+        verify(record, times(2)).executeUpdate();
+    }
+
+    @Test
+    void existingIndexesFromAHandMadeSchemaAreTolerated() throws Exception {
+        when(statement.execute(startsWith("CREATE INDEX idx_book"))).thenThrow(
+                new SQLException("Duplicate key name", "42000", 1061));
+
+        assertEquals(3, new SchemaMigrator(factory).migrate());
+        verify(record, times(3)).executeUpdate();
+    }
+
+    @Test
+    void failingStatementStopsWithoutRecordingTheVersion() throws Exception {
+        when(statement.execute(startsWith("CREATE INDEX idx_loan_book_returned"))).thenThrow(
+                new SQLException("Lock wait timeout exceeded", "HY000", 1205));
+
+        DatabaseException ex = assertThrows(DatabaseException.class, () -> new SchemaMigrator(factory).migrate());
+        assertTrue(ex.getMessage().contains("V2__query_indexes"));
+        verify(record).setInt(1, 1);
+        verify(record, times(1)).executeUpdate();
+    }
+}
@@ -0,0 +1,84 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.RowMapper;
+import com.codeup.novabook.jdbc.SqlDialect;
+import com.codeup.novabook.repository.impl.BookjdbcRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SqlDialectTest {
+
+    private static AppConfig config(String vendor, String url) {
+        AppConfig config = mock(AppConfig.class);
+        when(config.getBoolean(anyString(), anyBoolean())).thenAnswer(inv -> inv.getArgument(1));
+        when(config.get("db.vendor")).thenReturn(vendor);
+        when(config.get("db.url")).thenReturn(url);
+        when(config.get("db.host")).thenReturn("localhost");
+        when(config.get("db.port")).thenReturn("5432");
+        when(config.get("db.name")).thenReturn("novabook");
+        return config;
+    }
+
+    @Test
+    void vendorPicksDialectAndUrlPrefixIsTheFallback() {
+        assertSame(SqlDialect.POSTGRES, SqlDialect.forVendor("postgres", null));
+        assertSame(SqlDialect.POSTGRES, SqlDialect.forVendor(" PostgreSQL ", "jdbc:mysql://x/db"));
+        assertSame(SqlDialect.MYSQL, SqlDialect.forVendor("mysql", "jdbc:postgresql://x/db"));
+        assertSame(SqlDialect.POSTGRES, SqlDialect.forVendor(null, "jdbc:postgresql://x/db"));
+        assertSame(SqlDialect.MYSQL, SqlDialect.forVendor(null, null));
+    }
+
+    @Test
+    void connectionFactoryExposesItsDialect() {
+        ConnectionFactory pg = new ConnectionFactory(config("postgres", null));
+        assertSame(SqlDialect.POSTGRES, pg.getDialect());
+        assertTrue(pg.isPostgres());
+        assertFalse(pg.isMysql());
+
+        ConnectionFactory mysql = new ConnectionFactory(config(null, null));
+        assertSame(SqlDialect.MYSQL, mysql.getDialect());
+        assertTrue(mysql.isMysql());
+        assertSame(SqlDialect.MYSQL, new JdbcTemplateLight(mysql).dialect());
+    }
+
+    @Test
+    void upsertClausesFollowTheVendor() {
+        assertEquals(" ON DUPLICATE KEY UPDATE title = VALUES(title), stock = VALUES(stock)",
+                SqlDialect.MYSQL.onConflictUpdate(List.of("isbn"), List.of("title", "stock")));
+        assertEquals(" ON CONFLICT (isbn) DO UPDATE SET title = EXCLUDED.title, stock = EXCLUDED.stock",
+                SqlDialect.POSTGRES.onConflictUpdate(List.of("isbn"), List.of("title", "stock")));
+        assertTrue(SqlDialect.POSTGRES.upsertNeedsDistinctKeys());
+        assertFalse(SqlDialect.MYSQL.upsertNeedsDistinctKeys());
+        assertTrue(SqlDialect.MYSQL.nullsSortFirst());
+        assertFalse(SqlDialect.POSTGRES.nullsSortFirst());
+    }
+
+    @Test
+    void insertReturningOnlyOnPostgres() {
+        String insert = "INSERT INTO book (isbn) VALUES (?)";
+        assertEquals(insert + " RETURNING id", SqlDialect.POSTGRES.insertReturning(insert, "id"));
+        assertNull(SqlDialect.MYSQL.insertReturning(insert, "id"));
+    }
+
+    @Test
+    void titleSearchUsesIlikeOnPostgresAndTheCollationOnMysql() {
+        JdbcTemplateLight jdbc = mock(JdbcTemplateLight.class);
+        when(jdbc.query(anyString(), any(), any())).thenAnswer(inv -> List.of());
+        when(jdbc.dialect()).thenReturn(SqlDialect.POSTGRES);
+
+        new BookjdbcRepository(jdbc, SqlDialect.POSTGRES).findByTitle("dune");
+        new BookjdbcRepository(jdbc).findByTitle("dune"); // takes the template's dialect
+        verify(jdbc, times(2)).query(eq("SELECT * FROM book WHERE title ILIKE ? ORDER BY title"), any(), any(RowMapper.class));
+
+        new BookjdbcRepository(jdbc, SqlDialect.MYSQL).findByTitle("dune");
+        verify(jdbc).query(eq("SELECT * FROM book WHERE title LIKE ? ORDER BY title"), any(), any(RowMapper.class));
+    }
+}
@@ -0,0 +1,139 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.connection.ConnectionFactory;
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.jdbc.JdbcTemplateLight;
+import com.codeup.novabook.jdbc.SqlMetrics;
+import com.codeup.novabook.jdbc.SqlStatementStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SqlMetricsTest {
+
+    private static final String SELECT = "SELECT * FROM book WHERE isbn = ?";
+    private static final String UPDATE = "UPDATE book SET stock = ? WHERE id = ?";
+
+    private final Logger slowLog = Logger.getLogger(SqlMetrics.class.getName() + ".slow");
+    private final List<String> slow = new ArrayList<>();
+    private final Handler capture = new Handler() {
+        @Override public void publish(LogRecord r) { slow.add(MessageFormat.format(r.getMessage(), r.getParameters())); }
+        @Override public void flush() { }
+        @Override public void close() { }
+    };
+
+    private ConnectionFactory factory;
+    private PreparedStatement ps;
+    private ResultSet rs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        slowLog.addHandler(capture);
+        factory = mock(ConnectionFactory.class);
+        Connection conn = mock(Connection.class);
+        ps = mock(PreparedStatement.class);
+        rs = mock(ResultSet.class);
+        when(factory.open()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(ps);
+        when(ps.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, false);
+        when(ps.executeUpdate()).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowLog.removeHandler(capture);
+    }
+
+    private static void bind(PreparedStatement ps, String isbn) {
+        try { ps.setString(1, isbn); } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+
+    @Test
+    void recordsCallsRowsAndErrorsPerStatement() throws Exception {
+        SqlMetrics metrics = new SqlMetrics(60_000, false);
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory, 100, metrics);
+
+        assertEquals(2, jdbc.query(SELECT, p -> bind(p, "978-1"), r -> "row").size());
+        jdbc.update(UPDATE, null);
+        when(ps.executeUpdate()).thenThrow(new SQLException("Deadlock found", "40001", 1213));
+        assertThrows(DatabaseException.class, () -> jdbc.update(UPDATE, null));
+
+        SqlStatementStats select = metrics.get(SELECT);
+        assertEquals(1, select.getCalls());
+        assertEquals(2, select.getRows());
+        assertEquals(0, select.getErrors());
+        SqlStatementStats update = metrics.get(UPDATE);
+        assertEquals(2, update.getCalls());
+        assertEquals(1, update.getRows());
+        assertEquals(1, update.getErrors());
+        assertTrue(update.getP99Millis() <= update.getMaxMillis());
+        assertEquals(3, metrics.getTotalCalls());
+        assertTrue(metrics.dump().contains(UPDATE));
+        assertTrue(slow.isEmpty());
+    }
+
+    @Test
+    void slowQueriesAreLoggedWithTheirParameters() throws Exception {
+        SqlMetrics metrics = new SqlMetrics(0, false);
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory, 100, metrics);
+
+        jdbc.query(SELECT, p -> bind(p, "978-1"), r -> "row");
+
+        assertEquals(1, slow.size());
+        assertTrue(slow.get(0).contains(SELECT), slow.get(0));
+        assertTrue(slow.get(0).contains("[1='978-1']"), slow.get(0));
+        assertEquals(1, metrics.get(SELECT).getSlowCalls());
+        // The binder ran once for real and once against the recorder
+        verify(ps, times(1)).setString(1, "978-1");
+    }
+
+    @Test
+    void redactedParametersShowOnlyTheirType() throws Exception {
+        SqlMetrics metrics = new SqlMetrics(0, true);
+        JdbcTemplateLight jdbc = new JdbcTemplateLight(factory, 100, metrics);
+
+        jdbc.query(SELECT, p -> bind(p, "secret@example.com"), r -> "row");
+
+        assertFalse(slow.get(0).contains("secret"), slow.get(0));
+        assertTrue(slow.get(0).contains("[1=<String>]"), slow.get(0));
+    }
+
+    @Test
+    void configuredMetricsAreExposedOverJmx() throws Exception {
+        AppConfig config = mock(AppConfig.class);
+        when(config.getBoolean(anyString(), anyBoolean())).thenAnswer(inv -> inv.getArgument(1));
+        when(config.getLong(anyString(), anyLong())).thenAnswer(inv -> inv.getArgument(1));
+        when(config.getLong(eq("db.metrics.dumpIntervalSeconds"), anyLong())).thenReturn(0L);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.codeup.novabook:type=SqlMetrics");
+
+        try (SqlMetrics metrics = SqlMetrics.fromConfig(config)) {
+            new JdbcTemplateLight(factory, 100, metrics).update(UPDATE, null);
+
+            assertEquals(1L, server.getAttribute(name, "TotalCalls"));
+            assertEquals(500L, server.getAttribute(name, "SlowQueryThresholdMillis"));
+            assertEquals(1, server.queryNames(new ObjectName("com.codeup.novabook:type=SqlStatement,*"), null).size());
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
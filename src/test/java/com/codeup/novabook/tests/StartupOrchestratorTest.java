@@ -0,0 +1,76 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.infra.StartupOrchestrator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupOrchestratorTest {
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS), "timed out");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void independentStepsRunAtTheSameTimeAndDependentsWait() throws Exception {
+        // Each of the two steps only finishes once the other has started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<String> order = new CopyOnWriteArrayList<>();
+        StartupOrchestrator startup = new StartupOrchestrator()
+                .step("preflight", () -> { bothStarted.countDown(); await(bothStarted); order.add("preflight"); })
+                .step("migrate", () -> { bothStarted.countDown(); await(bothStarted); order.add("migrate"); })
+                .step("admin seed", () -> order.add("admin seed"), "migrate");
+
+        startup.start().get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, order.size());
+        assertTrue(order.indexOf("admin seed") > order.indexOf("migrate"));
+        assertEquals(3, startup.timings().size());
+    }
+
+    @Test
+    void startReturnsBeforeTheStepsFinish() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StartupOrchestrator startup = new StartupOrchestrator().step("slow", () -> await(release));
+
+        var ready = startup.start();
+
+        assertFalse(ready.isDone());
+        release.countDown();
+        ready.get(5, TimeUnit.SECONDS);
+        assertTrue(startup.timings().containsKey("slow"));
+    }
+
+    @Test
+    void aFailedStepIsLoggedAndItsDependentsStillRun() throws Exception {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        StartupOrchestrator startup = new StartupOrchestrator()
+                .step("migrate", () -> { throw new IllegalStateException("Communications link failure"); })
+                .step("search index", () -> ran.add("search index"), "migrate");
+
+        startup.start().get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("search index"), ran);
+        assertTrue(startup.timings().containsKey("migrate"));
+    }
+
+    @Test
+    void dependenciesMustBeAddedFirst() {
+        StartupOrchestrator startup = new StartupOrchestrator();
+
+        assertThrows(IllegalArgumentException.class, () -> startup.step("admin seed", () -> { }, "migrate"));
+        startup.step("migrate", () -> { });
+        assertThrows(IllegalArgumentException.class, () -> startup.step("migrate", () -> { }));
+        startup.start();
+        assertThrows(IllegalStateException.class, () -> startup.step("late", () -> { }));
+    }
+}
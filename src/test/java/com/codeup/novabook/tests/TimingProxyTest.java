@@ -0,0 +1,123 @@
+package com.codeup.novabook.tests;
+
+import com.codeup.novabook.exception.DatabaseException;
+import com.codeup.novabook.infra.config.AppConfig;
+import com.codeup.novabook.infra.metrics.MetricsRegistry;
+import com.codeup.novabook.infra.metrics.OperationStats;
+import com.codeup.novabook.infra.metrics.ServiceMetrics;
+import com.codeup.novabook.infra.metrics.TimingProxy;
+import com.codeup.novabook.service.ILoanService;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TimingProxyTest {
+
+    private static final String BORROW = "ILoanService.borrowBook";
+
+    @Test
+    void callsAndErrorsAreCountedPerMethodAndExceptionsPassThrough() {
+        ILoanService target = mock(ILoanService.class);
+        when(target.returnBook(5)).thenReturn(true);
+        when(target.returnBook(6)).thenThrow(new DatabaseException("Loan not found: 6"));
+        ServiceMetrics metrics = new ServiceMetrics();
+        ILoanService loans = TimingProxy.wrap(ILoanService.class, target, metrics);
+
+        assertTrue(loans.returnBook(5));
+        DatabaseException ex = assertThrows(DatabaseException.class, () -> loans.returnBook(6));
+        assertEquals("Loan not found: 6", ex.getMessage());
+        loans.count();
+
+        OperationStats returns = metrics.get("ILoanService.returnBook");
+        assertEquals(2, returns.getCalls());
+        assertEquals(1, returns.getErrors());
+        assertEquals(0.5, returns.getErrorRate());
+        assertEquals(0, returns.getInFlight());
+        assertEquals(1, metrics.get("ILoanService.count").getCalls());
+        assertNull(metrics.get(BORROW));
+        assertTrue(metrics.dump().contains("ILoanService.returnBook"));
+        // Object methods are answered by the proxy and not timed
+        assertEquals(loans, loans);
+        assertEquals(2, metrics.getOperationCount());
+    }
+
+    @Test
+    void concurrentCallsAreTrackedInFlight() throws Exception {
+        CountDownLatch entered = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        ILoanService target = mock(ILoanService.class);
+        when(target.borrowBook(anyInt(), anyInt(), any())).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        ServiceMetrics metrics = new ServiceMetrics();
+        ILoanService loans = TimingProxy.wrap(ILoanService.class, target, metrics);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            for (int i = 0; i < 3; i++) {
+                pool.submit(() -> loans.borrowBook(1, 10, LocalDate.now()));
+            }
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            assertEquals(3, metrics.get(BORROW).getInFlight());
+            release.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        }
+
+        OperationStats borrows = metrics.get(BORROW);
+        assertEquals(0, borrows.getInFlight());
+        assertEquals(3, borrows.getMaxInFlight());
+        assertEquals(3, borrows.getCalls());
+        assertTrue(borrows.getP99Millis() <= borrows.getMaxMillis());
+    }
+
+    @Test
+    void anyRegistryCanReceiveTheTimings() {
+        List<String> seen = new ArrayList<>();
+        MetricsRegistry registry = new MetricsRegistry() {
+            @Override public void started(String operation) { seen.add("start " + operation); }
+            @Override public void finished(String operation, long nanos, boolean failed) {
+                seen.add("end " + operation + (failed ? " failed" : ""));
+            }
+        };
+        ILoanService loans = TimingProxy.wrap(ILoanService.class, mock(ILoanService.class), registry);
+
+        loans.hasActiveLoan(1, 10);
+
+        assertEquals(List.of("start ILoanService.hasActiveLoan", "end ILoanService.hasActiveLoan"), seen);
+    }
+
+    @Test
+    void operationsArePublishedOverJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName operation = new ObjectName("com.codeup.novabook:type=ServiceOperation,name=" + BORROW);
+        AppConfig config = mock(AppConfig.class);
+        when(config.getBoolean(anyString(), anyBoolean())).thenAnswer(inv -> inv.getArgument(1));
+        when(config.getBoolean(eq("metrics.services.enabled"), anyBoolean())).thenReturn(true);
+        when(config.getLong(anyString(), anyLong())).thenReturn(0L);
+
+        try (ServiceMetrics metrics = ServiceMetrics.fromConfig(config)) {
+            ILoanService loans = TimingProxy.wrap(ILoanService.class, mock(ILoanService.class), metrics);
+            loans.borrowBook(1, 10, LocalDate.now());
+
+            assertEquals(1L, server.getAttribute(operation, "Calls"));
+            assertEquals(1L, server.getAttribute(new ObjectName("com.codeup.novabook:type=ServiceMetrics"), "TotalCalls"));
+        }
+        assertFalse(server.isRegistered(operation));
+    }
+}